@@ -1,9 +1,12 @@
 package controllers;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import models.Cliente;
-import data.DataManager;
+import data.BulkImporter;
+import data.ClienteRepository;
+import data.ImportReport;
 
 public class ClienteController {
 
@@ -12,7 +15,7 @@ public class ClienteController {
             String correoElectronico) throws Exception {
 
         // Validaciones
-        if (consultarCliente(identificacion) != null) {
+        if (ClienteRepository.existe(identificacion)) {
             throw new Exception("El cliente ya existe");
         }
 
@@ -42,15 +45,13 @@ public class ClienteController {
 
         Cliente cliente = new Cliente(identificacion, tipoIdentificacion, nombres,
                 apellidos, telefono, correoElectronico);
-        DataManager.guardarCliente(cliente);
+        if (!ClienteRepository.agregar(cliente)) {
+            throw new Exception("El cliente ya existe");
+        }
     }
 
     public static Cliente consultarCliente(String identificacion) throws IOException {
-        List<Cliente> clientes = DataManager.cargarClientes();
-        return clientes.stream()
-                .filter(c -> c.getIdentificacion().equals(identificacion))
-                .findFirst()
-                .orElse(null);
+        return ClienteRepository.buscar(identificacion);
     }
 
     public static void actualizarCliente(
@@ -58,8 +59,7 @@ public class ClienteController {
             String nombres, String apellidos, String telefono,
             String correoElectronico
         ) throws Exception {
-        Cliente cliente = consultarCliente(identificacion);
-        if (cliente == null) {
+        if (!ClienteRepository.existe(identificacion)) {
             throw new Exception("Cliente no encontrado");
         }
 
@@ -84,20 +84,32 @@ public class ClienteController {
             throw new Exception("Correo electrónico inválido");
         }
 
-        cliente.setTipoIdentificacion(tipoIdentificacion);
-        cliente.setNombres(nombres);
-        cliente.setApellidos(apellidos);
-        cliente.setTelefono(telefono);
-        cliente.setCorreoElectronico(correoElectronico);
-
-        DataManager.actualizarCliente(cliente);
+        // Se construye un nuevo objeto para no alterar el cliente residente si la escritura falla.
+        // modificar verifica que el cliente siga existiendo bajo el candado de su identificación.
+        Cliente cliente = ClienteRepository.modificar(identificacion, actual -> new Cliente(
+                identificacion, tipoIdentificacion, nombres, apellidos, telefono, correoElectronico));
+        if (cliente == null) {
+            throw new Exception("Cliente no encontrado");
+        }
     }
 
     public static void eliminarCliente(String identificacion) throws IOException {
-        DataManager.eliminarCliente(identificacion);
+        ClienteRepository.eliminar(identificacion);
     }
 
     public static List<Cliente> listarClientes() throws IOException {
-        return DataManager.cargarClientes();
+        return ClienteRepository.listar();
+    }
+
+    /**
+     * Importa clientes de forma masiva desde un archivo con el formato de almacenamiento.
+     * Las líneas inválidas o repetidas se omiten y se reportan en el resultado.
+     *
+     * @param rutaArchivo Ruta del archivo a importar
+     * @return El reporte de la importación
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir los datos
+     */
+    public static ImportReport importarClientes(String rutaArchivo) throws IOException {
+        return BulkImporter.importarClientes(Paths.get(rutaArchivo));
     }
 }
\ No newline at end of file
@@ -1,16 +1,20 @@
 package controllers;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import models.Producto;
-import data.DataManager;
+import data.BulkImporter;
+import data.ProductoRepository;
+import data.ImportReport;
+import utils.Validators;
 
 public class ProductoController {
     
     public static void crearProducto(String codigo, String nombre, float precioVenta) throws Exception {
         // Validaciones
 
-        if (consultarProducto(codigo) != null) {
+        if (ProductoRepository.existe(codigo)) {
             throw new Exception("El producto ya existe");
         }
 
@@ -18,11 +22,11 @@ public class ProductoController {
             throw new Exception("El código debe tener 5 caracteres");
         }
         
-        if (!codigo.substring(0, 2).matches("[a-zA-Z]+")) {
+        if (!Validators.sonLetras(codigo, 0, 2)) {
             throw new Exception("Los dos primeros caracteres del código deben ser letras");
         }
         
-        if (!codigo.substring(2).matches("\\d+")) {
+        if (!Validators.sonDigitos(codigo, 2, codigo.length())) {
             throw new Exception("Los últimos tres caracteres del código deben ser números");
         }
         
@@ -35,20 +39,18 @@ public class ProductoController {
         }
 
         Producto producto = new Producto(codigo, nombre, precioVenta);
-        DataManager.guardarProducto(producto);
+        if (!ProductoRepository.agregar(producto)) {
+            throw new Exception("El producto ya existe");
+        }
     }
 
     public static Producto consultarProducto(String codigo) throws IOException {
-        List<Producto> productos = DataManager.cargarProductos();
-        return productos.stream()
-                       .filter(p -> p.getCodigo().equals(codigo))
-                       .findFirst()
-                       .orElse(null);
+        return ProductoRepository.buscar(codigo);
     }
 
     public static void actualizarProducto(String codigo, String nombre, float precioVenta) throws Exception {
-        Producto producto = consultarProducto(codigo);
-        if (producto == null) {
+        Producto actual = consultarProducto(codigo);
+        if (actual == null) {
             throw new Exception("Producto no encontrado");
         }
 
@@ -61,17 +63,32 @@ public class ProductoController {
             throw new Exception("El precio de venta debe ser mayor que 0");
         }
 
-        producto.setNombre(nombre);
-        producto.setPrecioVenta(precioVenta);
-
-        DataManager.actualizarProducto(producto);
+        // Se construye un nuevo objeto para no alterar el producto residente si la escritura falla.
+        // modificar verifica que el producto siga existiendo bajo el candado de su casilla.
+        Producto producto = ProductoRepository.modificar(codigo,
+                p -> new Producto(p.getCodigo(), nombre, precioVenta));
+        if (producto == null) {
+            throw new Exception("Producto no encontrado");
+        }
     }
 
     public static void eliminarProducto(String codigo) throws IOException {
-        DataManager.eliminarProducto(codigo);
+        ProductoRepository.eliminar(codigo);
     }
 
     public static List<Producto> listarProductos() throws IOException {
-        return DataManager.cargarProductos();
+        return ProductoRepository.listar();
+    }
+
+    /**
+     * Importa productos de forma masiva desde un archivo con el formato de almacenamiento.
+     * Las líneas inválidas o repetidas se omiten y se reportan en el resultado.
+     *
+     * @param rutaArchivo Ruta del archivo a importar
+     * @return El reporte de la importación
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir los datos
+     */
+    public static ImportReport importarProductos(String rutaArchivo) throws IOException {
+        return BulkImporter.importarProductos(Paths.get(rutaArchivo));
     }
 } 
\ No newline at end of file
@@ -2,16 +2,100 @@ package controllers;
 
 import java.io.*;
 import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import data.ClientSalesHistory;
+import data.SalesJournal;
+import data.SalesSnapshot;
+import data.SaleNumberAllocator;
+import data.SharedSequence;
 import models.Cliente;
+import models.PaginaVentas;
 import models.Producto;
 import models.Venta;
-import utils.BinaryTree;
+import models.VentaResumen;
+import utils.BestSellers;
+import utils.SalesAggregates;
+import utils.SalesColumns;
+import utils.SalesIndex;
+import utils.SalesReport;
+import utils.SalesSecondaryIndex;
+import utils.TicketParser;
+import utils.Validators;
 
 public class VentaController {
     private static final String VENTAS_DIR = "Ventas";
-    private static int contadorVentas = 0;
-    private static BinaryTree ventasTree;
+    // Mayor número de venta entre los tickets cargados al iniciar
+    private static long mayorNumeroCargado;
+    // Secuencia de números de venta compartida por todas las cajas que usan el directorio
+    private static final SharedSequence secuenciaVentas =
+        new SharedSequence(Paths.get(VENTAS_DIR, "secuencia.txt"), () -> mayorNumeroCargado);
+    // Reparte entre los hilos los números reservados de a bloques en la secuencia
+    private static final SaleNumberAllocator numerosVenta = new SaleNumberAllocator(secuenciaVentas);
+    // Diario de ventas: segmentos binarios de solo anexado con un índice por segmento
+    private static final SalesJournal diarioVentas = new SalesJournal(Paths.get(VENTAS_DIR, "diario"));
+    // Foto binaria de los resúmenes hasta una posición del diario, para no releer todo el historial
+    private static final SalesSnapshot fotoVentas = new SalesSnapshot(Paths.get(VENTAS_DIR));
+    // Ventas del diario que la foto no incluye a partir de las cuales conviene renovarla
+    private static final int UMBRAL_RENOVACION = 2_000;
+    private static final AtomicInteger ventasFueraDeFoto = new AtomicInteger();
+    // Historial de compras de cada cliente en disco, para consultarlo por páginas
+    private static final ClientSalesHistory historialClientes =
+        new ClientSalesHistory(Paths.get(VENTAS_DIR, "historial"));
+    // La foto y el historial por cliente se crean o renuevan en segundo plano, de a una tarea
+    private static final ExecutorService RENOVADOR_FOTO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "foto-ventas");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final AtomicBoolean renovacionPendiente = new AtomicBoolean();
+    private static final AtomicBoolean historialPendiente = new AtomicBoolean();
+    // Detalle completo de las últimas ventas consultadas (LRU); los índices solo guardan resúmenes
+    private static final int DETALLES_EN_MEMORIA = 256;
+    private static final Map<String, Venta> detallesRecientes = Collections.synchronizedMap(
+        new LinkedHashMap<String, Venta>(DETALLES_EN_MEMORIA * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Venta> eldest) {
+                return size() > DETALLES_EN_MEMORIA;
+            }
+        });
+    private static SalesIndex ventasIndex;
+    // Índices por cliente, hora y producto, actualizados junto con ventasIndex
+    private static SalesSecondaryIndex ventasSecundarias;
+    // Totales por hora, día y producto, actualizados al finalizar cada venta
+    private static SalesAggregates agregadosVentas;
+    // Productos más vendidos de la última hora y el último día, actualizados al finalizar cada venta
+    private static final BestSellers masVendidos = new BestSellers();
+    // Líneas de venta en columnas para informes; se construye al pedirla por primera vez
+    private static volatile SalesColumns columnasVentas;
+    // Ventas finalizadas mientras se construyen las columnas (número -> venta)
+    private static Map<Long, Venta> ventasDuranteColumnas;
+    private static final Object CANDADO_COLUMNAS = new Object();
+    // Una sola construcción de las columnas a la vez; no es el candado de indexar, que el hilo
+    // escritor del diario necesita para confirmar las ventas mientras se construyen
+    private static final Object CONSTRUCCION_COLUMNAS = new Object();
+    // Espera máxima por las ventas encoladas al construir las columnas (milisegundos)
+    private static final long ESPERA_PENDIENTES = 10_000;
+    // Fechas extremas de los trozos de tickets de texto ya recorridos por un informe (ver
+    // SalesReport.particionesTickets), para omitir los que no tienen ventas del período
+    private static final Map<List<Path>, long[]> fechasTickets = new ConcurrentHashMap<>();
 
     static {
         inicializarVentas();
@@ -19,30 +103,199 @@ public class VentaController {
 
     /**
      * Inicializa el sistema de ventas:
-     * 1. Crea una nueva instancia del árbol binario de ventas.
-     * 2. Crea el directorio de ventas si no existe.
-     * 3. Cuenta la cantidad de archivos de ventas existentes (archivos que cumplen el patrón "VEN*.txt")
-     *    para mantener actualizado el contador de ventas.
-     * 4. Carga todas las ventas existentes desde los archivos del directorio al árbol binario.
-     * 5. Si ocurre algún error, imprime el mensaje y termina la aplicación.
+     * 1. Crea el directorio de ventas si no existe.
+     * 2. Carga la foto binaria de ventas y recorre el diario solo desde la posición de la
+     *    foto. Si no hay foto, lee los tickets de texto de versiones anteriores en un solo
+     *    recorrido del directorio, convirtiéndolos en paralelo (ver
+     *    TicketParser.loadFromDirectory), recorre todo el diario y crea la foto en segundo
+     *    plano.
+     * 3. Construye de una vez el índice de ventas (árbol rojo-negro ordenado por total y
+     *    número) y carga los índices secundarios por cliente, hora y producto. Los totales
+     *    por hora, día y producto vienen de la foto más las ventas posteriores del diario, o
+     *    se suman al leer cada venta si no hay foto.
+     * 4. Adelanta la secuencia compartida 'Ventas/secuencia.txt' hasta el mayor número de
+     *    venta leído, para que la próxima venta reciba el número siguiente, y registra en los
+     *    más vendidos las ventas del último día.
+     * 5. Informa la cantidad de tickets cargados y la velocidad de carga.
+     * 6. Pone al día en segundo plano el historial de compras por cliente (lo crea la
+     *    primera vez).
+     * 7. Si ocurre algún error, imprime el mensaje y termina la aplicación.
      */
     private static void inicializarVentas() {
-        ventasTree = new BinaryTree();
-        // Crear directorio de ventas si no existe
+        ventasIndex = new SalesIndex();
+        ventasSecundarias = new SalesSecondaryIndex();
+        agregadosVentas = new SalesAggregates();
         try {
+            // Crear directorio de ventas si no existe
             Files.createDirectories(Paths.get(VENTAS_DIR));
-            // Contar ventas existentes
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(VENTAS_DIR), "VEN*.txt")) {
-                stream.forEach(path -> contadorVentas++);
+            long inicio = System.nanoTime();
+            // Cargar ventas existentes en los índices
+            List<VentaResumen> ventas;
+            String origen;
+            SalesSnapshot.Carga carga = fotoVentas.cargar();
+            if (carga != null) {
+                ventas = carga.getVentas();
+                agregadosVentas = carga.getAgregados();
+                int deLaFoto = ventas.size();
+                leerDiario(carga.getPosicion(), ventas, agregadosVentas);
+                int delDiario = ventas.size() - deLaFoto;
+                origen = String.format("%,d de la foto y %,d del diario", deLaFoto, delDiario);
+                if (ventasFueraDeFoto.addAndGet(delDiario) >= UMBRAL_RENOVACION) {
+                    renovarFoto();
+                }
+            } else {
+                SalesAggregates agregados = new SalesAggregates();
+                // La conversión es en paralelo; los totales admiten varios hilos a la vez. Es una
+                // clase anónima y no una lambda: corre en los hilos del ForkJoinPool mientras se
+                // inicializa esta clase, y el cuerpo de una lambda sería un método estático de
+                // VentaController, que esperaría a que termine la inicialización
+                ventas = TicketParser.loadFromDirectory(VENTAS_DIR, new Function<Venta, VentaResumen>() {
+                    @Override
+                    public VentaResumen apply(Venta venta) {
+                        agregados.registrar(venta);
+                        return VentaResumen.de(venta);
+                    }
+                });
+                int tickets = ventas.size();
+                long posicion = leerDiario(0, ventas, agregados);
+                origen = String.format("%,d tickets de texto y %,d del diario, sin foto",
+                    tickets, ventas.size() - tickets);
+                // La foto se crea con una copia: los totales en uso ya pueden recibir ventas nuevas
+                agregadosVentas = agregados.copiar();
+                List<VentaResumen> todas = ventas;
+                RENOVADOR_FOTO.execute(() -> {
+                    try {
+                        fotoVentas.crear(todas, agregados, posicion);
+                    } catch (IOException e) {
+                        System.err.println("Error al crear la foto de ventas: " + e.getMessage());
+                    }
+                });
+            }
+            ventasIndex = SalesIndex.build(ventas);
+            long mayor = 0;
+            for (VentaResumen venta : ventas) {
+                ventasSecundarias.insert(venta);
+                mayor = Math.max(mayor, venta.getNumero());
             }
-            // Cargar ventas existentes en el árbol binario
-            ventasTree.loadFromDirectory(VENTAS_DIR);
+            mayorNumeroCargado = mayor;
+            secuenciaVentas.avanzarHasta(mayor);
+            cargarMasVendidos();
+            long nanos = System.nanoTime() - inicio;
+            System.out.printf("Ventas cargadas: %,d (%s) en %,d ms (%,.0f ventas/s)%n",
+                ventas.size(), origen, nanos / 1_000_000, ventas.size() * 1e9 / Math.max(nanos, 1));
+            ponerAlDiaHistorial();
         } catch (IOException e) {
             System.err.println("Error al inicializar el directorio de ventas: " + e.getMessage());
             System.exit(1);
         }
     }
 
+    /**
+     * Registra en los más vendidos las ventas del último día, leyendo su detalle del diario
+     * (los índices solo tienen resúmenes). Cuesta lo que cuesta leer las ventas de un día.
+     */
+    private static void cargarMasVendidos() throws IOException {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<VentaResumen> recientes;
+        synchronized (VentaController.class) {
+            recientes = ventasSecundarias.entre(ahora.minusDays(1), ahora.plusHours(1));
+        }
+        for (VentaResumen resumen : recientes) {
+            Venta venta = leerVenta(resumen.getNumeroVenta());
+            if (venta != null) {
+                masVendidos.registrar(venta);
+            }
+        }
+    }
+
+    /**
+     * Agrega los resúmenes de las ventas del diario a partir de una posición y las suma a los
+     * totales.
+     * @return Posición del diario después de la última venta leída
+     */
+    private static long leerDiario(long desde, List<VentaResumen> destino, SalesAggregates agregados)
+            throws IOException {
+        return diarioVentas.recorrer(desde, venta -> {
+            destino.add(VentaResumen.de(venta));
+            agregados.registrar(venta);
+        });
+    }
+
+    /**
+     * Anexa al historial por cliente las ventas del diario que aún no tiene. Si el historial
+     * no existe, lo crea con los tickets de texto, en orden de número, y todo el diario.
+     */
+    private static void actualizarHistorial() throws IOException {
+        historialClientes.actualizar(diarioVentas::recorrerConPosiciones, destino -> {
+            List<VentaResumen> tickets = TicketParser.loadFromDirectory(VENTAS_DIR, VentaResumen::de);
+            tickets.sort(Comparator.comparingLong(VentaResumen::getNumero));
+            for (VentaResumen ticket : tickets) {
+                long numero = ticket.getNumero();
+                if (numero > 0) {
+                    destino.accept(ticket.getIdentificacionCliente(), numero);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pone al día el historial por cliente en segundo plano. Si ya hay una puesta al día
+     * esperando, no se agenda otra.
+     */
+    private static void ponerAlDiaHistorial() {
+        if (!historialPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        RENOVADOR_FOTO.execute(() -> {
+            historialPendiente.set(false);
+            try {
+                actualizarHistorial();
+            } catch (IOException e) {
+                System.err.println("Error al actualizar el historial de clientes: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Renueva la foto de ventas en segundo plano agregándole las ventas del diario que aún
+     * no incluye, y pone al día el historial por cliente. Si ya hay una renovación esperando,
+     * no se agenda otra.
+     */
+    private static void renovarFoto() {
+        if (!renovacionPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        RENOVADOR_FOTO.execute(() -> {
+            renovacionPendiente.set(false);
+            ventasFueraDeFoto.set(0);
+            try {
+                if (!fotoVentas.actualizar(diarioVentas::recorrer)) {
+                    System.err.println("No hay foto de ventas válida; se creará al reiniciar");
+                }
+            } catch (IOException e) {
+                System.err.println("Error al renovar la foto de ventas: " + e.getMessage());
+            }
+            try {
+                actualizarHistorial();
+            } catch (IOException e) {
+                System.err.println("Error al actualizar el historial de clientes: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Extrae el número de un número de venta ("VEN042" -> 42).
+     * @return El número, o 0 si no tiene el formato "VEN" seguido de hasta 18 dígitos
+     */
+    private static long numeroDeVenta(String numeroVenta) {
+        if (numeroVenta == null || numeroVenta.length() <= 3 || numeroVenta.length() > 21
+                || !numeroVenta.startsWith("VEN")
+                || !Validators.sonDigitos(numeroVenta, 3, numeroVenta.length())) {
+            return 0;
+        }
+        return Long.parseLong(numeroVenta, 3, numeroVenta.length(), 10);
+    }
+
     public static Venta iniciarVenta() {
         return new Venta(null); // Iniciar sin cliente
     }
@@ -68,36 +321,396 @@ public class VentaController {
         venta.agregarProducto(producto, cantidad);
     }
 
-    public static String finalizarVenta(Venta venta) throws IOException {
+    /**
+     * Finaliza una venta sin esperar el disco: le asigna su número y la encola para anexarla
+     * al diario (ver SalesJournal.agregarAsincrono). Cuando el diario confirma que está en el
+     * disco, se agrega a los índices, los totales, los más vendidos, las columnas y las ventas
+     * recientes; si la escritura falla, la venta no aparece en ninguna consulta.
+     *
+     * @param venta La venta con su cliente y sus productos
+     * @return Se completa con el número de la venta cuando ya está guardada en el disco y en
+     *         las consultas, o con el error de escritura; el número ya está en la venta al
+     *         retornar
+     * @throws IOException Si la venta no tiene cliente o no se puede encolar
+     */
+    public static CompletableFuture<String> finalizarVenta(Venta venta) throws IOException {
         if (venta.getCliente() == null) {
             throw new IOException("Debe asociar un cliente a la venta");
         }
 
-        contadorVentas++;
-        String numeroVenta = String.format("VEN%03d", contadorVentas);
-        venta.setNumeroVenta(numeroVenta);
+        // Si el número ya tiene un ticket de texto de una versión anterior, se pide el siguiente
+        long numero;
+        do {
+            numero = numerosVenta.siguiente();
+        } while (Files.exists(Paths.get(VENTAS_DIR, String.format("VEN%03d.txt", numero))));
+        venta.setNumeroVenta(formatearNumero(numero));
+
+        // Encolar la venta para el diario; el ticket de texto se genera al consultarlo
+        CompletableFuture<Long> guardada = diarioVentas.agregarAsincrono(numero, venta);
+
+        long clave = numero;
+        String numeroVenta = venta.getNumeroVenta();
+        return guardada.thenApply(posicion -> {
+            registrarGuardada(clave, venta);
+            return numeroVenta;
+        });
+    }
+
+    /**
+     * Agrega una venta ya guardada en el diario a las estructuras en memoria. Los índices solo
+     * guardan el resumen; el detalle queda entre las ventas recientes.
+     */
+    private static void registrarGuardada(long numero, Venta venta) {
+        indexar(VentaResumen.de(venta));
+        agregadosVentas.registrar(venta);
+        masVendidos.registrar(venta);
+        agregarAColumnas(numero, venta);
+        detallesRecientes.put(venta.getNumeroVenta(), venta);
+        if (ventasFueraDeFoto.incrementAndGet() >= UMBRAL_RENOVACION) {
+            renovarFoto();
+        }
+    }
+
+    private static void agregarAColumnas(long numero, Venta venta) {
+        synchronized (CANDADO_COLUMNAS) {
+            if (columnasVentas != null) {
+                columnasVentas.agregar(numero, venta);
+            } else if (ventasDuranteColumnas != null) {
+                ventasDuranteColumnas.put(numero, venta);
+            }
+        }
+    }
+
+    /**
+     * @param n Cantidad de productos
+     * @param porIngresos true para ordenar por ingresos sin IVA (centavos), false por unidades
+     * @return Los n productos más vendidos de la última hora, de mayor a menor (ver BestSellers)
+     */
+    public static List<BestSellers.MasVendido> masVendidosUltimaHora(int n, boolean porIngresos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return porIngresos ? masVendidos.ultimaHora().porIngresos(n, ahora)
+            : masVendidos.ultimaHora().porUnidades(n, ahora);
+    }
+
+    /**
+     * @param n Cantidad de productos
+     * @param porIngresos true para ordenar por ingresos sin IVA (centavos), false por unidades
+     * @return Los n productos más vendidos del último día, de mayor a menor (ver BestSellers)
+     */
+    public static List<BestSellers.MasVendido> masVendidosUltimoDia(int n, boolean porIngresos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return porIngresos ? masVendidos.ultimoDia().porIngresos(n, ahora)
+            : masVendidos.ultimoDia().porUnidades(n, ahora);
+    }
+
+    /**
+     * Obtiene el almacén columnar de las líneas de venta, para informes que recorren muchas
+     * líneas (ver SalesColumns). La primera vez lo construye leyendo los tickets de texto de
+     * versiones anteriores y todo el diario; luego cada venta finalizada se le agrega. Las
+     * ventas que se confirman durante la construcción se guardan aparte y se agregan al
+     * final las que la lectura del diario no alcanzó a ver.
+     *
+     * @return Las columnas con todas las ventas
+     * @throws IOException Si ocurre un error al leer las ventas
+     */
+    public static SalesColumns columnasVentas() throws IOException {
+        SalesColumns columnas = columnasVentas;
+        if (columnas != null) {
+            return columnas;
+        }
+        synchronized (CONSTRUCCION_COLUMNAS) {
+            if (columnasVentas != null) {
+                return columnasVentas;
+            }
+            synchronized (CANDADO_COLUMNAS) {
+                ventasDuranteColumnas = new LinkedHashMap<>();
+            }
+            try {
+                // Las ventas encoladas antes de guardar aparte se confirman antes de leer el diario
+                esperarDiario();
+                SalesColumns nuevas = new SalesColumns();
+                Set<Long> leidas = new HashSet<>();
+                leidas.addAll(TicketParser.loadFromDirectory(VENTAS_DIR, venta -> {
+                    long numero = numeroDeVenta(venta.getNumeroVenta());
+                    nuevas.agregar(numero, venta);
+                    return numero;
+                }));
+                diarioVentas.recorrer(0, venta -> {
+                    long numero = numeroDeVenta(venta.getNumeroVenta());
+                    nuevas.agregar(numero, venta);
+                    leidas.add(numero);
+                });
+                // La lectura puede ver registros aún sin confirmar: al confirmarse quedan aparte
+                esperarDiario();
+                synchronized (CANDADO_COLUMNAS) {
+                    // Las ventas confirmadas durante la lectura que ya estaban en el diario no se repiten
+                    for (Map.Entry<Long, Venta> venta : ventasDuranteColumnas.entrySet()) {
+                        if (!leidas.contains(venta.getKey())) {
+                            nuevas.agregar(venta.getKey(), venta.getValue());
+                        }
+                    }
+                    columnasVentas = nuevas;
+                }
+                return nuevas;
+            } finally {
+                synchronized (CANDADO_COLUMNAS) {
+                    ventasDuranteColumnas = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a que el diario confirme las ventas encoladas hasta ahora.
+     */
+    private static void esperarDiario() throws IOException {
+        try {
+            if (!diarioVentas.esperarPendientes(ESPERA_PENDIENTES)) {
+                throw new IOException("El diario de ventas no confirmó las ventas encoladas");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Se interrumpió la espera de las ventas encoladas");
+        }
+    }
+
+    /**
+     * Calcula el informe de las ventas de un período (unidades e ingresos por producto,
+     * ingresos por cliente y por hora del día, y resumen de IVA) sobre todo el historial: los
+     * tickets de texto de versiones anteriores, en trozos, y cada segmento del diario, que se
+     * lee y decodifica del disco en su propio hilo. Los tickets se leen del disco en cada
+     * informe, sin quedar en memoria; los trozos de tickets y los segmentos cerrados sin
+     * ventas en el período se omiten sin leerlos (ver SalesReport.particionesTickets y
+     * SalesJournal.recorrerSegmento). Las particiones se calculan en paralelo en el
+     * ForkJoinPool común y el resultado es el mismo que en serie (ver SalesReport). Incluye
+     * las ventas ya guardadas en el diario.
+     *
+     * @param desde Inicio del período (incluido)
+     * @param hasta Fin del período (excluido)
+     * @return El informe, con los montos en centavos
+     * @throws IOException Si ocurre un error al leer las ventas
+     */
+    public static SalesReport.Informe informeDelPeriodo(LocalDateTime desde, LocalDateTime hasta)
+            throws IOException {
+        List<SalesReport.Particion> particiones = new ArrayList<>(SalesReport.particionesTickets(
+            TicketParser.listarTickets(Paths.get(VENTAS_DIR)), desde, hasta, fechasTickets));
+        long inicio = desde.toEpochSecond(ZoneOffset.UTC);
+        long fin = hasta.toEpochSecond(ZoneOffset.UTC);
+        for (int s = 1; s <= diarioVentas.segmentos(); s++) {
+            int segmento = s;
+            particiones.add(destino -> diarioVentas.recorrerSegmento(segmento, inicio, fin, destino));
+        }
+        return SalesReport.generar(particiones, desde, hasta, true);
+    }
+
+    /**
+     * Formatea un número de venta con ancho fijo ("VEN" y 10 dígitos), para que el orden
+     * alfabético coincida con el numérico. Los tickets de versiones anteriores usan "VEN%03d".
+     */
+    private static String formatearNumero(long numero) {
+        return String.format("VEN%010d", numero);
+    }
+
+    private static synchronized void indexar(VentaResumen venta) {
+        ventasIndex.insert(venta);
+        ventasSecundarias.insert(venta);
+    }
+
+    // Las consultas al índice toman el mismo candado que indexar: las ventas se indexan desde
+    // el hilo escritor del diario al confirmarse
+
+    public static synchronized List<VentaResumen> listarVentas() {
+        return ventasIndex.inorderTraversal();
+    }
+
+    /**
+     * Recorre las ventas ordenadas por total sin copiar ni reordenar el índice. Las ventas
+     * que se confirman durante el recorrido esperan a que termine.
+     * @param ascendente true para ir de menor a mayor total, false para lo contrario
+     * @param destino Recibe cada venta; no debe finalizar ventas ni esperar su confirmación
+     */
+    public static synchronized void recorrerVentasPorTotal(boolean ascendente, Consumer<VentaResumen> destino) {
+        (ascendente ? ventasIndex.ascending() : ventasIndex.descending()).forEach(destino);
+    }
+
+    /**
+     * @return Ventas con total entre min y max (incluidos), de menor a mayor
+     */
+    public static synchronized List<VentaResumen> ventasEnRango(float min, float max) {
+        return ventasIndex.range(min, max);
+    }
+
+    /**
+     * @return Las k ventas de mayor total, de mayor a menor
+     */
+    public static synchronized List<VentaResumen> ventasMayores(int k) {
+        return ventasIndex.topK(k);
+    }
+
+    /**
+     * @return Las k ventas de menor total, de menor a mayor
+     */
+    public static synchronized List<VentaResumen> ventasMenores(int k) {
+        return ventasIndex.bottomK(k);
+    }
+
+    /**
+     * @return Posición de la venta (desde 0) en el orden ascendente por total
+     */
+    public static synchronized int posicionVenta(VentaResumen venta) {
+        return ventasIndex.rank(venta);
+    }
 
-        // Generar y guardar ticket
-        String ticket = venta.generarTicket();
-        String nombreArchivo = numeroVenta + ".txt";
-        Path rutaArchivo = Paths.get(VENTAS_DIR, nombreArchivo);
+    /**
+     * @return Ventas del cliente con la identificación dada
+     */
+    public static synchronized List<VentaResumen> ventasDeCliente(String identificacion) {
+        return ventasSecundarias.porCliente(identificacion);
+    }
 
-        try (BufferedWriter writer = Files.newBufferedWriter(rutaArchivo)) {
-            writer.write(ticket);
+    /**
+     * Obtiene una página del historial de compras de un cliente, de la venta más reciente a
+     * la más antigua, desde su lista en disco (ver ClientSalesHistory): cada venta se lee del
+     * diario en su posición, sin recorrer las demás ventas del cliente ni del historial.
+     * La página se lee de las listas tal como están, sin esperar: la consulta agenda en
+     * segundo plano la puesta al día del historial con las ventas del diario que aún no
+     * tiene (incluidas las de otras cajas), por lo que una venta recién finalizada aparece en
+     * las consultas siguientes. Mientras el historial se crea por primera vez, las páginas
+     * pueden estar incompletas.
+     *
+     * @param identificacion Identificación del cliente
+     * @param cursor PaginaVentas.PRIMERA, o PaginaVentas.getSiguiente de la página anterior
+     * @param tamano Máximo de ventas de la página
+     * @return La página con las ventas completas; vacía si el cliente no tiene ventas
+     * @throws IOException Si ocurre un error al leer el historial
+     */
+    public static PaginaVentas historialCliente(String identificacion, long cursor, int tamano)
+            throws IOException {
+        ponerAlDiaHistorial();
+        ClientSalesHistory.Pagina pagina = historialClientes.leer(identificacion, cursor, tamano);
+        List<Venta> ventas = new ArrayList<>(pagina.getEntradas().length);
+        for (long entrada : pagina.getEntradas()) {
+            Venta venta = ClientSalesHistory.esTicket(entrada)
+                ? leerVenta(String.format("VEN%03d", -entrada)) : diarioVentas.leerEn(entrada);
+            if (venta != null) {
+                ventas.add(venta);
+            }
         }
+        return new PaginaVentas(ventas, pagina.getSiguiente(), pagina.getTotal());
+    }
 
-        // Agregar la venta al árbol binario
-        ventasTree.insert(venta);
+    /**
+     * @return Ventas realizadas en el día dado
+     */
+    public static synchronized List<VentaResumen> ventasDelDia(LocalDate dia) {
+        return ventasSecundarias.porDia(dia);
+    }
 
-        return nombreArchivo;
+    /**
+     * @return Ventas realizadas dentro de la hora dada (se ignoran minutos y segundos)
+     */
+    public static synchronized List<VentaResumen> ventasDeLaHora(LocalDateTime hora) {
+        return ventasSecundarias.porHora(hora);
+    }
+
+    /**
+     * @return Ventas que contienen el producto con el código dado
+     */
+    public static synchronized List<VentaResumen> ventasConProducto(String codigo) {
+        return ventasSecundarias.porProducto(codigo);
+    }
+
+    /**
+     * @return Cantidad de ventas, ingresos e IVA del día dado, en centavos, sin recorrer sus ventas
+     */
+    public static SalesAggregates.Totales totalesDelDia(LocalDate dia) {
+        return agregadosVentas.dia(dia);
+    }
+
+    /**
+     * @return Cantidad de ventas, ingresos e IVA de la hora dada, en centavos (se ignoran
+     *         minutos y segundos)
+     */
+    public static SalesAggregates.Totales totalesDeLaHora(LocalDateTime hora) {
+        return agregadosVentas.hora(hora);
+    }
+
+    /**
+     * @return Unidades vendidas e ingresos sin IVA del producto en todas las ventas, en centavos
+     */
+    public static SalesAggregates.TotalesProducto totalesDelProducto(String codigo) {
+        return agregadosVentas.producto(codigo);
     }
 
-    public static List<Venta> listarVentas() {
-        return ventasTree.inorderTraversal();
+    /**
+     * @return Unidades vendidas e ingresos sin IVA del producto en el día dado, en centavos
+     */
+    public static SalesAggregates.TotalesProducto totalesDelProducto(String codigo, LocalDate dia) {
+        return agregadosVentas.producto(codigo, dia);
     }
 
-    public static String obtenerContenidoVenta(String nombreArchivo) throws IOException {
-        Path rutaArchivo = Paths.get(VENTAS_DIR, nombreArchivo);
-        return Files.readString(rutaArchivo);
+    /**
+     * @return Código -> unidades vendidas e ingresos sin IVA de cada producto vendido en el día
+     */
+    public static Map<String, SalesAggregates.TotalesProducto> productosDelDia(LocalDate dia) {
+        return agregadosVentas.productos(dia);
+    }
+
+    /**
+     * Obtiene el detalle completo de una venta (datos del cliente y líneas) desde el diario
+     * de ventas, o desde su ticket de texto si es de una versión anterior. Las últimas ventas
+     * consultadas o finalizadas se conservan en memoria.
+     * @param numeroVenta Número de la venta (por ejemplo "VEN042")
+     * @return La venta, o null si no existe
+     * @throws IOException Si ocurre un error al leer la venta
+     */
+    public static Venta obtenerVenta(String numeroVenta) throws IOException {
+        Venta venta = detallesRecientes.get(numeroVenta);
+        if (venta == null) {
+            venta = leerVenta(numeroVenta);
+            if (venta == null) {
+                return null;
+            }
+            detallesRecientes.put(numeroVenta, venta);
+        }
+        return venta;
+    }
+
+    /**
+     * Lee el detalle de una venta del diario o de su ticket de texto, sin pasar por las
+     * ventas recientes.
+     * @return La venta, o null si no existe
+     */
+    private static Venta leerVenta(String numeroVenta) throws IOException {
+        long numero = numeroDeVenta(numeroVenta);
+        Venta venta = numero > 0 ? diarioVentas.leer(numero) : null;
+        if (venta == null) {
+            Path rutaArchivo = Paths.get(VENTAS_DIR, numeroVenta + ".txt");
+            if (!Files.exists(rutaArchivo)) {
+                return null;
+            }
+            venta = TicketParser.parse(Files.readString(rutaArchivo));
+        }
+        return venta;
+    }
+
+    /**
+     * Obtiene el ticket de una venta para mostrarlo. Los tickets de texto de versiones
+     * anteriores se muestran tal como se guardaron; el de una venta del diario se genera
+     * con Venta.generarTicket.
+     * @param numeroVenta Número de la venta (por ejemplo "VEN042")
+     * @return El texto del ticket
+     * @throws IOException Si la venta no existe o no se puede leer
+     */
+    public static String obtenerContenidoVenta(String numeroVenta) throws IOException {
+        Path rutaArchivo = Paths.get(VENTAS_DIR, numeroVenta + ".txt");
+        if (Files.exists(rutaArchivo)) {
+            return Files.readString(rutaArchivo);
+        }
+        Venta venta = obtenerVenta(numeroVenta);
+        if (venta == null) {
+            throw new IOException("No se encontró la venta " + numeroVenta);
+        }
+        return venta.generarTicket();
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Clase AtomicFile
+ *
+ * Reescritura de archivos a prueba de caídas. El contenido nuevo se escribe en un archivo
+ * temporal junto al original, se fuerza al disco con FileChannel.force y luego se renombra
+ * sobre el original con un movimiento atómico. Ante un corte de energía queda el archivo
+ * anterior completo o el nuevo completo, nunca uno truncado o a medio escribir.
+ */
+class AtomicFile {
+
+    /**
+     * Escribe el contenido de un archivo.
+     */
+    interface Contenido {
+        void escribir(Writer out) throws IOException;
+    }
+
+    /**
+     * Escribe el contenido binario de un archivo.
+     */
+    interface ContenidoBinario {
+        void escribir(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Reemplaza atómicamente el contenido de un archivo.
+     *
+     * @param destino El archivo a reemplazar
+     * @param contenido Escritor del contenido nuevo
+     * @throws IOException Si ocurre un error al escribir o renombrar el archivo
+     */
+    static void reemplazar(Path destino, Contenido contenido) throws IOException {
+        publicar(escribirTemporal(destino, contenido), destino);
+    }
+
+    /**
+     * Reemplaza atómicamente el contenido binario de un archivo.
+     *
+     * @param destino El archivo a reemplazar
+     * @param contenido Escritor del contenido nuevo
+     * @throws IOException Si ocurre un error al escribir o renombrar el archivo
+     */
+    static void reemplazarBytes(Path destino, ContenidoBinario contenido) throws IOException {
+        Path temporal = temporal(destino);
+        try (FileChannel channel = abrirTemporal(temporal)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            contenido.escribir(out);
+            out.flush();
+            channel.force(true);
+        }
+        publicar(temporal, destino);
+    }
+
+    /**
+     * Escribe el contenido nuevo de un archivo en un temporal junto a él ("archivo.tmp") y
+     * lo fuerza al disco, sin tocar el archivo original.
+     *
+     * @param destino El archivo que se reemplazará
+     * @param contenido Escritor del contenido nuevo
+     * @return El archivo temporal, listo para publicar
+     * @throws IOException Si ocurre un error al escribir el archivo temporal
+     */
+    static Path escribirTemporal(Path destino, Contenido contenido) throws IOException {
+        Path temporal = temporal(destino);
+        try (FileChannel channel = abrirTemporal(temporal)) {
+            Writer out = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset()), 1 << 16);
+            contenido.escribir(out);
+            out.flush();
+            channel.force(true);
+        }
+        return temporal;
+    }
+
+    private static Path temporal(Path destino) {
+        return destino.resolveSibling(destino.getFileName() + ".tmp");
+    }
+
+    private static FileChannel abrirTemporal(Path temporal) throws IOException {
+        return FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Renombra atómicamente un temporal escrito con escribirTemporal sobre el archivo destino.
+     *
+     * @param temporal El archivo temporal
+     * @param destino El archivo a reemplazar
+     * @throws IOException Si ocurre un error al renombrar el archivo
+     */
+    static void publicar(Path temporal, Path destino) throws IOException {
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio(destino);
+    }
+
+    /**
+     * Fuerza al disco la entrada de directorio de un archivo, para que un renombrado o una
+     * eliminación sobrevivan a un corte de energía. En los sistemas que no permiten abrir
+     * directorios (Windows) no hace nada.
+     *
+     * @param archivo Un archivo del directorio a sincronizar
+     */
+    static void sincronizarDirectorio(Path archivo) {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // El sistema no permite sincronizar directorios; el renombrado sigue siendo atómico
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import models.Cliente;
+import models.Producto;
+
+/**
+ * Clase BinaryRecordStore
+ *
+ * Almacenamiento binario opcional con registros de ancho fijo. Cada registro ocupa una
+ * casilla del mismo tamaño en el archivo de datos (.dat), por lo que su posición se
+ * calcula como casilla * tamaño. Un archivo de índice (.idx) guarda las entradas
+ * clave -> casilla en orden de escritura, una por cada alta, actualización o eliminación;
+ * al abrir el almacén se leen una sola vez y las entradas posteriores reemplazan a las
+ * anteriores (casilla -1 indica eliminación).
+ *
+ * Con este formato una consulta es una sola lectura posicionada y una actualización es
+ * una sola escritura posicionada mediante FileChannel, sin reescribir el archivo.
+ *
+ * Formato de cada casilla:
+ * - 1 byte de estado (1 = activo, 0 = eliminado)
+ * - Cada campo de texto: 1 byte con la longitud y el ancho máximo del campo en caracteres UTF-16
+ * - El precio de los productos: float de 4 bytes
+ *
+ * Los anchos siguen las validaciones del sistema: identificación 10, tipo 2, nombres 30,
+ * apellidos 30, teléfono 10, código 5 y nombre de producto 20. El correo no tiene límite
+ * en las validaciones; en este formato se admiten hasta 60 caracteres.
+ *
+ * Varios procesos pueden compartir los mismos archivos. Cada escritura toma el candado de
+ * archivo del almacén (ver SharedFileLock) y, antes de escribir, lee las entradas de índice
+ * que otros procesos hayan agregado, de modo que dos procesos nunca asignan la misma casilla.
+ * Con un seguidor registrado (ver seguirCon), cada una de esas entradas le entrega el
+ * registro que otro proceso guardó o eliminó, para que los datos en memoria de todas las
+ * cajas coincidan.
+ */
+public class BinaryRecordStore<T> implements Closeable {
+    private static final byte ACTIVO = 1;
+    private static final byte ELIMINADO = 0;
+    private static final int ELIMINADA = -1;
+
+    /**
+     * Describe cómo se escribe y se lee un tipo de registro en una casilla.
+     */
+    public interface Codec<T> {
+        /** Tamaño en bytes de los datos del registro (sin el byte de estado). */
+        int tamano();
+
+        /** Ancho en caracteres de la clave. */
+        int anchoClave();
+
+        String clave(T registro);
+
+        void escribir(T registro, ByteBuffer buffer) throws IOException;
+
+        T leer(ByteBuffer buffer);
+    }
+
+    /** Codificación de clientes: identificacion, tipo, nombres, apellidos, telefono, correo. */
+    public static final Codec<Cliente> CLIENTES = new Codec<Cliente>() {
+        @Override
+        public int tamano() {
+            return campo(10) + campo(2) + campo(30) + campo(30) + campo(10) + campo(60);
+        }
+
+        @Override
+        public int anchoClave() {
+            return 10;
+        }
+
+        @Override
+        public String clave(Cliente cliente) {
+            return cliente.getIdentificacion();
+        }
+
+        @Override
+        public void escribir(Cliente cliente, ByteBuffer buffer) throws IOException {
+            escribirTexto(buffer, cliente.getIdentificacion(), 10, "identificación");
+            escribirTexto(buffer, cliente.getTipoIdentificacion(), 2, "tipo de identificación");
+            escribirTexto(buffer, cliente.getNombres(), 30, "nombres");
+            escribirTexto(buffer, cliente.getApellidos(), 30, "apellidos");
+            escribirTexto(buffer, cliente.getTelefono(), 10, "teléfono");
+            escribirTexto(buffer, cliente.getCorreoElectronico(), 60, "correo");
+        }
+
+        @Override
+        public Cliente leer(ByteBuffer buffer) {
+            return new Cliente(leerTexto(buffer, 10), leerTexto(buffer, 2), leerTexto(buffer, 30),
+                leerTexto(buffer, 30), leerTexto(buffer, 10), leerTexto(buffer, 60));
+        }
+    };
+
+    /** Codificación de productos: codigo, nombre, precio. */
+    public static final Codec<Producto> PRODUCTOS = new Codec<Producto>() {
+        @Override
+        public int tamano() {
+            return campo(5) + campo(20) + Float.BYTES;
+        }
+
+        @Override
+        public int anchoClave() {
+            return 5;
+        }
+
+        @Override
+        public String clave(Producto producto) {
+            return producto.getCodigo();
+        }
+
+        @Override
+        public void escribir(Producto producto, ByteBuffer buffer) throws IOException {
+            escribirTexto(buffer, producto.getCodigo(), 5, "código");
+            escribirTexto(buffer, producto.getNombre(), 20, "nombre");
+            buffer.putFloat(producto.getPrecioVenta());
+        }
+
+        @Override
+        public Producto leer(ByteBuffer buffer) {
+            return new Producto(leerTexto(buffer, 5), leerTexto(buffer, 20), buffer.getFloat());
+        }
+    };
+
+    private static int campo(int ancho) {
+        return 1 + ancho * Character.BYTES;
+    }
+
+    private static void escribirTexto(ByteBuffer buffer, String valor, int ancho, String campo)
+            throws IOException {
+        if (valor.length() > ancho) {
+            throw new IOException("El campo " + campo + " excede " + ancho + " caracteres: " + valor);
+        }
+        buffer.put((byte) valor.length());
+        for (int i = 0; i < ancho; i++) {
+            buffer.putChar(i < valor.length() ? valor.charAt(i) : '\0');
+        }
+    }
+
+    private static String leerTexto(ByteBuffer buffer, int ancho) {
+        int length = buffer.get();
+        char[] chars = new char[length];
+        for (int i = 0; i < ancho; i++) {
+            char c = buffer.getChar();
+            if (i < length) {
+                chars[i] = c;
+            }
+        }
+        return new String(chars);
+    }
+
+    private final Codec<T> codec;
+    private final int tamanoCasilla;
+    private final int tamanoEntrada;
+    private final FileChannel datos;
+    private final FileChannel indice;
+    private final Map<String, Integer> casillas = new HashMap<>();
+    private final SharedFileLock candado;
+    private DataManager.Seguidor<T> seguidor;
+    private int totalCasillas;
+    private long totalEntradas;
+
+    /**
+     * Abre (o crea) un almacén binario.
+     *
+     * @param archivoDatos Ruta del archivo de casillas (.dat)
+     * @param archivoIndice Ruta del archivo de índice (.idx)
+     * @param codec Codificación de los registros
+     * @throws IOException Si ocurre un error al abrir o leer los archivos
+     */
+    @SuppressWarnings("try")
+    public BinaryRecordStore(Path archivoDatos, Path archivoIndice, Codec<T> codec) throws IOException {
+        this.codec = codec;
+        this.tamanoCasilla = 1 + codec.tamano();
+        this.tamanoEntrada = campo(codec.anchoClave()) + Integer.BYTES;
+        if (archivoDatos.getParent() != null) {
+            Files.createDirectories(archivoDatos.getParent());
+        }
+        this.candado = SharedFileLock.para(archivoDatos);
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            boolean reconstruir = Files.exists(archivoDatos) && !Files.exists(archivoIndice);
+            this.datos = FileChannel.open(archivoDatos,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.indice = FileChannel.open(archivoIndice,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.totalCasillas = (int) (datos.size() / tamanoCasilla);
+            if (reconstruir) {
+                reconstruirIndice();
+            } else {
+                ponerseAlDia();
+            }
+        }
+    }
+
+    /**
+     * Lee las entradas del índice que aún no se conocen (todas al abrir el almacén, o las que
+     * otros procesos agregaron desde la última escritura); las entradas posteriores
+     * reemplazan a las anteriores. Se llama con el candado de archivo tomado.
+     */
+    private void ponerseAlDia() throws IOException {
+        totalCasillas = (int) Math.max(totalCasillas, datos.size() / tamanoCasilla);
+        // Una entrada incompleta al final (escritura interrumpida) se ignora y se sobrescribe
+        long entradas = indice.size() / tamanoEntrada;
+        if (entradas <= totalEntradas) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanoEntrada * 4096);
+        long pos = totalEntradas * tamanoEntrada;
+        long leidas = totalEntradas;
+        totalEntradas = entradas;
+        while (leidas < entradas) {
+            buffer.clear();
+            int n = (int) Math.min(4096, entradas - leidas);
+            buffer.limit(n * tamanoEntrada);
+            leerCompleto(indice, buffer, pos);
+            buffer.flip();
+            for (int i = 0; i < n; i++) {
+                String clave = leerTexto(buffer, codec.anchoClave());
+                int casilla = buffer.getInt();
+                if (casilla == ELIMINADA) {
+                    casillas.remove(clave);
+                } else {
+                    casillas.put(clave, casilla);
+                }
+                if (seguidor != null) {
+                    entregar(clave, casilla);
+                }
+            }
+            pos += (long) n * tamanoEntrada;
+            leidas += n;
+        }
+    }
+
+    /**
+     * Entrega al seguidor el cambio que otro proceso hizo sobre una clave.
+     */
+    private void entregar(String clave, int casilla) throws IOException {
+        if (casilla == ELIMINADA) {
+            seguidor.eliminado(clave);
+            return;
+        }
+        ByteBuffer buffer = leerCasilla(casilla);
+        if (buffer.get() == ACTIVO) {
+            seguidor.guardado(codec.leer(buffer));
+        }
+    }
+
+    /**
+     * Registra quién recibe los registros que otros procesos guarden o eliminen desde ahora.
+     *
+     * @param seguidor Receptor de cada cambio, en el orden en que fue escrito
+     */
+    synchronized void seguirCon(DataManager.Seguidor<T> seguidor) {
+        this.seguidor = seguidor;
+    }
+
+    /**
+     * Entrega al seguidor los cambios de otros procesos solo si el índice creció desde la
+     * última lectura; la comprobación es una sola consulta del tamaño del archivo.
+     *
+     * @throws IOException Si ocurre un error al leer los archivos
+     */
+    synchronized void refrescar() throws IOException {
+        if (seguidor != null) {
+            ponerseAlDiaSiCrecio();
+        }
+    }
+
+    /**
+     * Lee las entradas que otros procesos agregaron al índice; el candado de archivo solo se
+     * toma si el índice creció desde la última lectura.
+     */
+    @SuppressWarnings("try")
+    private void ponerseAlDiaSiCrecio() throws IOException {
+        if (indice.size() / tamanoEntrada > totalEntradas) {
+            try (SharedFileLock.Candado c = candado.adquirir()) {
+                ponerseAlDia();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una operación con el almacén al día: con el candado de archivo tomado, primero
+     * entrega al seguidor los cambios de otros procesos y luego ejecuta la operación, que
+     * puede consultar los datos y escribir sin que ningún otro hilo ni proceso escriba entre
+     * la consulta y la escritura.
+     *
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
+     */
+    @SuppressWarnings("try")
+    synchronized <R> R alDia(MutationLog.Operacion<R> operacion) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ponerseAlDia();
+            return operacion.ejecutar();
+        }
+    }
+
+    /**
+     * Reconstruye el índice recorriendo el archivo de datos (cuando el .idx no existe).
+     */
+    private void reconstruirIndice() throws IOException {
+        for (int casilla = 0; casilla < totalCasillas; casilla++) {
+            ByteBuffer buffer = leerCasilla(casilla);
+            if (buffer.get() == ACTIVO) {
+                String clave = codec.clave(codec.leer(buffer));
+                casillas.put(clave, casilla);
+                anexarEntrada(clave, casilla);
+            }
+        }
+    }
+
+    /**
+     * Busca un registro por su clave con una sola lectura posicionada, después de leer las
+     * entradas de índice que otros procesos hayan agregado (un registro nuevo o movido por
+     * otro proceso no se encontraría con las casillas conocidas).
+     *
+     * @param clave La clave del registro
+     * @return El registro o null si no existe
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public synchronized T buscar(String clave) throws IOException {
+        ponerseAlDiaSiCrecio();
+        Integer casilla = casillas.get(clave);
+        if (casilla == null) {
+            return null;
+        }
+        ByteBuffer buffer = leerCasilla(casilla);
+        return buffer.get() == ACTIVO ? codec.leer(buffer) : null;
+    }
+
+    /**
+     * Indica si existe un registro con la clave dada, sin leer su casilla (ver buscar).
+     *
+     * @throws IOException Si ocurre un error al leer el índice
+     */
+    public synchronized boolean existe(String clave) throws IOException {
+        ponerseAlDiaSiCrecio();
+        return casillas.containsKey(clave);
+    }
+
+    /**
+     * Inserta un registro nuevo al final del archivo, o lo reemplaza en su casilla si la
+     * clave ya existe.
+     *
+     * @param registro El registro a guardar
+     * @throws IOException Si ocurre un error al escribir o si algún campo excede su ancho
+     */
+    @SuppressWarnings("try")
+    public synchronized void guardar(T registro) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ponerseAlDia();
+            String clave = codec.clave(registro);
+            Integer casilla = casillas.get(clave);
+            if (casilla != null) {
+                escribirCasilla(casilla, registro);
+                anexarEntrada(clave, casilla);
+                return;
+            }
+            int nueva = totalCasillas;
+            escribirCasilla(nueva, registro);
+            anexarEntrada(clave, nueva);
+            totalCasillas++;
+            casillas.put(clave, nueva);
+        }
+    }
+
+    /**
+     * Guarda un bloque de registros. Los registros nuevos se escriben en casillas
+     * consecutivas y sus entradas de índice en una sola escritura; los existentes se
+     * actualizan en su casilla. No sincroniza con el disco (ver sincronizar).
+     *
+     * @param registros Los registros a guardar
+     * @throws IOException Si ocurre un error al escribir o si algún campo excede su ancho
+     */
+    @SuppressWarnings("try")
+    public synchronized void guardarLote(List<T> registros) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ponerseAlDia();
+            guardarNuevosYExistentes(registros);
+        }
+    }
+
+    private void guardarNuevosYExistentes(List<T> registros) throws IOException {
+        List<T> nuevos = new ArrayList<>();
+        for (T registro : registros) {
+            Integer casilla = casillas.get(codec.clave(registro));
+            if (casilla != null) {
+                escribirCasilla(casilla, registro);
+                anexarEntrada(codec.clave(registro), casilla);
+            } else {
+                nuevos.add(registro);
+            }
+        }
+        ByteBuffer bloqueDatos = ByteBuffer.allocate(nuevos.size() * tamanoCasilla);
+        ByteBuffer bloqueIndice = ByteBuffer.allocate(nuevos.size() * tamanoEntrada);
+        for (int i = 0; i < nuevos.size(); i++) {
+            T registro = nuevos.get(i);
+            bloqueDatos.put(ACTIVO);
+            codec.escribir(registro, bloqueDatos);
+            escribirTexto(bloqueIndice, codec.clave(registro), codec.anchoClave(), "clave");
+            bloqueIndice.putInt(totalCasillas + i);
+        }
+        bloqueDatos.flip();
+        bloqueIndice.flip();
+        escribirCompleto(datos, bloqueDatos, (long) totalCasillas * tamanoCasilla);
+        escribirCompleto(indice, bloqueIndice, totalEntradas * tamanoEntrada);
+        for (int i = 0; i < nuevos.size(); i++) {
+            casillas.put(codec.clave(nuevos.get(i)), totalCasillas + i);
+        }
+        totalCasillas += nuevos.size();
+        totalEntradas += nuevos.size();
+    }
+
+    /**
+     * Sincroniza el archivo de datos y el índice con el disco.
+     *
+     * @throws IOException Si ocurre un error al sincronizar
+     */
+    public synchronized void sincronizar() throws IOException {
+        datos.force(false);
+        indice.force(false);
+    }
+
+    /**
+     * Actualiza un registro existente con una escritura posicionada y agrega su entrada al
+     * índice, para que los demás procesos sepan que cambió.
+     *
+     * @param registro El registro con los datos actualizados
+     * @return false si el registro no existe
+     * @throws IOException Si ocurre un error al escribir o si algún campo excede su ancho
+     */
+    @SuppressWarnings("try")
+    public synchronized boolean actualizar(T registro) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ponerseAlDia();
+            Integer casilla = casillas.get(codec.clave(registro));
+            if (casilla == null) {
+                return false;
+            }
+            escribirCasilla(casilla, registro);
+            anexarEntrada(codec.clave(registro), casilla);
+            return true;
+        }
+    }
+
+    /**
+     * Elimina un registro marcando su casilla como eliminada.
+     *
+     * @param clave La clave del registro
+     * @throws IOException Si ocurre un error al escribir
+     */
+    @SuppressWarnings("try")
+    public synchronized void eliminar(String clave) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ponerseAlDia();
+            Integer casilla = casillas.remove(clave);
+            if (casilla == null) {
+                return;
+            }
+            ByteBuffer estado = ByteBuffer.allocate(1);
+            estado.put(ELIMINADO).flip();
+            escribirCompleto(datos, estado, (long) casilla * tamanoCasilla);
+            anexarEntrada(clave, ELIMINADA);
+        }
+    }
+
+    /**
+     * Lee todos los registros activos en el orden de sus casillas.
+     *
+     * @return Lista de registros
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public synchronized List<T> listar() throws IOException {
+        List<T> registros = new ArrayList<>();
+        int porLectura = Math.max(1, (1 << 20) / tamanoCasilla);
+        ByteBuffer buffer = ByteBuffer.allocate(porLectura * tamanoCasilla);
+        for (int casilla = 0; casilla < totalCasillas; casilla += porLectura) {
+            int n = Math.min(porLectura, totalCasillas - casilla);
+            buffer.clear();
+            buffer.limit(n * tamanoCasilla);
+            leerCompleto(datos, buffer, (long) casilla * tamanoCasilla);
+            buffer.flip();
+            for (int i = 0; i < n; i++) {
+                buffer.position(i * tamanoCasilla);
+                if (buffer.get() == ACTIVO) {
+                    T registro = codec.leer(buffer);
+                    // Una casilla sin entrada en el índice quedó de una escritura interrumpida
+                    Integer indexada = casillas.get(codec.clave(registro));
+                    if (indexada != null && indexada == casilla + i) {
+                        registros.add(registro);
+                    }
+                }
+            }
+        }
+        return registros;
+    }
+
+    private ByteBuffer leerCasilla(int casilla) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanoCasilla);
+        leerCompleto(datos, buffer, (long) casilla * tamanoCasilla);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void escribirCasilla(int casilla, T registro) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanoCasilla);
+        buffer.put(ACTIVO);
+        codec.escribir(registro, buffer);
+        buffer.flip();
+        escribirCompleto(datos, buffer, (long) casilla * tamanoCasilla);
+    }
+
+    private void anexarEntrada(String clave, int casilla) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanoEntrada);
+        escribirTexto(buffer, clave, codec.anchoClave(), "clave");
+        buffer.putInt(casilla);
+        buffer.flip();
+        escribirCompleto(indice, buffer, totalEntradas * tamanoEntrada);
+        totalEntradas++;
+    }
+
+    private static void leerCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos);
+            if (n < 0) {
+                throw new IOException("Fin de archivo inesperado en la posición " + pos);
+            }
+            pos += n;
+        }
+    }
+
+    private static void escribirCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer, pos);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            datos.close();
+        } finally {
+            indice.close();
+        }
+    }
+}
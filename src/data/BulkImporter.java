@@ -0,0 +1,151 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import models.Cliente;
+import models.Producto;
+import utils.RecordTokenizer;
+
+/**
+ * Clase BulkImporter
+ *
+ * Carga masiva de clientes y productos desde archivos con el mismo formato de
+ * 'data/clientes.txt' y 'data/productos.txt'. El archivo se lee en una sola pasada:
+ * cada línea se valida, se descarta si su clave ya está registrada o se repite dentro
+ * del archivo, y los registros válidos se escriben en bloques grandes. El almacenamiento
+ * se sincroniza con el disco una sola vez, al terminar.
+ *
+ * Las líneas inválidas no detienen la carga: se reportan en el ImportReport resultante.
+ */
+public class BulkImporter {
+    private static final int TAMANO_LOTE = 10_000;
+    private static final int MAX_ERRORES_DETALLADOS = 10_000;
+    private static final char SEPARATOR = '*';
+
+    /**
+     * Importa clientes desde un archivo con formato
+     * identificacion*tipoIdentificacion*nombres*apellidos*telefono*correo.
+     *
+     * @param archivo Ruta del archivo a importar
+     * @return El reporte de la importación
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir los datos
+     */
+    public static ImportReport importarClientes(Path archivo) throws IOException {
+        return importar(archivo, 6,
+            campos -> new Cliente(campos[0], campos[1], campos[2], campos[3], campos[4], campos[5]),
+            DataManager::validarCliente, Cliente::getIdentificacion, "la identificación",
+            ClienteRepository::existe, ClienteRepository::registrarImportados,
+            DataManager.abrirLoteClientes());
+    }
+
+    /**
+     * Importa productos desde un archivo con formato codigo*nombre*precio.
+     *
+     * @param archivo Ruta del archivo a importar
+     * @return El reporte de la importación
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir los datos
+     */
+    public static ImportReport importarProductos(Path archivo) throws IOException {
+        return importar(archivo, 3,
+            campos -> new Producto(campos[0], campos[1], RecordTokenizer.parseFloat(campos[2], 0, campos[2].length())),
+            DataManager::validarProducto, producto -> producto.getCodigo().toUpperCase(), "el código",
+            ProductoRepository::existe, ProductoRepository::registrarImportados,
+            DataManager.abrirLoteProductos());
+    }
+
+    private static <T> ImportReport importar(Path archivo, int numCampos,
+            ParallelLoader.Constructor<T> constructor, ParallelLoader.Validador<T> validador,
+            Function<T, String> clave, String nombreClave, Predicate<String> registrada,
+            Consumer<List<T>> registrarImportados, DataManager.DestinoLote<T> destino) throws IOException {
+        long inicio = System.currentTimeMillis();
+        List<ErrorLinea> errores = new ArrayList<>();
+        Set<String> clavesArchivo = new HashSet<>();
+        List<T> lote = new ArrayList<>(TAMANO_LOTE);
+        long lineas = 0;
+        long importados = 0;
+        long totalErrores = 0;
+        RecordTokenizer tokenizer = new RecordTokenizer(SEPARATOR);
+        String[] campos = new String[numCampos];
+
+        try (DataManager.DestinoLote<T> salida = destino;
+             BufferedReader br = new BufferedReader(
+                 Files.newBufferedReader(archivo, Charset.defaultCharset()), 1 << 20)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lineas++;
+                String error;
+                try {
+                    if (!dividir(tokenizer, line, campos)) {
+                        error = "Se esperaban " + numCampos + " campos";
+                    } else {
+                        T registro = constructor.crear(campos);
+                        error = validador.validar(registro);
+                        if (error == null) {
+                            String k = clave.apply(registro);
+                            if (registrada.test(k)) {
+                                error = "Ya existe un registro con " + nombreClave + " " + k;
+                            } else if (!clavesArchivo.add(k)) {
+                                error = "El archivo repite " + nombreClave + " " + k;
+                            } else {
+                                lote.add(registro);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    error = "Registro inválido - " + e.getMessage();
+                }
+
+                if (error != null) {
+                    totalErrores++;
+                    if (errores.size() < MAX_ERRORES_DETALLADOS) {
+                        errores.add(new ErrorLinea(lineas, error));
+                    }
+                }
+                if (lote.size() == TAMANO_LOTE) {
+                    importados += escribir(salida, lote, registrarImportados);
+                }
+            }
+            importados += escribir(salida, lote, registrarImportados);
+        }
+        return new ImportReport(lineas, importados, totalErrores, errores,
+            System.currentTimeMillis() - inicio);
+    }
+
+    private static <T> int escribir(DataManager.DestinoLote<T> salida, List<T> lote,
+            Consumer<List<T>> registrarImportados) throws IOException {
+        int cantidad = lote.size();
+        if (cantidad > 0) {
+            salida.escribir(lote);
+            registrarImportados.accept(lote);
+            lote.clear();
+        }
+        return cantidad;
+    }
+
+    /**
+     * Divide una línea en sus campos separados por '*', sin expresiones regulares.
+     * El arreglo de campos se reutiliza entre líneas y los campos sobrantes se ignoran.
+     *
+     * @return false si la línea tiene menos campos de los esperados
+     */
+    private static boolean dividir(RecordTokenizer tokenizer, String line, String[] campos) {
+        tokenizer.reset(line);
+        for (int i = 0; i < campos.length; i++) {
+            if (!tokenizer.next()) {
+                return false;
+            }
+            campos[i] = tokenizer.text();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,337 @@
+package data;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
+import models.Venta;
+import utils.Validators;
+
+/**
+ * Clase ClientSalesHistory
+ *
+ * Historial de compras de cada cliente en disco, para consultarlo por páginas de la venta más
+ * reciente a la más antigua sin recorrer todas las ventas. Cada cliente tiene su propia lista
+ * de ventas ('Ventas/historial/42/1234567842.hist', repartidas en directorios por los dos
+ * últimos dígitos de la identificación) con un long por venta, en el orden del diario: la
+ * posición del registro de la venta en el diario (ver SalesJournal.recorrerConPosiciones), o
+ * el número de la venta con signo negativo si es un ticket de texto de una versión anterior.
+ * Una página es una sola lectura posicionada cerca del final de la lista, por lo que no
+ * depende de cuántas compras tenga el cliente ni del tamaño del historial.
+ *
+ * 'Ventas/historial/posicion.dat' guarda hasta qué posición del diario llegan las listas (int
+ * mágico "VHIS", int versión, long posición). actualizar anexa a las listas las ventas
+ * posteriores del diario con el candado de archivo del historial tomado (ver SharedFileLock),
+ * así que incluye también las ventas de las demás cajas. Si el archivo de posición falta o no
+ * es válido, las listas se reconstruyen desde los tickets de texto y todo el diario. Volver a
+ * leer una parte del diario ya anexada (una caja que se cayó antes de guardar la posición) no
+ * repite ventas: las posiciones del diario solo crecen y se omiten las que no superan a la
+ * última de la lista.
+ *
+ * Las listas que recibieron ventas (y los directorios donde se crearon listas nuevas) se
+ * fuerzan al disco antes de guardar la posición, de modo que tras un corte de energía la
+ * posición guardada nunca deja atrás ventas que no llegaron a las listas: a lo sumo se vuelven
+ * a leer del diario, y no se repiten.
+ *
+ * Un cursor es la cantidad de ventas del cliente, contando desde la más antigua, que aún no
+ * se devolvieron. Las listas solo crecen al final, por lo que un cursor sigue siendo válido
+ * aunque el cliente compre de nuevo entre una página y la siguiente.
+ */
+public class ClientSalesHistory {
+    private static final int MAGICO = 0x56484953;
+    private static final int VERSION = 1;
+    private static final int TAMANO_POSICION = 16;
+    private static final int ENTRADA = Long.BYTES;
+    private static final String EXTENSION = ".hist";
+
+    private final Path directorio;
+    private final Path archivoPosicion;
+    private final SharedFileLock candado;
+
+    /**
+     * Lectura de las ventas del diario a partir de una posición, con la posición de cada
+     * registro (ver SalesJournal.recorrerConPosiciones).
+     */
+    public interface LectorDiario {
+        /**
+         * @param desde Posición del diario (ver SalesJournal)
+         * @param destino Recibe cada venta y la posición de su registro
+         * @return Posición después de la última venta leída
+         */
+        long leer(long desde, ObjLongConsumer<Venta> destino) throws IOException;
+    }
+
+    /**
+     * Lectura de los tickets de texto de versiones anteriores, al reconstruir el historial.
+     */
+    public interface LectorTickets {
+        /**
+         * @param destino Recibe la identificación del cliente y el número de cada ticket (sin
+         *                el prefijo "VEN"), del más antiguo al más reciente
+         */
+        void leer(ObjLongConsumer<String> destino) throws IOException;
+    }
+
+    /**
+     * Una página del historial de un cliente.
+     */
+    public static class Pagina {
+        private final long[] entradas;
+        private final long siguiente;
+        private final long total;
+
+        Pagina(long[] entradas, long siguiente, long total) {
+            this.entradas = entradas;
+            this.siguiente = siguiente;
+            this.total = total;
+        }
+
+        /**
+         * @return Por venta, de la más reciente a la más antigua: la posición de su registro en
+         *         el diario, o el número con signo negativo si es un ticket de texto
+         */
+        public long[] getEntradas() {
+            return entradas;
+        }
+
+        /** @return Cursor de la página siguiente; 0 si no hay más ventas */
+        public long getSiguiente() {
+            return siguiente;
+        }
+
+        /** @return Cantidad de ventas del cliente en el historial */
+        public long getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Ventas por anexar a la lista de un cliente.
+     */
+    private static class Entradas {
+        long[] valores = new long[4];
+        int cantidad;
+
+        void agregar(long valor) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = valor;
+        }
+    }
+
+    /**
+     * @param directorio Directorio del historial (se crea al actualizarlo por primera vez)
+     */
+    public ClientSalesHistory(Path directorio) {
+        this.directorio = directorio;
+        this.archivoPosicion = directorio.resolve("posicion.dat");
+        this.candado = SharedFileLock.para(directorio);
+    }
+
+    /**
+     * Anexa a las listas de los clientes las ventas del diario posteriores a la posición
+     * guardada, o reconstruye todo el historial si no hay una posición válida. Las ventas
+     * se agrupan por cliente y cada lista se abre una sola vez.
+     *
+     * @param diario Lectura del diario
+     * @param tickets Lectura de los tickets de texto; solo se usa al reconstruir
+     * @return Cantidad de ventas anexadas
+     * @throws IOException Si ocurre un error al leer las ventas o al escribir las listas
+     */
+    @SuppressWarnings("try")
+    public int actualizar(LectorDiario diario, LectorTickets tickets) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            Files.createDirectories(directorio);
+            long desde = leerPosicion();
+            boolean reconstruir = desde < 0;
+            Map<String, Entradas> nuevas = new LinkedHashMap<>();
+            if (reconstruir) {
+                borrarListas();
+                tickets.leer((identificacion, numero) -> agregar(nuevas, identificacion, -numero));
+                desde = 0;
+            }
+            long hasta = diario.leer(desde, (venta, posicion) -> {
+                if (venta.getCliente() != null) {
+                    agregar(nuevas, venta.getCliente().getIdentificacion(), posicion);
+                }
+            });
+            int anexadas = 0;
+            Set<Path> directorios = new HashSet<>();
+            // Un archivo nuevo de cada directorio que recibió listas o grupos nuevos
+            Map<Path, Path> entradasNuevas = new HashMap<>();
+            for (Map.Entry<String, Entradas> lista : nuevas.entrySet()) {
+                Path archivo = archivoCliente(lista.getKey());
+                Path grupo = archivo.getParent();
+                if (directorios.add(grupo) && !Files.isDirectory(grupo)) {
+                    Files.createDirectories(grupo);
+                    entradasNuevas.putIfAbsent(directorio, grupo);
+                }
+                if (!Files.exists(archivo)) {
+                    entradasNuevas.putIfAbsent(grupo, archivo);
+                }
+                anexadas += anexar(archivo, lista.getValue());
+            }
+            for (Path archivo : entradasNuevas.values()) {
+                AtomicFile.sincronizarDirectorio(archivo);
+            }
+            if (reconstruir || hasta != desde) {
+                AtomicFile.reemplazarBytes(archivoPosicion, out -> {
+                    DataOutputStream datos = new DataOutputStream(out);
+                    datos.writeInt(MAGICO);
+                    datos.writeInt(VERSION);
+                    datos.writeLong(hasta);
+                    datos.flush();
+                });
+            }
+            return anexadas;
+        }
+    }
+
+    /**
+     * Lee una página del historial de un cliente sin tomar el candado: las listas solo se
+     * anexan, y una entrada a medio escribir al final no se cuenta.
+     *
+     * @param identificacion Identificación del cliente
+     * @param cursor PaginaVentas.PRIMERA, o el cursor siguiente de la página anterior
+     * @param tamano Máximo de ventas de la página
+     * @return La página; vacía si el cliente no tiene ventas
+     * @throws IOException Si ocurre un error al leer la lista
+     */
+    public Pagina leer(String identificacion, long cursor, int tamano) throws IOException {
+        Path archivo = archivoCliente(identificacion);
+        if (archivo == null || !Files.exists(archivo)) {
+            return new Pagina(new long[0], 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long total = channel.size() / ENTRADA;
+            long hasta = Math.min(Math.max(cursor, 0), total);
+            long desde = Math.max(hasta - Math.max(tamano, 0), 0);
+            long[] entradas = new long[(int) (hasta - desde)];
+            ByteBuffer buffer = leerCompleto(channel, ByteBuffer.allocate(entradas.length * ENTRADA),
+                desde * ENTRADA).flip();
+            for (int i = entradas.length - 1; i >= 0; i--) {
+                entradas[i] = buffer.getLong();
+            }
+            return new Pagina(entradas, desde, total);
+        }
+    }
+
+    /**
+     * @return La entrada es de un ticket de texto (ver Pagina.getEntradas)
+     */
+    public static boolean esTicket(long entrada) {
+        return entrada < 0;
+    }
+
+    private static void agregar(Map<String, Entradas> nuevas, String identificacion, long entrada) {
+        // Las identificaciones que no son válidas no pueden consultarse ni usarse como nombre
+        if (Validators.isValidIdentificacion(identificacion)) {
+            nuevas.computeIfAbsent(identificacion, k -> new Entradas()).agregar(entrada);
+        }
+    }
+
+    /**
+     * Anexa entradas al final de una lista, omitiendo las posiciones del diario que ya tiene
+     * y descartando una entrada incompleta, y la fuerza al disco si cambió.
+     *
+     * @return Cantidad de entradas anexadas
+     */
+    private static int anexar(Path archivo, Entradas entradas) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fin = channel.size() / ENTRADA * ENTRADA;
+            if (fin != channel.size()) {
+                channel.truncate(fin);
+            }
+            int primera = 0;
+            if (fin > 0) {
+                long ultima = leerCompleto(channel, ByteBuffer.allocate(ENTRADA), fin - ENTRADA).getLong(0);
+                while (primera < entradas.cantidad && entradas.valores[primera] >= 0
+                        && entradas.valores[primera] <= ultima) {
+                    primera++;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((entradas.cantidad - primera) * ENTRADA);
+            for (int i = primera; i < entradas.cantidad; i++) {
+                buffer.putLong(entradas.valores[i]);
+            }
+            if (buffer.position() > 0) {
+                escribirCompleto(channel, buffer.flip(), fin);
+                channel.force(false);
+            }
+            return entradas.cantidad - primera;
+        }
+    }
+
+    /**
+     * @return Posición del diario guardada, o -1 si no hay una válida
+     */
+    private long leerPosicion() throws IOException {
+        if (!Files.exists(archivoPosicion) || Files.size(archivoPosicion) != TAMANO_POSICION) {
+            return -1;
+        }
+        ByteBuffer posicion = ByteBuffer.wrap(Files.readAllBytes(archivoPosicion));
+        if (posicion.getInt(0) != MAGICO || posicion.getInt(4) != VERSION) {
+            return -1;
+        }
+        return posicion.getLong(8);
+    }
+
+    /**
+     * Borra las listas de todos los clientes, antes de reconstruirlas.
+     */
+    private void borrarListas() throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return;
+        }
+        try (DirectoryStream<Path> grupos = Files.newDirectoryStream(directorio, Files::isDirectory)) {
+            for (Path grupo : grupos) {
+                try (DirectoryStream<Path> listas = Files.newDirectoryStream(grupo, "*" + EXTENSION)) {
+                    for (Path lista : listas) {
+                        Files.delete(lista);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Archivo de la lista del cliente, o null si la identificación no es válida
+     */
+    private Path archivoCliente(String identificacion) {
+        if (!Validators.isValidIdentificacion(identificacion)) {
+            return null;
+        }
+        return directorio.resolve(identificacion.substring(identificacion.length() - 2))
+            .resolve(identificacion + EXTENSION);
+    }
+
+    private static ByteBuffer leerCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            int leidos = channel.read(buffer, pos);
+            if (leidos < 0) {
+                throw new IOException("Fin de archivo inesperado en el historial de ventas");
+            }
+            pos += leidos;
+        }
+        return buffer;
+    }
+
+    private static void escribirCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer, pos);
+        }
+    }
+}
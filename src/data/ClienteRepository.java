@@ -0,0 +1,317 @@
+package data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import models.Cliente;
+
+/**
+ * Clase ClienteRepository
+ *
+ * Repositorio residente en memoria de los clientes del sistema. Los clientes se cargan
+ * una sola vez desde 'data/clientes.txt' (a través de DataManager) y se indexan por su
+ * identificación en un mapa hash, de modo que las consultas son O(1). Antes de cada
+ * consulta solo se verifica si otra caja (proceso) escribió clientes desde entonces (una
+ * consulta del tamaño de la bitácora); si es así, sus cambios se aplican al índice.
+ *
+ * Toda modificación se escribe primero en disco mediante DataManager y, solo si la
+ * escritura fue exitosa, se refleja en el índice en memoria (write-through).
+ * El orden de inserción se conserva para que el listado coincida con el del archivo.
+ *
+ * El repositorio es seguro para hilos. Las consultas no toman candados: leen de mapas
+ * concurrentes y pueden ejecutarse en paralelo con cualquier escritura. Las escrituras se
+ * serializan por clave con candados particionados (lock striping) y cada una se ejecuta
+ * con los datos al día (ver DataManager.clientesAlDia): con el candado de archivo de la
+ * bitácora tomado se aplican primero los cambios de las demás cajas y luego se verifica y
+ * se escribe, por lo que dos cajas nunca registran la misma identificación. Las escrituras
+ * de distintas cajas comparten el fsync de la bitácora.
+ */
+public class ClienteRepository {
+    // Cantidad de candados de escritura; cada identificación se asigna a uno de ellos
+    private static final int PARTICIONES = 64;
+    private static final ReentrantLock[] CANDADOS = new ReentrantLock[PARTICIONES];
+    static {
+        for (int i = 0; i < PARTICIONES; i++) {
+            CANDADOS[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Cliente indexado junto con su número de registro, que fija su posición en el listado.
+     */
+    private static final class Entrada {
+        final Cliente cliente;
+        final long secuencia;
+
+        Entrada(Cliente cliente, long secuencia) {
+            this.cliente = cliente;
+            this.secuencia = secuencia;
+        }
+    }
+
+    /**
+     * Estructuras del repositorio, publicadas juntas una vez cargadas.
+     */
+    private static final class Indice {
+        // Identificación -> cliente
+        final Map<String, Entrada> clientes = new ConcurrentHashMap<>();
+        // Número de registro -> cliente, para listar en orden de registro
+        final Map<Long, Cliente> orden = new ConcurrentSkipListMap<>();
+        final AtomicLong secuencias = new AtomicLong();
+    }
+
+    // Índice cargado de forma perezosa
+    private static volatile Indice indice;
+
+    /**
+     * Carga los clientes desde disco la primera vez que se usa el repositorio.
+     */
+    private static Indice asegurarCargado() {
+        Indice actual = indice;
+        if (actual == null) {
+            synchronized (ClienteRepository.class) {
+                actual = indice;
+                if (actual == null) {
+                    actual = new Indice();
+                    for (Cliente cliente : DataManager.cargarClientes()) {
+                        colocar(actual, cliente);
+                    }
+                    DataManager.seguirClientes(seguidor(actual));
+                    indice = actual;
+                }
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Aplica al índice los cambios que otras cajas escribieron. DataManager los entrega con
+     * el mismo candado bajo el que se ejecutan las escrituras de este proceso, en el orden
+     * del archivo.
+     */
+    private static DataManager.Seguidor<Cliente> seguidor(Indice actual) {
+        return new DataManager.Seguidor<Cliente>() {
+            @Override
+            public void guardado(Cliente cliente) {
+                colocar(actual, cliente);
+            }
+
+            @Override
+            public void eliminado(String identificacion) {
+                quitar(actual, identificacion);
+            }
+
+            @Override
+            public void reemplazados(List<Cliente> clientes) {
+                Set<String> vigentes = new HashSet<>();
+                for (Cliente cliente : clientes) {
+                    vigentes.add(cliente.getIdentificacion());
+                }
+                for (String identificacion : new ArrayList<>(actual.clientes.keySet())) {
+                    if (!vigentes.contains(identificacion)) {
+                        quitar(actual, identificacion);
+                    }
+                }
+                for (Cliente cliente : clientes) {
+                    colocar(actual, cliente);
+                }
+            }
+        };
+    }
+
+    /**
+     * Agrega o reemplaza un cliente en el índice, conservando su posición si ya existía.
+     * Debe llamarse con los datos al día (ver DataManager.clientesAlDia), desde el seguidor
+     * o durante la carga.
+     */
+    private static void colocar(Indice actual, Cliente cliente) {
+        Entrada anterior = actual.clientes.get(cliente.getIdentificacion());
+        long secuencia = anterior != null ? anterior.secuencia : actual.secuencias.incrementAndGet();
+        actual.clientes.put(cliente.getIdentificacion(), new Entrada(cliente, secuencia));
+        actual.orden.put(secuencia, cliente);
+    }
+
+    private static void quitar(Indice actual, String identificacion) {
+        Entrada entrada = actual.clientes.remove(identificacion);
+        if (entrada != null) {
+            actual.orden.remove(entrada.secuencia);
+        }
+    }
+
+    private static ReentrantLock candado(String identificacion) {
+        int h = identificacion.hashCode();
+        return CANDADOS[(h ^ (h >>> 16)) & (PARTICIONES - 1)];
+    }
+
+    /**
+     * Busca un cliente por su identificación.
+     *
+     * @param identificacion La identificación del cliente
+     * @return El cliente encontrado o null si no existe
+     */
+    public static Cliente buscar(String identificacion) {
+        Entrada entrada = alDia().clientes.get(identificacion);
+        return entrada == null ? null : entrada.cliente;
+    }
+
+    /**
+     * Indica si existe un cliente con la identificación dada.
+     *
+     * @param identificacion La identificación del cliente
+     * @return true si el cliente existe
+     */
+    public static boolean existe(String identificacion) {
+        return alDia().clientes.containsKey(identificacion);
+    }
+
+    /**
+     * Retorna una copia de la lista de clientes en el orden en que fueron registrados.
+     *
+     * @return Lista de clientes
+     */
+    public static List<Cliente> listar() {
+        return new ArrayList<>(alDia().orden.values());
+    }
+
+    /**
+     * Carga el índice si hace falta y le aplica los cambios que otras cajas hayan escrito.
+     */
+    private static Indice alDia() {
+        Indice actual = asegurarCargado();
+        DataManager.refrescarClientes();
+        return actual;
+    }
+
+    /**
+     * Registra un nuevo cliente, agregándolo al archivo y al índice. La verificación de
+     * existencia y la escritura son atómicas, también entre procesos: si dos cajas registran
+     * a la vez la misma identificación, solo una lo consigue.
+     *
+     * @param cliente El cliente a registrar
+     * @return false si ya existía un cliente con la misma identificación
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static boolean agregar(Cliente cliente) throws IOException {
+        Indice actual = asegurarCargado();
+        ReentrantLock candado = candado(cliente.getIdentificacion());
+        candado.lock();
+        try {
+            return DataManager.clientesAlDia(() -> {
+                if (actual.clientes.containsKey(cliente.getIdentificacion())) {
+                    return false;
+                }
+                DataManager.guardarCliente(cliente);
+                colocar(actual, cliente);
+                return true;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Incorpora al índice clientes que ya fueron escritos en disco por una carga masiva.
+     *
+     * @param importados Los clientes importados
+     */
+    static void registrarImportados(List<Cliente> importados) {
+        Indice actual = asegurarCargado();
+        for (Cliente cliente : importados) {
+            ReentrantLock candado = candado(cliente.getIdentificacion());
+            candado.lock();
+            try {
+                colocar(actual, cliente);
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reemplaza los datos de un cliente existente en disco y en el índice. Si el cliente ya
+     * no existe (por ejemplo, otra caja lo eliminó), no se escribe nada.
+     *
+     * @param cliente El cliente con los datos actualizados
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static void actualizar(Cliente cliente) throws IOException {
+        Indice actual = asegurarCargado();
+        ReentrantLock candado = candado(cliente.getIdentificacion());
+        candado.lock();
+        try {
+            DataManager.clientesAlDia(() -> {
+                if (actual.clientes.containsKey(cliente.getIdentificacion())) {
+                    DataManager.actualizarCliente(cliente);
+                    colocar(actual, cliente);
+                }
+                return null;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Lee, modifica y escribe un cliente de forma atómica respecto de las demás escrituras
+     * sobre la misma identificación, de este u otro proceso, de modo que ninguna actualización
+     * concurrente se pierde.
+     * La función recibe el cliente actual y debe retornar un objeto nuevo con los cambios;
+     * el cliente residente no se altera si la escritura falla.
+     *
+     * @param identificacion La identificación del cliente
+     * @param cambio Función que calcula el cliente actualizado a partir del actual
+     * @return El cliente actualizado, o null si no existe
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static Cliente modificar(String identificacion, UnaryOperator<Cliente> cambio) throws IOException {
+        Indice actual = asegurarCargado();
+        ReentrantLock candado = candado(identificacion);
+        candado.lock();
+        try {
+            return DataManager.clientesAlDia(() -> {
+                Entrada entrada = actual.clientes.get(identificacion);
+                if (entrada == null) {
+                    return null;
+                }
+                Cliente cliente = cambio.apply(entrada.cliente);
+                if (!identificacion.equals(cliente.getIdentificacion())) {
+                    throw new IllegalArgumentException("La modificación no puede cambiar la identificación");
+                }
+                DataManager.actualizarCliente(cliente);
+                colocar(actual, cliente);
+                return cliente;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Elimina un cliente del archivo y del índice.
+     *
+     * @param identificacion La identificación del cliente a eliminar
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static void eliminar(String identificacion) throws IOException {
+        Indice actual = asegurarCargado();
+        ReentrantLock candado = candado(identificacion);
+        candado.lock();
+        try {
+            DataManager.clientesAlDia(() -> {
+                DataManager.eliminarCliente(identificacion);
+                quitar(actual, identificacion);
+                return null;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package data;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import models.Cliente;
 import models.Producto;
+import utils.RecordTokenizer;
 import utils.Validators;
 
 /**
@@ -21,26 +26,131 @@ import utils.Validators;
  * Formato de almacenamiento:
  * - Clientes: identificacion*tipoIdentificacion*nombres*apellidos*telefono*correo
  * - Productos: codigo*nombre*precio
+ *
+ * Las altas, actualizaciones y eliminaciones no reescriben estos archivos: se anexan a
+ * una bitácora de mutaciones (data/clientes.log y data/productos.log) que se reaplica
+ * al cargar y se compacta en segundo plano (ver MutationLog).
+ *
+ * Opcionalmente, con la propiedad del sistema -Dpos.almacenamiento=binario, los datos se
+ * guardan en archivos binarios de registros de ancho fijo (data/clientes.dat y
+ * data/productos.dat, ver BinaryRecordStore). Los métodos convertirABinario y
+ * convertirATexto migran los datos entre ambos formatos.
+ *
+ * Varias cajas (procesos) pueden compartir la carpeta 'data/'. Los repositorios registran
+ * un seguidor (ver seguirClientes y seguirProductos) que recibe los cambios escritos por las
+ * demás cajas, y ejecutan cada escritura con los datos al día (ver clientesAlDia y
+ * productosAlDia).
  */
 public class DataManager {
     // Rutas de los archivos de datos
     private static final String CLIENTES_FILE = "data/clientes.txt";
     private static final String PRODUCTOS_FILE = "data/productos.txt";
+    private static final String CLIENTES_LOG = "data/clientes.log";
+    private static final String PRODUCTOS_LOG = "data/productos.log";
+    private static final String CLIENTES_DAT = "data/clientes.dat";
+    private static final String CLIENTES_IDX = "data/clientes.idx";
+    private static final String PRODUCTOS_DAT = "data/productos.dat";
+    private static final String PRODUCTOS_IDX = "data/productos.idx";
     private static final String SEPARATOR = "*";
 
+    // Formato de almacenamiento seleccionado: texto (por defecto) o binario
+    private static final boolean ALMACENAMIENTO_BINARIO =
+        "binario".equalsIgnoreCase(System.getProperty("pos.almacenamiento"));
+
+    // Almacenes binarios, abiertos la primera vez que se usan
+    private static BinaryRecordStore<Cliente> clientesBinario;
+    private static BinaryRecordStore<Producto> productosBinario;
+
+    // Bitácoras de mutaciones de cada archivo de datos
+    private static final MutationLog clientesLog = new MutationLog(CLIENTES_FILE, CLIENTES_LOG);
+    private static final MutationLog productosLog = new MutationLog(PRODUCTOS_FILE, PRODUCTOS_LOG);
+
+    /**
+     * Recibe los cambios que otras cajas (procesos) escriben en los datos, en el orden en que
+     * fueron escritos (ver seguirClientes y seguirProductos).
+     */
+    interface Seguidor<T> {
+        void guardado(T registro);
+
+        void eliminado(String clave);
+
+        /**
+         * Otra caja compactó los datos antes de que se leyeran sus cambios: los registros
+         * dados reemplazan a todos los anteriores, y luego siguen los cambios posteriores.
+         */
+        void reemplazados(List<T> registros);
+    }
+
+    /**
+     * Registra el seguidor de los cambios que otras cajas hagan en los clientes desde la
+     * última carga (ver cargarClientes).
+     *
+     * @param seguidor Receptor de los cambios
+     */
+    static void seguirClientes(Seguidor<Cliente> seguidor) {
+        if (ALMACENAMIENTO_BINARIO) {
+            try {
+                clientesBinario().seguirCon(seguidor);
+            } catch (IOException e) {
+                System.err.println("Error al leer el archivo de clientes: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        RecordTokenizer campos = new RecordTokenizer(SEPARATOR.charAt(0));
+        clientesLog.seguirCon(base -> seguidor.reemplazados(leerBaseClientes(base)),
+            (operacion, contenido, archivo, lineNumber) -> {
+                if (operacion == MutationLog.UPSERT) {
+                    seguidor.guardado(parsearCliente(campos, contenido, archivo, lineNumber));
+                } else if (operacion == MutationLog.TOMBSTONE) {
+                    seguidor.eliminado(contenido);
+                }
+            });
+    }
+
+    /**
+     * Ejecuta una operación sobre los clientes con los cambios de las demás cajas ya
+     * entregados al seguidor y sin que ninguna otra caja escriba clientes hasta que termine,
+     * de modo que una verificación de existencia y la escritura que depende de ella son
+     * atómicas entre procesos.
+     *
+     * @param operacion La operación, que escribe con guardarCliente, actualizarCliente o eliminarCliente
+     * @return El resultado de la operación
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
+     */
+    static <R> R clientesAlDia(MutationLog.Operacion<R> operacion) throws IOException {
+        return ALMACENAMIENTO_BINARIO ? clientesBinario().alDia(operacion) : clientesLog.alDia(operacion);
+    }
+
     /**
-     * Guarda un nuevo cliente en el archivo de clientes.
-     * El cliente se agrega al final del archivo.
+     * Entrega al seguidor los cambios de clientes que otras cajas escribieron, si los hay.
+     * Un error de lectura se informa y se conservan los datos conocidos.
+     */
+    static void refrescarClientes() {
+        try {
+            if (ALMACENAMIENTO_BINARIO) {
+                clientesBinario().refrescar();
+            } else {
+                clientesLog.refrescar();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al leer los cambios de clientes de otras cajas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda un nuevo cliente.
+     * El cliente se agrega al final de la bitácora de clientes.
      * 
      * @param cliente El objeto Cliente a guardar
      * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void guardarCliente(Cliente cliente) throws IOException {
-        try (FileWriter fw = new FileWriter(CLIENTES_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
-            out.println(cliente.toString().replace(",", SEPARATOR));
+        if (ALMACENAMIENTO_BINARIO) {
+            clientesBinario().guardar(cliente);
+            return;
         }
+        clientesLog.upsert(cliente.toString().replace(",", SEPARATOR));
     }
 
     /**
@@ -53,6 +163,23 @@ public class DataManager {
      * @throws RuntimeException Si algún cliente no cumple con las validaciones
      */
     public static List<Cliente> cargarClientes() {
+        if (ALMACENAMIENTO_BINARIO) {
+            try {
+                return clientesBinario().listar();
+            } catch (IOException e) {
+                System.err.println("Error al leer el archivo de clientes: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        return cargarClientesTexto();
+    }
+
+    /**
+     * Carga todos los clientes desde el archivo de texto y su bitácora.
+     * 
+     * @return Lista de objetos Cliente
+     */
+    private static List<Cliente> cargarClientesTexto() {
         List<Cliente> clientes = new ArrayList<>();
         File file = new File(CLIENTES_FILE);
         if (!file.exists()) {
@@ -62,124 +189,221 @@ public class DataManager {
             } catch (IOException e) {
                 throw new RuntimeException("Error al crear el archivo de clientes: " + e.getMessage());
             }
-            return clientes;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineNumber = 0;
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                try {
-                    Cliente cliente = Cliente.fromString(line.replace(SEPARATOR, ","));
-                    
-                    // Validar identificación
-                    if (!Validators.isValidIdentificacion(cliente.getIdentificacion())) {
-                        System.err.println("Error en línea " + lineNumber + ": Identificación inválida - " + cliente.getIdentificacion());
-                        System.exit(1);
-                    }
-                    
-                    // Validar tipo de identificación
-                    if (!Validators.isValidTipoIdentificacion(cliente.getTipoIdentificacion())) {
-                        System.err.println("Error en línea " + lineNumber + ": Tipo de identificación inválido - " + cliente.getTipoIdentificacion());
-                        System.exit(1);
-                    }
-                    
-                    // Validar nombres
-                    if (!Validators.isValidNombres(cliente.getNombres())) {
-                        System.err.println("Error en línea " + lineNumber + ": Nombres inválidos - " + cliente.getNombres());
-                        System.exit(1);
-                    }
-                    
-                    // Validar apellidos
-                    if (!Validators.isValidApellidos(cliente.getApellidos())) {
-                        System.err.println("Error en línea " + lineNumber + ": Apellidos inválidos - " + cliente.getApellidos());
-                        System.exit(1);
-                    }
-                    
-                    // Validar teléfono
-                    if (!Validators.isValidTelefono(cliente.getTelefono())) {
-                        System.err.println("Error en línea " + lineNumber + ": Teléfono inválido - " + cliente.getTelefono());
-                        System.exit(1);
-                    }
-                    
-                    // Validar correo
-                    if (!Validators.isValidCorreo(cliente.getCorreoElectronico())) {
-                        System.err.println("Error en línea " + lineNumber + ": Correo inválido - " + cliente.getCorreoElectronico());
-                        System.exit(1);
-                    }
-                    
-                    clientes.add(cliente);
-                } catch (Exception e) {
-                    System.err.println("Error al procesar cliente en línea " + lineNumber + ": " + e.getMessage());
-                    System.exit(1);
+        }
+
+        Map<String, Cliente> indice = new LinkedHashMap<>();
+        RecordTokenizer campos = new RecordTokenizer(SEPARATOR.charAt(0));
+        try {
+            clientesLog.cargar(base -> {
+                for (Cliente cliente : leerBaseClientes(base)) {
+                    indice.put(cliente.getIdentificacion(), cliente);
                 }
-            }
+            }, (operacion, contenido, archivo, lineNumber) -> {
+                if (operacion == MutationLog.UPSERT) {
+                    Cliente cliente = parsearCliente(campos, contenido, archivo, lineNumber);
+                    indice.put(cliente.getIdentificacion(), cliente);
+                } else if (operacion == MutationLog.TOMBSTONE) {
+                    indice.remove(contenido);
+                }
+            });
         } catch (IOException e) {
             System.err.println("Error al leer el archivo de clientes: " + e.getMessage());
             System.exit(1);
         }
+        clientes.addAll(indice.values());
         return clientes;
     }
 
+    /**
+     * Lee en paralelo el archivo base de clientes.
+     * Si algún cliente no cumple con las validaciones, detiene la ejecución del programa.
+     */
+    private static List<Cliente> leerBaseClientes(File base) throws IOException {
+        if (!base.exists()) {
+            return new ArrayList<>();
+        }
+        ParallelLoader.Resultado<Cliente> resultado = ParallelLoader.cargar(base.toPath(), 6,
+            valores -> new Cliente(valores[0], valores[1], valores[2], valores[3], valores[4], valores[5]),
+            DataManager::validarCliente);
+        detenerSiHayErrores(resultado.getErrores());
+        return resultado.getRegistros();
+    }
+
     /**
      * Actualiza los datos de un cliente existente.
-     * Busca el cliente por su identificación y actualiza sus datos.
+     * Agrega a la bitácora un registro con los datos actualizados del cliente.
      * 
      * @param cliente El objeto Cliente con los datos actualizados
-     * @throws IOException Si ocurre un error al leer o escribir en el archivo
+     * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void actualizarCliente(Cliente cliente) throws IOException {
-        List<Cliente> clientes = cargarClientes();
-        for (int i = 0; i < clientes.size(); i++) {
-            if (clientes.get(i).getIdentificacion().equals(cliente.getIdentificacion())) {
-                clientes.set(i, cliente);
-                break;
-            }
+        if (ALMACENAMIENTO_BINARIO) {
+            clientesBinario().actualizar(cliente);
+            return;
         }
-        guardarClientes(clientes);
+        clientesLog.upsert(cliente.toString().replace(",", SEPARATOR));
     }
 
     /**
-     * Elimina un cliente del archivo por su identificación.
+     * Elimina un cliente por su identificación.
+     * Agrega a la bitácora una lápida con la identificación del cliente.
      * 
      * @param identificacion La identificación del cliente a eliminar
-     * @throws IOException Si ocurre un error al leer o escribir en el archivo
+     * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void eliminarCliente(String identificacion) throws IOException {
-        List<Cliente> clientes = cargarClientes();
-        clientes.removeIf(c -> c.getIdentificacion().equals(identificacion));
-        guardarClientes(clientes);
+        if (ALMACENAMIENTO_BINARIO) {
+            clientesBinario().eliminar(identificacion);
+            return;
+        }
+        clientesLog.tombstone(identificacion);
     }
 
     /**
-     * Guarda la lista completa de clientes en el archivo.
-     * Sobrescribe el contenido actual del archivo.
+     * Convierte una línea almacenada en un Cliente y valida sus datos.
+     * Si algún dato no cumple con las validaciones, detiene la ejecución del programa.
      * 
-     * @param clientes Lista de clientes a guardar
-     * @throws IOException Si ocurre un error al escribir en el archivo
+     * @param campos Tokenizador reutilizable para recorrer los campos de la línea
+     * @param line Línea en formato identificacion*tipo*nombres*apellidos*telefono*correo
+     * @param archivo Nombre del archivo de la línea, para los mensajes de error
+     * @param lineNumber Número de la línea, para los mensajes de error
+     * @return El cliente leído
      */
-    private static void guardarClientes(List<Cliente> clientes) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(CLIENTES_FILE))) {
-            for (Cliente cliente : clientes) {
-                out.println(cliente.toString().replace(",", SEPARATOR));
+    private static Cliente parsearCliente(RecordTokenizer campos, String line, String archivo, int lineNumber) {
+        try {
+            campos.reset(line);
+            Cliente cliente = new Cliente(
+                campos.expect("identificación").text(),
+                campos.expect("tipo de identificación").text(),
+                campos.expect("nombres").text(),
+                campos.expect("apellidos").text(),
+                campos.expect("teléfono").text(),
+                campos.expect("correo").text());
+            String error = validarCliente(cliente);
+            if (error != null) {
+                System.err.println("Error en línea " + lineNumber + " de " + archivo + ": " + error);
+                System.exit(1);
             }
+            return cliente;
+        } catch (Exception e) {
+            System.err.println("Error al procesar cliente en línea " + lineNumber + " de " + archivo +
+                ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Valida los datos de un cliente.
+     * 
+     * @param cliente El cliente a validar
+     * @return null si el cliente es válido, o el motivo por el que no lo es
+     */
+    static String validarCliente(Cliente cliente) {
+        if (!Validators.isValidIdentificacion(cliente.getIdentificacion())) {
+            return "Identificación inválida - " + cliente.getIdentificacion();
+        }
+        if (!Validators.isValidTipoIdentificacion(cliente.getTipoIdentificacion())) {
+            return "Tipo de identificación inválido - " + cliente.getTipoIdentificacion();
+        }
+        if (!Validators.isValidNombres(cliente.getNombres())) {
+            return "Nombres inválidos - " + cliente.getNombres();
+        }
+        if (!Validators.isValidApellidos(cliente.getApellidos())) {
+            return "Apellidos inválidos - " + cliente.getApellidos();
+        }
+        if (!Validators.isValidTelefono(cliente.getTelefono())) {
+            return "Teléfono inválido - " + cliente.getTelefono();
+        }
+        if (!Validators.isValidCorreo(cliente.getCorreoElectronico())) {
+            return "Correo inválido - " + cliente.getCorreoElectronico();
         }
+        return null;
     }
 
     /**
-     * Guarda un nuevo producto en el archivo de productos.
-     * El producto se agrega al final del archivo.
+     * Reporta el primer registro inválido de una carga y detiene la ejecución del programa.
+     * 
+     * @param errores Errores encontrados durante la carga
+     */
+    private static void detenerSiHayErrores(List<ErrorLinea> errores) {
+        if (!errores.isEmpty()) {
+            System.err.println("Error en " + errores.get(0));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Registra el seguidor de los cambios que otras cajas hagan en los productos desde la
+     * última carga (ver cargarProductos).
+     *
+     * @param seguidor Receptor de los cambios
+     */
+    static void seguirProductos(Seguidor<Producto> seguidor) {
+        if (ALMACENAMIENTO_BINARIO) {
+            try {
+                productosBinario().seguirCon(seguidor);
+            } catch (IOException e) {
+                System.err.println("Error al leer el archivo de productos: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        RecordTokenizer campos = new RecordTokenizer(SEPARATOR.charAt(0));
+        productosLog.seguirCon(base -> seguidor.reemplazados(leerBaseProductos(base)),
+            (operacion, contenido, archivo, lineNumber) -> {
+                if (operacion == MutationLog.UPSERT) {
+                    seguidor.guardado(parsearProducto(campos, contenido, archivo, lineNumber));
+                } else if (operacion == MutationLog.TOMBSTONE) {
+                    seguidor.eliminado(contenido);
+                }
+            });
+    }
+
+    /**
+     * Ejecuta una operación sobre los productos con los cambios de las demás cajas ya
+     * entregados al seguidor y sin que ninguna otra caja escriba productos hasta que termine
+     * (ver clientesAlDia).
+     *
+     * @param operacion La operación, que escribe con guardarProducto, actualizarProducto o eliminarProducto
+     * @return El resultado de la operación
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
+     */
+    static <R> R productosAlDia(MutationLog.Operacion<R> operacion) throws IOException {
+        return ALMACENAMIENTO_BINARIO ? productosBinario().alDia(operacion) : productosLog.alDia(operacion);
+    }
+
+    /**
+     * Entrega al seguidor los cambios de productos que otras cajas escribieron, si los hay,
+     * por ejemplo un cambio de precio antes de consultarlo en una venta. Cuando no hay
+     * cambios cuesta una sola consulta del tamaño de un archivo. Un error de lectura se
+     * informa y se conservan los datos conocidos.
+     */
+    static void refrescarProductos() {
+        try {
+            if (ALMACENAMIENTO_BINARIO) {
+                productosBinario().refrescar();
+            } else {
+                productosLog.refrescar();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al leer los cambios de productos de otras cajas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda un nuevo producto.
+     * El producto se agrega al final de la bitácora de productos.
      * 
      * @param producto El objeto Producto a guardar
      * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void guardarProducto(Producto producto) throws IOException {
-        try (FileWriter fw = new FileWriter(PRODUCTOS_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
-            out.println(producto.toString().replace(",", SEPARATOR));
+        if (ALMACENAMIENTO_BINARIO) {
+            productosBinario().guardar(producto);
+            return;
         }
+        productosLog.upsert(producto.toString().replace(",", SEPARATOR));
     }
 
     /**
@@ -192,6 +416,23 @@ public class DataManager {
      * @throws RuntimeException Si algún producto no cumple con las validaciones
      */
     public static List<Producto> cargarProductos() {
+        if (ALMACENAMIENTO_BINARIO) {
+            try {
+                return productosBinario().listar();
+            } catch (IOException e) {
+                System.err.println("Error al leer el archivo de productos: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        return cargarProductosTexto();
+    }
+
+    /**
+     * Carga todos los productos desde el archivo de texto y su bitácora.
+     * 
+     * @return Lista de objetos Producto
+     */
+    private static List<Producto> cargarProductosTexto() {
         List<Producto> productos = new ArrayList<>();
         File file = new File(PRODUCTOS_FILE);
         if (!file.exists()) {
@@ -202,90 +443,256 @@ public class DataManager {
                 System.err.println("Error al crear el archivo de productos: " + e.getMessage());
                 System.exit(1);
             }
-            return productos;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineNumber = 0;
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                try {
-                    Producto producto = Producto.fromString(line.replace(SEPARATOR, ","));
-                    
-                    // Validar código
-                    if (!Validators.isValidCodigoProducto(producto.getCodigo())) {
-                        System.err.println("Error en línea " + lineNumber + ": Código inválido - " + producto.getCodigo());
-                        System.exit(1);
-                    }
-                    
-                    // Validar nombre
-                    if (!Validators.isValidNombreProducto(producto.getNombre())) {
-                        System.err.println("Error en línea " + lineNumber + ": Nombre inválido - " + producto.getNombre());
-                        System.exit(1);
-                    }
-                    
-                    // Validar precio
-                    if (!Validators.isValidPrecio(producto.getPrecioVenta())) {
-                        System.err.println("Error en línea " + lineNumber + ": Precio inválido - " + producto.getPrecioVenta());
-                        System.exit(1);
-                    }
-                    
-                    productos.add(producto);
-                } catch (Exception e) {
-                    System.err.println("Error al procesar producto en línea " + lineNumber + ": " + e.getMessage());
-                    System.exit(1);
+        }
+
+        Map<String, Producto> indice = new LinkedHashMap<>();
+        RecordTokenizer campos = new RecordTokenizer(SEPARATOR.charAt(0));
+        try {
+            productosLog.cargar(base -> {
+                for (Producto producto : leerBaseProductos(base)) {
+                    indice.put(producto.getCodigo(), producto);
                 }
-            }
+            }, (operacion, contenido, archivo, lineNumber) -> {
+                if (operacion == MutationLog.UPSERT) {
+                    Producto producto = parsearProducto(campos, contenido, archivo, lineNumber);
+                    indice.put(producto.getCodigo(), producto);
+                } else if (operacion == MutationLog.TOMBSTONE) {
+                    indice.remove(contenido);
+                }
+            });
         } catch (IOException e) {
             System.err.println("Error al leer el archivo de productos: " + e.getMessage());
             System.exit(1);
         }
+        productos.addAll(indice.values());
         return productos;
     }
 
+    /**
+     * Lee en paralelo el archivo base de productos.
+     * Si algún producto no cumple con las validaciones, detiene la ejecución del programa.
+     */
+    private static List<Producto> leerBaseProductos(File base) throws IOException {
+        if (!base.exists()) {
+            return new ArrayList<>();
+        }
+        ParallelLoader.Resultado<Producto> resultado = ParallelLoader.cargar(base.toPath(), 3,
+            valores -> new Producto(valores[0], valores[1],
+                RecordTokenizer.parseFloat(valores[2], 0, valores[2].length())),
+            DataManager::validarProducto);
+        detenerSiHayErrores(resultado.getErrores());
+        return resultado.getRegistros();
+    }
+
     /**
      * Actualiza los datos de un producto existente.
-     * Busca el producto por su código y actualiza sus datos.
+     * Agrega a la bitácora un registro con los datos actualizados del producto.
      * 
      * @param producto El objeto Producto con los datos actualizados
-     * @throws IOException Si ocurre un error al leer o escribir en el archivo
+     * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void actualizarProducto(Producto producto) throws IOException {
-        List<Producto> productos = cargarProductos();
-        for (int i = 0; i < productos.size(); i++) {
-            if (productos.get(i).getCodigo().equals(producto.getCodigo())) {
-                productos.set(i, producto);
-                break;
-            }
+        if (ALMACENAMIENTO_BINARIO) {
+            productosBinario().actualizar(producto);
+            return;
         }
-        guardarProductos(productos);
+        productosLog.upsert(producto.toString().replace(",", SEPARATOR));
     }
 
     /**
-     * Elimina un producto del archivo por su código.
+     * Elimina un producto por su código.
+     * Agrega a la bitácora una lápida con el código del producto.
      * 
      * @param codigo El código del producto a eliminar
-     * @throws IOException Si ocurre un error al leer o escribir en el archivo
+     * @throws IOException Si ocurre un error al escribir en el archivo
      */
     public static void eliminarProducto(String codigo) throws IOException {
-        List<Producto> productos = cargarProductos();
-        productos.removeIf(p -> p.getCodigo().equals(codigo));
-        guardarProductos(productos);
+        if (ALMACENAMIENTO_BINARIO) {
+            productosBinario().eliminar(codigo);
+            return;
+        }
+        productosLog.tombstone(codigo);
     }
 
     /**
-     * Guarda la lista completa de productos en el archivo.
-     * Sobrescribe el contenido actual del archivo.
+     * Convierte una línea almacenada en un Producto y valida sus datos.
+     * Si algún dato no cumple con las validaciones, detiene la ejecución del programa.
      * 
-     * @param productos Lista de productos a guardar
-     * @throws IOException Si ocurre un error al escribir en el archivo
+     * @param campos Tokenizador reutilizable para recorrer los campos de la línea
+     * @param line Línea en formato codigo*nombre*precio
+     * @param archivo Nombre del archivo de la línea, para los mensajes de error
+     * @param lineNumber Número de la línea, para los mensajes de error
+     * @return El producto leído
+     */
+    private static Producto parsearProducto(RecordTokenizer campos, String line, String archivo, int lineNumber) {
+        try {
+            campos.reset(line);
+            Producto producto = new Producto(
+                campos.expect("código").text(),
+                campos.expect("nombre").text(),
+                campos.expect("precio").parseFloat());
+            String error = validarProducto(producto);
+            if (error != null) {
+                System.err.println("Error en línea " + lineNumber + " de " + archivo + ": " + error);
+                System.exit(1);
+            }
+            return producto;
+        } catch (Exception e) {
+            System.err.println("Error al procesar producto en línea " + lineNumber + " de " + archivo +
+                ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Valida los datos de un producto.
+     * 
+     * @param producto El producto a validar
+     * @return null si el producto es válido, o el motivo por el que no lo es
+     */
+    static String validarProducto(Producto producto) {
+        if (!Validators.isValidCodigoProducto(producto.getCodigo())) {
+            return "Código inválido - " + producto.getCodigo();
+        }
+        if (!Validators.isValidNombreProducto(producto.getNombre())) {
+            return "Nombre inválido - " + producto.getNombre();
+        }
+        if (!Validators.isValidPrecio(producto.getPrecioVenta())) {
+            return "Precio inválido - " + producto.getPrecioVenta();
+        }
+        return null;
+    }
+
+    /**
+     * Destino de escritura de una carga masiva (ver BulkImporter). Cada bloque se escribe
+     * sin sincronizar con el disco; al cerrar el destino se sincroniza una sola vez.
+     */
+    interface DestinoLote<T> extends Closeable {
+        void escribir(List<T> registros) throws IOException;
+    }
+
+    /**
+     * Abre un destino de carga masiva de clientes en el formato de almacenamiento activo.
+     */
+    static DestinoLote<Cliente> abrirLoteClientes() throws IOException {
+        return ALMACENAMIENTO_BINARIO ? loteBinario(clientesBinario()) : loteTexto(clientesLog);
+    }
+
+    /**
+     * Abre un destino de carga masiva de productos en el formato de almacenamiento activo.
+     */
+    static DestinoLote<Producto> abrirLoteProductos() throws IOException {
+        return ALMACENAMIENTO_BINARIO ? loteBinario(productosBinario()) : loteTexto(productosLog);
+    }
+
+    private static <T> DestinoLote<T> loteTexto(MutationLog bitacora) throws IOException {
+        MutationLog.Lote lote = bitacora.abrirLote();
+        return new DestinoLote<T>() {
+            @Override
+            public void escribir(List<T> registros) throws IOException {
+                List<String> lineas = new ArrayList<>(registros.size());
+                for (T registro : registros) {
+                    lineas.add(registro.toString().replace(",", SEPARATOR));
+                }
+                lote.upserts(lineas);
+            }
+
+            @Override
+            public void close() throws IOException {
+                lote.close();
+            }
+        };
+    }
+
+    private static <T> DestinoLote<T> loteBinario(BinaryRecordStore<T> store) {
+        return new DestinoLote<T>() {
+            @Override
+            public void escribir(List<T> registros) throws IOException {
+                store.guardarLote(registros);
+            }
+
+            @Override
+            public void close() throws IOException {
+                store.sincronizar();
+            }
+        };
+    }
+
+    private static synchronized BinaryRecordStore<Cliente> clientesBinario() throws IOException {
+        if (clientesBinario == null) {
+            clientesBinario = new BinaryRecordStore<>(Paths.get(CLIENTES_DAT), Paths.get(CLIENTES_IDX),
+                BinaryRecordStore.CLIENTES);
+        }
+        return clientesBinario;
+    }
+
+    private static synchronized BinaryRecordStore<Producto> productosBinario() throws IOException {
+        if (productosBinario == null) {
+            productosBinario = new BinaryRecordStore<>(Paths.get(PRODUCTOS_DAT), Paths.get(PRODUCTOS_IDX),
+                BinaryRecordStore.PRODUCTOS);
+        }
+        return productosBinario;
+    }
+
+    /**
+     * Convierte los archivos de texto (incluidas sus bitácoras) al formato binario.
+     * Los archivos binarios existentes se reemplazan. Debe ejecutarse con la aplicación cerrada.
+     * 
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
      */
-    private static void guardarProductos(List<Producto> productos) throws IOException {
-        try (PrintWriter out = new PrintWriter(new FileWriter(PRODUCTOS_FILE))) {
+    public static void convertirABinario() throws IOException {
+        List<Cliente> clientes = cargarClientesTexto();
+        List<Producto> productos = cargarProductosTexto();
+        for (String archivo : new String[] {CLIENTES_DAT, CLIENTES_IDX, PRODUCTOS_DAT, PRODUCTOS_IDX}) {
+            Files.deleteIfExists(Paths.get(archivo));
+        }
+        try (BinaryRecordStore<Cliente> store = new BinaryRecordStore<>(Paths.get(CLIENTES_DAT),
+                Paths.get(CLIENTES_IDX), BinaryRecordStore.CLIENTES)) {
+            for (Cliente cliente : clientes) {
+                store.guardar(cliente);
+            }
+        }
+        try (BinaryRecordStore<Producto> store = new BinaryRecordStore<>(Paths.get(PRODUCTOS_DAT),
+                Paths.get(PRODUCTOS_IDX), BinaryRecordStore.PRODUCTOS)) {
             for (Producto producto : productos) {
-                out.println(producto.toString().replace(",", SEPARATOR));
+                store.guardar(producto);
             }
         }
     }
+
+    /**
+     * Convierte los archivos binarios a los archivos de texto y descarta las bitácoras,
+     * que ya quedan incorporadas. Debe ejecutarse con la aplicación cerrada.
+     * 
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
+     */
+    public static void convertirATexto() throws IOException {
+        List<Cliente> clientes;
+        List<Producto> productos;
+        try (BinaryRecordStore<Cliente> store = new BinaryRecordStore<>(Paths.get(CLIENTES_DAT),
+                Paths.get(CLIENTES_IDX), BinaryRecordStore.CLIENTES)) {
+            clientes = store.listar();
+        }
+        try (BinaryRecordStore<Producto> store = new BinaryRecordStore<>(Paths.get(PRODUCTOS_DAT),
+                Paths.get(PRODUCTOS_IDX), BinaryRecordStore.PRODUCTOS)) {
+            productos = store.listar();
+        }
+        escribirTexto(CLIENTES_FILE, clientes);
+        escribirTexto(PRODUCTOS_FILE, productos);
+        // También una bitácora rotada por una compactación interrumpida, que se reaplicaría al cargar
+        for (String log : new String[] {CLIENTES_LOG, PRODUCTOS_LOG}) {
+            Files.deleteIfExists(Paths.get(log));
+            Files.deleteIfExists(Paths.get(log + ".compactando"));
+        }
+    }
+
+    private static void escribirTexto(String archivo, List<?> registros) throws IOException {
+        AtomicFile.reemplazar(Paths.get(archivo), out -> {
+            for (Object registro : registros) {
+                out.write(registro.toString().replace(",", SEPARATOR));
+                out.write(System.lineSeparator());
+            }
+        });
+    }
 } 
\ No newline at end of file
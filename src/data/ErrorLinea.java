@@ -0,0 +1,30 @@
+package data;
+
+/**
+ * Clase ErrorLinea
+ *
+ * Describe un registro rechazado al leer un archivo de datos: el número de línea
+ * (empezando en 1) y el motivo del rechazo.
+ */
+public class ErrorLinea {
+    private final long linea;
+    private final String mensaje;
+
+    public ErrorLinea(long linea, String mensaje) {
+        this.linea = linea;
+        this.mensaje = mensaje;
+    }
+
+    public long getLinea() {
+        return linea;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "línea " + linea + ": " + mensaje;
+    }
+}
@@ -0,0 +1,53 @@
+package data;
+
+import java.util.List;
+
+/**
+ * Clase ImportReport
+ *
+ * Resultado de una carga masiva: cantidad de líneas leídas, registros importados y los
+ * errores encontrados por línea. Para no agotar la memoria con archivos muy dañados, solo
+ * se conserva el detalle de los primeros errores; getTotalErrores cuenta todos.
+ */
+public class ImportReport {
+    private final long lineas;
+    private final long importados;
+    private final long totalErrores;
+    private final List<ErrorLinea> errores;
+    private final long duracionMillis;
+
+    ImportReport(long lineas, long importados, long totalErrores, List<ErrorLinea> errores,
+            long duracionMillis) {
+        this.lineas = lineas;
+        this.importados = importados;
+        this.totalErrores = totalErrores;
+        this.errores = errores;
+        this.duracionMillis = duracionMillis;
+    }
+
+    public long getLineas() {
+        return lineas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public long getTotalErrores() {
+        return totalErrores;
+    }
+
+    public List<ErrorLinea> getErrores() {
+        return errores;
+    }
+
+    public long getDuracionMillis() {
+        return duracionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Líneas: " + lineas + ", importados: " + importados + ", rechazados: " + totalErrores
+            + ", duración: " + duracionMillis + " ms";
+    }
+}
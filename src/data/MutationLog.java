@@ -0,0 +1,757 @@
+package data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Clase MutationLog
+ *
+ * Bitácora de mutaciones de solo anexado para un archivo de datos (clientes o productos).
+ * En lugar de reescribir el archivo completo en cada cambio, cada alta o actualización se
+ * agrega como un registro "upsert" y cada eliminación como una "lápida" (tombstone):
+ *
+ * - U*registro    (el registro completo, con el mismo formato del archivo base)
+ * - D*clave       (la clave del registro eliminado)
+ *
+ * Al iniciar, los datos se reconstruyen leyendo el archivo base y luego reaplicando la
+ * bitácora. Cuando la bitácora crece por encima de un umbral, un hilo en segundo plano la
+ * compacta: se rota a un archivo ".compactando", se combina con el archivo base en un
+ * archivo temporal sincronizado con el disco y este reemplaza atómicamente al archivo base
+ * (ver AtomicFile). Reaplicar una bitácora ya compactada es idempotente, por lo que una
+ * caída a mitad de la compactación no pierde datos.
+ *
+ * Cada registro anexado se sincroniza con el disco antes de confirmar la operación. Para no
+ * pagar un fsync por cada caja, las sincronizaciones se agrupan (group commit): el primer
+ * hilo que necesita sincronizar fuerza la bitácora una vez por todos los registros escritos
+ * hasta ese momento, y los hilos que llegan mientras tanto esperan ese mismo fsync o el
+ * siguiente.
+ *
+ * Varias cajas (procesos) pueden compartir el mismo directorio de datos. Cada escritura en
+ * la bitácora se hace con el candado de archivo de la bitácora tomado (ver SharedFileLock),
+ * solo mientras dura la escritura; el fsync se hace fuera del candado. Antes de escribir se
+ * verifica que el canal abierto siga apuntando a la bitácora activa, porque otro proceso
+ * pudo haberla rotado. La compactación usa su propio candado de archivo, de modo que solo
+ * un proceso compacta a la vez.
+ *
+ * Cada proceso recuerda hasta qué byte leyó la bitácora. Con un seguidor registrado (ver
+ * seguirCon), antes de cada escritura y en cada refrescar se le entregan los registros que
+ * otros procesos anexaron desde entonces, de modo que los datos en memoria de todas las cajas
+ * coinciden. Si otro proceso terminó una compactación antes de que se leyeran esos registros,
+ * el seguidor recibe de nuevo el archivo base completo y las bitácoras desde el principio.
+ */
+class MutationLog {
+    static final char UPSERT = 'U';
+    static final char TOMBSTONE = 'D';
+    static final String SEPARATOR = "*";
+
+    // Tamaño de la bitácora a partir del cual se programa una compactación
+    private static final long UMBRAL_COMPACTACION = 1024 * 1024;
+
+    // Un único hilo de compactación compartido por todas las bitácoras
+    private static final ExecutorService COMPACTADOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "compactador-datos");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Lee el archivo base durante la reconstrucción de los datos.
+     */
+    interface LectorBase {
+        void leer(File base) throws IOException;
+    }
+
+    /**
+     * Recibe cada registro de la bitácora durante la reconstrucción de los datos.
+     */
+    interface Visitor {
+        void registro(char operacion, String contenido, String archivo, int lineNumber);
+    }
+
+    private final File base;
+    private final File log;
+    private final File compactando;
+    private final SharedFileLock candadoLog;
+    private final SharedFileLock candadoCompactacion;
+    private long tamanoLog = -1;
+    private boolean compactacionPendiente;
+    private int lotesActivos;
+
+    // Canal de anexado de la bitácora activa; se cierra al rotarla
+    private volatile FileChannel canal;
+    // Identidad del archivo al que apunta el canal (ver identidad)
+    private Object identidadCanal;
+    // Registros anexados (protegido por el candado de la bitácora)
+    private long escritos;
+
+    // Seguimiento de los registros de otros procesos (ver seguir), protegido por el candado
+    // de la bitácora: identidad del archivo base, de la bitácora rotada y de la bitácora
+    // activa ya leídas, y hasta qué byte se leyó la bitácora activa
+    private LectorBase recarga;
+    private volatile Visitor seguidor;
+    private Object baseLeida;
+    private Object compactandoLeida;
+    private Object logLeida;
+    private volatile long leidoHasta;
+    private int lineasLeidas;
+
+    // Estado del group commit, protegido por 'sincronizacion'
+    private final Object sincronizacion = new Object();
+    // Serializa los fsync del canal con su cierre durante la rotación
+    private final Object forzado = new Object();
+    private long durables;
+    private boolean sincronizando;
+
+    MutationLog(String baseFile, String logFile) {
+        this.base = new File(baseFile);
+        this.log = new File(logFile);
+        this.compactando = new File(logFile + ".compactando");
+        this.candadoLog = SharedFileLock.para(log.toPath());
+        this.candadoCompactacion = SharedFileLock.para(compactando.toPath());
+    }
+
+    /**
+     * Agrega un registro upsert a la bitácora.
+     *
+     * @param registro El registro completo en el formato del archivo base
+     * @throws IOException Si ocurre un error al escribir en la bitácora
+     */
+    void upsert(String registro) throws IOException {
+        anexar(UPSERT + SEPARATOR + registro);
+    }
+
+    /**
+     * Agrega una lápida a la bitácora.
+     *
+     * @param clave La clave del registro eliminado
+     * @throws IOException Si ocurre un error al escribir en la bitácora
+     */
+    void tombstone(String clave) throws IOException {
+        anexar(TOMBSTONE + SEPARATOR + clave);
+    }
+
+    /**
+     * Anexa una línea a la bitácora y espera a que sea durable. Dentro de alDia la espera se
+     * deja para el final de la operación, fuera del candado.
+     */
+    @SuppressWarnings("try")
+    private void anexar(String linea) throws IOException {
+        boolean esperar = !Thread.holdsLock(this);
+        long numero;
+        synchronized (this) {
+            ByteBuffer bytes = Charset.defaultCharset().encode(linea + System.lineSeparator());
+            try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                seguir();
+                if (canal != null && !identidad(log).equals(identidadCanal)) {
+                    // Otro proceso rotó la bitácora: lo escrito en el canal anterior ya quedó en ella
+                    cerrarCanal();
+                }
+                if (canal == null) {
+                    canal = FileChannel.open(log.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    identidadCanal = identidad(log);
+                    leyendoDesdeElInicio(identidadCanal);
+                }
+                while (bytes.hasRemaining()) {
+                    canal.write(bytes);
+                }
+                tamanoLog = canal.size();
+                leidoHastaElFinal(tamanoLog);
+            }
+            numero = ++escritos;
+            programarCompactacionSiNecesario();
+        }
+        if (esperar) {
+            esperarDurable(numero);
+        }
+    }
+
+    /**
+     * Operación que se ejecuta con la bitácora al día (ver alDia).
+     */
+    interface Operacion<R> {
+        R ejecutar() throws IOException;
+    }
+
+    /**
+     * Ejecuta una operación con la bitácora al día: con el candado de la bitácora (y su
+     * candado de archivo) tomado, primero entrega al seguidor los registros que otros
+     * procesos anexaron y luego ejecuta la operación, que puede consultar los datos y anexar
+     * registros sin que ningún otro hilo ni proceso escriba entre la consulta y la escritura.
+     * Los registros anexados por la operación se esperan durables al final, fuera del
+     * candado, para que las demás cajas compartan el fsync.
+     *
+     * @param operacion La operación a ejecutar
+     * @return El resultado de la operación
+     * @throws IOException Si ocurre un error al leer o escribir la bitácora
+     */
+    @SuppressWarnings("try")
+    <R> R alDia(Operacion<R> operacion) throws IOException {
+        R resultado;
+        long numero;
+        synchronized (this) {
+            long antes = escritos;
+            try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                seguir();
+                resultado = operacion.ejecutar();
+            }
+            numero = escritos > antes ? escritos : 0;
+        }
+        if (numero > 0) {
+            esperarDurable(numero);
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra quién recibe los registros que otros procesos anexen desde la última carga.
+     * El lector de la base solo se usa si otro proceso terminó una compactación antes de que
+     * se leyeran sus registros: recibe el archivo base completo, que reemplaza a todos los
+     * datos anteriores, y a continuación el visitor recibe las bitácoras desde el principio.
+     *
+     * @param recarga Lector del archivo base completo
+     * @param visitor Receptor de cada registro nuevo, en el orden en que fue escrito
+     */
+    synchronized void seguirCon(LectorBase recarga, Visitor visitor) {
+        this.recarga = recarga;
+        this.seguidor = visitor;
+    }
+
+    /**
+     * Entrega al seguidor los registros nuevos solo si la bitácora cambió de tamaño desde la
+     * última lectura. La comprobación es una sola consulta del tamaño del archivo, sin
+     * candados, por lo que puede hacerse antes de cada consulta.
+     *
+     * @throws IOException Si ocurre un error al leer la bitácora
+     */
+    @SuppressWarnings("try")
+    void refrescar() throws IOException {
+        if (seguidor != null && log.length() != leidoHasta) {
+            synchronized (this) {
+                try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                    seguir();
+                }
+            }
+        }
+    }
+
+    /**
+     * Entrega al seguidor los registros que otros procesos anexaron desde la última lectura.
+     * Mientras no cambie el archivo base (ninguna compactación terminó), todos esos registros
+     * siguen en la bitácora activa o en la rotada, donde se retoma la lectura. Se llama con el
+     * candado de la bitácora (y su candado de archivo) tomado.
+     */
+    private void seguir() throws IOException {
+        if (seguidor == null) {
+            return;
+        }
+        Object logActual = identidadSiExiste(log);
+        Object compactandoActual = identidadSiExiste(compactando);
+        long posicion;
+        if (!Objects.equals(identidadBase(), baseLeida)) {
+            posicion = releer();
+        } else if (logLeida != null && logLeida.equals(logActual)) {
+            posicion = leerDesde(log, leidoHasta);
+        } else if (logLeida != null && logLeida.equals(compactandoActual)) {
+            // La bitácora que se venía leyendo fue rotada y sigue sin combinarse con la base
+            leerDesde(compactando, leidoHasta);
+            posicion = leerDesdeElInicio(log);
+        } else if (logLeida == null) {
+            // No había bitácora activa; la nueva pudo haber sido rotada desde entonces
+            if (compactandoActual != null && !compactandoActual.equals(compactandoLeida)) {
+                leerDesdeElInicio(compactando);
+            }
+            posicion = leerDesdeElInicio(log);
+        } else {
+            posicion = releer();
+        }
+        marcarLeido(logActual, compactandoActual, posicion);
+    }
+
+    /**
+     * Entrega al seguidor el archivo base completo y las bitácoras desde el principio.
+     *
+     * @return Hasta qué byte se leyó la bitácora activa
+     */
+    private long releer() throws IOException {
+        recarga.leer(base);
+        leerDesdeElInicio(compactando);
+        return leerDesdeElInicio(log);
+    }
+
+    private void marcarLeido(Object logActual, Object compactandoActual, long posicion) throws IOException {
+        baseLeida = identidadBase();
+        compactandoLeida = compactandoActual;
+        logLeida = logActual;
+        leidoHasta = posicion;
+    }
+
+    /**
+     * Ajusta el seguimiento cuando este proceso crea la bitácora activa, que hasta entonces
+     * no existía y por lo tanto ya estaba leída. Se llama con el candado de archivo tomado.
+     */
+    private void leyendoDesdeElInicio(Object identidadNueva) {
+        if (seguidor != null && logLeida == null) {
+            logLeida = identidadNueva;
+            leidoHasta = 0;
+            lineasLeidas = 0;
+        }
+    }
+
+    /**
+     * Marca como leídos los registros que este proceso acaba de anexar; los de otros procesos
+     * ya se entregaron al seguidor antes de escribir. Se llama con el candado de archivo tomado.
+     */
+    private void leidoHastaElFinal(long tamano) {
+        if (seguidor != null) {
+            leidoHasta = tamano;
+        }
+    }
+
+    private long leerDesdeElInicio(File archivo) throws IOException {
+        lineasLeidas = 0;
+        return archivo.exists() ? leerDesde(archivo, 0) : 0;
+    }
+
+    /**
+     * Entrega al seguidor las líneas completas de un archivo a partir de un byte dado. Una
+     * línea sin salto de línea al final (todavía incompleta) no se entrega.
+     *
+     * @return La posición siguiente a la última línea completa
+     */
+    private long leerDesde(File archivo, long desde) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        long leido = desde;
+        try (FileChannel channel = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            long fin = channel.size();
+            if (fin <= desde) {
+                return desde;
+            }
+            byte[] bloque = new byte[(int) Math.min(fin - desde, 1 << 20)];
+            int pendientes = 0;
+            long pos = desde;
+            while (pos < fin) {
+                int n = channel.read(ByteBuffer.wrap(bloque, pendientes,
+                    (int) Math.min(bloque.length - pendientes, fin - pos)), pos);
+                if (n < 0) {
+                    break;
+                }
+                pos += n;
+                int total = pendientes + n;
+                int inicio = 0;
+                for (int i = 0; i < total; i++) {
+                    if (bloque[i] == '\n') {
+                        int finLinea = i > inicio && bloque[i - 1] == '\r' ? i - 1 : i;
+                        String line = new String(bloque, inicio, finLinea - inicio, charset);
+                        lineasLeidas++;
+                        if (line.length() >= 2 && line.charAt(1) == SEPARATOR.charAt(0)) {
+                            seguidor.registro(line.charAt(0), line.substring(2), archivo.getName(), lineasLeidas);
+                        }
+                        inicio = i + 1;
+                    }
+                }
+                leido += inicio;
+                pendientes = total - inicio;
+                if (pendientes == bloque.length) {
+                    bloque = Arrays.copyOf(bloque, bloque.length * 2);
+                } else {
+                    System.arraycopy(bloque, inicio, bloque, 0, pendientes);
+                }
+            }
+        }
+        return leido;
+    }
+
+    /**
+     * Espera a que el registro anexado con el número dado esté sincronizado con el disco.
+     * Si ningún hilo está sincronizando, este hilo fuerza la bitácora por todos los
+     * registros escritos hasta el momento; si no, espera el resultado de ese fsync.
+     *
+     * @param numero Número del registro anexado
+     * @throws IOException Si ocurre un error al sincronizar la bitácora
+     */
+    private void esperarDurable(long numero) throws IOException {
+        long objetivo = 0;
+        synchronized (sincronizacion) {
+            while (sincronizando && durables < numero) {
+                try {
+                    sincronizacion.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrumpido esperando la sincronización de " + log.getName());
+                }
+            }
+            if (durables >= numero) {
+                return;
+            }
+            sincronizando = true;
+        }
+        boolean exito = false;
+        try {
+            synchronized (this) {
+                objetivo = escritos;
+            }
+            synchronized (forzado) {
+                FileChannel actual = canal;
+                if (actual != null) {
+                    actual.force(false);
+                }
+            }
+            exito = true;
+        } finally {
+            synchronized (sincronizacion) {
+                if (exito) {
+                    durables = Math.max(durables, objetivo);
+                }
+                sincronizando = false;
+                sincronizacion.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Identifica el archivo al que apunta una ruta, para detectar que otro proceso lo
+     * renombró o reemplazó. Usa la clave del sistema de archivos (dispositivo e inodo) cuando
+     * está disponible.
+     *
+     * @return La identidad del archivo, o un objeto que no coincide con ninguna identidad si no existe
+     */
+    private static Object identidad(File archivo) throws IOException {
+        Object clave = identidadSiExiste(archivo);
+        return clave != null ? clave : new Object();
+    }
+
+    /**
+     * Igual que identidad, pero retorna null si el archivo no existe.
+     */
+    private static Object identidadSiExiste(File archivo) throws IOException {
+        try {
+            Object clave = Files.readAttributes(archivo.toPath(), BasicFileAttributes.class).fileKey();
+            return clave != null ? clave : archivo.getAbsolutePath();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Identifica el archivo base. Como la compactación lo reemplaza por un archivo nuevo y
+     * nunca lo modifica, además del inodo (que el sistema puede reutilizar) se comparan su
+     * tamaño y su fecha de modificación.
+     */
+    private Object identidadBase() throws IOException {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(base.toPath(), BasicFileAttributes.class);
+            return List.of(Objects.toString(atributos.fileKey()), atributos.size(), atributos.lastModifiedTime());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sincroniza y cierra el canal de anexado antes de rotar la bitácora, de modo que todo
+     * lo escrito hasta ahora sea durable. Se llama con el candado de la bitácora tomado.
+     */
+    private void cerrarCanal() throws IOException {
+        synchronized (forzado) {
+            if (canal != null) {
+                try {
+                    canal.force(false);
+                } finally {
+                    canal.close();
+                    canal = null;
+                }
+            }
+        }
+        synchronized (sincronizacion) {
+            durables = Math.max(durables, escritos);
+            sincronizacion.notifyAll();
+        }
+    }
+
+    /**
+     * Abre un lote de escritura para cargas masivas. Los registros del lote se escriben
+     * en bloques grandes y el archivo se sincroniza con el disco una sola vez, al cerrar
+     * el lote. Mientras haya un lote abierto no se inicia ninguna compactación.
+     *
+     * @return El lote abierto
+     * @throws IOException Si ocurre un error al abrir la bitácora
+     */
+    synchronized Lote abrirLote() throws IOException {
+        Lote lote = new Lote();
+        lotesActivos++;
+        return lote;
+    }
+
+    /**
+     * Lote de escritura de la bitácora (ver abrirLote).
+     */
+    class Lote implements Closeable {
+        private FileChannel channel;
+        private Object identidadChannel;
+        private Writer writer;
+
+        private Lote() {
+        }
+
+        /**
+         * Abre el canal del lote, o lo reabre si otro proceso rotó la bitácora.
+         * Se llama con el candado de archivo de la bitácora tomado.
+         */
+        private void abrirVigente() throws IOException {
+            if (channel != null && !identidad(log).equals(identidadChannel)) {
+                cerrarVigente();
+            }
+            if (channel == null) {
+                channel = FileChannel.open(log.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                identidadChannel = identidad(log);
+                leyendoDesdeElInicio(identidadChannel);
+                writer = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset()), 1 << 20);
+            }
+        }
+
+        private void cerrarVigente() throws IOException {
+            try {
+                writer.flush();
+                channel.force(false);
+            } finally {
+                writer.close();
+                channel = null;
+                writer = null;
+            }
+        }
+
+        /**
+         * Agrega un bloque de registros upsert a la bitácora, sin sincronizar con el disco.
+         *
+         * @param registros Registros completos en el formato del archivo base
+         * @throws IOException Si ocurre un error al escribir en la bitácora
+         */
+        @SuppressWarnings("try")
+        void upserts(List<String> registros) throws IOException {
+            synchronized (MutationLog.this) {
+                try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                    seguir();
+                    abrirVigente();
+                    for (String registro : registros) {
+                        writer.write(UPSERT);
+                        writer.write(SEPARATOR);
+                        writer.write(registro);
+                        writer.write(System.lineSeparator());
+                    }
+                    writer.flush();
+                    tamanoLog = channel.size();
+                    leidoHastaElFinal(tamanoLog);
+                }
+            }
+        }
+
+        /**
+         * Sincroniza la bitácora con el disco y cierra el lote.
+         */
+        @Override
+        public void close() throws IOException {
+            synchronized (MutationLog.this) {
+                try {
+                    if (channel != null) {
+                        cerrarVigente();
+                    }
+                } finally {
+                    lotesActivos--;
+                    programarCompactacionSiNecesario();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruye los datos: lee el archivo base y luego recorre los registros de la
+     * bitácora (primero los de una compactación interrumpida y después los de la bitácora
+     * activa) en el orden en que fueron escritos.
+     * Se ejecuta bajo el candado de la bitácora (y su candado de archivo) para que una
+     * compactación concurrente, de este u otro proceso, no reemplace los archivos mientras
+     * se leen. Si todavía no hay un seguidor registrado, la lectura de los registros de
+     * otros procesos (ver seguir) continuará desde el final de lo leído aquí.
+     *
+     * @param lectorBase Lector del archivo base
+     * @param visitor Receptor de cada registro de la bitácora
+     * @throws IOException Si ocurre un error al leer los archivos
+     */
+    @SuppressWarnings("try")
+    synchronized void cargar(LectorBase lectorBase, Visitor visitor) throws IOException {
+        try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+            lectorBase.leer(base);
+            reaplicar(compactando, visitor);
+            lineasLeidas = reaplicar(log, visitor);
+            tamanoLog = log.length();
+            if (seguidor == null) {
+                marcarLeido(identidadSiExiste(log), identidadSiExiste(compactando), tamanoLog);
+            }
+        }
+        // Una compactación interrumpida se retoma aunque la bitácora activa sea pequeña
+        programarCompactacion(compactando.exists());
+    }
+
+    /**
+     * Recorre los registros de una bitácora.
+     *
+     * @return La cantidad de líneas leídas
+     */
+    private static int reaplicar(File archivo, Visitor visitor) throws IOException {
+        if (!archivo.exists()) {
+            return 0;
+        }
+        // Si el archivo no termina en salto de línea, la última línea quedó a medio escribir
+        boolean ultimaCompleta = terminaEnSaltoDeLinea(archivo);
+        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
+            String line;
+            String siguiente = br.readLine();
+            int lineNumber = 0;
+            while ((line = siguiente) != null) {
+                lineNumber++;
+                siguiente = br.readLine();
+                if (siguiente == null && !ultimaCompleta) {
+                    System.err.println("Se ignora un registro incompleto al final de " + archivo.getName());
+                    break;
+                }
+                if (line.length() < 2 || line.charAt(1) != SEPARATOR.charAt(0)) {
+                    continue;
+                }
+                visitor.registro(line.charAt(0), line.substring(2), archivo.getName(), lineNumber);
+            }
+            return lineNumber;
+        }
+    }
+
+    private static boolean terminaEnSaltoDeLinea(File archivo) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+            long length = raf.length();
+            if (length == 0) {
+                return true;
+            }
+            raf.seek(length - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    private void programarCompactacionSiNecesario() {
+        programarCompactacion(false);
+    }
+
+    private void programarCompactacion(boolean forzar) {
+        if (!compactacionPendiente && lotesActivos == 0 && (forzar || tamanoLog >= UMBRAL_COMPACTACION)) {
+            compactacionPendiente = true;
+            COMPACTADOR.execute(() -> {
+                try {
+                    compactar();
+                } catch (IOException e) {
+                    System.err.println("Error al compactar " + base.getName() + ": " + e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        compactacionPendiente = false;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Combina el archivo base con la bitácora y reemplaza el archivo base.
+     * Mientras se combina, las nuevas mutaciones siguen llegando a una bitácora nueva.
+     * Si otro proceso está compactando la misma bitácora, no hace nada.
+     *
+     * @throws IOException Si ocurre un error al leer o escribir los archivos
+     */
+    void compactar() throws IOException {
+        try (SharedFileLock.Candado compactacion = candadoCompactacion.intentarAdquirir()) {
+            if (compactacion != null) {
+                compactarConCandado();
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void compactarConCandado() throws IOException {
+        // 1. Rotar la bitácora activa (si quedó una compactación interrumpida, se completa esa)
+        synchronized (this) {
+            if (lotesActivos > 0) {
+                return;
+            }
+            try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                if (!compactando.exists()) {
+                    if (!log.exists()) {
+                        return;
+                    }
+                    cerrarCanal();
+                    Files.move(log.toPath(), compactando.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    AtomicFile.sincronizarDirectorio(log.toPath());
+                    tamanoLog = 0;
+                }
+            }
+        }
+
+        // 2. Combinar base + bitácora rotada en un archivo temporal, fuera de los candados
+        //    de la bitácora (el candado de compactación impide que otro proceso haga lo mismo)
+        Map<String, String> registros = new LinkedHashMap<>();
+        if (base.exists()) {
+            try (BufferedReader br = new BufferedReader(new FileReader(base))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    registros.put(clave(line), line);
+                }
+            }
+        }
+        reaplicar(compactando, (operacion, contenido, archivo, lineNumber) -> {
+            if (operacion == UPSERT) {
+                registros.put(clave(contenido), contenido);
+            } else if (operacion == TOMBSTONE) {
+                registros.remove(contenido);
+            }
+        });
+        Path temporal = AtomicFile.escribirTemporal(base.toPath(), out -> {
+            for (String registro : registros.values()) {
+                out.write(registro);
+                out.write(System.lineSeparator());
+            }
+        });
+
+        // 3. Reemplazar atómicamente el archivo base y descartar la bitácora ya incorporada.
+        //    Antes se leen los registros pendientes de la bitácora rotada, porque después
+        //    solo quedarán en la base nueva, que este proceso no necesita volver a leer
+        synchronized (this) {
+            try (SharedFileLock.Candado candado = candadoLog.adquirir()) {
+                seguir();
+                AtomicFile.publicar(temporal, base.toPath());
+                Files.delete(compactando.toPath());
+                AtomicFile.sincronizarDirectorio(compactando.toPath());
+                if (seguidor != null) {
+                    baseLeida = identidadBase();
+                    compactandoLeida = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene la clave de un registro: el primer campo antes del separador.
+     *
+     * @param registro Registro en el formato del archivo base
+     * @return La clave del registro
+     */
+    static String clave(String registro) {
+        int fin = registro.indexOf(SEPARATOR);
+        return fin < 0 ? registro : registro.substring(0, fin);
+    }
+}
@@ -0,0 +1,306 @@
+package data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Clase ParallelLoader
+ *
+ * Cargador paralelo de los archivos de datos delimitados por '*' (clientes.txt y
+ * productos.txt). El archivo se divide en bloques alineados a saltos de línea; cada
+ * bloque se lee con una lectura posicionada a un buffer propio y se procesa en paralelo en
+ * un ForkJoinPool. Los bloques no se proyectan en memoria (memory-mapped): una proyección
+ * sigue viva hasta que el recolector de basura libera su buffer y, en Windows, impide
+ * reemplazar el archivo con el renombrado atómico de la compactación (ver AtomicFile). Los separadores '*' y los saltos de línea se buscan directamente sobre
+ * los bytes, sin crear un String por línea ni usar split/replace: solo se crean los
+ * Strings de cada campo.
+ *
+ * Los registros inválidos no detienen la carga: se devuelven como ErrorLinea con el
+ * número de línea global, calculado al unir los bloques.
+ */
+public class ParallelLoader {
+    private static final byte SEPARATOR = '*';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    // Límites del tamaño de cada bloque (cada bloque se lee a su propio buffer)
+    private static final long BLOQUE_MINIMO = 1L << 20;
+    private static final long BLOQUE_MAXIMO = 16L << 20;
+
+    /**
+     * Construye un registro a partir de sus campos. Puede lanzar una excepción si algún
+     * campo no se puede convertir (por ejemplo, un precio que no es numérico).
+     */
+    public interface Constructor<T> {
+        T crear(String[] campos);
+    }
+
+    /**
+     * Valida un registro ya construido.
+     * Retorna null si el registro es válido o el motivo del rechazo en caso contrario.
+     */
+    public interface Validador<T> {
+        String validar(T registro);
+    }
+
+    /**
+     * Resultado de una carga: los registros válidos en el orden del archivo, los errores
+     * encontrados y la cantidad total de líneas leídas.
+     */
+    public static class Resultado<T> {
+        private final List<T> registros;
+        private final List<ErrorLinea> errores;
+        private final long lineas;
+
+        Resultado(List<T> registros, List<ErrorLinea> errores, long lineas) {
+            this.registros = registros;
+            this.errores = errores;
+            this.lineas = lineas;
+        }
+
+        public List<T> getRegistros() {
+            return registros;
+        }
+
+        public List<ErrorLinea> getErrores() {
+            return errores;
+        }
+
+        public long getLineas() {
+            return lineas;
+        }
+    }
+
+    /**
+     * Carga en paralelo un archivo delimitado por '*'.
+     *
+     * @param archivo Ruta del archivo a cargar
+     * @param numCampos Cantidad de campos que debe tener cada línea
+     * @param constructor Construye cada registro a partir de sus campos
+     * @param validador Valida cada registro construido
+     * @return El resultado de la carga
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public static <T> Resultado<T> cargar(Path archivo, int numCampos,
+            Constructor<T> constructor, Validador<T> validador) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long[] limites = calcularBloques(channel);
+            int bloques = limites.length - 1;
+            @SuppressWarnings("unchecked")
+            Parcial<T>[] parciales = (Parcial<T>[]) new Parcial<?>[bloques];
+            try {
+                ForkJoinPool.commonPool().invoke(
+                    new TareaCarga<>(channel, limites, 0, bloques, numCampos, constructor, validador, parciales));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // Unir los bloques en orden, traduciendo los números de línea locales a globales
+            List<T> registros = new ArrayList<>();
+            List<ErrorLinea> errores = new ArrayList<>();
+            long lineasPrevias = 0;
+            for (Parcial<T> parcial : parciales) {
+                registros.addAll(parcial.registros);
+                for (int i = 0; i < parcial.erroresLinea.size(); i++) {
+                    errores.add(new ErrorLinea(lineasPrevias + parcial.erroresLinea.get(i),
+                        parcial.erroresMensaje.get(i)));
+                }
+                lineasPrevias += parcial.lineas;
+            }
+            return new Resultado<>(registros, errores, lineasPrevias);
+        }
+    }
+
+    /**
+     * Divide el archivo en bloques que terminan justo después de un salto de línea.
+     *
+     * @return Posiciones de inicio de cada bloque, más el tamaño del archivo al final
+     */
+    private static long[] calcularBloques(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int paralelismo = ForkJoinPool.getCommonPoolParallelism();
+        long objetivo = Math.min(BLOQUE_MAXIMO, Math.max(BLOQUE_MINIMO, size / (paralelismo * 4L)));
+
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long inicio = 0;
+        while (size - inicio > objetivo) {
+            long pos = inicio + objetivo;
+            long corte = -1;
+            while (corte < 0 && pos < size) {
+                buffer.clear();
+                int leidos = channel.read(buffer, pos);
+                if (leidos <= 0) {
+                    break;
+                }
+                for (int i = 0; i < leidos; i++) {
+                    if (buffer.get(i) == NEWLINE) {
+                        corte = pos + i + 1;
+                        break;
+                    }
+                }
+                pos += leidos;
+            }
+            if (corte < 0 || corte >= size) {
+                break;
+            }
+            limites.add(corte);
+            inicio = corte;
+        }
+        limites.add(size);
+
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = limites.get(i);
+        }
+        return resultado;
+    }
+
+    /**
+     * Resultado parcial de un bloque.
+     */
+    private static class Parcial<T> {
+        final List<T> registros = new ArrayList<>();
+        final List<Long> erroresLinea = new ArrayList<>();
+        final List<String> erroresMensaje = new ArrayList<>();
+        long lineas;
+    }
+
+    /**
+     * Tarea fork-join que reparte un rango de bloques hasta procesar cada uno por separado.
+     */
+    private static class TareaCarga<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] limites;
+        private final int desde;
+        private final int hasta;
+        private final int numCampos;
+        private final Constructor<T> constructor;
+        private final Validador<T> validador;
+        private final Parcial<T>[] parciales;
+
+        TareaCarga(FileChannel channel, long[] limites, int desde, int hasta, int numCampos,
+                Constructor<T> constructor, Validador<T> validador, Parcial<T>[] parciales) {
+            this.channel = channel;
+            this.limites = limites;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.numCampos = numCampos;
+            this.constructor = constructor;
+            this.validador = validador;
+            this.parciales = parciales;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(
+                    new TareaCarga<>(channel, limites, desde, medio, numCampos, constructor, validador, parciales),
+                    new TareaCarga<>(channel, limites, medio, hasta, numCampos, constructor, validador, parciales));
+                return;
+            }
+            try {
+                parciales[desde] = procesarBloque(limites[desde], limites[desde + 1]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Recorre los bytes de un bloque, ubicando los separadores de campo y de línea.
+         */
+        private Parcial<T> procesarBloque(long inicio, long fin) throws IOException {
+            Parcial<T> parcial = new Parcial<>();
+            int length = (int) (fin - inicio);
+            if (length == 0) {
+                return parcial;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, inicio + buffer.position()) < 0) {
+                    throw new IOException("Fin de archivo inesperado en la posición " + (inicio + buffer.position()));
+                }
+            }
+            Charset charset = Charset.defaultCharset();
+            int[] inicios = new int[numCampos];
+            int[] fines = new int[numCampos];
+            byte[] scratch = new byte[256];
+
+            int pos = 0;
+            while (pos < length) {
+                parcial.lineas++;
+                // Ubicar los campos de la línea
+                int campo = 0;
+                inicios[0] = pos;
+                int i = pos;
+                byte b = 0;
+                while (i < length && (b = buffer.get(i)) != NEWLINE) {
+                    if (b == SEPARATOR && campo < numCampos) {
+                        fines[campo] = i;
+                        campo++;
+                        if (campo < numCampos) {
+                            inicios[campo] = i + 1;
+                        }
+                    }
+                    i++;
+                }
+                int finLinea = i;
+                if (finLinea > pos && buffer.get(finLinea - 1) == CARRIAGE_RETURN) {
+                    finLinea--;
+                }
+                // El último campo termina en el fin de línea; los campos sobrantes se ignoran
+                if (campo < numCampos) {
+                    fines[campo] = finLinea;
+                    campo++;
+                }
+                pos = i + 1;
+
+                if (campo < numCampos) {
+                    agregarError(parcial, "Se esperaban " + numCampos + " campos y se encontraron " + campo);
+                    continue;
+                }
+
+                // Crear los Strings de cada campo y construir el registro
+                String[] campos = new String[numCampos];
+                for (int c = 0; c < numCampos; c++) {
+                    int len = fines[c] - inicios[c];
+                    if (len > scratch.length) {
+                        scratch = new byte[Math.max(len, scratch.length * 2)];
+                    }
+                    buffer.get(inicios[c], scratch, 0, len);
+                    campos[c] = new String(scratch, 0, len, charset);
+                }
+                try {
+                    T registro = constructor.crear(campos);
+                    String error = validador.validar(registro);
+                    if (error != null) {
+                        agregarError(parcial, error);
+                    } else {
+                        parcial.registros.add(registro);
+                    }
+                } catch (RuntimeException e) {
+                    agregarError(parcial, e.getMessage());
+                }
+            }
+            return parcial;
+        }
+
+        private void agregarError(Parcial<T> parcial, String mensaje) {
+            parcial.erroresLinea.add(parcial.lineas);
+            parcial.erroresMensaje.add(mensaje);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import models.Producto;
+
+/**
+ * Clase ProductoRepository
+ *
+ * Caché residente del catálogo de productos. Como los códigos de producto siempre tienen
+ * dos letras seguidas de tres dígitos, cada código se traduce directamente a una posición
+ * de un arreglo de 26 * 26 * 1000 = 676.000 casillas, sin hashing ni creación de Strings.
+ * Las letras se comparan sin distinguir mayúsculas, por lo que "ab001" y "AB001" ocupan
+ * la misma casilla. Si el archivo tiene dos códigos que solo difieren en mayúsculas (por
+ * ejemplo, escritos a mano), al cargar se informa por consola y se conserva el primero.
+ *
+ * El catálogo se carga una sola vez desde 'data/productos.txt' y se modifica cuando se
+ * crea, actualiza o elimina un producto (write-through a través de DataManager) o cuando
+ * otra caja (proceso) lo hizo: antes de cada consulta se verifica si la bitácora de
+ * productos cambió de tamaño y, si es así, se aplican sus cambios, de modo que un precio
+ * actualizado en una caja se cobra en todas.
+ *
+ * El catálogo es seguro para hilos. Las consultas no toman candados mientras no haya
+ * cambios de otras cajas: las casillas se leen de un AtomicReferenceArray, por lo que
+ * muchas cajas consultan precios en paralelo. Las escrituras se serializan por casilla con
+ * candados particionados (lock striping) y cada una se ejecuta con los datos al día (ver
+ * DataManager.productosAlDia), por lo que dos cajas nunca registran el mismo código.
+ */
+public class ProductoRepository {
+    /** Cantidad de casillas del índice directo: 26 * 26 combinaciones de letras * 1000 números. */
+    public static final int CAPACIDAD = 26 * 26 * 1000;
+
+    // Cantidad de candados de escritura; cada casilla se asigna a uno de ellos
+    private static final int PARTICIONES = 64;
+    private static final ReentrantLock[] CANDADOS = new ReentrantLock[PARTICIONES];
+    static {
+        for (int i = 0; i < PARTICIONES; i++) {
+            CANDADOS[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Producto de una casilla junto con su número de registro, que fija su posición en el listado.
+     */
+    private static final class Entrada {
+        final Producto producto;
+        final long secuencia;
+
+        Entrada(Producto producto, long secuencia) {
+            this.producto = producto;
+            this.secuencia = secuencia;
+        }
+    }
+
+    /**
+     * Estructuras del catálogo, publicadas juntas una vez cargadas.
+     */
+    private static final class Indice {
+        // Índice directo código -> producto
+        final AtomicReferenceArray<Entrada> casillas = new AtomicReferenceArray<>(CAPACIDAD);
+        // Número de registro -> producto, para listar en orden de registro
+        final Map<Long, Producto> orden = new ConcurrentSkipListMap<>();
+        final AtomicLong secuencias = new AtomicLong();
+    }
+
+    // Catálogo cargado de forma perezosa
+    private static volatile Indice indice;
+
+    /**
+     * Calcula la casilla que corresponde a un código de producto.
+     * No crea objetos: solo lee los cinco caracteres del código.
+     *
+     * @param codigo El código del producto
+     * @return La casilla del código o -1 si el código no tiene el formato esperado
+     */
+    public static int casilla(CharSequence codigo) {
+        if (codigo == null || codigo.length() != 5) {
+            return -1;
+        }
+        int l1 = letra(codigo.charAt(0));
+        int l2 = letra(codigo.charAt(1));
+        int d1 = codigo.charAt(2) - '0';
+        int d2 = codigo.charAt(3) - '0';
+        int d3 = codigo.charAt(4) - '0';
+        if (l1 < 0 || l2 < 0 || (d1 | d2 | d3) < 0 || d1 > 9 || d2 > 9 || d3 > 9) {
+            return -1;
+        }
+        return (l1 * 26 + l2) * 1000 + d1 * 100 + d2 * 10 + d3;
+    }
+
+    private static int letra(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    /**
+     * Carga el catálogo desde disco la primera vez que se usa el repositorio.
+     */
+    private static Indice asegurarCargado() {
+        Indice actual = indice;
+        if (actual == null) {
+            synchronized (ProductoRepository.class) {
+                actual = indice;
+                if (actual == null) {
+                    actual = new Indice();
+                    for (Producto producto : DataManager.cargarProductos()) {
+                        int i = casilla(producto.getCodigo());
+                        if (i < 0) {
+                            continue;
+                        }
+                        Entrada anterior = actual.casillas.get(i);
+                        if (anterior != null) {
+                            System.err.println("Los códigos de producto " + anterior.producto.getCodigo() + " y "
+                                + producto.getCodigo() + " solo difieren en mayúsculas; se ignora "
+                                + producto.getCodigo());
+                            continue;
+                        }
+                        colocar(actual, i, producto, false);
+                    }
+                    DataManager.seguirProductos(seguidor(actual));
+                    indice = actual;
+                }
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Aplica al catálogo los cambios que otras cajas escribieron. DataManager los entrega con
+     * el mismo candado bajo el que se ejecutan las escrituras de este proceso, en el orden
+     * del archivo.
+     */
+    private static DataManager.Seguidor<Producto> seguidor(Indice actual) {
+        return new DataManager.Seguidor<Producto>() {
+            @Override
+            public void guardado(Producto producto) {
+                int i = casilla(producto.getCodigo());
+                if (i >= 0) {
+                    colocar(actual, i, producto, true);
+                }
+            }
+
+            @Override
+            public void eliminado(String codigo) {
+                int i = casilla(codigo);
+                if (i >= 0) {
+                    quitar(actual, i);
+                }
+            }
+
+            @Override
+            public void reemplazados(List<Producto> productos) {
+                BitSet vigentes = new BitSet(CAPACIDAD);
+                for (Producto producto : productos) {
+                    int i = casilla(producto.getCodigo());
+                    if (i >= 0) {
+                        vigentes.set(i);
+                    }
+                }
+                for (int i = 0; i < CAPACIDAD; i++) {
+                    if (!vigentes.get(i)) {
+                        quitar(actual, i);
+                    }
+                }
+                for (Producto producto : productos) {
+                    int i = casilla(producto.getCodigo());
+                    if (i >= 0) {
+                        colocar(actual, i, producto, true);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Coloca un producto en su casilla. Debe llamarse con los datos al día (ver
+     * DataManager.productosAlDia), desde el seguidor o durante la carga.
+     *
+     * @param conservarPosicion true para mantener la posición en el listado del producto
+     *                          anterior de la casilla; false para moverlo al final
+     */
+    private static void colocar(Indice actual, int i, Producto producto, boolean conservarPosicion) {
+        Entrada anterior = actual.casillas.get(i);
+        long secuencia;
+        if (anterior != null && conservarPosicion) {
+            secuencia = anterior.secuencia;
+        } else {
+            if (anterior != null) {
+                actual.orden.remove(anterior.secuencia);
+            }
+            secuencia = actual.secuencias.incrementAndGet();
+        }
+        actual.casillas.set(i, new Entrada(producto, secuencia));
+        actual.orden.put(secuencia, producto);
+    }
+
+    private static void quitar(Indice actual, int i) {
+        Entrada entrada = actual.casillas.get(i);
+        if (entrada != null) {
+            actual.orden.remove(entrada.secuencia);
+            actual.casillas.set(i, null);
+        }
+    }
+
+    private static ReentrantLock candado(int casilla) {
+        return CANDADOS[casilla & (PARTICIONES - 1)];
+    }
+
+    /**
+     * Busca un producto por su código en tiempo constante, con los cambios de precio de las
+     * demás cajas ya aplicados.
+     *
+     * @param codigo El código del producto
+     * @return El producto encontrado o null si no existe
+     */
+    public static Producto buscar(CharSequence codigo) {
+        Indice actual = alDia();
+        int i = casilla(codigo);
+        Entrada entrada = i < 0 ? null : actual.casillas.get(i);
+        return entrada == null ? null : entrada.producto;
+    }
+
+    /**
+     * Indica si existe un producto con el código dado.
+     *
+     * @param codigo El código del producto
+     * @return true si el producto existe
+     */
+    public static boolean existe(CharSequence codigo) {
+        return buscar(codigo) != null;
+    }
+
+    /**
+     * Retorna una copia de la lista de productos en el orden en que fueron registrados.
+     *
+     * @return Lista de productos
+     */
+    public static List<Producto> listar() {
+        return new ArrayList<>(alDia().orden.values());
+    }
+
+    /**
+     * Carga el catálogo si hace falta y le aplica los cambios que otras cajas hayan escrito.
+     */
+    private static Indice alDia() {
+        Indice actual = asegurarCargado();
+        DataManager.refrescarProductos();
+        return actual;
+    }
+
+    /**
+     * Registra un nuevo producto, agregándolo al archivo y al catálogo. La verificación de
+     * existencia y la escritura son atómicas, también entre procesos: si dos cajas registran
+     * a la vez el mismo código, solo una lo consigue.
+     *
+     * @param producto El producto a registrar
+     * @return false si ya existía un producto con el mismo código
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static boolean agregar(Producto producto) throws IOException {
+        Indice actual = asegurarCargado();
+        int i = casillaValida(producto.getCodigo());
+        ReentrantLock candado = candado(i);
+        candado.lock();
+        try {
+            return DataManager.productosAlDia(() -> {
+                if (actual.casillas.get(i) != null) {
+                    return false;
+                }
+                DataManager.guardarProducto(producto);
+                colocar(actual, i, producto, false);
+                return true;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Incorpora al catálogo productos que ya fueron escritos en disco por una carga masiva.
+     *
+     * @param importados Los productos importados
+     */
+    static void registrarImportados(List<Producto> importados) {
+        Indice actual = asegurarCargado();
+        for (Producto producto : importados) {
+            int i = casilla(producto.getCodigo());
+            if (i < 0) {
+                continue;
+            }
+            ReentrantLock candado = candado(i);
+            candado.lock();
+            try {
+                colocar(actual, i, producto, false);
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reemplaza los datos de un producto existente en disco y en el catálogo. Si el producto
+     * ya no existe (por ejemplo, otra caja lo eliminó), no se escribe nada.
+     *
+     * @param producto El producto con los datos actualizados
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static void actualizar(Producto producto) throws IOException {
+        Indice actual = asegurarCargado();
+        int i = casillaValida(producto.getCodigo());
+        ReentrantLock candado = candado(i);
+        candado.lock();
+        try {
+            DataManager.productosAlDia(() -> {
+                if (actual.casillas.get(i) != null) {
+                    DataManager.actualizarProducto(producto);
+                    colocar(actual, i, producto, true);
+                }
+                return null;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Lee, modifica y escribe un producto de forma atómica respecto de las demás escrituras
+     * sobre la misma casilla, de este u otro proceso, de modo que ninguna actualización
+     * concurrente se pierde.
+     * La función recibe el producto actual y debe retornar un objeto nuevo con los cambios;
+     * el producto residente no se altera si la escritura falla.
+     *
+     * @param codigo El código del producto
+     * @param cambio Función que calcula el producto actualizado a partir del actual
+     * @return El producto actualizado, o null si no existe
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static Producto modificar(CharSequence codigo, UnaryOperator<Producto> cambio) throws IOException {
+        Indice actual = asegurarCargado();
+        int i = casilla(codigo);
+        if (i < 0) {
+            return null;
+        }
+        ReentrantLock candado = candado(i);
+        candado.lock();
+        try {
+            return DataManager.productosAlDia(() -> {
+                Entrada entrada = actual.casillas.get(i);
+                if (entrada == null) {
+                    return null;
+                }
+                Producto producto = cambio.apply(entrada.producto);
+                if (casilla(producto.getCodigo()) != i) {
+                    throw new IllegalArgumentException("La modificación no puede cambiar el código");
+                }
+                DataManager.actualizarProducto(producto);
+                colocar(actual, i, producto, true);
+                return producto;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Elimina un producto del archivo y del catálogo.
+     *
+     * @param codigo El código del producto a eliminar
+     * @throws IOException Si ocurre un error al escribir en el archivo
+     */
+    public static void eliminar(String codigo) throws IOException {
+        Indice actual = asegurarCargado();
+        int i = casilla(codigo);
+        if (i < 0) {
+            DataManager.eliminarProducto(codigo);
+            return;
+        }
+        ReentrantLock candado = candado(i);
+        candado.lock();
+        try {
+            DataManager.productosAlDia(() -> {
+                Entrada entrada = actual.casillas.get(i);
+                // Se elimina con el código tal como está almacenado en el archivo
+                DataManager.eliminarProducto(entrada != null ? entrada.producto.getCodigo() : codigo);
+                quitar(actual, i);
+                return null;
+            });
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private static int casillaValida(String codigo) throws IOException {
+        int i = casilla(codigo);
+        if (i < 0) {
+            throw new IOException("Código de producto inválido: " + codigo);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,80 @@
+package data;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clase SaleNumberAllocator
+ *
+ * Asignación de números de venta sin candados dentro del proceso. Los números se reservan de
+ * a bloques en la secuencia compartida (ver SharedSequence.reservar), con una sola escritura
+ * del archivo por bloque, y se reparten entre los hilos con un AtomicLong. Solo el hilo que
+ * encuentra el bloque agotado reserva el siguiente; los demás esperan ese bloque.
+ *
+ * Como cada bloque queda reservado en el archivo antes de usarse, un número nunca se asigna
+ * dos veces, ni entre hilos ni entre cajas, y al reiniciar se sigue desde el archivo sin
+ * recorrer las ventas. Los números de un bloque que no alcanzan a usarse antes de cerrar la
+ * aplicación se pierden, por lo que la numeración puede tener saltos.
+ */
+public class SaleNumberAllocator {
+    // Números que se reservan por cada escritura de la secuencia
+    public static final int TAMANO_BLOQUE = 100;
+
+    private final SharedSequence secuencia;
+    private final int tamanoBloque;
+    private volatile Bloque bloque = new Bloque(0, 0);
+
+    /**
+     * Bloque reservado: el siguiente número a repartir y el límite (excluido).
+     */
+    private static class Bloque {
+        final AtomicLong siguiente;
+        final long limite;
+
+        Bloque(long primero, long limite) {
+            this.siguiente = new AtomicLong(primero);
+            this.limite = limite;
+        }
+    }
+
+    public SaleNumberAllocator(SharedSequence secuencia) {
+        this(secuencia, TAMANO_BLOQUE);
+    }
+
+    /**
+     * @param secuencia Secuencia compartida donde se reservan los bloques
+     * @param tamanoBloque Cantidad de números por bloque
+     */
+    public SaleNumberAllocator(SharedSequence secuencia, int tamanoBloque) {
+        this.secuencia = secuencia;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Asigna el siguiente número de venta.
+     *
+     * @return Un número que no se asignó antes en ninguna caja
+     * @throws IOException Si ocurre un error al reservar un bloque nuevo
+     */
+    public long siguiente() throws IOException {
+        while (true) {
+            Bloque actual = bloque;
+            long numero = actual.siguiente.getAndIncrement();
+            if (numero < actual.limite) {
+                return numero;
+            }
+            renovar(actual);
+        }
+    }
+
+    /**
+     * Reserva un bloque nuevo si el agotado sigue siendo el vigente (si no, otro hilo ya lo
+     * renovó).
+     */
+    private synchronized void renovar(Bloque agotado) throws IOException {
+        if (bloque == agotado) {
+            long primero = secuencia.reservar(tamanoBloque);
+            bloque = new Bloque(primero, primero + tamanoBloque);
+        }
+    }
+}
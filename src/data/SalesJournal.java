@@ -0,0 +1,877 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+
+/**
+ * Clase SalesJournal
+ *
+ * Diario de ventas de solo anexado, en lugar de un archivo de texto por venta. Las ventas
+ * finalizadas se escriben una tras otra en segmentos binarios ('Ventas/diario/ventas-000001.log',
+ * 'ventas-000002.log', ...); cuando el segmento activo llega a su tamaño máximo se abre el
+ * siguiente. Cada segmento tiene su índice ('ventas-000001.idx') con el número de cada venta
+ * y la posición de su registro, de modo que una venta se lee sin recorrer el segmento. El
+ * ticket de texto ya no se guarda: se genera al consultarlo (ver Venta.generarTicket).
+ *
+ * Formato del segmento (enteros big-endian):
+ * - int mágico "VDIA", int versión
+ * - Por venta: int longitud del contenido, int CRC32 del contenido y el contenido: long número
+ *   (sin el prefijo "VEN"), número de venta, long fecha y hora (segundos, ver
+ *   VentaResumen.getSegundos), boolean con cliente y sus seis campos, short cantidad de líneas
+ *   y por línea código, nombre, float precio e int cantidad
+ * Los textos se guardan como en la foto de ventas (ver SalesSnapshot). Cada entrada del
+ * índice es un long con el número de la venta y un int con la posición del registro.
+ *
+ * Las ventas se anexan con el candado de archivo del diario tomado (ver SharedFileLock), se
+ * fuerzan al disco y luego se agregan sus entradas al índice. Al finalizar una venta no se
+ * espera el disco: la venta se encola y un hilo escritor anexa en un lote, con un solo fsync,
+ * todas las que se acumularon (ver agregarAsincrono). Antes de anexar se revisa el final
+ * del segmento activo: los registros completos que no alcanzaron a entrar al índice (una caja
+ * que se cayó entre ambas escrituras) se indexan, y un registro a medio escribir se trunca.
+ * Las lecturas no toman el candado y llegan hasta el último registro completo.
+ *
+ * De cada segmento cerrado se guarda además la fecha y hora de su venta más antigua y de la
+ * más reciente ('ventas-000001.fechas', dos long en segundos), calculadas la primera vez que
+ * se recorre para un informe (ver recorrerSegmento con período): los informes posteriores
+ * omiten sin leerlos los segmentos que no tienen ventas en su período.
+ *
+ * Una posición del diario es un long con el número de segmento en los 32 bits altos y el
+ * desplazamiento dentro del segmento en los bajos; la posición 0 es el comienzo del diario.
+ */
+public class SalesJournal {
+    private static final int MAGICO = 0x56444941;
+    private static final int VERSION = 1;
+    private static final int ENCABEZADO = 8;
+    // Longitud y CRC que preceden al contenido de cada registro
+    private static final int MARCO = 8;
+    private static final int ENTRADA = Long.BYTES + Integer.BYTES;
+    // Tamaño máximo de un segmento (unas 25.000 ventas)
+    public static final int TAMANO_SEGMENTO = 8 * 1024 * 1024;
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final SharedFileLock candado;
+    // Último segmento encontrado; solo avanza
+    private volatile int ultimoVisto = 1;
+    // Segmento activo y sus canales, usados solo con el candado tomado
+    private int activo;
+    private FileChannel segmento;
+    private FileChannel indice;
+    // Menor y mayor número de venta de los segmentos cerrados, que ya no cambian
+    private final Map<Integer, long[]> rangos = new ConcurrentHashMap<>();
+    // Fecha y hora (segundos) de la venta más antigua y la más reciente de los segmentos cerrados
+    private final Map<Integer, long[]> fechas = new ConcurrentHashMap<>();
+    // Índices de los últimos segmentos consultados (LRU), para no releerlos en cada búsqueda
+    private static final int INDICES_EN_MEMORIA = 8;
+    private final Map<Integer, IndiceSegmento> indices = new LinkedHashMap<>(INDICES_EN_MEMORIA * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, IndiceSegmento> eldest) {
+            if (size() <= INDICES_EN_MEMORIA) {
+                return false;
+            }
+            eldest.getValue().cerrar();
+            return true;
+        }
+    };
+
+    // Ventas codificadas que esperan al hilo escritor (cola circular acotada)
+    private static final int CAPACIDAD_COLA = 1024;
+    // Máximo de ventas que el hilo escritor anexa con un solo fsync
+    private static final int MAXIMO_LOTE = 256;
+    private final BlockingQueue<Pendiente> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+    private volatile Thread escritor;
+
+    /**
+     * Registro codificado que espera ser anexado, con su confirmación. Sin registro es una
+     * marca de esperarPendientes.
+     */
+    private static class Pendiente {
+        final long numero;
+        final ByteBuffer registro;
+        final CompletableFuture<Long> confirmacion = new CompletableFuture<>();
+
+        Pendiente(long numero, ByteBuffer registro) {
+            this.numero = numero;
+            this.registro = registro;
+        }
+    }
+
+    /**
+     * Entradas del índice de un segmento en arreglos primitivos, con los canales de lectura
+     * del segmento y su índice abiertos. Se leen de a poco: solo las entradas agregadas desde
+     * la última consulta.
+     */
+    private static class IndiceSegmento {
+        final FileChannel segmento;
+        final FileChannel indice;
+        long[] claves = new long[64];
+        int[] posiciones = new int[64];
+        int cantidad;
+        boolean cerrado;
+
+        IndiceSegmento(Path archivoSegmento, Path archivoIndice) throws IOException {
+            this.segmento = FileChannel.open(archivoSegmento, StandardOpenOption.READ);
+            try {
+                this.indice = FileChannel.open(archivoIndice, StandardOpenOption.READ);
+            } catch (IOException e) {
+                segmento.close();
+                throw e;
+            }
+        }
+
+        void ponerseAlDia() throws IOException {
+            long entradas = indice.size() / ENTRADA;
+            if (entradas < cantidad) {
+                // El índice se reconstruyó al recuperar el segmento
+                cantidad = 0;
+            }
+            if (entradas == cantidad) {
+                return;
+            }
+            ByteBuffer nuevas = leerCompleto(indice,
+                ByteBuffer.allocate((int) ((entradas - cantidad) * ENTRADA)), (long) cantidad * ENTRADA).flip();
+            if (entradas > claves.length) {
+                int capacidad = (int) Math.max(entradas, claves.length * 2L);
+                claves = Arrays.copyOf(claves, capacidad);
+                posiciones = Arrays.copyOf(posiciones, capacidad);
+            }
+            while (nuevas.hasRemaining()) {
+                claves[cantidad] = nuevas.getLong();
+                posiciones[cantidad++] = nuevas.getInt();
+            }
+        }
+
+        /** @return Posición del registro con la clave, o -1; gana la entrada más reciente */
+        int buscar(long clave) {
+            for (int i = cantidad - 1; i >= 0; i--) {
+                if (claves[i] == clave) {
+                    return posiciones[i];
+                }
+            }
+            return -1;
+        }
+
+        void cerrar() {
+            try {
+                segmento.close();
+                indice.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar un segmento del diario de ventas: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param directorio Directorio de los segmentos (se crea al anexar la primera venta)
+     */
+    public SalesJournal(Path directorio) {
+        this(directorio, TAMANO_SEGMENTO);
+    }
+
+    /**
+     * @param directorio Directorio de los segmentos (se crea al anexar la primera venta)
+     * @param tamanoSegmento Tamaño máximo de cada segmento en bytes
+     */
+    public SalesJournal(Path directorio, int tamanoSegmento) {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.candado = SharedFileLock.para(directorio);
+    }
+
+    /**
+     * Anexa una venta finalizada al diario y la fuerza al disco.
+     *
+     * @param numero Número de la venta sin el prefijo "VEN" (clave del índice)
+     * @param venta La venta, con su número ya asignado
+     * @return Posición del diario después de la venta
+     * @throws IOException Si ocurre un error al escribir el segmento o su índice
+     */
+    public long agregar(long numero, Venta venta) throws IOException {
+        return anexar(List.of(new Pendiente(numero, codificar(numero, venta))))[0];
+    }
+
+    /**
+     * Encola una venta finalizada para anexarla al diario sin esperar el disco. Un hilo
+     * escritor toma la venta junto con las que se acumularon mientras tanto (hasta
+     * MAXIMO_LOTE) y las anexa con un solo fsync. Si la cola está llena, espera a que el
+     * escritor libere espacio.
+     *
+     * @param numero Número de la venta sin el prefijo "VEN" (clave del índice)
+     * @param venta La venta, con su número ya asignado; se codifica antes de encolarla
+     * @return Se completa con la posición del diario después de la venta cuando ya está en el
+     *         disco, o con el error de escritura
+     * @throws IOException Si la venta no se puede codificar o se interrumpe la espera
+     */
+    public CompletableFuture<Long> agregarAsincrono(long numero, Venta venta) throws IOException {
+        Pendiente pendiente = new Pendiente(numero, codificar(numero, venta));
+        iniciarEscritor();
+        try {
+            cola.put(pendiente);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Se interrumpió la espera para guardar la venta " + numero);
+        }
+        return pendiente.confirmacion;
+    }
+
+    /**
+     * Espera a que el hilo escritor anexe las ventas encoladas hasta ahora.
+     *
+     * @param milisegundos Tiempo máximo de espera
+     * @return true si se anexaron (o fallaron) todas a tiempo
+     */
+    public boolean esperarPendientes(long milisegundos) throws InterruptedException {
+        if (escritor == null) {
+            return true;
+        }
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milisegundos);
+        Pendiente marca = new Pendiente(-1, null);
+        if (!cola.offer(marca, milisegundos, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        try {
+            marca.confirmacion.get(Math.max(limite - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private synchronized void iniciarEscritor() {
+        if (escritor != null) {
+            return;
+        }
+        Thread hilo = new Thread(this::escribirPendientes, "diario-ventas");
+        hilo.setDaemon(true);
+        hilo.start();
+        escritor = hilo;
+        // Al cerrar la aplicación se espera a que las ventas encoladas lleguen al disco
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (!esperarPendientes(10_000)) {
+                    System.err.println("No se alcanzaron a guardar todas las ventas en " + directorio);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "diario-ventas-cierre"));
+    }
+
+    /**
+     * Ciclo del hilo escritor: espera una venta, toma también las que se acumularon mientras
+     * tanto y las anexa en un solo lote.
+     */
+    private void escribirPendientes() {
+        List<Pendiente> lote = new ArrayList<>(MAXIMO_LOTE);
+        List<Pendiente> ventas = new ArrayList<>(MAXIMO_LOTE);
+        while (true) {
+            try {
+                lote.add(cola.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            cola.drainTo(lote, MAXIMO_LOTE - 1);
+            for (Pendiente pendiente : lote) {
+                if (pendiente.registro != null) {
+                    ventas.add(pendiente);
+                }
+            }
+            try {
+                if (!ventas.isEmpty()) {
+                    anexar(ventas);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Las ventas de los segmentos ya guardados con su índice quedaron confirmadas
+                int fallidas = 0;
+                for (Pendiente pendiente : ventas) {
+                    if (pendiente.confirmacion.completeExceptionally(e)) {
+                        fallidas++;
+                    }
+                }
+                System.err.println("Error al guardar " + fallidas + " ventas en el diario: " + e.getMessage());
+            }
+            // Las marcas de esperarPendientes quedan después de las ventas que las preceden
+            for (Pendiente pendiente : lote) {
+                pendiente.confirmacion.complete(-1L);
+            }
+            lote.clear();
+            ventas.clear();
+        }
+    }
+
+    /**
+     * Anexa registros con el candado tomado una sola vez. Los que caben en el segmento activo
+     * se escriben seguidos, se fuerzan al disco con un solo fsync y luego se agregan sus
+     * entradas al índice; si el segmento se llena, se sigue en el siguiente. Si falla la
+     * escritura de un segmento o de su índice, sus registros y entradas se truncan (los que
+     * alcanzaron a llegar al disco no reaparecen al recuperar el final) y los de los
+     * segmentos anteriores quedan guardados. Las ventas guardadas se confirman después de
+     * soltar el candado: quien espera la confirmación hace su trabajo en memoria sin detener
+     * a las demás cajas.
+     *
+     * @return Posición del diario después de cada registro
+     */
+    @SuppressWarnings("try")
+    private long[] anexar(List<Pendiente> lote) throws IOException {
+        long[] posiciones = new long[lote.size()];
+        int guardadas = 0;
+        try {
+            try (SharedFileLock.Candado c = candado.adquirir()) {
+                while (guardadas < lote.size()) {
+                    int i = guardadas;
+                    long fin = prepararSegmento(lote.get(i).registro.remaining());
+                    long inicio = fin;
+                    long finIndice = indice.size();
+                    ByteBuffer entradas = ByteBuffer.allocate((lote.size() - i) * ENTRADA);
+                    try {
+                        do {
+                            Pendiente pendiente = lote.get(i);
+                            entradas.putLong(pendiente.numero).putInt((int) fin);
+                            escribirCompleto(segmento, pendiente.registro.duplicate(), fin);
+                            fin += pendiente.registro.remaining();
+                            posiciones[i++] = posicion(activo, fin);
+                        } while (i < lote.size() && fin + lote.get(i).registro.remaining() <= tamanoSegmento);
+                        segmento.force(false);
+                        escribirCompleto(indice, entradas.flip(), finIndice);
+                    } catch (IOException | RuntimeException e) {
+                        descartar(inicio, finIndice, e);
+                        throw e;
+                    }
+                    guardadas = i;
+                }
+            }
+        } finally {
+            for (int j = 0; j < guardadas; j++) {
+                lote.get(j).confirmacion.complete(posiciones[j]);
+            }
+        }
+        return posiciones;
+    }
+
+    /**
+     * Trunca el segmento activo y su índice tras un error de escritura, para que los
+     * registros que no se confirmaron no se indexen al recuperar el final.
+     */
+    private void descartar(long fin, long finIndice, Exception error) {
+        try {
+            if (indice.size() > finIndice) {
+                indice.truncate(finIndice);
+            }
+            if (segmento.size() > fin) {
+                segmento.truncate(fin);
+                segmento.force(true);
+            }
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Recorre en orden las ventas del diario desde una posición hasta el último registro
+     * completo.
+     *
+     * @param desde Posición de inicio: 0 para todo el diario, o la que retornó un recorrido
+     *              anterior para seguir desde allí
+     * @param destino Recibe cada venta
+     * @return Posición después de la última venta recorrida
+     * @throws IOException Si ocurre un error al leer los segmentos
+     */
+    public long recorrer(long desde, Consumer<Venta> destino) throws IOException {
+        return recorrerConPosiciones(desde, (venta, posicion) -> destino.accept(venta));
+    }
+
+    /**
+     * Como recorrer, pero entrega también la posición donde empieza el registro de cada
+     * venta, con la que leerEn la lee sin buscarla en los índices. De cada segmento solo se
+     * leen los bytes desde la posición de inicio, por lo que seguir un recorrido anterior
+     * cuesta lo que miden las ventas nuevas.
+     *
+     * @param desde Posición de inicio (ver recorrer)
+     * @param destino Recibe cada venta y la posición de su registro
+     * @return Posición después de la última venta recorrida
+     * @throws IOException Si ocurre un error al leer los segmentos
+     */
+    public long recorrerConPosiciones(long desde, ObjLongConsumer<Venta> destino) throws IOException {
+        return recorrerHasta(desde, ultimoSegmento(), destino);
+    }
+
+    /**
+     * Recorre en orden las ventas de un solo segmento, hasta su último registro completo.
+     * Los segmentos se pueden recorrer a la vez desde varios hilos (ver SalesReport).
+     *
+     * @param numero Número del segmento, de 1 a segmentos()
+     * @param destino Recibe cada venta
+     * @throws IOException Si ocurre un error al leer el segmento
+     */
+    public void recorrerSegmento(int numero, Consumer<Venta> destino) throws IOException {
+        recorrerHasta(posicion(numero, 0), numero, (venta, posicion) -> destino.accept(venta));
+    }
+
+    /**
+     * Como recorrerSegmento, pero omite el segmento si está cerrado y ninguna de sus ventas es
+     * del período. Las fechas extremas de un segmento cerrado se leen de su archivo de fechas;
+     * si aún no lo tiene, se recorre completo y se guardan para los informes siguientes.
+     *
+     * @param numero Número del segmento, de 1 a segmentos()
+     * @param desde Inicio del período en segundos (ver VentaResumen.getSegundos), incluido
+     * @param hasta Fin del período en segundos, excluido
+     * @param destino Recibe cada venta del segmento, también las que quedan fuera del período
+     * @return false si el segmento se omitió sin leerlo
+     * @throws IOException Si ocurre un error al leer el segmento
+     */
+    public boolean recorrerSegmento(int numero, long desde, long hasta, Consumer<Venta> destino) throws IOException {
+        boolean cerrado = numero < ultimoSegmento();
+        long[] extremos = cerrado ? fechasSegmento(numero) : null;
+        if (extremos != null) {
+            if (extremos[0] >= hasta || extremos[1] < desde) {
+                return false;
+            }
+            recorrerSegmento(numero, destino);
+            return true;
+        }
+        long[] leidos = {Long.MAX_VALUE, Long.MIN_VALUE};
+        recorrerSegmento(numero, venta -> {
+            long segundos = venta.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+            leidos[0] = Math.min(leidos[0], segundos);
+            leidos[1] = Math.max(leidos[1], segundos);
+            destino.accept(venta);
+        });
+        if (cerrado) {
+            guardarFechas(numero, leidos);
+        }
+        return true;
+    }
+
+    /**
+     * @return Fechas extremas de un segmento cerrado, o null si todavía no se calcularon
+     */
+    private long[] fechasSegmento(int numero) throws IOException {
+        long[] extremos = fechas.get(numero);
+        if (extremos == null) {
+            Path archivo = archivoFechas(numero);
+            if (!Files.exists(archivo) || Files.size(archivo) != 2 * Long.BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(archivo));
+            extremos = new long[] {buffer.getLong(), buffer.getLong()};
+            fechas.put(numero, extremos);
+        }
+        return extremos;
+    }
+
+    /**
+     * Guarda las fechas extremas de un segmento cerrado, con el candado del diario tomado
+     * para que dos cajas no escriban el mismo temporal. Si no se pueden guardar solo se
+     * avisa: el próximo proceso lo volverá a recorrer.
+     */
+    @SuppressWarnings("try")
+    private void guardarFechas(int numero, long[] extremos) {
+        fechas.put(numero, extremos);
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            AtomicFile.reemplazarBytes(archivoFechas(numero), out -> {
+                DataOutputStream datos = new DataOutputStream(out);
+                datos.writeLong(extremos[0]);
+                datos.writeLong(extremos[1]);
+                datos.flush();
+            });
+        } catch (IOException e) {
+            System.err.println("No se pudieron guardar las fechas de "
+                + archivoSegmento(numero).getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Cantidad de segmentos del diario (0 si está vacío)
+     */
+    public int segmentos() {
+        return ultimoSegmento();
+    }
+
+    private long recorrerHasta(long desde, int ultimo, ObjLongConsumer<Venta> destino) throws IOException {
+        long fin = desde;
+        long inicio = Math.max(desde & 0xFFFFFFFFL, ENCABEZADO);
+        ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+        ByteBuffer datos = ByteBuffer.allocate(0);
+        for (int numero = Math.max((int) (desde >>> 32), 1); numero <= ultimo; numero++, inicio = ENCABEZADO) {
+            long tamano;
+            try (FileChannel channel = FileChannel.open(archivoSegmento(numero), StandardOpenOption.READ)) {
+                tamano = channel.size();
+                inicio = Math.min(inicio, tamano);
+                if (tamano >= ENCABEZADO) {
+                    leerCompleto(channel, encabezado.clear(), 0);
+                }
+                if (datos.capacity() < tamano - inicio) {
+                    datos = ByteBuffer.allocate((int) (tamano - inicio));
+                }
+                datos.clear().limit((int) (tamano - inicio));
+                leerCompleto(channel, datos, inicio).flip();
+            }
+            if (tamano >= ENCABEZADO && (encabezado.getInt(0) != MAGICO || encabezado.getInt(4) != VERSION)) {
+                System.err.println("Encabezado inválido en " + archivoSegmento(numero).getFileName()
+                    + "; se omite el segmento");
+                continue;
+            }
+            ByteBuffer contenido;
+            while ((contenido = siguienteRegistro(datos)) != null) {
+                long registro = posicion(numero, inicio + contenido.position() - MARCO);
+                destino.accept(decodificar(contenido), registro);
+            }
+            if (datos.hasRemaining() && numero < ultimo) {
+                System.err.println("Registro dañado en " + archivoSegmento(numero).getFileName()
+                    + " en la posición " + (inicio + datos.position()) + "; se omite el resto del segmento");
+            }
+            fin = posicion(numero, inicio + datos.position());
+        }
+        return fin;
+    }
+
+    /**
+     * Lee una venta usando los índices de los segmentos, del más reciente al más antiguo.
+     *
+     * @param numero Número de la venta sin el prefijo "VEN"
+     * @return La venta, o null si no está en el diario
+     * @throws IOException Si ocurre un error al leer o el registro está dañado
+     */
+    public Venta leer(long numero) throws IOException {
+        int ultimo = ultimoSegmento();
+        for (int s = ultimo; s >= 1; s--) {
+            long[] rango = rangos.get(s);
+            if (rango != null && (numero < rango[0] || numero > rango[1])) {
+                continue;
+            }
+            synchronized (indices) {
+                IndiceSegmento indice = indiceSegmento(s);
+                if (indice == null) {
+                    continue;
+                }
+                // Los segmentos cerrados ya no cambian: se leen una sola vez
+                if (!indice.cerrado) {
+                    indice.ponerseAlDia();
+                    indice.cerrado = s < ultimo;
+                    if (indice.cerrado && indice.cantidad > 0) {
+                        long menor = Long.MAX_VALUE;
+                        long mayor = Long.MIN_VALUE;
+                        for (int i = 0; i < indice.cantidad; i++) {
+                            menor = Math.min(menor, indice.claves[i]);
+                            mayor = Math.max(mayor, indice.claves[i]);
+                        }
+                        rangos.put(s, new long[] {menor, mayor});
+                    }
+                }
+                int desplazamiento = indice.buscar(numero);
+                if (desplazamiento >= 0) {
+                    return leerRegistro(indice.segmento, s, desplazamiento);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee la venta cuyo registro empieza en una posición del diario (ver
+     * recorrerConPosiciones), sin buscarla en los índices.
+     *
+     * @param posicion Posición del registro
+     * @return La venta, o null si la posición no corresponde a ningún segmento
+     * @throws IOException Si ocurre un error al leer o no hay un registro válido en la posición
+     */
+    public Venta leerEn(long posicion) throws IOException {
+        int s = (int) (posicion >>> 32);
+        long desplazamiento = posicion & 0xFFFFFFFFL;
+        if (s < 1 || desplazamiento < ENCABEZADO) {
+            return null;
+        }
+        synchronized (indices) {
+            IndiceSegmento indice = indiceSegmento(s);
+            return indice != null ? leerRegistro(indice.segmento, s, (int) desplazamiento) : null;
+        }
+    }
+
+    /**
+     * @return Índice del segmento con sus canales abiertos (de los últimos consultados o
+     *         recién abierto), o null si el segmento no tiene índice; se usa con 'indices'
+     *         sincronizado
+     */
+    private IndiceSegmento indiceSegmento(int s) throws IOException {
+        IndiceSegmento indice = indices.get(s);
+        if (indice == null) {
+            if (!Files.exists(archivoIndice(s))) {
+                return null;
+            }
+            indice = new IndiceSegmento(archivoSegmento(s), archivoIndice(s));
+            indices.put(s, indice);
+        }
+        return indice;
+    }
+
+    /**
+     * @return Bytes del diario entre dos posiciones, suponiendo segmentos llenos
+     */
+    public long bytesEntre(long desde, long hasta) {
+        long segmentos = (hasta >>> 32) - (desde >>> 32);
+        return segmentos * tamanoSegmento + (hasta & 0xFFFFFFFFL) - (desde & 0xFFFFFFFFL);
+    }
+
+    private Venta leerRegistro(FileChannel channel, int numeroSegmento, int desplazamiento) throws IOException {
+        ByteBuffer marco = leerCompleto(channel, ByteBuffer.allocate(MARCO), desplazamiento);
+        int longitud = marco.getInt(0);
+        if (longitud < 0 || desplazamiento + MARCO + (long) longitud > channel.size()) {
+            throw new IOException("Registro dañado en " + archivoSegmento(numeroSegmento).getFileName());
+        }
+        ByteBuffer registro = ByteBuffer.allocate(MARCO + longitud).put(marco.flip());
+        leerCompleto(channel, registro, desplazamiento + MARCO);
+        ByteBuffer contenido = siguienteRegistro(registro.flip());
+        if (contenido == null) {
+            throw new IOException("Registro dañado en " + archivoSegmento(numeroSegmento).getFileName());
+        }
+        return decodificar(contenido);
+    }
+
+    /**
+     * Verifica el registro en la posición actual del buffer y avanza sobre él.
+     *
+     * @return El contenido del registro, o null si está incompleto o dañado (el buffer no avanza)
+     */
+    private static ByteBuffer siguienteRegistro(ByteBuffer datos) {
+        if (datos.remaining() < MARCO) {
+            return null;
+        }
+        int inicio = datos.position();
+        int longitud = datos.getInt(inicio);
+        if (longitud < 0 || longitud > datos.remaining() - MARCO) {
+            return null;
+        }
+        ByteBuffer contenido = datos.duplicate().position(inicio + MARCO).limit(inicio + MARCO + longitud);
+        CRC32 crc = new CRC32();
+        crc.update(contenido.duplicate());
+        if ((int) crc.getValue() != datos.getInt(inicio + Integer.BYTES)) {
+            return null;
+        }
+        datos.position(inicio + MARCO + longitud);
+        return contenido;
+    }
+
+    /**
+     * Abre el último segmento (o el primero, si el diario está vacío) y, si el registro no
+     * cabe, el siguiente.
+     *
+     * @return Posición del segmento activo donde se escribe el registro
+     */
+    private long prepararSegmento(int longitud) throws IOException {
+        int ultimo = ultimoSegmento();
+        if (segmento == null || activo != Math.max(ultimo, 1)) {
+            abrirSegmento(Math.max(ultimo, 1));
+        }
+        long fin = recuperarFinal();
+        if (fin + longitud > tamanoSegmento && fin > ENCABEZADO) {
+            indice.force(false);
+            abrirSegmento(activo + 1);
+            fin = recuperarFinal();
+        }
+        return fin;
+    }
+
+    private void abrirSegmento(int numero) throws IOException {
+        if (segmento != null) {
+            segmento.close();
+            indice.close();
+        }
+        Files.createDirectories(directorio);
+        segmento = FileChannel.open(archivoSegmento(numero), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indice = FileChannel.open(archivoIndice(numero), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activo = numero;
+        ultimoVisto = Math.max(ultimoVisto, numero);
+    }
+
+    /**
+     * Revisa el final del segmento activo: escribe el encabezado si falta, indexa los
+     * registros completos que no tienen entrada y trunca un registro incompleto.
+     *
+     * @return Posición donde se anexa el próximo registro
+     */
+    private long recuperarFinal() throws IOException {
+        if (segmento.size() < ENCABEZADO) {
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO).putInt(MAGICO).putInt(VERSION).flip();
+            escribirCompleto(segmento, encabezado, 0);
+            segmento.force(true);
+            indice.truncate(0);
+        }
+        long entradas = indice.size() / ENTRADA;
+        if (indice.size() != entradas * ENTRADA) {
+            indice.truncate(entradas * ENTRADA);
+        }
+        long tamano = segmento.size();
+        long fin = ENCABEZADO;
+        if (entradas > 0) {
+            ByteBuffer ultima = leerCompleto(indice, ByteBuffer.allocate(ENTRADA), (entradas - 1) * ENTRADA);
+            long desplazamiento = ultima.getInt(Long.BYTES);
+            fin = desplazamiento + MARCO > tamano ? Long.MAX_VALUE : desplazamiento + MARCO
+                + leerCompleto(segmento, ByteBuffer.allocate(Integer.BYTES), desplazamiento).getInt(0);
+        }
+        if (tamano == fin) {
+            return fin;
+        }
+        if (tamano < fin || fin < ENCABEZADO) {
+            // El índice no corresponde al segmento: se reconstruye
+            indice.truncate(0);
+            fin = ENCABEZADO;
+        }
+        ByteBuffer resto = leerCompleto(segmento, ByteBuffer.allocate((int) (tamano - fin)), fin).flip();
+        ByteBuffer contenido;
+        while ((contenido = siguienteRegistro(resto)) != null) {
+            ByteBuffer entrada = ByteBuffer.allocate(ENTRADA).putLong(contenido.getLong(contenido.position()))
+                .putInt((int) (fin + resto.position() - contenido.remaining() - MARCO)).flip();
+            escribirCompleto(indice, entrada, indice.size());
+        }
+        if (resto.hasRemaining()) {
+            System.err.println("Se descartó un registro incompleto de " + resto.remaining() + " bytes al final de "
+                + archivoSegmento(activo).getFileName());
+            segmento.truncate(fin + resto.position());
+            segmento.force(true);
+        }
+        indice.force(false);
+        return fin + resto.position();
+    }
+
+    /**
+     * @return Número del último segmento, o 0 si el diario está vacío
+     */
+    private int ultimoSegmento() {
+        int numero = ultimoVisto;
+        while (Files.exists(archivoSegmento(numero + 1))) {
+            numero++;
+        }
+        ultimoVisto = numero;
+        return Files.exists(archivoSegmento(numero)) ? numero : 0;
+    }
+
+    private Path archivoSegmento(int numero) {
+        return directorio.resolve(String.format("ventas-%06d.log", numero));
+    }
+
+    private Path archivoIndice(int numero) {
+        return directorio.resolve(String.format("ventas-%06d.idx", numero));
+    }
+
+    private Path archivoFechas(int numero) {
+        return directorio.resolve(String.format("ventas-%06d.fechas", numero));
+    }
+
+    private static long posicion(int numeroSegmento, long desplazamiento) {
+        return ((long) numeroSegmento << 32) | desplazamiento;
+    }
+
+    /**
+     * Codifica una venta como registro del diario, con su marco.
+     */
+    private static ByteBuffer codificar(long numero, Venta venta) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(numero);
+        SalesSnapshot.escribirTexto(out, venta.getNumeroVenta());
+        out.writeLong(venta.getFechaHora().toEpochSecond(ZoneOffset.UTC));
+        Cliente cliente = venta.getCliente();
+        out.writeBoolean(cliente != null);
+        if (cliente != null) {
+            SalesSnapshot.escribirTexto(out, cliente.getIdentificacion());
+            SalesSnapshot.escribirTexto(out, cliente.getTipoIdentificacion());
+            SalesSnapshot.escribirTexto(out, cliente.getNombres());
+            SalesSnapshot.escribirTexto(out, cliente.getApellidos());
+            SalesSnapshot.escribirTexto(out, cliente.getTelefono());
+            SalesSnapshot.escribirTexto(out, cliente.getCorreoElectronico());
+        }
+        List<DetalleVenta> detalles = venta.getDetalles();
+        if (detalles.size() > 0xFFFF) {
+            throw new IOException("La venta tiene demasiadas líneas: " + detalles.size());
+        }
+        out.writeShort(detalles.size());
+        for (DetalleVenta detalle : detalles) {
+            Producto producto = detalle.getProducto();
+            SalesSnapshot.escribirTexto(out, producto.getCodigo());
+            SalesSnapshot.escribirTexto(out, producto.getNombre());
+            out.writeFloat(producto.getPrecioVenta());
+            out.writeInt(detalle.getCantidad());
+        }
+        ByteBuffer registro = ByteBuffer.wrap(bytes.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), MARCO, registro.limit() - MARCO);
+        return registro.putInt(0, registro.limit() - MARCO).putInt(Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Decodifica el contenido de un registro ya verificado. Los totales se recalculan con
+     * Venta.agregarProducto, igual que al finalizar la venta.
+     */
+    private static Venta decodificar(ByteBuffer contenido) {
+        ByteBuffer buffer = contenido.duplicate();
+        byte[] scratch = new byte[256];
+        buffer.getLong();
+        String numeroVenta = SalesSnapshot.leerTexto(buffer, scratch);
+        LocalDateTime fechaHora = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        Cliente cliente = null;
+        if (buffer.get() != 0) {
+            cliente = new Cliente(SalesSnapshot.leerTexto(buffer, scratch), SalesSnapshot.leerTexto(buffer, scratch),
+                SalesSnapshot.leerTexto(buffer, scratch), SalesSnapshot.leerTexto(buffer, scratch),
+                SalesSnapshot.leerTexto(buffer, scratch), SalesSnapshot.leerTexto(buffer, scratch));
+        }
+        Venta venta = new Venta(cliente, fechaHora);
+        venta.setNumeroVenta(numeroVenta);
+        int lineas = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < lineas; i++) {
+            String codigo = SalesSnapshot.leerTexto(buffer, scratch);
+            String nombre = SalesSnapshot.leerTexto(buffer, scratch);
+            float precio = buffer.getFloat();
+            venta.agregarProducto(new Producto(codigo, nombre, precio), buffer.getInt());
+        }
+        return venta;
+    }
+
+    private static ByteBuffer leerCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            int leidos = channel.read(buffer, pos);
+            if (leidos < 0) {
+                throw new IOException("Fin de archivo inesperado en el diario de ventas");
+            }
+            pos += leidos;
+        }
+        return buffer;
+    }
+
+    private static void escribirCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer, pos);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package data;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesAggregates;
+
+/**
+ * Clase SalesSnapshot
+ *
+ * Foto binaria de los resúmenes de todas las ventas ('Ventas/ventas.snap', ver VentaResumen)
+ * y de sus totales (ver SalesAggregates) hasta una posición del diario de ventas (ver
+ * SalesJournal). Al iniciar, la foto se lee con una sola lectura a un buffer y se decodifica
+ * sin interpretar texto; luego solo se recorre el diario desde esa posición, por lo que el
+ * arranque ya no depende del tamaño del historial. La foto no se proyecta en memoria
+ * (memory-mapped): la proyección seguiría viva hasta que el recolector de basura libere el
+ * buffer y, en Windows, impediría reemplazar la foto al renovarla (ver AtomicFile).
+ *
+ * Formato de la foto (enteros big-endian):
+ * - int mágico "VSNP", int versión, long posición del diario, int cantidad de ventas
+ * - Por venta: número, long fecha y hora (ver VentaResumen.getSegundos), identificación y
+ *   nombre del cliente, float total, short cantidad de productos y sus códigos
+ * - Totales: int cantidad de horas y por hora long hora, long ventas, long ingresos y long
+ *   IVA; int cantidad de días y por día long día, int cantidad de productos y por producto
+ *   código, long unidades y long ingresos
+ * - int longitud de los totales en bytes
+ * - int CRC32 de todo lo anterior
+ * Los textos se guardan como short con la longitud en bytes y los bytes UTF-8 (longitud -1
+ * para null).
+ *
+ * Renovar la foto copia los bytes de los resúmenes de la foto actual, agrega los de las ventas
+ * del diario posteriores a su posición y vuelve a escribir los totales con esas ventas sumadas; así incluye también las ventas de las demás
+ * cajas. La foto se reemplaza atómicamente (ver AtomicFile) con el candado de archivo de la
+ * foto tomado (ver SharedFileLock).
+ */
+public class SalesSnapshot {
+    private static final int MAGICO = 0x56534E50;
+    // Versión 4: agrega los totales de las ventas (la versión 3 solo tenía los resúmenes)
+    private static final int VERSION = 4;
+    private static final int ENCABEZADO = 20;
+
+    private final Path archivoFoto;
+    private final SharedFileLock candado;
+
+    /**
+     * Lee las ventas del diario a partir de una posición (ver SalesJournal.recorrer).
+     */
+    public interface LectorDiario {
+        /**
+         * @param desde Posición del diario (ver SalesJournal)
+         * @param destino Recibe cada venta completa
+         * @return Posición después de la última venta leída
+         */
+        long leer(long desde, Consumer<Venta> destino) throws IOException;
+    }
+
+    /**
+     * Resultado de la carga: las ventas y los totales de la foto, y la posición del diario
+     * hasta la que llegan.
+     */
+    public static class Carga {
+        private final List<VentaResumen> ventas;
+        private final SalesAggregates agregados;
+        private final long posicion;
+
+        Carga(List<VentaResumen> ventas, SalesAggregates agregados, long posicion) {
+            this.ventas = ventas;
+            this.agregados = agregados;
+            this.posicion = posicion;
+        }
+
+        public List<VentaResumen> getVentas() {
+            return ventas;
+        }
+
+        public SalesAggregates getAgregados() {
+            return agregados;
+        }
+
+        /** @return Posición del diario desde la que faltan ventas */
+        public long getPosicion() {
+            return posicion;
+        }
+    }
+
+    /**
+     * @param directorio Directorio de ventas donde se guarda la foto
+     */
+    public SalesSnapshot(Path directorio) {
+        this.archivoFoto = directorio.resolve("ventas.snap");
+        this.candado = SharedFileLock.para(archivoFoto);
+    }
+
+    /**
+     * Carga la foto.
+     *
+     * @return La carga, o null si no hay foto o está dañada (hay que leer todas las ventas)
+     * @throws IOException Si ocurre un error al tomar el candado
+     */
+    @SuppressWarnings("try")
+    public Carga cargar() throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ByteBuffer foto = leerFoto(true);
+            if (foto == null) {
+                return null;
+            }
+            List<VentaResumen> ventas = new ArrayList<>(foto.getInt(16));
+            SalesAggregates agregados;
+            try {
+                decodificar(foto, ventas);
+                agregados = decodificarAgregados(foto);
+            } catch (RuntimeException e) {
+                reportarDanada(e);
+                return null;
+            }
+            return new Carga(ventas, agregados, foto.getLong(8));
+        }
+    }
+
+    /**
+     * Crea la foto a partir de todas las ventas (por ejemplo, después de leer todo el
+     * historial porque no había foto). Si mientras tanto otra caja ya creó una foto válida,
+     * la deja: también incluye todas las ventas hasta su posición.
+     *
+     * @param ventas Todas las ventas hasta la posición dada
+     * @param agregados Totales de esas mismas ventas
+     * @param posicion Posición del diario hasta la que llegan las ventas
+     * @throws IOException Si ocurre un error al escribir la foto
+     */
+    @SuppressWarnings("try")
+    public void crear(List<VentaResumen> ventas, SalesAggregates agregados, long posicion) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            if (leerFoto(false) != null) {
+                return;
+            }
+            AtomicFile.reemplazarBytes(archivoFoto, out -> escribirFoto(out, posicion, null, ventas, agregados));
+        }
+    }
+
+    /**
+     * Renueva la foto agregándole las ventas del diario posteriores a su posición, sin
+     * decodificar los resúmenes que ya tiene; solo se decodifican sus totales.
+     *
+     * @param lector Lee las ventas del diario
+     * @return false si no hay una foto válida que renovar (debe crearse con crear)
+     * @throws IOException Si ocurre un error al leer el diario o escribir la foto
+     */
+    @SuppressWarnings("try")
+    public boolean actualizar(LectorDiario lector) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            ByteBuffer actual = leerFoto(true);
+            if (actual == null) {
+                return false;
+            }
+            SalesAggregates agregados;
+            try {
+                agregados = decodificarAgregados(actual);
+            } catch (RuntimeException e) {
+                reportarDanada(e);
+                return false;
+            }
+            List<VentaResumen> nuevas = new ArrayList<>();
+            long posicion = lector.leer(actual.getLong(8), venta -> {
+                nuevas.add(VentaResumen.de(venta));
+                agregados.registrar(venta);
+            });
+            if (!nuevas.isEmpty()) {
+                AtomicFile.reemplazarBytes(archivoFoto, out -> escribirFoto(out, posicion, actual, nuevas, agregados));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Lee la foto completa a un buffer y verifica su encabezado y su CRC.
+     *
+     * @param informar true para informar por consola si la foto está dañada
+     * @return La foto sin el CRC final, o null si no existe o está dañada
+     */
+    private ByteBuffer leerFoto(boolean informar) {
+        if (!Files.exists(archivoFoto)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(archivoFoto, StandardOpenOption.READ)) {
+            long tamano = channel.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("tamaño " + tamano + " no admitido");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamano);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    throw new IOException("fin de archivo inesperado");
+                }
+            }
+            buffer.clear();
+            int limite = buffer.limit() - Integer.BYTES;
+            if (limite < ENCABEZADO || buffer.getInt(0) != MAGICO) {
+                throw new IOException("encabezado inválido");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                // Las fotos de versiones anteriores guardaban las ventas completas, dependían
+                // de la lista de tickets pendientes o no tenían los totales
+                throw new IOException("versión " + buffer.getInt(4) + " no compatible");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit(limite));
+            if ((int) crc.getValue() != buffer.getInt(limite)) {
+                throw new IOException("CRC inválido");
+            }
+            return buffer.limit(limite);
+        } catch (IOException e) {
+            if (informar) {
+                reportarDanada(e);
+            }
+            return null;
+        }
+    }
+
+    private void reportarDanada(Exception e) {
+        System.err.println("La foto de ventas " + archivoFoto + " está dañada, se leerán todas las ventas: "
+            + e.getMessage());
+    }
+
+    /**
+     * Escribe una foto: las ventas de la foto anterior (copiando sus bytes), luego las dadas
+     * y por último los totales.
+     *
+     * @param anterior Foto anterior sin el CRC, o null
+     * @param agregados Totales de todas las ventas de la foto
+     */
+    private static void escribirFoto(OutputStream destino, long posicion, ByteBuffer anterior,
+            List<VentaResumen> ventas, SalesAggregates agregados) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(destino, crc));
+        int previas = anterior != null ? anterior.getInt(16) : 0;
+        out.writeInt(MAGICO);
+        out.writeInt(VERSION);
+        out.writeLong(posicion);
+        out.writeInt(previas + ventas.size());
+        if (anterior != null) {
+            ByteBuffer cuerpo = anterior.duplicate().position(ENCABEZADO).limit(finResumenes(anterior));
+            byte[] bloque = new byte[1 << 16];
+            while (cuerpo.hasRemaining()) {
+                int n = Math.min(bloque.length, cuerpo.remaining());
+                cuerpo.get(bloque, 0, n);
+                out.write(bloque, 0, n);
+            }
+        }
+        for (VentaResumen venta : ventas) {
+            escribirVenta(out, venta);
+        }
+        int inicioAgregados = out.size();
+        escribirAgregados(out, agregados);
+        out.writeInt(out.size() - inicioAgregados);
+        out.flush();
+        // El CRC se escribe fuera del flujo verificado
+        new DataOutputStream(destino).writeInt((int) crc.getValue());
+    }
+
+    private static void escribirVenta(DataOutputStream out, VentaResumen venta) throws IOException {
+        escribirTexto(out, venta.getNumeroVenta());
+        out.writeLong(venta.getSegundos());
+        escribirTexto(out, venta.getIdentificacionCliente());
+        escribirTexto(out, venta.getNombreCliente());
+        out.writeFloat(venta.getTotal());
+        String[] codigos = venta.getCodigosProductos();
+        out.writeShort(codigos.length);
+        for (String codigo : codigos) {
+            escribirTexto(out, codigo);
+        }
+    }
+
+    private static void escribirAgregados(DataOutputStream out, SalesAggregates agregados) throws IOException {
+        Map<Long, SalesAggregates.Totales> horas = agregados.horas();
+        out.writeInt(horas.size());
+        for (Map.Entry<Long, SalesAggregates.Totales> hora : horas.entrySet()) {
+            SalesAggregates.Totales t = hora.getValue();
+            out.writeLong(hora.getKey());
+            out.writeLong(t.getVentas());
+            out.writeLong(t.getIngresos());
+            out.writeLong(t.getIva());
+        }
+        Map<Long, Map<String, SalesAggregates.TotalesProducto>> dias = agregados.productosPorDia();
+        out.writeInt(dias.size());
+        for (Map.Entry<Long, Map<String, SalesAggregates.TotalesProducto>> dia : dias.entrySet()) {
+            out.writeLong(dia.getKey());
+            out.writeInt(dia.getValue().size());
+            for (Map.Entry<String, SalesAggregates.TotalesProducto> producto : dia.getValue().entrySet()) {
+                escribirTexto(out, producto.getKey());
+                out.writeLong(producto.getValue().getUnidades());
+                out.writeLong(producto.getValue().getIngresos());
+            }
+        }
+    }
+
+    /**
+     * @param foto Foto verificada, sin el CRC
+     * @return Posición donde terminan los resúmenes y empiezan los totales
+     */
+    private static int finResumenes(ByteBuffer foto) {
+        int longitud = foto.getInt(foto.limit() - Integer.BYTES);
+        int fin = foto.limit() - Integer.BYTES - longitud;
+        if (longitud < 0 || fin < ENCABEZADO) {
+            throw new IllegalStateException("longitud de los totales inválida: " + longitud);
+        }
+        return fin;
+    }
+
+    /**
+     * Decodifica los totales de una foto ya verificada.
+     */
+    private static SalesAggregates decodificarAgregados(ByteBuffer foto) {
+        ByteBuffer buffer = foto.duplicate().position(finResumenes(foto));
+        SalesAggregates agregados = new SalesAggregates();
+        int horas = buffer.getInt();
+        for (int i = 0; i < horas; i++) {
+            agregados.sumarHora(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+        int dias = buffer.getInt();
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < dias; i++) {
+            long dia = buffer.getLong();
+            int productos = buffer.getInt();
+            for (int j = 0; j < productos; j++) {
+                agregados.sumarProducto(dia, leerTexto(buffer, scratch), buffer.getLong(), buffer.getLong());
+            }
+        }
+        return agregados;
+    }
+
+    /**
+     * Escribe un texto con su longitud (también lo usa el diario de ventas).
+     */
+    static void escribirTexto(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= 0xFFFF) {
+            throw new IOException("Texto demasiado largo para guardar la venta: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Decodifica los resúmenes de una foto ya verificada.
+     */
+    private static void decodificar(ByteBuffer foto, List<VentaResumen> ventas) {
+        ByteBuffer buffer = foto.duplicate().position(16);
+        int cantidad = buffer.getInt();
+        byte[] scratch = new byte[1024];
+        for (int i = 0; i < cantidad; i++) {
+            String numero = leerTexto(buffer, scratch);
+            LocalDateTime fecha = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            String identificacion = leerTexto(buffer, scratch);
+            String nombre = leerTexto(buffer, scratch);
+            float total = buffer.getFloat();
+            String[] codigos = new String[buffer.getShort() & 0xFFFF];
+            for (int j = 0; j < codigos.length; j++) {
+                codigos[j] = leerTexto(buffer, scratch);
+            }
+            ventas.add(new VentaResumen(numero, fecha, identificacion, nombre, total, codigos));
+        }
+    }
+
+    static String leerTexto(ByteBuffer buffer, byte[] scratch) {
+        int longitud = buffer.getShort();
+        if (longitud == -1) {
+            return null;
+        }
+        longitud &= 0xFFFF;
+        byte[] bytes = longitud <= scratch.length ? scratch : new byte[longitud];
+        buffer.get(bytes, 0, longitud);
+        return new String(bytes, 0, longitud, StandardCharsets.UTF_8);
+    }
+}
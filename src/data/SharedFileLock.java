@@ -0,0 +1,137 @@
+package data;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clase SharedFileLock
+ *
+ * Candado exclusivo sobre un recurso compartido entre varios procesos (varias cajas que
+ * usan el mismo directorio 'data/' o 'Ventas/'). Cada recurso tiene su propio archivo de
+ * candado ("recurso.lock") que se bloquea con FileChannel.lock; el sistema operativo libera
+ * el candado si el proceso termina, por lo que una caja que se cae no deja bloqueadas a
+ * las demás.
+ *
+ * FileChannel.lock no excluye a los hilos de un mismo proceso, así que dentro del proceso
+ * el candado se combina con un ReentrantLock: hay una sola instancia por recurso y un hilo
+ * que ya tiene el candado puede volver a tomarlo.
+ *
+ * El candado debe tomarse solo alrededor de la escritura, con try-with-resources:
+ *
+ *     try (SharedFileLock.Candado c = SharedFileLock.para(archivo).adquirir()) {
+ *         ...
+ *     }
+ */
+public class SharedFileLock {
+    private static final Map<Path, SharedFileLock> CANDADOS = new ConcurrentHashMap<>();
+
+    private final Path archivoCandado;
+    private final ReentrantLock local = new ReentrantLock();
+    private FileChannel canal;
+    private FileLock bloqueo;
+
+    private SharedFileLock(Path archivoCandado) {
+        this.archivoCandado = archivoCandado;
+    }
+
+    /**
+     * Obtiene el candado de un recurso. El archivo de candado se crea junto al recurso.
+     *
+     * @param recurso El archivo o directorio protegido
+     * @return El candado del recurso, compartido por todo el proceso
+     */
+    public static SharedFileLock para(Path recurso) {
+        Path archivo = recurso.toAbsolutePath().normalize();
+        return CANDADOS.computeIfAbsent(archivo,
+            r -> new SharedFileLock(r.resolveSibling(r.getFileName() + ".lock")));
+    }
+
+    /**
+     * Toma el candado, esperando a que lo liberen los demás hilos y procesos.
+     *
+     * @return El candado tomado, que se libera al cerrarlo
+     * @throws IOException Si ocurre un error al bloquear el archivo de candado
+     */
+    public Candado adquirir() throws IOException {
+        local.lock();
+        try {
+            if (local.getHoldCount() == 1) {
+                bloqueo = abrirCanal().lock();
+            }
+        } catch (IOException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+        return new Candado();
+    }
+
+    /**
+     * Toma el candado solo si está libre.
+     *
+     * @return El candado tomado, o null si otro hilo o proceso lo tiene
+     * @throws IOException Si ocurre un error al bloquear el archivo de candado
+     */
+    public Candado intentarAdquirir() throws IOException {
+        if (!local.tryLock()) {
+            return null;
+        }
+        try {
+            if (local.getHoldCount() == 1) {
+                bloqueo = abrirCanal().tryLock();
+                if (bloqueo == null) {
+                    local.unlock();
+                    return null;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+        return new Candado();
+    }
+
+    private FileChannel abrirCanal() throws IOException {
+        if (canal == null || !canal.isOpen()) {
+            Files.createDirectories(archivoCandado.getParent());
+            canal = FileChannel.open(archivoCandado, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        return canal;
+    }
+
+    private void liberar() throws IOException {
+        try {
+            if (local.getHoldCount() == 1 && bloqueo != null) {
+                FileLock actual = bloqueo;
+                bloqueo = null;
+                actual.release();
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * Candado tomado; se libera al cerrarlo.
+     */
+    public class Candado implements AutoCloseable {
+        private boolean liberado;
+
+        private Candado() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!liberado) {
+                liberado = true;
+                liberar();
+            }
+        }
+    }
+}
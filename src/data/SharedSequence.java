@@ -0,0 +1,91 @@
+package data;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase SharedSequence
+ *
+ * Secuencia numérica compartida entre varios procesos, guardada en un archivo de texto con
+ * el último número asignado. Cada asignación toma el candado de archivo de la secuencia
+ * (ver SharedFileLock), lee el último número, escribe el siguiente de forma atómica (ver
+ * AtomicFile) y libera el candado, por lo que dos cajas nunca reciben el mismo número.
+ */
+public class SharedSequence {
+    private final Path archivo;
+    private final LongSupplier valorInicial;
+    private final SharedFileLock candado;
+
+    /**
+     * @param archivo Archivo donde se guarda el último número asignado
+     * @param valorInicial Último número ya usado, para cuando el archivo todavía no existe
+     *                     (por ejemplo, el mayor número de los tickets existentes)
+     */
+    public SharedSequence(Path archivo, LongSupplier valorInicial) {
+        this.archivo = archivo;
+        this.valorInicial = valorInicial;
+        this.candado = SharedFileLock.para(archivo);
+    }
+
+    /**
+     * Asigna el siguiente número de la secuencia.
+     *
+     * @return El número asignado
+     * @throws IOException Si ocurre un error al leer o escribir la secuencia
+     */
+    public long siguiente() throws IOException {
+        return reservar(1);
+    }
+
+    /**
+     * Reserva un bloque de números consecutivos con una sola escritura del archivo (ver
+     * SaleNumberAllocator).
+     *
+     * @param cantidad Cantidad de números del bloque
+     * @return El primer número del bloque; el bloque es [primero, primero + cantidad)
+     * @throws IOException Si ocurre un error al leer o escribir la secuencia
+     */
+    @SuppressWarnings("try")
+    public long reservar(int cantidad) throws IOException {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que 0");
+        }
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            long primero = ultimo() + 1;
+            AtomicFile.reemplazar(archivo, out -> out.write(Long.toString(primero + cantidad - 1)));
+            return primero;
+        }
+    }
+
+    /**
+     * Asegura que el próximo número asignado sea mayor que minimo (por ejemplo, el mayor
+     * número de los tickets cargados). No retrocede la secuencia si ya está más adelante.
+     *
+     * @param minimo Último número que se sabe usado
+     * @throws IOException Si ocurre un error al leer o escribir la secuencia
+     */
+    @SuppressWarnings("try")
+    public void avanzarHasta(long minimo) throws IOException {
+        try (SharedFileLock.Candado c = candado.adquirir()) {
+            long actual = ultimo();
+            if (actual < minimo) {
+                AtomicFile.reemplazar(archivo, out -> out.write(Long.toString(minimo)));
+            }
+        }
+    }
+
+    private long ultimo() throws IOException {
+        if (!Files.exists(archivo)) {
+            return valorInicial.getAsLong();
+        }
+        String contenido = new String(Files.readAllBytes(archivo), Charset.defaultCharset()).trim();
+        try {
+            return Long.parseLong(contenido);
+        } catch (NumberFormatException e) {
+            throw new IOException("Secuencia inválida en " + archivo + ": " + contenido);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Una página del historial de compras de un cliente, de la venta más reciente a la más
+ * antigua (ver VentaController.historialCliente).
+ */
+public class PaginaVentas {
+    // Cursor de la primera página: desde la venta más reciente
+    public static final long PRIMERA = Long.MAX_VALUE;
+
+    private final List<Venta> ventas;
+    private final long siguiente;
+    private final long totalVentas;
+
+    public PaginaVentas(List<Venta> ventas, long siguiente, long totalVentas) {
+        this.ventas = ventas;
+        this.siguiente = siguiente;
+        this.totalVentas = totalVentas;
+    }
+
+    /**
+     * @return Ventas completas de la página, de la más reciente a la más antigua
+     */
+    public List<Venta> getVentas() {
+        return ventas;
+    }
+
+    /**
+     * @return Cursor para pedir la página siguiente (no cambia aunque el cliente haga
+     *         compras nuevas); 0 si no hay más ventas
+     */
+    public long getSiguiente() {
+        return siguiente;
+    }
+
+    public boolean hayMas() {
+        return siguiente > 0;
+    }
+
+    /**
+     * @return Cantidad total de ventas del cliente
+     */
+    public long getTotalVentas() {
+        return totalVentas;
+    }
+}
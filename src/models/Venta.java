@@ -1,14 +1,11 @@
 package models;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import utils.TicketRenderer;
 
 public class Venta {
-    private static final String EMPRESA_NOMBRE = "Mi Empresa S.A.S";
-    private static final String EMPRESA_NIT = "900123456-7";
-    private static final String EMPRESA_SOFTWARE = "Sistema POS v1.0";
     private static final float IVA = 0.19f;
 
     private String numeroVenta;
@@ -20,7 +17,14 @@ public class Venta {
     private float total;
 
     public Venta(Cliente cliente) {
-        this.fechaHora = LocalDateTime.now();
+        this(cliente, LocalDateTime.now());
+    }
+
+    /**
+     * Crea una venta con una fecha y hora dada (por ejemplo, la de un ticket guardado).
+     */
+    public Venta(Cliente cliente, LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
         this.cliente = cliente;
         this.detalles = new ArrayList<>();
         this.subtotal = 0;
@@ -79,48 +83,10 @@ public class Venta {
         return total;
     }
 
+    /**
+     * @return Texto del ticket de la venta (ver TicketRenderer)
+     */
     public String generarTicket() {
-        StringBuilder ticket = new StringBuilder();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        // Sección Empresa
-        ticket.append("EMPRESA\n");
-        ticket.append("Nombre: ").append(EMPRESA_NOMBRE).append("\n");
-        ticket.append("NIT: ").append(EMPRESA_NIT).append("\n\n");
-
-        // Datos de venta
-        ticket.append("DATOS DE VENTA\n");
-        ticket.append("Número: ").append(numeroVenta).append("\n");
-        ticket.append("Fecha y Hora: ").append(fechaHora.format(formatter)).append("\n\n");
-
-        // Datos del cliente
-        ticket.append("DATOS DEL CLIENTE\n");
-        ticket.append("Nombre Completo: ").append(cliente.getNombres()).append(" ").append(cliente.getApellidos()).append("\n");
-        ticket.append("Identificación: ").append(cliente.getTipoIdentificacion()).append(" ").append(cliente.getIdentificacion()).append("\n");
-        ticket.append("Teléfono: ").append(cliente.getTelefono()).append("\n");
-        ticket.append("Correo: ").append(cliente.getCorreoElectronico()).append("\n\n");
-
-        // Productos
-        ticket.append("PRODUCTOS\n");
-        ticket.append("Código\tNombre\t\tPrecio\tCantidad\tSubtotal\n");
-        for (DetalleVenta detalle : detalles) {
-            Producto p = detalle.getProducto();
-            ticket.append(String.format("%s\t%s\t%.2f\t%d\t\t%.2f\n",
-                p.getCodigo(), p.getNombre(), p.getPrecioVenta(),
-                detalle.getCantidad(), detalle.getSubtotal()));
-        }
-        ticket.append("\n");
-
-        // Totales
-        ticket.append("TOTALES\n");
-        ticket.append(String.format("Subtotal: $%.2f\n", subtotal));
-        ticket.append(String.format("IVA (19%%): $%.2f\n", totalIva));
-        ticket.append(String.format("Total: $%.2f\n\n", total));
-
-        // Datos del programa
-        ticket.append("DATOS DEL PROGRAMA\n");
-        ticket.append(EMPRESA_SOFTWARE).append("\n");
-
-        return ticket.toString();
+        return TicketRenderer.renderizar(this);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de una venta: lo que se mantiene en memoria por cada venta guardada (número, fecha,
+ * cliente, total y códigos de los productos). El detalle completo (datos del cliente y líneas)
+ * se lee del diario de ventas cuando se necesita (ver VentaController.obtenerVenta).
+ *
+ * Los textos que se repiten entre ventas (identificación y nombre del cliente, códigos de
+ * producto) se internan, de modo que todas las ventas de un cliente comparten los mismos
+ * Strings. El número de venta no se guarda como texto sino como long y su cantidad de
+ * dígitos, y el texto se arma al pedirlo (ver getNumeroVenta).
+ */
+public class VentaResumen {
+    private static final String[] SIN_PRODUCTOS = new String[0];
+    private static final String PREFIJO = "VEN";
+    // Dígitos que caben en un long sin desbordar
+    private static final int MAXIMO_DIGITOS = 18;
+    // Números que no son "VEN" y dígitos (tickets editados a mano); el resumen guarda su posición
+    private static final List<String> IRREGULARES = new ArrayList<>();
+    private static final Map<String, Integer> POSICION_IRREGULAR = new HashMap<>();
+
+    // Número sin el prefijo "VEN" (o posición en IRREGULARES) y cantidad de dígitos con que se
+    // escribe: 3 o más en los tickets de versiones anteriores ("VEN%03d"), 10 en el diario; 0
+    // si la venta no tiene número y -1 si es irregular
+    private final long numero;
+    private final byte digitos;
+    // Segundos desde 1970-01-01T00:00 de la fecha y hora local (sin zona horaria)
+    private final long segundos;
+    private final String identificacionCliente;
+    private final String nombreCliente;
+    private final float total;
+    private final String[] codigosProductos;
+
+    public VentaResumen(String numeroVenta, LocalDateTime fechaHora, String identificacionCliente,
+                        String nombreCliente, float total, String[] codigosProductos) {
+        int cifras = numeroVenta != null ? numeroVenta.length() - PREFIJO.length() : 0;
+        if (numeroVenta == null) {
+            this.numero = 0;
+            this.digitos = 0;
+        } else if (numeroVenta.startsWith(PREFIJO) && cifras > 0 && cifras <= MAXIMO_DIGITOS
+                && sonDigitos(numeroVenta)) {
+            this.numero = Long.parseLong(numeroVenta, PREFIJO.length(), numeroVenta.length(), 10);
+            this.digitos = (byte) cifras;
+        } else {
+            this.numero = irregular(numeroVenta);
+            this.digitos = -1;
+        }
+        this.segundos = fechaHora.toEpochSecond(ZoneOffset.UTC);
+        this.identificacionCliente = internar(identificacionCliente);
+        this.nombreCliente = internar(nombreCliente);
+        this.total = total;
+        this.codigosProductos = codigosProductos.length == 0 ? SIN_PRODUCTOS : codigosProductos;
+        for (int i = 0; i < codigosProductos.length; i++) {
+            codigosProductos[i] = internar(codigosProductos[i]);
+        }
+    }
+
+    /**
+     * Crea el resumen de una venta completa. Cada código de producto aparece una sola vez.
+     */
+    public static VentaResumen de(Venta venta) {
+        Cliente cliente = venta.getCliente();
+        List<DetalleVenta> detalles = venta.getDetalles();
+        String[] codigos = new String[detalles.size()];
+        int distintos = 0;
+        for (DetalleVenta detalle : detalles) {
+            String codigo = detalle.getProducto().getCodigo();
+            boolean repetido = false;
+            for (int i = 0; i < distintos && !repetido; i++) {
+                repetido = codigos[i].equals(codigo);
+            }
+            if (!repetido) {
+                codigos[distintos++] = codigo;
+            }
+        }
+        if (distintos < codigos.length) {
+            codigos = Arrays.copyOf(codigos, distintos);
+        }
+        return new VentaResumen(venta.getNumeroVenta(), venta.getFechaHora(),
+            cliente != null ? cliente.getIdentificacion() : null,
+            cliente != null ? cliente.getNombres() + " " + cliente.getApellidos() : null,
+            venta.getTotal(), codigos);
+    }
+
+    private static String internar(String texto) {
+        return texto != null ? texto.intern() : null;
+    }
+
+    private static boolean sonDigitos(String numeroVenta) {
+        for (int i = PREFIJO.length(); i < numeroVenta.length(); i++) {
+            if (numeroVenta.charAt(i) < '0' || numeroVenta.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static synchronized long irregular(String numeroVenta) {
+        return POSICION_IRREGULAR.computeIfAbsent(numeroVenta, k -> {
+            IRREGULARES.add(k);
+            return IRREGULARES.size() - 1;
+        });
+    }
+
+    private static synchronized String irregular(long posicion) {
+        return IRREGULARES.get((int) posicion);
+    }
+
+    /**
+     * @return Número de venta tal como se guardó ("VEN" y sus dígitos), armado en cada llamada;
+     *         null si la venta no tiene número
+     */
+    public String getNumeroVenta() {
+        if (digitos <= 0) {
+            return digitos == 0 ? null : irregular(numero);
+        }
+        String cifras = Long.toString(numero);
+        StringBuilder texto = new StringBuilder(PREFIJO.length() + digitos).append(PREFIJO);
+        for (int i = cifras.length(); i < digitos; i++) {
+            texto.append('0');
+        }
+        return texto.append(cifras).toString();
+    }
+
+    /**
+     * @return Número de venta sin el prefijo "VEN", sin crear objetos; 0 si la venta no tiene
+     *         número o no es "VEN" y dígitos
+     */
+    public long getNumero() {
+        return digitos > 0 ? numero : 0;
+    }
+
+    /**
+     * Compara los números de venta como textos: primero por longitud, para que "VEN1000" quede
+     * después de "VEN999", y luego alfabéticamente; una venta sin número queda antes de las
+     * numeradas. Con números "VEN" y dígitos compara los long, sin armar los textos.
+     */
+    public static int compararNumeros(VentaResumen a, VentaResumen b) {
+        if (a.digitos > 0 && b.digitos > 0) {
+            return a.digitos != b.digitos ? Integer.compare(a.digitos, b.digitos) : Long.compare(a.numero, b.numero);
+        }
+        String textoA = a.getNumeroVenta();
+        String textoB = b.getNumeroVenta();
+        if (textoA == null || textoB == null) {
+            return textoA == null ? (textoB == null ? 0 : -1) : 1;
+        }
+        if (textoA.length() != textoB.length()) {
+            return Integer.compare(textoA.length(), textoB.length());
+        }
+        return textoA.compareTo(textoB);
+    }
+
+    /**
+     * @return Fecha y hora de la venta, al segundo
+     */
+    public LocalDateTime getFechaHora() {
+        return LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return Segundos desde 1970-01-01T00:00 de la fecha y hora local, sin crear objetos
+     */
+    public long getSegundos() {
+        return segundos;
+    }
+
+    public String getIdentificacionCliente() {
+        return identificacionCliente;
+    }
+
+    /**
+     * @return Nombres y apellidos del cliente, o null si la venta no tiene cliente
+     */
+    public String getNombreCliente() {
+        return nombreCliente;
+    }
+
+    public float getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Códigos de los productos de la venta, sin repetidos; no debe modificarse
+     */
+    public String[] getCodigosProductos() {
+        return codigosProductos;
+    }
+}
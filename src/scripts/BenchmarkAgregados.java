@@ -0,0 +1,116 @@
+package scripts;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+import utils.SalesAggregates;
+
+/**
+ * Compara obtener los ingresos, el IVA y las unidades de un producto de un día recorriendo
+ * todas las ventas y sus detalles (como antes) con consultar los totales mantenidos al
+ * registrar cada venta (SalesAggregates). Verifica que ambos den los mismos centavos.
+ *
+ * Uso: java -cp bin scripts.BenchmarkAgregados [cantidadDeVentas]
+ */
+public class BenchmarkAgregados {
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<Venta> ventas = generarVentas(cantidad);
+
+        long inicio = System.nanoTime();
+        SalesAggregates agregados = new SalesAggregates();
+        for (Venta venta : ventas) {
+            agregados.registrar(venta);
+        }
+        long registro = System.nanoTime() - inicio;
+
+        LocalDate dia = ventas.get(cantidad / 2).getFechaHora().toLocalDate();
+        String codigo = "AB007";
+        int consultas = 20;
+        long recorrido = 0;
+        long consulta = 0;
+        // La primera ronda calienta el JIT; se mide la segunda
+        for (int r = 0; r < 2; r++) {
+            long[] esperado = null;
+            inicio = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                esperado = recorrer(ventas, dia, codigo);
+            }
+            recorrido = System.nanoTime() - inicio;
+            long[] obtenido = null;
+            inicio = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                SalesAggregates.Totales totales = agregados.dia(dia);
+                SalesAggregates.TotalesProducto producto = agregados.producto(codigo, dia);
+                obtenido = new long[] {totales.getVentas(), totales.getIngresos(), totales.getIva(),
+                    producto.getUnidades(), producto.getIngresos()};
+            }
+            consulta = System.nanoTime() - inicio;
+            for (int i = 0; i < esperado.length; i++) {
+                verificar(esperado[i] == obtenido[i], "Los totales del día no coinciden con el recorrido");
+            }
+        }
+
+        System.out.printf("Ventas: %,d  registrar todas: %,.1f ms (%,.0f ns por venta)%n", cantidad,
+            registro / 1e6, (double) registro / cantidad);
+        System.out.printf("%-28s %,12.1f µs%n", "Recorrer ventas y detalles", recorrido / 1e3 / consultas);
+        System.out.printf("%-28s %,12.1f µs%n", "Consultar los totales", consulta / 1e3 / consultas);
+    }
+
+    /**
+     * @return Ventas, ingresos e IVA del día y unidades e ingresos del producto ese día
+     */
+    private static long[] recorrer(List<Venta> ventas, LocalDate dia, String codigo) {
+        long[] totales = new long[5];
+        for (Venta venta : ventas) {
+            if (!venta.getFechaHora().toLocalDate().equals(dia)) {
+                continue;
+            }
+            totales[0]++;
+            totales[1] += SalesAggregates.centavos(venta.getTotal());
+            totales[2] += SalesAggregates.centavos(venta.getTotalIva());
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                if (detalle.getProducto().getCodigo().equals(codigo)) {
+                    totales[3] += detalle.getCantidad();
+                    totales[4] += SalesAggregates.centavos(detalle.getSubtotal());
+                }
+            }
+        }
+        return totales;
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        Producto[] productos = new Producto[200];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto(String.format("AB%03d", i), "Producto de prueba " + i,
+                1_000 + random.nextInt(50_000) + random.nextInt(100) / 100f);
+        }
+        Cliente cliente = new Cliente("1234567890", "CC", "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+        // Unas 700 ventas por día
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Venta venta = new Venta(cliente, fecha.plusSeconds(123L * i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                venta.agregarProducto(productos[random.nextInt(productos.length)], 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
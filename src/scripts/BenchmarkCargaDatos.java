@@ -0,0 +1,102 @@
+package scripts;
+
+import data.ParallelLoader;
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import models.Cliente;
+import utils.Validators;
+
+/**
+ * Compara el tiempo de carga de un archivo de clientes con el método anterior
+ * (BufferedReader + replace + split, un solo hilo) y con ParallelLoader
+ * (bloques del archivo leídos a buffers propios y procesados en paralelo).
+ *
+ * Uso: java -cp bin scripts.BenchmarkCargaDatos [cantidadDeClientes]
+ */
+public class BenchmarkCargaDatos {
+    private static final int CALENTAMIENTO = 3;
+    private static final int MEDICIONES = 5;
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path archivo = Files.createTempFile("clientes-benchmark", ".txt");
+        try {
+            generarArchivo(archivo, cantidad);
+            double megas = Files.size(archivo) / (1024.0 * 1024.0);
+            System.out.printf("Archivo: %,d clientes, %.1f MB%n", cantidad, megas);
+
+            medir("Secuencial (BufferedReader + split)", megas, cantidad, () -> cargarSecuencial(archivo));
+            medir("Paralelo (bloques + fork-join)", megas, cantidad, () -> cargarParalelo(archivo));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    private interface Carga {
+        int ejecutar() throws IOException;
+    }
+
+    private static void medir(String nombre, double megas, int cantidad, Carga carga) throws IOException {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            carga.ejecutar();
+        }
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            int cargados = carga.ejecutar();
+            long duracion = System.nanoTime() - inicio;
+            if (cargados != cantidad) {
+                throw new IllegalStateException(nombre + ": se cargaron " + cargados + " de " + cantidad);
+            }
+            mejor = Math.min(mejor, duracion);
+        }
+        double segundos = mejor / 1e9;
+        System.out.printf("%-40s %8.1f ms  %,12.0f registros/s  %8.1f MB/s%n",
+            nombre, mejor / 1e6, cantidad / segundos, megas / segundos);
+    }
+
+    private static void generarArchivo(Path archivo, int cantidad) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(archivo))) {
+            for (int i = 0; i < cantidad; i++) {
+                out.printf("%010d*%s*Nombre%06d*Apellido%06d*3%09d*cliente%d@correo.com%n",
+                    i, i % 2 == 0 ? "CC" : "CE", i % 1_000_000, i % 1_000_000, i % 1_000_000_000, i);
+            }
+        }
+    }
+
+    /**
+     * Método de carga anterior: una línea a la vez, con replace y split.
+     */
+    private static int cargarSecuencial(Path archivo) throws IOException {
+        List<Cliente> clientes = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(archivo.toFile()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Cliente cliente = Cliente.fromString(line.replace("*", ","));
+                if (Validators.isValidIdentificacion(cliente.getIdentificacion())
+                        && Validators.isValidTipoIdentificacion(cliente.getTipoIdentificacion())
+                        && Validators.isValidNombres(cliente.getNombres())
+                        && Validators.isValidApellidos(cliente.getApellidos())
+                        && Validators.isValidTelefono(cliente.getTelefono())
+                        && Validators.isValidCorreo(cliente.getCorreoElectronico())) {
+                    clientes.add(cliente);
+                }
+            }
+        }
+        return clientes.size();
+    }
+
+    private static int cargarParalelo(Path archivo) throws IOException {
+        ParallelLoader.Resultado<Cliente> resultado = ParallelLoader.cargar(archivo, 6,
+            campos -> new Cliente(campos[0], campos[1], campos[2], campos[3], campos[4], campos[5]),
+            cliente -> Validators.isValidIdentificacion(cliente.getIdentificacion())
+                    && Validators.isValidTipoIdentificacion(cliente.getTipoIdentificacion())
+                    && Validators.isValidNombres(cliente.getNombres())
+                    && Validators.isValidApellidos(cliente.getApellidos())
+                    && Validators.isValidTelefono(cliente.getTelefono())
+                    && Validators.isValidCorreo(cliente.getCorreoElectronico()) ? null : "inválido");
+        return resultado.getRegistros().size();
+    }
+}
@@ -0,0 +1,117 @@
+package scripts;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesIndex;
+import utils.TicketParser;
+
+/**
+ * Compara la carga inicial de los tickets de venta:
+ * - Serial (como antes): un recorrido del directorio para contar los tickets y otro para
+ *   leerlos y convertirlos uno por uno, insertando cada venta en el índice.
+ * - Paralela: un solo recorrido, conversión en el ForkJoinPool y construcción del índice
+ *   de una vez (SalesIndex.build).
+ *
+ * Los tickets se generan con Venta.generarTicket en un directorio temporal que se borra al
+ * terminar.
+ *
+ * Uso: java -cp bin scripts.BenchmarkCargaVentas [cantidadDeTickets]
+ */
+public class BenchmarkCargaVentas {
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path directorio = Files.createTempDirectory("ventas");
+        try {
+            generarTickets(directorio, cantidad);
+            System.out.printf("Tickets: %,d  hilos del ForkJoinPool: %d%n",
+                cantidad, ForkJoinPool.getCommonPoolParallelism());
+
+            // Se repite para que ambas cargas encuentren los archivos en la caché del sistema
+            long serial = 0;
+            long paralela = 0;
+            for (int i = 0; i < 3; i++) {
+                serial = cargaSerial(directorio, cantidad);
+                paralela = cargaParalela(directorio, cantidad);
+            }
+            imprimir("Serial (dos recorridos)", cantidad, serial);
+            imprimir("Paralela (un recorrido)", cantidad, paralela);
+        } finally {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio)) {
+                for (Path path : stream) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directorio);
+        }
+    }
+
+    private static long cargaSerial(Path directorio, int cantidad) throws IOException {
+        long inicio = System.nanoTime();
+        int contados = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio, "VEN*.txt")) {
+            for (Path path : stream) {
+                contados++;
+            }
+        }
+        SalesIndex indice = new SalesIndex();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio, "VEN*.txt")) {
+            for (Path path : stream) {
+                indice.insert(VentaResumen.de(TicketParser.parse(Files.readString(path))));
+            }
+        }
+        long nanos = System.nanoTime() - inicio;
+        verificar(contados == cantidad && indice.size() == cantidad, "La carga serial perdió tickets");
+        return nanos;
+    }
+
+    private static long cargaParalela(Path directorio, int cantidad) throws IOException {
+        long inicio = System.nanoTime();
+        List<VentaResumen> ventas = TicketParser.loadFromDirectory(directorio.toString(), VentaResumen::de);
+        SalesIndex indice = SalesIndex.build(ventas);
+        long nanos = System.nanoTime() - inicio;
+        verificar(indice.size() == cantidad, "La carga paralela perdió tickets");
+        return nanos;
+    }
+
+    private static void imprimir(String carga, int cantidad, long nanos) {
+        System.out.printf("%-26s %8.1f ms  %,10.0f tickets/s%n", carga, nanos / 1e6, cantidad * 1e9 / nanos);
+    }
+
+    private static void generarTickets(Path directorio, int cantidad) throws IOException {
+        Random random = new Random(42);
+        Producto[] productos = new Producto[200];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto(String.format("AB%03d", i), "Producto de prueba " + i,
+                1_000 + random.nextInt(50_000));
+        }
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (int i = 1; i <= cantidad; i++) {
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + random.nextInt(20_000)), "CC",
+                "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(30L * i));
+            venta.setNumeroVenta(String.format("VEN%03d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                venta.agregarProducto(productos[random.nextInt(productos.length)], 1 + random.nextInt(3));
+            }
+            Files.writeString(directorio.resolve(venta.getNumeroVenta() + ".txt"), venta.generarTicket());
+        }
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package scripts;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+import utils.SalesAggregates;
+import utils.SalesColumns;
+
+/**
+ * Compara un informe sobre las ventas de un período (unidades e ingresos por producto e
+ * ingresos por cliente) recorriendo los objetos Venta -> DetalleVenta -> Producto y Cliente,
+ * como antes, con el mismo informe sobre el almacén columnar (SalesColumns), en serie y por
+ * trozos en paralelo. Verifica que los tres den los mismos totales.
+ *
+ * Las ventas se generan como las produce TicketParser: un Cliente y un Producto nuevos por
+ * ticket, de 1 a 5 líneas.
+ *
+ * Uso: java -cp bin scripts.BenchmarkColumnar [cantidadDeVentas]
+ */
+public class BenchmarkColumnar {
+    private static final int CLIENTES = 20_000;
+    private static final int PRODUCTOS = 2_000;
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        List<Venta> ventas = generarVentas(cantidad);
+        SalesColumns columnas = new SalesColumns();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ventas.size(); i++) {
+            columnas.agregar(i + 1, ventas.get(i));
+        }
+        long carga = System.nanoTime() - inicio;
+
+        // La mitad central del período
+        LocalDateTime primera = ventas.get(0).getFechaHora();
+        LocalDateTime desde = ventas.get(cantidad / 4).getFechaHora();
+        LocalDateTime hasta = ventas.get(cantidad * 3 / 4).getFechaHora();
+        verificar(primera.isBefore(desde), "Período inválido");
+
+        long objetos = 0;
+        long serie = 0;
+        long paralelo = 0;
+        // La primera ronda calienta el JIT; se miden las siguientes
+        int rondas = 4;
+        for (int r = 0; r < rondas; r++) {
+            inicio = System.nanoTime();
+            Informe esperado = recorrerObjetos(ventas, desde, hasta);
+            long t1 = System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            Informe enSerie = recorrerColumnas(columnas, desde, hasta, false);
+            long t2 = System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            Informe enParalelo = recorrerColumnas(columnas, desde, hasta, true);
+            long t3 = System.nanoTime() - inicio;
+            verificar(esperado.equals(enSerie) && esperado.equals(enParalelo),
+                "El informe columnar no coincide con el de los objetos");
+            if (r > 0) {
+                objetos += t1;
+                serie += t2;
+                paralelo += t3;
+            }
+        }
+        int medidas = rondas - 1;
+
+        System.out.printf("Ventas: %,d  líneas: %,d  cargar columnas: %,.0f ms  procesadores: %d%n", cantidad,
+            columnas.lineas(), carga / 1e6, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-26s %10.1f ms%n", "Objetos", objetos / 1e6 / medidas);
+        System.out.printf("%-26s %10.1f ms  %6.1fx%n", "Columnas en serie", serie / 1e6 / medidas,
+            (double) objetos / serie);
+        System.out.printf("%-26s %10.1f ms  %6.1fx%n", "Columnas en paralelo", paralelo / 1e6 / medidas,
+            (double) objetos / paralelo);
+    }
+
+    /**
+     * Totales del informe por código de producto e identificación de cliente.
+     */
+    private static class Informe {
+        final Map<String, Long> unidadesPorProducto = new HashMap<>();
+        final Map<String, Long> ingresosPorProducto = new HashMap<>();
+        final Map<String, Long> ingresosPorCliente = new HashMap<>();
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof Informe)) {
+                return false;
+            }
+            Informe o = (Informe) otro;
+            return unidadesPorProducto.equals(o.unidadesPorProducto)
+                && ingresosPorProducto.equals(o.ingresosPorProducto)
+                && ingresosPorCliente.equals(o.ingresosPorCliente);
+        }
+
+        @Override
+        public int hashCode() {
+            return unidadesPorProducto.hashCode();
+        }
+    }
+
+    private static Informe recorrerObjetos(List<Venta> ventas, LocalDateTime desde, LocalDateTime hasta) {
+        Informe informe = new Informe();
+        for (Venta venta : ventas) {
+            LocalDateTime fecha = venta.getFechaHora();
+            if (fecha.isBefore(desde) || !fecha.isBefore(hasta)) {
+                continue;
+            }
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                String codigo = detalle.getProducto().getCodigo();
+                long centavos = SalesAggregates.centavos(detalle.getSubtotal());
+                informe.unidadesPorProducto.merge(codigo, (long) detalle.getCantidad(), Long::sum);
+                informe.ingresosPorProducto.merge(codigo, centavos, Long::sum);
+                informe.ingresosPorCliente.merge(venta.getCliente().getIdentificacion(), centavos, Long::sum);
+            }
+        }
+        return informe;
+    }
+
+    private static Informe recorrerColumnas(SalesColumns columnas, LocalDateTime desde, LocalDateTime hasta,
+            boolean paralelo) {
+        long[] unidades = columnas.unidadesPorProducto(desde, hasta, paralelo);
+        long[] ingresos = columnas.ingresosPorProducto(desde, hasta, paralelo);
+        long[] clientes = columnas.ingresosPorCliente(desde, hasta, paralelo);
+        // Solo los grupos con ventas en el período, como en el recorrido de objetos
+        Informe informe = new Informe();
+        for (int p = 0; p < unidades.length; p++) {
+            if (unidades[p] > 0) {
+                informe.unidadesPorProducto.put(columnas.codigoProducto(p), unidades[p]);
+                informe.ingresosPorProducto.put(columnas.codigoProducto(p), ingresos[p]);
+            }
+        }
+        for (int c = 0; c < clientes.length; c++) {
+            if (clientes[c] > 0) {
+                informe.ingresosPorCliente.put(columnas.identificacionCliente(c), clientes[c]);
+            }
+        }
+        return informe;
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            // Objetos nuevos por venta, como al convertir cada ticket
+            int c = random.nextInt(CLIENTES);
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + c), "CC", "Cliente " + c, "Prueba",
+                "3000000000", "cliente" + c + "@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(60L * i));
+            venta.setNumeroVenta(String.format("VEN%010d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                int p = random.nextInt(PRODUCTOS);
+                Producto producto = new Producto(String.format("AB%04d", p), "Producto de prueba " + p,
+                    1_000 + p * 25 + random.nextInt(100) / 100f);
+                venta.agregarProducto(producto, 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
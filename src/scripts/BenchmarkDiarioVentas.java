@@ -0,0 +1,189 @@
+package scripts;
+
+import data.SalesJournal;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.TicketParser;
+
+/**
+ * Compara guardar cada venta en su propio ticket de texto (como antes: archivo VENnnn.txt
+ * más su línea en la lista de pendientes, forzada al disco) con anexarla al diario de ventas
+ * (SalesJournal), y luego leer todas las ventas y buscar ventas sueltas por número en cada
+ * formato. Verifica que ambos formatos devuelvan las mismas ventas.
+ *
+ * También mide guardar las ventas con la cola del diario (agregarAsincrono, como al finalizar
+ * una venta): el tiempo de encolar cada venta, que es lo que espera la caja, y el tiempo
+ * hasta que todas quedan confirmadas en el disco, con un fsync por lote.
+ *
+ * Los archivos se generan en un directorio temporal que se borra al terminar.
+ *
+ * Uso: java -cp bin scripts.BenchmarkDiarioVentas [cantidadDeVentas]
+ */
+public class BenchmarkDiarioVentas {
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path directorio = Files.createTempDirectory("ventas");
+        try {
+            Path tickets = Files.createDirectory(directorio.resolve("tickets"));
+            SalesJournal diario = new SalesJournal(directorio.resolve("diario"));
+            List<Venta> ventas = generarVentas(cantidad);
+
+            long inicio = System.nanoTime();
+            try (FileChannel pendientes = FileChannel.open(directorio.resolve("pendientes.txt"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (Venta venta : ventas) {
+                    String nombre = venta.getNumeroVenta() + ".txt";
+                    Files.writeString(tickets.resolve(nombre), venta.generarTicket(), StandardOpenOption.CREATE_NEW);
+                    pendientes.write(ByteBuffer.wrap((nombre + "\n").getBytes(StandardCharsets.UTF_8)));
+                    pendientes.force(false);
+                }
+            }
+            long escrituraTickets = System.nanoTime() - inicio;
+            inicio = System.nanoTime();
+            for (int i = 0; i < ventas.size(); i++) {
+                diario.agregar(i + 1, ventas.get(i));
+            }
+            long escrituraDiario = System.nanoTime() - inicio;
+
+            SalesJournal asincrono = new SalesJournal(directorio.resolve("asincrono"));
+            List<CompletableFuture<Long>> confirmaciones = new ArrayList<>(cantidad);
+            long encolar = 0;
+            long peorEncolar = 0;
+            inicio = System.nanoTime();
+            for (int i = 0; i < ventas.size(); i++) {
+                long antes = System.nanoTime();
+                confirmaciones.add(asincrono.agregarAsincrono(i + 1, ventas.get(i)));
+                long espera = System.nanoTime() - antes;
+                encolar += espera;
+                peorEncolar = Math.max(peorEncolar, espera);
+            }
+            CompletableFuture.allOf(confirmaciones.toArray(new CompletableFuture<?>[0])).join();
+            long escrituraAsincrona = System.nanoTime() - inicio;
+            List<Venta> asincronas = new ArrayList<>(cantidad);
+            asincrono.recorrer(0, asincronas::add);
+            verificar(asincronas.size() == cantidad
+                && asincronas.get(cantidad - 1).generarTicket().equals(ventas.get(cantidad - 1).generarTicket()),
+                "La cola del diario perdió ventas");
+
+            // Se repite para que ambas lecturas encuentren los archivos en la caché del sistema
+            long lecturaTickets = 0;
+            long lecturaDiario = 0;
+            for (int r = 0; r < 3; r++) {
+                inicio = System.nanoTime();
+                List<VentaResumen> deTickets = TicketParser.loadFromDirectory(tickets.toString(), VentaResumen::de);
+                lecturaTickets = System.nanoTime() - inicio;
+                inicio = System.nanoTime();
+                List<VentaResumen> delDiario = new ArrayList<>(cantidad);
+                diario.recorrer(0, venta -> delDiario.add(VentaResumen.de(venta)));
+                lecturaDiario = System.nanoTime() - inicio;
+                verificar(deTickets.size() == cantidad && delDiario.size() == cantidad,
+                    "La lectura perdió ventas");
+            }
+
+            // La primera ronda de consultas calienta el JIT; se mide la segunda
+            int consultas = 2_000;
+            long consultaTickets = 0;
+            long consultaDiario = 0;
+            for (int r = 0; r < 2; r++) {
+                Random random = new Random(7);
+                consultaTickets = 0;
+                consultaDiario = 0;
+                for (int i = 0; i < consultas; i++) {
+                    int numero = 1 + random.nextInt(cantidad);
+                    Venta esperada = ventas.get(numero - 1);
+                    inicio = System.nanoTime();
+                    Path ticket = tickets.resolve(esperada.getNumeroVenta() + ".txt");
+                    Venta deTicket = TicketParser.parse(Files.readString(ticket));
+                    consultaTickets += System.nanoTime() - inicio;
+                    inicio = System.nanoTime();
+                    Venta delDiario = diario.leer(numero);
+                    consultaDiario += System.nanoTime() - inicio;
+                    verificar(delDiario.generarTicket().equals(esperada.generarTicket())
+                        && deTicket.getTotal() == delDiario.getTotal(), "El diario no devolvió la venta " + numero);
+                }
+            }
+
+            System.out.printf("Ventas: %,d  tickets: %,d KB  diario: %,d KB%n", cantidad,
+                tamano(tickets) / 1024, tamano(directorio.resolve("diario")) / 1024);
+            imprimir("Guardar", "ventas/s", cantidad, escrituraTickets, escrituraDiario);
+            System.out.printf("%-18s cola    %,12.0f ventas/s   encolar %,.1f µs por venta (peor %,.1f ms)%n",
+                "Guardar en lote", cantidad * 1e9 / escrituraAsincrona, encolar / 1e3 / cantidad, peorEncolar / 1e6);
+            imprimir("Leer todas", "ventas/s", cantidad, lecturaTickets, lecturaDiario);
+            imprimir("Buscar por número", "consultas/s", consultas, consultaTickets, consultaDiario);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    private static void imprimir(String operacion, String unidad, int cantidad, long tickets, long diario) {
+        System.out.printf("%-18s tickets %,12.0f %s   diario %,12.0f %s%n", operacion,
+            cantidad * 1e9 / tickets, unidad, cantidad * 1e9 / diario, unidad);
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        Producto[] productos = new Producto[200];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto(String.format("AB%03d", i), "Producto de prueba " + i,
+                1_000 + random.nextInt(50_000));
+        }
+        // Sin fracciones de segundo, como quedan en el ticket de texto
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + random.nextInt(20_000)), "CC",
+                "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(30L * i));
+            venta.setNumeroVenta(String.format("VEN%03d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                venta.agregarProducto(productos[random.nextInt(productos.length)], 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static long tamano(Path directorio) throws IOException {
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio)) {
+            for (Path path : stream) {
+                total += Files.size(path);
+            }
+        }
+        return total;
+    }
+
+    private static void borrar(Path ruta) throws IOException {
+        if (Files.isDirectory(ruta)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(ruta)) {
+                for (Path path : stream) {
+                    borrar(path);
+                }
+            }
+        }
+        Files.delete(ruta);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
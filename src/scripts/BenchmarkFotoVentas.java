@@ -0,0 +1,146 @@
+package scripts;
+
+import data.SalesJournal;
+import data.SalesSnapshot;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesAggregates;
+
+/**
+ * Compara el arranque recorriendo todo el diario de ventas (SalesJournal) con el arranque
+ * desde la foto binaria (SalesSnapshot) más las ventas del diario posteriores a la foto.
+ * También renueva la foto con esas ventas y verifica que no se pierda ni se repita ninguna y
+ * que los totales de la foto (ver SalesAggregates) coincidan con sumar todo el diario.
+ *
+ * El diario y la foto se generan en un directorio temporal que se borra al terminar.
+ *
+ * Uso: java -cp bin scripts.BenchmarkFotoVentas [cantidadDeVentas] [posteriores]
+ */
+public class BenchmarkFotoVentas {
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int posteriores = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Path directorio = Files.createTempDirectory("ventas");
+        try {
+            Random random = new Random(42);
+            SalesJournal diario = new SalesJournal(directorio.resolve("diario"));
+            generarVentas(diario, 1, cantidad, random);
+            SalesSnapshot foto = new SalesSnapshot(directorio);
+
+            // Primer arranque: no hay foto, se recorre todo el diario y se crea la foto
+            long inicio = System.nanoTime();
+            List<VentaResumen> todas = new ArrayList<>();
+            SalesAggregates agregados = new SalesAggregates();
+            long posicion = leer(diario, 0, todas, agregados);
+            long completo = System.nanoTime() - inicio;
+            verificar(todas.size() == cantidad, "El recorrido del diario perdió ventas");
+            inicio = System.nanoTime();
+            foto.crear(todas, agregados, posicion);
+            long creacion = System.nanoTime() - inicio;
+
+            // Ventas posteriores a la foto
+            generarVentas(diario, cantidad + 1, posteriores, random);
+
+            // Arranques siguientes: foto + ventas posteriores del diario
+            long conFoto = 0;
+            for (int i = 0; i < 3; i++) {
+                inicio = System.nanoTime();
+                SalesSnapshot.Carga carga = foto.cargar();
+                List<VentaResumen> ventas = carga.getVentas();
+                leer(diario, carga.getPosicion(), ventas, carga.getAgregados());
+                conFoto = System.nanoTime() - inicio;
+                verificar(ventas.size() == cantidad + posteriores, "La carga con foto perdió ventas");
+            }
+            inicio = System.nanoTime();
+            verificar(foto.actualizar(diario::recorrer), "No se encontró la foto para renovarla");
+            long renovacion = System.nanoTime() - inicio;
+            SalesSnapshot.Carga carga = foto.cargar();
+            verificar(carga.getVentas().size() == cantidad + posteriores
+                && diario.recorrer(carga.getPosicion(), venta -> { }) == carga.getPosicion(),
+                "La foto renovada no tiene todas las ventas");
+            SalesAggregates esperados = new SalesAggregates();
+            leer(diario, 0, new ArrayList<>(), esperados);
+            verificar(resumir(carga.getAgregados()).equals(resumir(esperados)),
+                "Los totales de la foto renovada no coinciden con el diario");
+
+            System.out.printf("Ventas: %,d  posteriores: %,d  foto: %,d KB%n", cantidad, posteriores,
+                Files.size(directorio.resolve("ventas.snap")) / 1024);
+            System.out.printf("%-38s %8.1f ms%n", "Recorrer todo el diario", completo / 1e6);
+            System.out.printf("%-38s %8.1f ms%n", "Crear la foto", creacion / 1e6);
+            System.out.printf("%-38s %8.1f ms%n", "Foto + ventas posteriores del diario", conFoto / 1e6);
+            System.out.printf("%-38s %8.1f ms%n", "Renovar la foto con las posteriores", renovacion / 1e6);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    private static long leer(SalesJournal diario, long desde, List<VentaResumen> ventas, SalesAggregates agregados)
+            throws IOException {
+        return diario.recorrer(desde, venta -> {
+            ventas.add(VentaResumen.de(venta));
+            agregados.registrar(venta);
+        });
+    }
+
+    /**
+     * @return Texto con todos los totales, ordenado, para compararlos
+     */
+    private static String resumir(SalesAggregates agregados) {
+        StringBuilder texto = new StringBuilder();
+        new TreeMap<>(agregados.horas()).forEach((hora, t) -> texto.append(hora).append(' ')
+            .append(t.getVentas()).append(' ').append(t.getIngresos()).append(' ').append(t.getIva()).append('\n'));
+        new TreeMap<>(agregados.productosPorDia()).forEach((dia, productos) -> new TreeMap<>(productos).forEach(
+            (codigo, t) -> texto.append(dia).append(' ').append(codigo).append(' ')
+                .append(t.getUnidades()).append(' ').append(t.getIngresos()).append('\n')));
+        return texto.toString();
+    }
+
+    private static void generarVentas(SalesJournal diario, int desde, int cantidad, Random random)
+            throws IOException {
+        Producto[] productos = new Producto[200];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto(String.format("AB%03d", i), "Producto de prueba " + i, 1_000 + i * 250);
+        }
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (int i = desde; i < desde + cantidad; i++) {
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + random.nextInt(20_000)), "CC",
+                "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(30L * i));
+            venta.setNumeroVenta(String.format("VEN%03d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                venta.agregarProducto(productos[random.nextInt(productos.length)], 1 + random.nextInt(3));
+            }
+            diario.agregar(i, venta);
+        }
+    }
+
+    private static void borrar(Path ruta) throws IOException {
+        if (Files.isDirectory(ruta)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(ruta)) {
+                for (Path path : stream) {
+                    borrar(path);
+                }
+            }
+        }
+        Files.delete(ruta);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package scripts;
+
+import data.ClientSalesHistory;
+import data.SalesJournal;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import models.Cliente;
+import models.PaginaVentas;
+import models.Producto;
+import models.Venta;
+
+/**
+ * Compara la primera página (las 20 compras más recientes) del historial de un cliente con
+ * miles de compras, leída de su lista en disco (ClientSalesHistory) y luego del diario en la
+ * posición de cada venta, con recorrer todo el diario buscando sus ventas, como antes. Mide
+ * también crear el historial desde cero y ponerlo al día con ventas nuevas.
+ *
+ * Verifica que recorrer todas las páginas devuelva las ventas del cliente una sola vez, de la
+ * más reciente a la más antigua, aunque el cliente compre de nuevo entre una página y otra.
+ *
+ * Los archivos se generan en un directorio temporal que se borra al terminar.
+ *
+ * Uso: java -cp bin scripts.BenchmarkHistorialCliente [cantidadDeVentas]
+ */
+public class BenchmarkHistorialCliente {
+    private static final int CLIENTES = 50_000;
+    // Compras del cliente consultado
+    private static final int COMPRAS_CLIENTE = 5_000;
+    private static final String CLIENTE = "1000000000";
+    private static final int TAMANO_PAGINA = 20;
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Path directorio = Files.createTempDirectory("historial");
+        try {
+            SalesJournal diario = new SalesJournal(directorio.resolve("diario"));
+            ClientSalesHistory historial = new ClientSalesHistory(directorio.resolve("historial"));
+            Random random = new Random(42);
+            // Las compras del cliente consultado quedan repartidas en todo el diario
+            long inicio = System.nanoTime();
+            guardarVentas(diario, random, 1, cantidad, Math.max(cantidad / COMPRAS_CLIENTE, 1));
+            long guardar = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            int anexadas = historial.actualizar(diario::recorrerConPosiciones, destino -> { });
+            long crear = System.nanoTime() - inicio;
+            verificar(anexadas == cantidad, "El historial no tiene todas las ventas");
+
+            long[] todas = numerosDelCliente(diario);
+            long enDisco = 0;
+            long recorriendo = 0;
+            // La primera ronda calienta el JIT; se miden las siguientes
+            int rondas = 6;
+            for (int r = 0; r < rondas; r++) {
+                inicio = System.nanoTime();
+                List<String> pagina = primeraPagina(diario, historial);
+                long t1 = System.nanoTime() - inicio;
+                inicio = System.nanoTime();
+                List<String> esperada = primeraPaginaRecorriendo(diario);
+                long t2 = System.nanoTime() - inicio;
+                verificar(pagina.equals(esperada), "La primera página no coincide con la del diario");
+                if (r > 0) {
+                    enDisco += t1;
+                    recorriendo += t2;
+                }
+            }
+            int medidas = rondas - 1;
+
+            // Recorrer todas las páginas con compras nuevas del cliente a mitad de camino
+            List<String> recorridas = new ArrayList<>();
+            long cursor = PaginaVentas.PRIMERA;
+            int paginas = 0;
+            do {
+                ClientSalesHistory.Pagina actual = historial.leer(CLIENTE, cursor, TAMANO_PAGINA);
+                for (long entrada : actual.getEntradas()) {
+                    recorridas.add(diario.leerEn(entrada).getNumeroVenta());
+                }
+                cursor = actual.getSiguiente();
+                if (++paginas == 10) {
+                    guardarVentas(diario, random, cantidad + 1, 100, 1);
+                    historial.actualizar(diario::recorrerConPosiciones, destino -> { });
+                }
+            } while (cursor > 0);
+            verificar(recorridas.size() == todas.length, "Las páginas no tienen todas las compras del cliente");
+            for (int i = 0; i < todas.length; i++) {
+                verificar(recorridas.get(i).equals(String.format("VEN%010d", todas[todas.length - 1 - i])),
+                    "Las páginas no van de la compra más reciente a la más antigua");
+            }
+
+            // Poner al día el historial con 2.000 ventas nuevas
+            guardarVentas(diario, random, cantidad + 101, 2_000, 10);
+            inicio = System.nanoTime();
+            anexadas = historial.actualizar(diario::recorrerConPosiciones, destino -> { });
+            long ponerAlDia = System.nanoTime() - inicio;
+            verificar(anexadas == 2_000, "El historial no se puso al día");
+            verificar(historial.leer(CLIENTE, PaginaVentas.PRIMERA, 1).getTotal() == todas.length + 100 + 200,
+                "El historial del cliente no tiene sus compras nuevas");
+
+            System.out.printf("Ventas: %,d  compras del cliente: %,d  guardar el diario: %,.0f ms%n", cantidad,
+                todas.length, guardar / 1e6);
+            System.out.printf("%-34s %10.1f ms%n", "Crear el historial", crear / 1e6);
+            System.out.printf("%-34s %10.1f ms%n", "Poner al día (2.000 ventas)", ponerAlDia / 1e6);
+            System.out.printf("%-34s %10.3f ms%n", "Primera página recorriendo", recorriendo / 1e6 / medidas);
+            System.out.printf("%-34s %10.3f ms  %6.0fx%n", "Primera página del historial", enDisco / 1e6 / medidas,
+                (double) recorriendo / enDisco);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    private static List<String> primeraPagina(SalesJournal diario, ClientSalesHistory historial) throws IOException {
+        List<String> pagina = new ArrayList<>(TAMANO_PAGINA);
+        for (long entrada : historial.leer(CLIENTE, PaginaVentas.PRIMERA, TAMANO_PAGINA).getEntradas()) {
+            pagina.add(diario.leerEn(entrada).getNumeroVenta());
+        }
+        return pagina;
+    }
+
+    private static List<String> primeraPaginaRecorriendo(SalesJournal diario) throws IOException {
+        long[] numeros = numerosDelCliente(diario);
+        List<String> pagina = new ArrayList<>(TAMANO_PAGINA);
+        for (int i = numeros.length - 1; i >= 0 && pagina.size() < TAMANO_PAGINA; i--) {
+            pagina.add(String.format("VEN%010d", numeros[i]));
+        }
+        return pagina;
+    }
+
+    /**
+     * @return Números de las compras del cliente consultado, en el orden del diario
+     */
+    private static long[] numerosDelCliente(SalesJournal diario) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        diario.recorrer(0, venta -> {
+            if (venta.getCliente().getIdentificacion().equals(CLIENTE)) {
+                numeros.add(Long.parseLong(venta.getNumeroVenta().substring(3)));
+            }
+        });
+        return numeros.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Guarda ventas con números consecutivos con la cola del diario, como al finalizarlas.
+     * @param cadaCuantas Cada cuántas ventas una es del cliente consultado
+     */
+    private static void guardarVentas(SalesJournal diario, Random random, long primero, int cantidad,
+            int cadaCuantas) throws IOException {
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<CompletableFuture<Long>> confirmaciones = new ArrayList<>();
+        for (long numero = primero; numero < primero + cantidad; numero++) {
+            String identificacion = numero % cadaCuantas == 0 ? CLIENTE
+                : Long.toString(1_000_000_001L + random.nextInt(CLIENTES));
+            Cliente cliente = new Cliente(identificacion, "CC", "Cliente de prueba", "Apellidos de prueba",
+                "3000000000", "cliente@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(30 * numero));
+            venta.setNumeroVenta(String.format("VEN%010d", numero));
+            int lineas = 1 + random.nextInt(3);
+            for (int j = 0; j < lineas; j++) {
+                int p = random.nextInt(1_000);
+                venta.agregarProducto(new Producto(String.format("AB%04d", p), "Producto de prueba " + p,
+                    1_000 + p), 1 + random.nextInt(3));
+            }
+            confirmaciones.add(diario.agregarAsincrono(numero, venta));
+        }
+        for (CompletableFuture<Long> confirmacion : confirmaciones) {
+            confirmacion.join();
+        }
+    }
+
+    private static void borrar(Path ruta) throws IOException {
+        if (Files.isDirectory(ruta)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(ruta)) {
+                for (Path path : stream) {
+                    borrar(path);
+                }
+            }
+        }
+        Files.delete(ruta);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package scripts;
+
+import java.util.ArrayList;
+import java.util.List;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesIndex;
+
+/**
+ * Compara el índice de ventas (SalesIndex, árbol rojo-negro) con el árbol binario sin
+ * balancear que se usaba antes (inserción y recorrido recursivos, clave = total).
+ *
+ * Las ventas se generan ordenadas por total y con totales repetidos de a pares, como un
+ * día de combos cuyo valor sube poco a poco: el peor caso del árbol sin balancear, que se
+ * degenera en una lista y además descarta las ventas con un total repetido.
+ *
+ * Uso: java -cp bin scripts.BenchmarkIndiceVentas [cantidadDeVentas]
+ */
+public class BenchmarkIndiceVentas {
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<VentaResumen> ventas = generarVentas(cantidad);
+        System.out.printf("Ventas: %,d (ordenadas por total, con totales repetidos)%n", cantidad);
+
+        // Índice rojo-negro
+        for (int i = 0; i < 3; i++) {
+            cargarIndice(ventas);
+        }
+        long inicio = System.nanoTime();
+        SalesIndex indice = cargarIndice(ventas);
+        long insercion = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        List<VentaResumen> ordenadas = indice.inorderTraversal();
+        long recorrido = System.nanoTime() - inicio;
+        for (int i = 1; i < ordenadas.size(); i++) {
+            if (SalesIndex.ORDEN.compare(ordenadas.get(i - 1), ordenadas.get(i)) > 0) {
+                throw new IllegalStateException("El recorrido no está ordenado en la posición " + i);
+            }
+        }
+        System.out.printf("%-28s inserción %8.1f ms (%5.0f ns/venta)  recorrido %6.1f ms  altura %3d  ventas %,d%n",
+            "SalesIndex (rojo-negro)", insercion / 1e6, (double) insercion / cantidad, recorrido / 1e6,
+            indice.height(), ordenadas.size());
+
+        medirConsultas(indice, ventas);
+
+        // Árbol sin balancear: cuadrático, se mide con una muestra y luego con todas las ventas
+        int muestra = Math.min(cantidad, 20_000);
+        ArbolAnterior anterior = new ArbolAnterior();
+        inicio = System.nanoTime();
+        for (int i = 0; i < muestra; i++) {
+            anterior.insert(ventas.get(i));
+        }
+        insercion = System.nanoTime() - inicio;
+        System.out.printf("%-28s inserción %8.1f ms (%5.0f ns/venta) con %,d ventas; conservó %,d%n",
+            "Árbol anterior (sin balance)", insercion / 1e6, (double) insercion / muestra, muestra,
+            anterior.inorderTraversal().size());
+        try {
+            ArbolAnterior completo = new ArbolAnterior();
+            for (VentaResumen venta : ventas) {
+                completo.insert(venta);
+            }
+            System.out.printf("%-28s con %,d ventas: conservó %,d%n", "Árbol anterior (sin balance)",
+                cantidad, completo.inorderTraversal().size());
+        } catch (StackOverflowError e) {
+            System.out.printf("%-28s con %,d ventas: StackOverflowError%n", "Árbol anterior (sin balance)", cantidad);
+        }
+    }
+
+    /**
+     * Compara las consultas del índice (top-K, rango, posición) con lo que hacía la vista de
+     * ventas: copiar todas las ventas y reordenarlas en cada consulta.
+     */
+    private static void medirConsultas(SalesIndex indice, List<VentaResumen> ventas) {
+        int repeticiones = 20;
+        float min = ventas.get(ventas.size() / 2).getTotal();
+        float max = min + 50;
+        VentaResumen buscada = ventas.get(ventas.size() / 3);
+        int encontradas = 0;
+
+        long inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            encontradas += indice.topK(10).size();
+            encontradas += indice.range(min, max).size();
+            encontradas += indice.rank(buscada);
+        }
+        long consultas = (System.nanoTime() - inicio) / repeticiones;
+
+        int esperadas = 0;
+        inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            List<VentaResumen> copia = new ArrayList<>(ventas);
+            copia.sort(SalesIndex.ORDEN.reversed());
+            esperadas += Math.min(10, copia.size());
+            copia.sort(SalesIndex.ORDEN);
+            for (VentaResumen venta : copia) {
+                if (venta.getTotal() >= min && venta.getTotal() <= max) {
+                    esperadas++;
+                }
+            }
+            esperadas += copia.indexOf(buscada);
+        }
+        long copiando = (System.nanoTime() - inicio) / repeticiones;
+        if (encontradas != esperadas) {
+            throw new IllegalStateException("Las consultas del índice no coinciden con el ordenamiento");
+        }
+        System.out.printf("%-28s top-10 + rango + posición: índice %10.1f µs  copiar y ordenar %10.1f µs%n",
+            "Consultas", consultas / 1e3, copiando / 1e3);
+    }
+
+    private static SalesIndex cargarIndice(List<VentaResumen> ventas) {
+        SalesIndex indice = new SalesIndex();
+        for (VentaResumen venta : ventas) {
+            indice.insert(venta);
+        }
+        if (indice.size() != ventas.size()) {
+            throw new IllegalStateException("El índice perdió ventas");
+        }
+        return indice;
+    }
+
+    private static List<VentaResumen> generarVentas(int cantidad) {
+        List<VentaResumen> ventas = new ArrayList<>(cantidad);
+        Producto combo = null;
+        for (int i = 0; i < cantidad; i++) {
+            // El precio del combo sube cada dos tickets: totales crecientes y repetidos de a pares
+            if (i % 2 == 0) {
+                combo = new Producto("CB001", "Combo", 10_000f + i / 2);
+            }
+            Venta venta = new Venta(null);
+            venta.setNumeroVenta(String.format("VEN%07d", i + 1));
+            venta.agregarProducto(combo, 1);
+            ventas.add(VentaResumen.de(venta));
+        }
+        return ventas;
+    }
+
+    /**
+     * Copia del árbol binario anterior: clave = total, inserción y recorrido recursivos,
+     * descarta las ventas con un total repetido.
+     */
+    private static class ArbolAnterior {
+        private Node root;
+
+        private static class Node {
+            VentaResumen venta;
+            Node left;
+            Node right;
+
+            Node(VentaResumen venta) {
+                this.venta = venta;
+            }
+        }
+
+        void insert(VentaResumen venta) {
+            root = insertRec(root, venta);
+        }
+
+        private Node insertRec(Node root, VentaResumen venta) {
+            if (root == null) {
+                return new Node(venta);
+            }
+            if (venta.getTotal() < root.venta.getTotal()) {
+                root.left = insertRec(root.left, venta);
+            } else if (venta.getTotal() > root.venta.getTotal()) {
+                root.right = insertRec(root.right, venta);
+            }
+            return root;
+        }
+
+        List<VentaResumen> inorderTraversal() {
+            List<VentaResumen> ventas = new ArrayList<>();
+            inorderRec(root, ventas);
+            return ventas;
+        }
+
+        private void inorderRec(Node root, List<VentaResumen> ventas) {
+            if (root != null) {
+                inorderRec(root.left, ventas);
+                ventas.add(root.venta);
+                inorderRec(root.right, ventas);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package scripts;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesSecondaryIndex;
+
+/**
+ * Mide las consultas de los índices secundarios de ventas (por cliente, día y producto)
+ * frente a recorrer todas las ventas, que es lo que exigía listarVentas().
+ *
+ * Genera ventas de 90 días, con 20.000 clientes y 2.000 productos, de 1 a 5 productos cada
+ * una, y verifica que cada consulta del índice encuentre las mismas ventas que el recorrido.
+ *
+ * Uso: java -cp bin scripts.BenchmarkIndicesSecundarios [cantidadDeVentas]
+ */
+public class BenchmarkIndicesSecundarios {
+    private static final int CLIENTES = 20_000;
+    private static final int PRODUCTOS = 2_000;
+    private static final int DIAS = 90;
+    private static final LocalDate PRIMER_DIA = LocalDate.of(2026, 7, 1);
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Venta> ventas = generarVentas(cantidad);
+
+        long inicio = System.nanoTime();
+        SalesSecondaryIndex indice = new SalesSecondaryIndex();
+        for (Venta venta : ventas) {
+            indice.insert(VentaResumen.de(venta));
+        }
+        long carga = System.nanoTime() - inicio;
+        System.out.printf("Ventas: %,d  carga de los índices %.1f ms (%.0f ns/venta)%n",
+            cantidad, carga / 1e6, (double) carga / cantidad);
+
+        Random random = new Random(7);
+        String cliente = identificacion(random.nextInt(CLIENTES));
+        String producto = codigo(random.nextInt(PRODUCTOS));
+        LocalDate dia = PRIMER_DIA.plusDays(random.nextInt(DIAS));
+
+        medir("Por cliente " + cliente, () -> indice.porCliente(cliente).size(), ventas,
+            v -> v.getCliente().getIdentificacion().equals(cliente));
+        medir("Por producto " + producto, () -> indice.porProducto(producto).size(), ventas,
+            v -> contieneProducto(v, producto));
+        medir("Por día " + dia, () -> indice.porDia(dia).size(), ventas,
+            v -> v.getFechaHora().toLocalDate().equals(dia));
+    }
+
+    private static void medir(String consulta, IntSupplier indice, List<Venta> ventas,
+            Predicate<Venta> filtro) {
+        int repeticiones = 1000;
+        int encontradas = 0;
+        for (int r = 0; r < repeticiones; r++) {
+            encontradas = indice.getAsInt();
+        }
+        long inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            encontradas = indice.getAsInt();
+        }
+        long conIndice = (System.nanoTime() - inicio) / repeticiones;
+
+        int esperadas = 0;
+        int recorridos = 5;
+        inicio = System.nanoTime();
+        for (int r = 0; r < recorridos; r++) {
+            esperadas = 0;
+            for (Venta venta : ventas) {
+                if (filtro.test(venta)) {
+                    esperadas++;
+                }
+            }
+        }
+        long recorrido = (System.nanoTime() - inicio) / recorridos;
+        if (encontradas != esperadas) {
+            throw new IllegalStateException(consulta + ": el índice encontró " + encontradas
+                + " ventas y el recorrido " + esperadas);
+        }
+        System.out.printf("%-28s %,7d ventas  índice %9.1f µs  recorrido %9.1f ms%n",
+            consulta, encontradas, conIndice / 1e3, recorrido / 1e6);
+    }
+
+    private static boolean contieneProducto(Venta venta, String codigo) {
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            if (detalle.getProducto().getCodigo().equals(codigo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        Cliente[] clientes = new Cliente[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes[i] = new Cliente(identificacion(i), "CC", "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+        }
+        Producto[] productos = new Producto[PRODUCTOS];
+        for (int i = 0; i < PRODUCTOS; i++) {
+            productos[i] = new Producto(codigo(i), "Producto " + i, 1_000 + random.nextInt(50_000));
+        }
+        LocalDateTime primero = PRIMER_DIA.atStartOfDay();
+        long segundos = DIAS * 24L * 3600;
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            // Ventas en orden de fecha, como se finalizan en la caja
+            Venta venta = new Venta(clientes[random.nextInt(CLIENTES)], primero.plusSeconds(segundos * i / cantidad));
+            venta.setNumeroVenta(String.format("VEN%07d", i + 1));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                venta.agregarProducto(productos[random.nextInt(PRODUCTOS)], 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static String identificacion(int i) {
+        return Long.toString(1_000_000_000L + i);
+    }
+
+    private static String codigo(int i) {
+        return String.format("%c%c%03d", (char) ('A' + i / 260 % 26), (char) ('A' + i / 10 % 26), i % 1000);
+    }
+}
@@ -0,0 +1,202 @@
+package scripts;
+
+import data.SalesJournal;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import utils.SalesAggregates;
+import utils.SalesReport;
+
+/**
+ * Mide el informe de cierre de mes (SalesReport) en serie y en paralelo con 1, 2, 4, ... hilos
+ * hasta la cantidad de procesadores, sobre las ventas del diario (cada segmento se lee y
+ * decodifica del disco en su hilo) y sobre la misma lista en memoria.
+ *
+ * Verifica que todos los informes sean idénticos y que coincidan con los totales mantenidos
+ * al registrar cada venta (SalesAggregates): ventas, ingresos e IVA de los días del mes, y
+ * unidades e ingresos de cada producto.
+ *
+ * El diario se genera en un directorio temporal, con segmentos de 1 MB para tener más
+ * particiones que hilos, y se borra al terminar.
+ *
+ * Uso: java -cp bin scripts.BenchmarkInforme [cantidadDeVentas]
+ */
+public class BenchmarkInforme {
+    private static final int CLIENTES = 20_000;
+    private static final int PRODUCTOS = 2_000;
+    private static final int TAMANO_SEGMENTO = 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        Path directorio = Files.createTempDirectory("informe");
+        try {
+            SalesJournal diario = new SalesJournal(directorio.resolve("diario"), TAMANO_SEGMENTO);
+            List<Venta> ventas = generarVentas(cantidad);
+            List<CompletableFuture<Long>> confirmaciones = new ArrayList<>(cantidad);
+            for (int i = 0; i < ventas.size(); i++) {
+                confirmaciones.add(diario.agregarAsincrono(i + 1, ventas.get(i)));
+            }
+            for (CompletableFuture<Long> confirmacion : confirmaciones) {
+                confirmacion.join();
+            }
+            List<SalesReport.Particion> delDiario = new ArrayList<>();
+            for (int s = 1; s <= diario.segmentos(); s++) {
+                int segmento = s;
+                delDiario.add(destino -> diario.recorrerSegmento(segmento, destino));
+            }
+            List<SalesReport.Particion> enMemoria = SalesReport.particiones(ventas);
+
+            // El mes de enero; las ventas siguen en febrero
+            LocalDate mes = LocalDate.of(2026, 1, 1);
+            LocalDateTime desde = mes.atStartOfDay();
+            LocalDateTime hasta = mes.plusMonths(1).atStartOfDay();
+            SalesReport.Informe esperado = SalesReport.generar(delDiario, desde, hasta, false);
+            verificarContraAgregados(esperado, ventas, mes);
+            // Calienta el JIT en ambos caminos antes de medir
+            for (int r = 0; r < 3; r++) {
+                SalesReport.generar(enMemoria, desde, hasta, false);
+                SalesReport.generar(enMemoria, desde, hasta, true);
+            }
+
+            int procesadores = Runtime.getRuntime().availableProcessors();
+            System.out.printf("Ventas: %,d  del mes: %,d  segmentos del diario: %d  procesadores: %d%n", cantidad,
+                esperado.getTotales().getVentas(), delDiario.size(), procesadores);
+            medir("Diario", delDiario, desde, hasta, esperado, procesadores);
+            medir("Memoria", enMemoria, desde, hasta, esperado, procesadores);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    /**
+     * Mide el informe en serie y con pools de 1, 2, 4, ... hilos, verificando cada resultado.
+     */
+    private static void medir(String nombre, List<SalesReport.Particion> particiones, LocalDateTime desde,
+            LocalDateTime hasta, SalesReport.Informe esperado, int procesadores) throws IOException {
+        long serie = medir(particiones, desde, hasta, null, esperado);
+        System.out.printf("%-8s %-12s %10.1f ms%n", nombre, "serie", serie / 1e6);
+        for (int hilos = 1; ; hilos = Math.min(hilos * 2, procesadores)) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                long paralelo = medir(particiones, desde, hasta, pool, esperado);
+                System.out.printf("%-8s %-12s %10.1f ms  %6.2fx%n", nombre, hilos + " hilos", paralelo / 1e6,
+                    (double) serie / paralelo);
+            } finally {
+                pool.shutdown();
+            }
+            if (hilos == procesadores) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return Tiempo promedio de las rondas después de la primera
+     */
+    private static long medir(List<SalesReport.Particion> particiones, LocalDateTime desde, LocalDateTime hasta,
+            ForkJoinPool pool, SalesReport.Informe esperado) throws IOException {
+        int rondas = 6;
+        long total = 0;
+        for (int r = 0; r < rondas; r++) {
+            long inicio = System.nanoTime();
+            SalesReport.Informe informe = SalesReport.generar(particiones, desde, hasta, pool);
+            long tiempo = System.nanoTime() - inicio;
+            verificar(informe.equals(esperado), "El informe no coincide con el calculado en serie");
+            if (r > 0) {
+                total += tiempo;
+            }
+        }
+        return total / (rondas - 1);
+    }
+
+    private static void verificarContraAgregados(SalesReport.Informe informe, List<Venta> ventas, LocalDate mes) {
+        SalesAggregates agregados = new SalesAggregates();
+        SalesAggregates delMes = new SalesAggregates();
+        for (Venta venta : ventas) {
+            agregados.registrar(venta);
+            if (venta.getFechaHora().toLocalDate().withDayOfMonth(1).equals(mes)) {
+                delMes.registrar(venta);
+            }
+        }
+        long ventasDelMes = 0;
+        long ingresos = 0;
+        long iva = 0;
+        for (LocalDate dia = mes; dia.isBefore(mes.plusMonths(1)); dia = dia.plusDays(1)) {
+            SalesAggregates.Totales totales = agregados.dia(dia);
+            ventasDelMes += totales.getVentas();
+            ingresos += totales.getIngresos();
+            iva += totales.getIva();
+        }
+        SalesAggregates.Totales totales = informe.getTotales();
+        verificar(totales.getVentas() == ventasDelMes && totales.getIngresos() == ingresos && totales.getIva() == iva,
+            "El resumen de IVA no coincide con los totales por día");
+        Map<String, SalesAggregates.TotalesProducto> productos = informe.getProductos();
+        for (Map.Entry<String, SalesAggregates.TotalesProducto> producto : productos.entrySet()) {
+            SalesAggregates.TotalesProducto esperado = delMes.producto(producto.getKey());
+            verificar(producto.getValue().getUnidades() == esperado.getUnidades()
+                && producto.getValue().getIngresos() == esperado.getIngresos(),
+                "Los totales del producto " + producto.getKey() + " no coinciden");
+        }
+        long porHora = 0;
+        for (long h : informe.getIngresosPorHoraDelDia()) {
+            porHora += h;
+        }
+        long porProducto = productos.values().stream().mapToLong(SalesAggregates.TotalesProducto::getIngresos).sum();
+        long porCliente = informe.getIngresosPorCliente().values().stream().mapToLong(Long::longValue).sum();
+        verificar(porHora == porProducto && porCliente == porProducto,
+            "Los ingresos por hora, por producto y por cliente no suman lo mismo");
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 0, 0);
+        // Las ventas cubren unos 40 días
+        long segundosPorVenta = Math.max(1, 40 * 86_400L / cantidad);
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            int c = random.nextInt(CLIENTES);
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + c), "CC", "Cliente " + c, "Prueba",
+                "3000000000", "cliente" + c + "@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(segundosPorVenta * i));
+            venta.setNumeroVenta(String.format("VEN%010d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                int p = random.nextInt(PRODUCTOS);
+                Producto producto = new Producto(String.format("AB%04d", p), "Producto de prueba " + p,
+                    1_000 + p * 25 + random.nextInt(100) / 100f);
+                venta.agregarProducto(producto, 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static void borrar(Path ruta) throws IOException {
+        if (Files.isDirectory(ruta)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(ruta)) {
+                for (Path path : stream) {
+                    borrar(path);
+                }
+            }
+        }
+        Files.delete(ruta);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package scripts;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import models.VentaResumen;
+import utils.SalesIndex;
+import utils.SalesSecondaryIndex;
+
+/**
+ * Compara la memoria que ocupan los índices de ventas guardando la venta completa (cliente,
+ * líneas y productos, como al leer cada ticket) con la que ocupan guardando solo el resumen
+ * (VentaResumen).
+ *
+ * Cada venta se genera como la produce TicketParser: un Cliente y un Producto nuevos por
+ * ticket, de 1 a 5 líneas. La memoria se mide con Runtime después de pedir recolección de
+ * basura, por lo que es aproximada; conviene ejecutarlo con un heap fijo (-Xms igual a -Xmx).
+ *
+ * Uso: java -Xms1g -Xmx1g -cp bin scripts.BenchmarkMemoriaVentas [cantidadDeVentas]
+ */
+public class BenchmarkMemoriaVentas {
+    private static final int CLIENTES = 20_000;
+    private static final int PRODUCTOS = 2_000;
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        long base = memoriaUsada();
+        List<Venta> completas = generarVentas(cantidad);
+        long ventasCompletas = memoriaUsada() - base;
+        verificar(completas.size() == cantidad, "Faltan ventas");
+        completas = null;
+
+        base = memoriaUsada();
+        List<VentaResumen> resumenes = resumenes(generarVentas(cantidad));
+        SalesIndex indice = SalesIndex.build(resumenes);
+        SalesSecondaryIndex secundarios = new SalesSecondaryIndex();
+        for (VentaResumen venta : resumenes) {
+            secundarios.insert(venta);
+        }
+        long conResumenes = memoriaUsada() - base;
+        verificar(indice.size() == cantidad, "El índice perdió ventas");
+        // Mantiene vivos los índices hasta después de medir
+        verificar(secundarios.porCliente("").isEmpty(), "Cliente inesperado");
+
+        System.out.printf("Ventas: %,d%n", cantidad);
+        System.out.printf("%-36s %8.1f MB  %6.0f bytes/venta%n", "Ventas completas (sin índices)",
+            ventasCompletas / 1e6, (double) ventasCompletas / cantidad);
+        System.out.printf("%-36s %8.1f MB  %6.0f bytes/venta%n", "Resúmenes con los tres índices",
+            conResumenes / 1e6, (double) conResumenes / cantidad);
+        System.out.printf("%-36s %8.1fx%n", "Reducción", (double) ventasCompletas / conResumenes);
+    }
+
+    private static List<VentaResumen> resumenes(List<Venta> ventas) {
+        List<VentaResumen> resumenes = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            resumenes.add(VentaResumen.de(venta));
+        }
+        return resumenes;
+    }
+
+    private static List<Venta> generarVentas(int cantidad) {
+        Random random = new Random(42);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            // Objetos nuevos por venta, como al convertir cada ticket
+            int c = random.nextInt(CLIENTES);
+            Cliente cliente = new Cliente(Long.toString(1_000_000_000L + c), "CC", "Cliente " + c, "Prueba",
+                "3000000000", "cliente" + c + "@correo.com");
+            Venta venta = new Venta(cliente, fecha.plusSeconds(30L * i));
+            venta.setNumeroVenta(String.format("VEN%03d", i));
+            int lineas = 1 + random.nextInt(5);
+            for (int j = 0; j < lineas; j++) {
+                int p = random.nextInt(PRODUCTOS);
+                Producto producto = new Producto(String.format("AB%04d", p), "Producto de prueba " + p,
+                    1_000 + p * 25);
+                venta.agregarProducto(producto, 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package scripts;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+
+/**
+ * Compara generar el ticket de una venta con TicketRenderer (ver Venta.generarTicket) frente a
+ * la implementación anterior (un DateTimeFormatter nuevo por ticket y String.format por línea
+ * y por total), para tickets de 1, 50 y 1.000 líneas, en tickets por segundo.
+ *
+ * Antes de medir verifica que ambas implementaciones generen exactamente el mismo texto, en
+ * el Locale actual y en Locales con otro separador decimal u otros dígitos, incluidos montos
+ * al borde del redondeo.
+ *
+ * Cada medición se repite hasta cubrir un tiempo mínimo después de una ronda de
+ * calentamiento del JIT; la longitud de los tickets se acumula para que el JIT no descarte
+ * el trabajo.
+ *
+ * Uso: java -cp bin scripts.BenchmarkTicket [milisegundosPorMedicion]
+ */
+public class BenchmarkTicket {
+    private static final int[] LINEAS = {1, 50, 1_000};
+    private static final Locale[] LOCALES = {
+        Locale.getDefault(Locale.Category.FORMAT), Locale.US, Locale.forLanguageTag("es-CO"),
+        Locale.GERMANY, Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("hi-IN-u-nu-deva")
+    };
+
+    private static long acumulado;
+
+    public static void main(String[] args) {
+        long milisegundos = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        Locale original = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            for (Locale locale : LOCALES) {
+                Locale.setDefault(Locale.Category.FORMAT, locale);
+                verificarMontos(locale);
+                for (int lineas : LINEAS) {
+                    Venta venta = generarVenta(lineas);
+                    verificar(venta.generarTicket().equals(generarTicketAnterior(venta)),
+                        "Los tickets de " + lineas + " líneas difieren en " + locale);
+                }
+            }
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, original);
+        }
+
+        System.out.printf("%-8s %16s %16s %8s%n", "Líneas", "anterior", "renderer", "mejora");
+        for (int lineas : LINEAS) {
+            Venta venta = generarVenta(lineas);
+            medir(() -> generarTicketAnterior(venta), milisegundos);
+            double anterior = medir(() -> generarTicketAnterior(venta), milisegundos);
+            medir(venta::generarTicket, milisegundos);
+            double renderer = medir(venta::generarTicket, milisegundos);
+            System.out.printf("%-8d %,12.0f t/s %,12.0f t/s %7.1fx%n", lineas, anterior, renderer, renderer / anterior);
+        }
+        verificar(acumulado > 0, "No se generaron tickets");
+    }
+
+    /**
+     * @return Tickets por segundo
+     */
+    private static double medir(Supplier<String> generar, long milisegundos) {
+        long limite = milisegundos * 1_000_000;
+        long inicio = System.nanoTime();
+        long transcurrido;
+        int tickets = 0;
+        do {
+            acumulado += generar.get().length();
+            tickets++;
+            transcurrido = System.nanoTime() - inicio;
+        } while (transcurrido < limite);
+        return tickets * 1e9 / transcurrido;
+    }
+
+    /**
+     * Compara los montos de un solo producto con "%.2f", con valores al borde del redondeo.
+     */
+    private static void verificarMontos(Locale locale) {
+        Random random = new Random(11);
+        float[] valores = new float[20_000];
+        for (int i = 0; i < valores.length; i++) {
+            switch (i % 4) {
+                case 0 -> valores[i] = random.nextInt(10_000_000) / 100f;
+                case 1 -> valores[i] = (random.nextInt(100_000) * 10 + 5) / 1000f;
+                case 2 -> valores[i] = random.nextFloat() * 1e9f;
+                default -> valores[i] = Float.intBitsToFloat(0x3C000000 + random.nextInt(0x10000000));
+            }
+        }
+        Cliente cliente = new Cliente("1", "CC", "A", "B", "3", "c");
+        for (float valor : valores) {
+            Venta venta = new Venta(cliente, LocalDateTime.of(2026, 1, 1, 8, 0));
+            venta.agregarProducto(new Producto("P", "Producto", valor), 1);
+            verificar(venta.generarTicket().equals(generarTicketAnterior(venta)),
+                "El monto " + valor + " difiere de %.2f en " + locale);
+        }
+    }
+
+    private static Venta generarVenta(int lineas) {
+        Random random = new Random(42);
+        Cliente cliente = new Cliente("1234567890", "CC", "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+        Venta venta = new Venta(cliente, LocalDateTime.of(2026, 3, 14, 9, 26, 53));
+        venta.setNumeroVenta("VEN0000000042");
+        for (int i = 0; i < lineas; i++) {
+            Producto producto = new Producto(String.format("AB%03d", i % 1_000), "Producto de prueba " + i,
+                1_000 + random.nextInt(50_000) + random.nextInt(100) / 100f);
+            venta.agregarProducto(producto, 1 + random.nextInt(3));
+        }
+        return venta;
+    }
+
+    /**
+     * Implementación anterior de Venta.generarTicket, como referencia.
+     */
+    private static String generarTicketAnterior(Venta venta) {
+        StringBuilder ticket = new StringBuilder();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        Cliente cliente = venta.getCliente();
+
+        ticket.append("EMPRESA\n");
+        ticket.append("Nombre: ").append("Mi Empresa S.A.S").append("\n");
+        ticket.append("NIT: ").append("900123456-7").append("\n\n");
+
+        ticket.append("DATOS DE VENTA\n");
+        ticket.append("Número: ").append(venta.getNumeroVenta()).append("\n");
+        ticket.append("Fecha y Hora: ").append(venta.getFechaHora().format(formatter)).append("\n\n");
+
+        ticket.append("DATOS DEL CLIENTE\n");
+        ticket.append("Nombre Completo: ").append(cliente.getNombres()).append(" ").append(cliente.getApellidos()).append("\n");
+        ticket.append("Identificación: ").append(cliente.getTipoIdentificacion()).append(" ").append(cliente.getIdentificacion()).append("\n");
+        ticket.append("Teléfono: ").append(cliente.getTelefono()).append("\n");
+        ticket.append("Correo: ").append(cliente.getCorreoElectronico()).append("\n\n");
+
+        ticket.append("PRODUCTOS\n");
+        ticket.append("Código\tNombre\t\tPrecio\tCantidad\tSubtotal\n");
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Producto p = detalle.getProducto();
+            ticket.append(String.format("%s\t%s\t%.2f\t%d\t\t%.2f\n",
+                p.getCodigo(), p.getNombre(), p.getPrecioVenta(),
+                detalle.getCantidad(), detalle.getSubtotal()));
+        }
+        ticket.append("\n");
+
+        ticket.append("TOTALES\n");
+        ticket.append(String.format("Subtotal: $%.2f\n", venta.getSubtotal()));
+        ticket.append(String.format("IVA (19%%): $%.2f\n", venta.getTotalIva()));
+        ticket.append(String.format("Total: $%.2f\n\n", venta.getTotal()));
+
+        ticket.append("DATOS DEL PROGRAMA\n");
+        ticket.append("Sistema POS v1.0").append("\n");
+
+        return ticket.toString();
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
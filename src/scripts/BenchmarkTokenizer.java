@@ -0,0 +1,176 @@
+package scripts;
+
+import java.lang.management.ManagementFactory;
+import models.Cliente;
+import models.Producto;
+import utils.RecordTokenizer;
+import utils.Validators;
+
+/**
+ * Compara el costo de convertir y validar registros con el método anterior
+ * (replace + split + Float.parseFloat + validaciones con String.matches) y con
+ * RecordTokenizer + las validaciones que recorren los caracteres directamente.
+ *
+ * Para cada método reporta el tiempo y los bytes asignados por registro, medidos con
+ * com.sun.management.ThreadMXBean sobre el hilo que ejecuta la prueba.
+ *
+ * Uso: java -cp bin scripts.BenchmarkTokenizer [cantidadDeRegistros]
+ */
+public class BenchmarkTokenizer {
+    private static final int CALENTAMIENTO = 5;
+    private static final int MEDICIONES = 5;
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Evita que el compilador elimine el trabajo medido
+    private static long sumidero;
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String[] clientes = new String[cantidad];
+        String[] productos = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            clientes[i] = String.format("%010d*%s*Nombre%06d*Apellido%06d*3%09d*cliente%d@correo.com",
+                i, i % 2 == 0 ? "CC" : "CE", i % 1_000_000, i % 1_000_000, i % 1_000_000_000, i);
+            productos[i] = String.format("%c%c%03d*Producto %d*%d.%02d",
+                (char) ('A' + i % 26), (char) ('A' + i / 26 % 26), i % 1000, i % 1000, 1 + i % 5000, i % 100);
+        }
+        System.out.printf("Registros: %,d%n", cantidad);
+
+        medir("Clientes, anterior (split + regex)", cantidad, () -> clientesAnterior(clientes));
+        medir("Clientes, RecordTokenizer", cantidad, () -> clientesTokenizer(clientes));
+        medir("Productos, anterior (split + regex)", cantidad, () -> productosAnterior(productos));
+        medir("Productos, RecordTokenizer", cantidad, () -> productosTokenizer(productos));
+    }
+
+    private interface Prueba {
+        int ejecutar();
+    }
+
+    private static void medir(String nombre, int cantidad, Prueba prueba) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            sumidero += prueba.ejecutar();
+        }
+        long mejorTiempo = Long.MAX_VALUE;
+        long mejorBytes = Long.MAX_VALUE;
+        long hilo = Thread.currentThread().getId();
+        for (int i = 0; i < MEDICIONES; i++) {
+            long bytesInicio = HILOS.getThreadAllocatedBytes(hilo);
+            long inicio = System.nanoTime();
+            int validos = prueba.ejecutar();
+            long duracion = System.nanoTime() - inicio;
+            long bytes = HILOS.getThreadAllocatedBytes(hilo) - bytesInicio;
+            if (validos != cantidad) {
+                throw new IllegalStateException(nombre + ": " + validos + " válidos de " + cantidad);
+            }
+            mejorTiempo = Math.min(mejorTiempo, duracion);
+            mejorBytes = Math.min(mejorBytes, bytes);
+        }
+        System.out.printf("%-38s %8.1f ns/registro  %8.1f bytes/registro%n",
+            nombre, (double) mejorTiempo / cantidad, (double) mejorBytes / cantidad);
+    }
+
+    /**
+     * Método anterior: replace, split por regex y validaciones con String.matches.
+     */
+    private static int clientesAnterior(String[] lineas) {
+        int validos = 0;
+        for (String line : lineas) {
+            String[] parts = line.replace("*", ",").split(",");
+            Cliente cliente = new Cliente(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5]);
+            if (cliente.getIdentificacion().matches("\\d{8,10}")
+                    && (cliente.getTipoIdentificacion().equals("CC") || cliente.getTipoIdentificacion().equals("CE"))
+                    && Validators.isValidNombres(cliente.getNombres())
+                    && Validators.isValidApellidos(cliente.getApellidos())
+                    && cliente.getTelefono().matches("\\d{10}")
+                    && cliente.getCorreoElectronico().matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
+                validos++;
+            }
+        }
+        return validos;
+    }
+
+    /**
+     * Método nuevo: los campos se validan sobre la línea y solo se crean los Strings del
+     * cliente resultante.
+     */
+    private static int clientesTokenizer(String[] lineas) {
+        RecordTokenizer campos = new RecordTokenizer('*');
+        int validos = 0;
+        for (String line : lineas) {
+            campos.reset(line);
+            if (!campos.next() || !Validators.isValidIdentificacion(line, campos.start(), campos.end())) {
+                continue;
+            }
+            String identificacion = campos.text();
+            if (!campos.next() || !Validators.isValidTipoIdentificacion(line, campos.start(), campos.end())) {
+                continue;
+            }
+            String tipo = campos.text();
+            if (!campos.next() || campos.length() < 10 || campos.length() > 30) {
+                continue;
+            }
+            String nombres = campos.text();
+            if (!campos.next() || campos.length() < 10 || campos.length() > 30) {
+                continue;
+            }
+            String apellidos = campos.text();
+            if (!campos.next() || !Validators.isValidTelefono(line, campos.start(), campos.end())) {
+                continue;
+            }
+            String telefono = campos.text();
+            if (!campos.next() || !Validators.isValidCorreo(line, campos.start(), campos.end())) {
+                continue;
+            }
+            Cliente cliente = new Cliente(identificacion, tipo, nombres, apellidos, telefono, campos.text());
+            sumidero += cliente.getCorreoElectronico().length();
+            validos++;
+        }
+        return validos;
+    }
+
+    private static int productosAnterior(String[] lineas) {
+        int validos = 0;
+        for (String line : lineas) {
+            String[] parts = line.replace("*", ",").split(",");
+            Producto producto = new Producto(parts[0], parts[1], Float.parseFloat(parts[2]));
+            String codigo = producto.getCodigo();
+            if (codigo.length() == 5
+                    && codigo.substring(0, 2).matches("[a-zA-Z]+")
+                    && codigo.substring(2).matches("\\d+")
+                    && Validators.isValidNombreProducto(producto.getNombre())
+                    && Validators.isValidPrecio(producto.getPrecioVenta())) {
+                validos++;
+            }
+        }
+        return validos;
+    }
+
+    private static int productosTokenizer(String[] lineas) {
+        RecordTokenizer campos = new RecordTokenizer('*');
+        int validos = 0;
+        for (String line : lineas) {
+            campos.reset(line);
+            if (!campos.next() || !Validators.isValidCodigoProducto(line, campos.start(), campos.end())) {
+                continue;
+            }
+            String codigo = campos.text();
+            if (!campos.next() || campos.length() > 20) {
+                continue;
+            }
+            String nombre = campos.text();
+            if (!campos.next()) {
+                continue;
+            }
+            float precio = campos.parseFloat();
+            if (!Validators.isValidPrecio(precio)) {
+                continue;
+            }
+            Producto producto = new Producto(codigo, nombre, precio);
+            sumidero += producto.getNombre().length();
+            validos++;
+        }
+        return validos;
+    }
+}
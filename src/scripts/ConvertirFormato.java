@@ -0,0 +1,32 @@
+package scripts;
+
+import data.DataManager;
+import java.io.IOException;
+
+/**
+ * Convierte los datos de clientes y productos entre el formato de texto y el formato
+ * binario de registros de ancho fijo. Debe ejecutarse con la aplicación cerrada.
+ *
+ * Uso: java -cp bin scripts.ConvertirFormato binario|texto
+ */
+public class ConvertirFormato {
+
+    public static void main(String[] args) {
+        if (args.length != 1 || !(args[0].equals("binario") || args[0].equals("texto"))) {
+            System.err.println("Uso: java -cp bin scripts.ConvertirFormato binario|texto");
+            System.exit(1);
+        }
+        try {
+            if (args[0].equals("binario")) {
+                DataManager.convertirABinario();
+                System.out.println("Datos convertidos a formato binario (data/*.dat, data/*.idx)");
+            } else {
+                DataManager.convertirATexto();
+                System.out.println("Datos convertidos a formato de texto (data/*.txt)");
+            }
+        } catch (IOException e) {
+            System.err.println("Error al convertir los datos: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package scripts;
+
+import controllers.ClienteController;
+import controllers.ProductoController;
+import data.ErrorLinea;
+import data.ImportReport;
+import java.io.IOException;
+
+/**
+ * Importa de forma masiva clientes o productos desde un archivo con el formato de
+ * almacenamiento (campos separados por '*') y muestra el reporte de la importación.
+ *
+ * Uso: java -cp bin scripts.ImportarDatos clientes|productos archivo
+ */
+public class ImportarDatos {
+    private static final int ERRORES_A_MOSTRAR = 20;
+
+    public static void main(String[] args) {
+        if (args.length != 2 || !(args[0].equals("clientes") || args[0].equals("productos"))) {
+            System.err.println("Uso: java -cp bin scripts.ImportarDatos clientes|productos archivo");
+            System.exit(1);
+        }
+        try {
+            ImportReport reporte = args[0].equals("clientes")
+                ? ClienteController.importarClientes(args[1])
+                : ProductoController.importarProductos(args[1]);
+            System.out.println(reporte);
+            int mostrados = 0;
+            for (ErrorLinea error : reporte.getErrores()) {
+                if (mostrados++ == ERRORES_A_MOSTRAR) {
+                    System.out.println("... y " + (reporte.getTotalErrores() - ERRORES_A_MOSTRAR) + " errores más");
+                    break;
+                }
+                System.out.println("  Error en " + error);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al importar: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
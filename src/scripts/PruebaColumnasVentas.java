@@ -0,0 +1,137 @@
+package scripts;
+
+import controllers.VentaController;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import utils.SalesColumns;
+
+/**
+ * Prueba de la construcción del almacén columnar (VentaController.columnasVentas) mientras
+ * se finalizan ventas. Guarda primero ventas en el diario y luego varios hilos finalizan
+ * ventas sin parar mientras se construyen las columnas, de modo que algunas quedan en la cola
+ * del diario, otras se confirman durante la lectura y otras después. Al terminar verifica que
+ * las columnas tengan cada venta una sola vez: la misma cantidad de ventas que el índice y las
+ * mismas unidades por producto que los totales mantenidos al finalizar cada venta.
+ *
+ * Crea el directorio 'Ventas/' en el directorio actual, que no debe tenerlo (no usa 'data/'),
+ * y lo deja para revisarlo; se borra a mano después de la prueba:
+ *
+ *   mkdir prueba && cd prueba && java -cp ../bin scripts.PruebaColumnasVentas
+ *
+ * Uso: java -cp bin scripts.PruebaColumnasVentas [ventasPrevias] [hilos] [ventasPorHilo]
+ */
+public class PruebaColumnasVentas {
+    private static final int PRODUCTOS = 50;
+    private static final Cliente CLIENTE = new Cliente("1234567890", "CC", "Cliente", "De prueba",
+        "3000000000", "cliente@correo.com");
+
+    public static void main(String[] args) throws Exception {
+        int previas = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int porHilo = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Path directorio = Paths.get("Ventas");
+        // Antes de cargar VentaController, que crea el directorio
+        verificar(!Files.exists(directorio), "Ya existe 'Ventas/' en el directorio actual; ejecutar en uno vacío");
+        ejecutar(previas, hilos, porHilo);
+    }
+
+    private static void ejecutar(int previas, int hilos, int porHilo) throws Exception {
+        List<CompletableFuture<String>> guardadas = new ArrayList<>();
+        for (int i = 0; i < previas; i++) {
+            guardadas.add(VentaController.finalizarVenta(venta(i)));
+        }
+        for (CompletableFuture<String> guardada : guardadas) {
+            guardada.join();
+        }
+
+        AtomicBoolean construyendo = new AtomicBoolean();
+        AtomicInteger durante = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Throwable> errores = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        List<List<CompletableFuture<String>>> porThread = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            List<CompletableFuture<String>> propias = new ArrayList<>(porHilo);
+            porThread.add(propias);
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        propias.add(VentaController.finalizarVenta(venta(hilo * porHilo + i))
+                            .whenComplete((numero, error) -> {
+                                if (construyendo.get()) {
+                                    durante.incrementAndGet();
+                                }
+                            }));
+                    }
+                } catch (Exception e) {
+                    synchronized (errores) {
+                        errores.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        largada.countDown();
+        construyendo.set(true);
+        long inicio = System.nanoTime();
+        SalesColumns columnas = VentaController.columnasVentas();
+        long construir = System.nanoTime() - inicio;
+        construyendo.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        verificar(errores.isEmpty(), "Error al finalizar ventas: " + (errores.isEmpty() ? "" : errores.get(0)));
+        for (List<CompletableFuture<String>> propias : porThread) {
+            for (CompletableFuture<String> guardada : propias) {
+                guardada.join();
+            }
+        }
+
+        int total = previas + hilos * porHilo;
+        verificar(VentaController.listarVentas().size() == total, "El índice no tiene todas las ventas");
+        verificar(columnas.ventas() == total,
+            "Las columnas tienen " + columnas.ventas() + " ventas en lugar de " + total);
+        LocalDateTime desde = LocalDateTime.of(2000, 1, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.now().plusDays(1);
+        for (int p = 0; p < PRODUCTOS; p++) {
+            String codigo = codigo(p);
+            verificar(columnas.unidades(codigo, desde, hasta, false)
+                == VentaController.totalesDelProducto(codigo).getUnidades(),
+                "Las unidades del producto " + codigo + " no coinciden con los totales");
+        }
+        System.out.printf("OK: %,d ventas previas, %,d finalizadas durante la prueba (%,d confirmadas mientras se "
+            + "construían las columnas); columnas construidas en %,.0f ms%n", previas, hilos * porHilo,
+            durante.get(), construir / 1e6);
+    }
+
+    private static Venta venta(int i) {
+        Venta venta = new Venta(CLIENTE);
+        venta.agregarProducto(new Producto(codigo(i % PRODUCTOS), "Producto de prueba", 1_000 + i % PRODUCTOS),
+            1 + i % 3);
+        return venta;
+    }
+
+    private static String codigo(int p) {
+        return String.format("ZQ%03d", p);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
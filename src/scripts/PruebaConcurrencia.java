@@ -0,0 +1,190 @@
+package scripts;
+
+import data.ClienteRepository;
+import data.DataManager;
+import data.ProductoRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Cliente;
+import models.Producto;
+
+/**
+ * Prueba de estrés de los repositorios. Varios hilos modifican al mismo tiempo unos pocos
+ * clientes y productos de prueba mientras otros hilos los consultan, y al final se verifica
+ * que no se perdió ninguna actualización, tanto en memoria como al recargar desde disco.
+ *
+ * Cada cliente de prueba usa su teléfono como contador y cada producto su precio; cada
+ * modificación suma 1. También se verifica que, cuando muchos hilos registran el mismo
+ * cliente a la vez, solo uno lo consigue.
+ *
+ * Trabaja sobre los archivos de 'data/' con registros de prueba que elimina al terminar,
+ * por lo que debe ejecutarse con la aplicación cerrada.
+ *
+ * Uso: java -cp bin scripts.PruebaConcurrencia [hilos] [modificacionesPorHilo]
+ */
+public class PruebaConcurrencia {
+    private static final String[] CLIENTES = {"9900000001", "9900000002", "9900000003", "9900000004"};
+    private static final String[] PRODUCTOS = {"ZQ901", "ZQ902"};
+    private static final String CLIENTE_DUPLICADO = "9900000009";
+    private static final int LECTORES = 4;
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int modificaciones = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+
+        for (String id : CLIENTES) {
+            verificar(!ClienteRepository.existe(id), "El cliente de prueba " + id + " ya existe en data/");
+            ClienteRepository.agregar(cliente(id, 0));
+        }
+        for (String codigo : PRODUCTOS) {
+            verificar(!ProductoRepository.existe(codigo), "El producto de prueba " + codigo + " ya existe en data/");
+            ProductoRepository.agregar(new Producto(codigo, "Prueba", 1));
+        }
+        verificar(!ClienteRepository.existe(CLIENTE_DUPLICADO),
+            "El cliente de prueba " + CLIENTE_DUPLICADO + " ya existe en data/");
+
+        try {
+            ejecutar(hilos, modificaciones);
+        } finally {
+            for (String id : CLIENTES) {
+                ClienteRepository.eliminar(id);
+            }
+            ClienteRepository.eliminar(CLIENTE_DUPLICADO);
+            for (String codigo : PRODUCTOS) {
+                ProductoRepository.eliminar(codigo);
+            }
+        }
+    }
+
+    private static void ejecutar(int hilos, int modificaciones) throws Exception {
+        AtomicInteger registrosDuplicados = new AtomicInteger();
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        List<Throwable> fallas = new ArrayList<>();
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Thread> escritores = new ArrayList<>();
+        List<Thread> lectores = new ArrayList<>();
+
+        for (int h = 0; h < hilos; h++) {
+            final int hilo = h;
+            escritores.add(iniciar(fallas, () -> {
+                inicio.await();
+                if (ClienteRepository.agregar(cliente(CLIENTE_DUPLICADO, hilo))) {
+                    registrosDuplicados.incrementAndGet();
+                }
+                for (int i = 0; i < modificaciones; i++) {
+                    String id = CLIENTES[(hilo + i) % CLIENTES.length];
+                    ClienteRepository.modificar(id, c -> cliente(id, contador(c) + 1));
+                    String codigo = PRODUCTOS[(hilo + i) % PRODUCTOS.length];
+                    ProductoRepository.modificar(codigo,
+                        p -> new Producto(p.getCodigo(), p.getNombre(), p.getPrecioVenta() + 1));
+                }
+            }));
+        }
+        // Los lectores verifican que los contadores nunca retroceden
+        for (int h = 0; h < LECTORES; h++) {
+            lectores.add(iniciar(fallas, () -> {
+                inicio.await();
+                long[] vistos = new long[CLIENTES.length];
+                while (escribiendo.get()) {
+                    for (int i = 0; i < CLIENTES.length; i++) {
+                        long valor = contador(ClienteRepository.buscar(CLIENTES[i]));
+                        verificar(valor >= vistos[i], "El contador de " + CLIENTES[i] + " retrocedió");
+                        vistos[i] = valor;
+                    }
+                    verificar(ProductoRepository.buscar(PRODUCTOS[0]) != null, "Producto de prueba no encontrado");
+                    ClienteRepository.listar();
+                    Thread.yield();
+                }
+            }));
+        }
+
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        for (Thread t : escritores) {
+            t.join();
+        }
+        long duracion = System.nanoTime() - comienzo;
+        escribiendo.set(false);
+        for (Thread t : lectores) {
+            t.join();
+        }
+        synchronized (fallas) {
+            if (!fallas.isEmpty()) {
+                throw new AssertionError("Falla en un hilo de la prueba", fallas.get(0));
+            }
+        }
+
+        long total = (long) hilos * modificaciones;
+        long esperadoCliente = total / CLIENTES.length;
+        long esperadoProducto = total / PRODUCTOS.length;
+        verificar(total % CLIENTES.length == 0 && total % PRODUCTOS.length == 0,
+            "hilos * modificaciones debe ser múltiplo de " + CLIENTES.length);
+        verificar(registrosDuplicados.get() == 1,
+            registrosDuplicados.get() + " hilos registraron el mismo cliente");
+
+        for (String id : CLIENTES) {
+            verificar(contador(ClienteRepository.buscar(id)) == esperadoCliente,
+                "Actualizaciones perdidas en memoria para " + id);
+        }
+        for (String codigo : PRODUCTOS) {
+            verificar(ProductoRepository.buscar(codigo).getPrecioVenta() == 1 + esperadoProducto,
+                "Actualizaciones perdidas en memoria para " + codigo);
+        }
+
+        // Lo escrito en disco debe reconstruir exactamente el mismo estado
+        for (Cliente cliente : DataManager.cargarClientes()) {
+            for (String id : CLIENTES) {
+                if (cliente.getIdentificacion().equals(id)) {
+                    verificar(contador(cliente) == esperadoCliente, "Actualizaciones perdidas en disco para " + id);
+                }
+            }
+        }
+        for (Producto producto : DataManager.cargarProductos()) {
+            for (String codigo : PRODUCTOS) {
+                if (producto.getCodigo().equals(codigo)) {
+                    verificar(producto.getPrecioVenta() == 1 + esperadoProducto,
+                        "Actualizaciones perdidas en disco para " + codigo);
+                }
+            }
+        }
+
+        System.out.printf("OK: %d hilos, %,d modificaciones de clientes y %,d de productos en %.1f ms%n",
+            hilos, total, total, duracion / 1e6);
+    }
+
+    private interface Tarea {
+        void ejecutar() throws Exception;
+    }
+
+    private static Thread iniciar(List<Throwable> fallas, Tarea tarea) {
+        Thread t = new Thread(() -> {
+            try {
+                tarea.ejecutar();
+            } catch (Throwable e) {
+                synchronized (fallas) {
+                    fallas.add(e);
+                }
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    private static Cliente cliente(String id, long contador) {
+        return new Cliente(id, "CC", "Cliente Prueba", "Concurrencia", String.format("%010d", contador),
+            "prueba@correo.com");
+    }
+
+    private static long contador(Cliente cliente) {
+        return Long.parseLong(cliente.getTelefono());
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package scripts;
+
+import controllers.VentaController;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import utils.SalesAggregates;
+import utils.SalesReport;
+
+/**
+ * Prueba del informe de un período (VentaController.informeDelPeriodo) contra los totales
+ * mantenidos al finalizar cada venta. Escribe primero tickets de texto como los de versiones
+ * anteriores y luego guarda ventas de varios días consecutivos, en orden, de modo que cada
+ * segmento del diario y cada trozo de tickets cubre solo algunos días, y compara el informe de
+ * cada día con VentaController.totalesDelDia y las unidades de cada producto con
+ * totalesDelProducto. Lo hace dos veces: la primera recorre todos los segmentos y trozos y
+ * guarda sus fechas, la segunda omite los que no tienen ventas del día. Verifica también que
+ * el informe de todo el período sea el mismo en ambas pasadas.
+ *
+ * Crea el directorio 'Ventas/' en el directorio actual, que no debe tenerlo (no usa 'data/'),
+ * y lo deja para revisarlo; se borra a mano después de la prueba:
+ *
+ *   mkdir prueba && cd prueba && java -cp ../bin scripts.PruebaInformePeriodo
+ *
+ * Uso: java -cp bin scripts.PruebaInformePeriodo [dias] [ventasPorDia] [tickets]
+ */
+public class PruebaInformePeriodo {
+    private static final int PRODUCTOS = 50;
+    private static final Cliente CLIENTE = new Cliente("1234567890", "CC", "Cliente", "De prueba",
+        "3000000000", "cliente@correo.com");
+
+    public static void main(String[] args) throws Exception {
+        int dias = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int porDia = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int tickets = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        Path directorio = Paths.get("Ventas");
+        // Antes de cargar VentaController, que crea el directorio y lee los tickets
+        verificar(!Files.exists(directorio), "Ya existe 'Ventas/' en el directorio actual; ejecutar en uno vacío");
+        LocalDate primero = LocalDate.now().minusDays(dias);
+        Files.createDirectories(directorio);
+        for (int i = 0; i < tickets; i++) {
+            // Repartidos en los días de la prueba, en orden
+            Venta venta = venta(i, primero.atStartOfDay().plusSeconds((long) i * 86_400 * dias / tickets));
+            venta.setNumeroVenta(String.format("VEN%03d", i + 1));
+            Files.writeString(directorio.resolve(venta.getNumeroVenta() + ".txt"), venta.generarTicket());
+        }
+        ejecutar(primero, dias, porDia, tickets, directorio.resolve("diario"));
+    }
+
+    private static void ejecutar(LocalDate primero, int dias, int porDia, int tickets, Path diario)
+            throws Exception {
+        List<CompletableFuture<String>> guardadas = new ArrayList<>();
+        for (int d = 0; d < dias; d++) {
+            LocalDateTime inicio = primero.plusDays(d).atStartOfDay();
+            for (int i = 0; i < porDia; i++) {
+                // Repartidas en el día, en orden
+                LocalDateTime fechaHora = inicio.plusSeconds((long) i * 86_400 / porDia);
+                guardadas.add(VentaController.finalizarVenta(venta(d * porDia + i, fechaHora)));
+            }
+        }
+        for (CompletableFuture<String> guardada : guardadas) {
+            guardada.join();
+        }
+
+        LocalDateTime desde = primero.atStartOfDay();
+        LocalDateTime hasta = primero.plusDays(dias).atStartOfDay();
+        long[] tiempos = new long[2];
+        SalesReport.Informe[] completos = new SalesReport.Informe[2];
+        for (int pasada = 0; pasada < 2; pasada++) {
+            long inicio = System.nanoTime();
+            for (int d = 0; d < dias; d++) {
+                verificarDia(primero.plusDays(d));
+            }
+            tiempos[pasada] = System.nanoTime() - inicio;
+            completos[pasada] = VentaController.informeDelPeriodo(desde, hasta);
+            long total = (long) dias * porDia + tickets;
+            verificar(completos[pasada].getTotales().getVentas() == total,
+                "El informe del período tiene " + completos[pasada].getTotales().getVentas() + " ventas en lugar de "
+                + total);
+        }
+        verificar(completos[0].equals(completos[1]), "El informe del período cambió al omitir segmentos");
+
+        long segmentos;
+        long conFechas;
+        try (Stream<Path> archivos = Files.list(diario)) {
+            List<String> nombres = new ArrayList<>();
+            archivos.forEach(archivo -> nombres.add(archivo.getFileName().toString()));
+            segmentos = nombres.stream().filter(nombre -> nombre.endsWith(".log")).count();
+            conFechas = nombres.stream().filter(nombre -> nombre.endsWith(".fechas")).count();
+        }
+        verificar(conFechas == segmentos - 1,
+            conFechas + " segmentos con fechas guardadas de " + segmentos + "; se esperaban todos los cerrados");
+        System.out.printf("OK: %,d días de %,d ventas en %d segmentos y %,d tickets; informes por día en %,.0f ms "
+            + "al recorrer todo y en %,.0f ms al omitir los segmentos y tickets de otros días%n", dias, porDia,
+            segmentos, tickets, tiempos[0] / 1e6, tiempos[1] / 1e6);
+    }
+
+    private static void verificarDia(LocalDate dia) throws Exception {
+        SalesReport.Informe informe = VentaController.informeDelPeriodo(dia.atStartOfDay(),
+            dia.plusDays(1).atStartOfDay());
+        SalesAggregates.Totales totales = informe.getTotales();
+        SalesAggregates.Totales esperados = VentaController.totalesDelDia(dia);
+        verificar(totales.getVentas() == esperados.getVentas() && totales.getIngresos() == esperados.getIngresos()
+            && totales.getIva() == esperados.getIva(), "Los totales del informe del " + dia
+            + " no coinciden con los del día");
+        for (int p = 0; p < PRODUCTOS; p++) {
+            String codigo = codigo(p);
+            SalesAggregates.TotalesProducto producto = informe.getProductos().get(codigo);
+            verificar((producto != null ? producto.getUnidades() : 0)
+                == VentaController.totalesDelProducto(codigo, dia).getUnidades(),
+                "Las unidades del producto " + codigo + " el " + dia + " no coinciden con los totales");
+        }
+    }
+
+    private static Venta venta(int i, LocalDateTime fechaHora) {
+        Venta venta = new Venta(CLIENTE, fechaHora);
+        venta.agregarProducto(new Producto(codigo(i % PRODUCTOS), "Producto de prueba", 1_000 + i % PRODUCTOS),
+            1 + i % 3);
+        return venta;
+    }
+
+    private static String codigo(int p) {
+        return String.format("ZQ%03d", p);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
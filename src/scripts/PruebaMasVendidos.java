@@ -0,0 +1,127 @@
+package scripts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import models.Cliente;
+import models.Producto;
+import models.Venta;
+import utils.BestSellers;
+import utils.SalesAggregates;
+
+/**
+ * Prueba de los más vendidos (BestSellers): registra un día de ventas sobre un catálogo
+ * mucho más grande que la cantidad de contadores, con unos pocos productos muy vendidos, y
+ * compara los rankings de la última hora y el último día con el conteo exacto:
+ * - cada cantidad reportada es una cota superior y cantidad - error una cota inferior del
+ *   valor real
+ * - los productos más vendidos de verdad aparecen en el ranking
+ * - las ventas de más de un día atrás ya no cuentan
+ * También mide el costo de registrar una venta.
+ *
+ * Uso: java -cp bin scripts.PruebaMasVendidos [cantidadDeVentas]
+ */
+public class PruebaMasVendidos {
+    private static final int PRODUCTOS = 50_000;
+    // Productos con la mayor parte de las ventas
+    private static final int FRECUENTES = 5;
+    private static final int TOP = 10;
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Random random = new Random(42);
+        Producto[] productos = new Producto[PRODUCTOS];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto(String.format("AB%05d", i), "Producto " + i, 1_000 + i % 100);
+        }
+        Cliente cliente = new Cliente("1234567890", "CC", "Cliente", "Prueba", "3000000000", "prueba@correo.com");
+
+        // Dos días de ventas; "ahora" es el final del segundo
+        LocalDateTime inicio = LocalDateTime.of(2026, 1, 1, 0, 0);
+        long segundosPorVenta = Math.max(1, 2 * 86_400L / cantidad);
+        LocalDateTime ahora = inicio.plusSeconds(segundosPorVenta * cantidad);
+        BestSellers masVendidos = new BestSellers();
+        List<Venta> ventas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Venta venta = new Venta(cliente, inicio.plusSeconds(segundosPorVenta * i));
+            int lineas = 1 + random.nextInt(4);
+            for (int j = 0; j < lineas; j++) {
+                // La mitad de las líneas son de los productos frecuentes, el resto de todo el catálogo
+                int p = random.nextBoolean() ? random.nextInt(FRECUENTES) : random.nextInt(PRODUCTOS);
+                venta.agregarProducto(productos[p], 1 + random.nextInt(3));
+            }
+            ventas.add(venta);
+        }
+        long t0 = System.nanoTime();
+        for (Venta venta : ventas) {
+            masVendidos.registrar(venta);
+        }
+        long registro = System.nanoTime() - t0;
+
+        verificarVentana("Última hora", masVendidos.ultimaHora(), ventas, inicioVentana(ahora, 5 * 60, 12), ahora);
+        verificarVentana("Último día", masVendidos.ultimoDia(), ventas, inicioVentana(ahora, 3600, 24), ahora);
+
+        // Dos días después ya no queda nada en las ventanas
+        verificar(masVendidos.ultimoDia().porUnidades(TOP, ahora.plusDays(2)).isEmpty(),
+            "El último día conserva ventas viejas");
+
+        System.out.printf("Ventas: %,d  registrar: %,.0f ns por venta%n", cantidad, (double) registro / cantidad);
+        System.out.println("OK");
+    }
+
+    /**
+     * @return Inicio de la primera cubeta de una ventana que termina en la cubeta de ahora
+     */
+    private static LocalDateTime inicioVentana(LocalDateTime ahora, long ancho, int cubetas) {
+        long actual = Math.floorDiv(ahora.toEpochSecond(ZoneOffset.UTC), ancho);
+        return LocalDateTime.ofEpochSecond((actual - cubetas + 1) * ancho, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param desde Inicio de la primera cubeta de la ventana (se cuenta desde ahí hasta ahora)
+     */
+    private static void verificarVentana(String nombre, BestSellers.Ventana ventana, List<Venta> ventas,
+            LocalDateTime desde, LocalDateTime ahora) {
+        Map<String, long[]> exactos = new HashMap<>();
+        for (Venta venta : ventas) {
+            if (venta.getFechaHora().isBefore(desde) || venta.getFechaHora().isAfter(ahora)) {
+                continue;
+            }
+            venta.getDetalles().forEach(d -> {
+                long[] total = exactos.computeIfAbsent(d.getProducto().getCodigo(), k -> new long[2]);
+                total[0] += d.getCantidad();
+                total[1] += SalesAggregates.centavos(d.getSubtotal());
+            });
+        }
+        verificarRanking(nombre + " por unidades", ventana.porUnidades(TOP, ahora), exactos, 0);
+        verificarRanking(nombre + " por ingresos", ventana.porIngresos(TOP, ahora), exactos, 1);
+    }
+
+    private static void verificarRanking(String nombre, List<BestSellers.MasVendido> ranking,
+            Map<String, long[]> exactos, int medida) {
+        verificar(ranking.size() == TOP, nombre + ": ranking incompleto");
+        for (BestSellers.MasVendido producto : ranking) {
+            long real = exactos.getOrDefault(producto.getCodigo(), new long[2])[medida];
+            verificar(producto.getCantidad() >= real && producto.getCantidad() - producto.getError() <= real,
+                nombre + ": cotas inválidas para " + producto.getCodigo());
+        }
+        for (int i = 0; i < FRECUENTES; i++) {
+            String codigo = String.format("AB%05d", i);
+            verificar(ranking.stream().anyMatch(p -> p.getCodigo().equals(codigo)),
+                nombre + ": falta el producto frecuente " + codigo);
+        }
+        BestSellers.MasVendido primero = ranking.get(0);
+        System.out.printf("%-26s 1.º %s %,d (real %,d)%n", nombre, primero.getCodigo(), primero.getCantidad(),
+            exactos.get(primero.getCodigo())[medida]);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package scripts;
+
+import data.ClienteRepository;
+import data.DataManager;
+import data.ProductoRepository;
+import data.SaleNumberAllocator;
+import data.SharedSequence;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import models.Cliente;
+import models.Producto;
+
+/**
+ * Prueba de varias cajas (procesos) sobre el mismo directorio de datos. Lanza varios
+ * procesos hijos que, al mismo tiempo, registran clientes de prueba (lo que también dispara
+ * compactaciones de la bitácora), piden números de venta, reservados de a bloques en una
+ * secuencia compartida (ver SaleNumberAllocator), intentan registrar todos un mismo cliente
+ * y suben en uno el precio de un mismo producto. Al terminar verifica que ningún cliente se
+ * perdió al recargar desde disco, que ningún número de venta se asignó dos veces, que solo
+ * una caja registró el cliente repetido, que no se perdió ningún cambio de precio y que los
+ * repositorios de este proceso, cargados antes de lanzar los hijos, ven todos esos cambios.
+ *
+ * Trabaja sobre los archivos de 'data/' con clientes de prueba que elimina al terminar,
+ * por lo que debe ejecutarse con la aplicación cerrada.
+ *
+ * Uso: java -cp bin scripts.PruebaMultiproceso [procesos] [clientesPorProceso]
+ */
+public class PruebaMultiproceso {
+    private static final String PREFIJO = "98";
+    private static final String CLIENTE_REPETIDO = "9799999999";
+    private static final String PRODUCTO = "QM987";
+    private static final String REPETIDO_REGISTRADO = "repetido";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("hijo")) {
+            hijo(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Paths.get(args[3]));
+            return;
+        }
+        int procesos = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        Path secuencia = Files.createTempFile("secuencia", ".txt");
+        Files.delete(secuencia);
+        // Los repositorios se cargan antes de lanzar los hijos
+        verificar(!ClienteRepository.existe(CLIENTE_REPETIDO), "El cliente " + CLIENTE_REPETIDO + " ya existe en data/");
+        verificar(ProductoRepository.agregar(new Producto(PRODUCTO, "Prueba", 1)),
+            "El producto " + PRODUCTO + " ya existe en data/");
+
+        List<Process> hijos = new ArrayList<>();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        // Los hijos usan el mismo formato de almacenamiento que este proceso
+        String almacenamiento = "-Dpos.almacenamiento=" + System.getProperty("pos.almacenamiento", "texto");
+        for (int p = 0; p < procesos; p++) {
+            hijos.add(new ProcessBuilder(java, almacenamiento, "-cp", System.getProperty("java.class.path"),
+                PruebaMultiproceso.class.getName(), "hijo", Integer.toString(p),
+                Integer.toString(clientes), secuencia.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+
+        Set<Long> numeros = new HashSet<>();
+        long asignados = 0;
+        int registrosRepetido = 0;
+        for (Process hijo : hijos) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(hijo.getInputStream()))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.equals(REPETIDO_REGISTRADO)) {
+                        registrosRepetido++;
+                        continue;
+                    }
+                    numeros.add(Long.parseLong(line));
+                    asignados++;
+                }
+            }
+            if (hijo.waitFor() != 0) {
+                throw new AssertionError("Un proceso hijo terminó con error");
+            }
+        }
+        Files.deleteIfExists(secuencia);
+        Files.deleteIfExists(Paths.get(secuencia + ".lock"));
+
+        int enRepositorio = 0;
+        for (Cliente cliente : ClienteRepository.listar()) {
+            if (cliente.getIdentificacion().startsWith(PREFIJO)) {
+                enRepositorio++;
+            }
+        }
+        boolean repetidoVisible = ClienteRepository.existe(CLIENTE_REPETIDO);
+        float precio = ProductoRepository.buscar(PRODUCTO).getPrecioVenta();
+
+        int encontrados = 0;
+        for (Cliente cliente : DataManager.cargarClientes()) {
+            if (cliente.getIdentificacion().startsWith(PREFIJO)) {
+                encontrados++;
+                ClienteRepository.eliminar(cliente.getIdentificacion());
+            }
+        }
+        ClienteRepository.eliminar(CLIENTE_REPETIDO);
+        ProductoRepository.eliminar(PRODUCTO);
+
+        long esperados = (long) procesos * clientes;
+        verificar(numeros.size() == asignados, (asignados - numeros.size()) + " números de venta repetidos");
+        verificar(encontrados == esperados, "Se esperaban " + esperados + " clientes y se encontraron " + encontrados);
+        verificar(enRepositorio == esperados,
+            "El repositorio de este proceso ve " + enRepositorio + " clientes de " + esperados);
+        verificar(registrosRepetido == 1, registrosRepetido + " cajas registraron el mismo cliente");
+        verificar(repetidoVisible, "El repositorio de este proceso no ve el cliente registrado por otra caja");
+        verificar(precio == 1 + procesos, "El precio quedó en " + precio + " en lugar de " + (1 + procesos));
+        System.out.printf("OK: %d procesos, %,d clientes y %,d números de venta sin pérdidas ni repeticiones%n",
+            procesos, esperados, asignados);
+    }
+
+    /**
+     * Trabajo de cada proceso hijo: registra sus clientes y pide un número de venta por cada
+     * uno; a mitad de camino intenta registrar el cliente repetido y sube el precio del producto.
+     */
+    private static void hijo(int proceso, int clientes, Path archivoSecuencia) throws IOException {
+        SaleNumberAllocator secuencia = new SaleNumberAllocator(new SharedSequence(archivoSecuencia, () -> 0));
+        StringBuilder numeros = new StringBuilder();
+        for (int i = 0; i < clientes; i++) {
+            if (i == clientes / 2) {
+                if (ClienteRepository.agregar(new Cliente(CLIENTE_REPETIDO, "CC", "Cliente Prueba", "Multiproceso",
+                        "3000000000", "prueba@correo.com"))) {
+                    numeros.append(REPETIDO_REGISTRADO).append('\n');
+                }
+                if (ProductoRepository.modificar(PRODUCTO,
+                        p -> new Producto(p.getCodigo(), p.getNombre(), p.getPrecioVenta() + 1)) == null) {
+                    throw new IllegalStateException("El producto " + PRODUCTO + " no existe en esta caja");
+                }
+            }
+            String id = String.format("%s%02d%06d", PREFIJO, proceso, i);
+            if (!ClienteRepository.agregar(new Cliente(id, "CC", "Cliente Prueba", "Multiproceso",
+                    "3000000000", "prueba@correo.com"))) {
+                throw new IllegalStateException("El cliente de prueba " + id + " ya existe en data/");
+            }
+            numeros.append(secuencia.siguiente()).append('\n');
+        }
+        System.out.print(numeros);
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package scripts;
+
+import data.SaleNumberAllocator;
+import data.SharedSequence;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Prueba de la asignación de números de venta con muchos hilos a la vez. Dos asignadores
+ * (como dos cajas) comparten la misma secuencia y cada hilo pide números a uno de ellos;
+ * al terminar verifica que ningún número se haya asignado dos veces y que el archivo de la
+ * secuencia haya quedado después del mayor número asignado. Compara además el tiempo por
+ * número con pedir cada número directamente a la secuencia (una escritura por número).
+ *
+ * La secuencia se crea en un archivo temporal que se borra al terminar.
+ *
+ * Uso: java -cp bin scripts.PruebaNumerosVenta [hilos] [numerosPorHilo]
+ */
+public class PruebaNumerosVenta {
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int porHilo = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        Path archivo = Files.createTempFile("secuencia", ".txt");
+        Files.delete(archivo);
+        try {
+            SharedSequence secuencia = new SharedSequence(archivo, () -> 0);
+            SaleNumberAllocator[] cajas = {
+                new SaleNumberAllocator(secuencia), new SaleNumberAllocator(secuencia)
+            };
+            Set<Long> numeros = ConcurrentHashMap.newKeySet();
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> errores = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                SaleNumberAllocator caja = cajas[h % cajas.length];
+                Thread thread = new Thread(() -> {
+                    try {
+                        largada.await();
+                        for (int i = 0; i < porHilo; i++) {
+                            if (!numeros.add(caja.siguiente())) {
+                                throw new AssertionError("Número de venta repetido");
+                            }
+                        }
+                    } catch (Exception | AssertionError e) {
+                        synchronized (errores) {
+                            errores.add(e);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long conBloques = System.nanoTime() - inicio;
+            if (!errores.isEmpty()) {
+                throw new AssertionError(errores.size() + " hilos fallaron: " + errores.get(0));
+            }
+
+            long asignados = (long) hilos * porHilo;
+            long mayor = numeros.stream().mapToLong(Long::longValue).max().orElse(0);
+            long guardado = Long.parseLong(Files.readString(archivo).trim());
+            verificar(numeros.size() == asignados, "Se perdieron números de venta");
+            verificar(guardado >= mayor, "La secuencia guardada (" + guardado + ") quedó antes del número " + mayor);
+
+            int directos = Math.min(2_000, porHilo);
+            inicio = System.nanoTime();
+            for (int i = 0; i < directos; i++) {
+                verificar(secuencia.siguiente() > guardado, "La secuencia retrocedió");
+            }
+            long sinBloques = System.nanoTime() - inicio;
+
+            System.out.printf("OK: %d hilos, %,d números sin repeticiones (mayor %,d, secuencia en %,d)%n",
+                hilos, asignados, mayor, guardado);
+            System.out.printf("%-34s %10.2f µs/número%n", "Bloques de " + SaleNumberAllocator.TAMANO_BLOQUE
+                + " (AtomicLong)", conBloques / 1e3 / asignados);
+            System.out.printf("%-34s %10.2f µs/número%n", "Una escritura por número", sinBloques / 1e3 / directos);
+        } finally {
+            Files.deleteIfExists(archivo);
+            Files.deleteIfExists(Paths.get(archivo + ".lock"));
+        }
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import models.DetalleVenta;
+import models.Venta;
+
+/**
+ * Clase BestSellers
+ *
+ * Productos más vendidos por unidades y por ingresos (subtotal sin IVA, en centavos) en la
+ * última hora y en el último día, actualizados al finalizar cada venta sin recorrer las
+ * ventas guardadas.
+ *
+ * Cada ventana es un anillo de cubetas de tiempo (12 de 5 minutos para la hora, 24 de una
+ * hora para el día) y cada cubeta tiene un resumen Space-Saving de CONTADORES elementos por
+ * medida (ver SpaceSaving). Al consultar se combinan los resúmenes de las cubetas dentro de
+ * la ventana, por lo que la ventana avanza de a una cubeta y la memoria no depende del tamaño
+ * del catálogo ni del historial. Las cantidades son cotas superiores; con pocos productos
+ * distintos por cubeta (hasta CONTADORES) son exactas.
+ *
+ * Las fechas son la fecha y hora local de la venta, como en SalesSecondaryIndex.
+ */
+public class BestSellers {
+    // Contadores por cubeta y medida
+    public static final int CONTADORES = 100;
+
+    private final Ventana ultimaHora = new Ventana(5 * 60, 12);
+    private final Ventana ultimoDia = new Ventana(3600, 24);
+
+    /**
+     * Un producto del ranking con su cantidad estimada.
+     */
+    public static class MasVendido {
+        private final String codigo;
+        private final long cantidad;
+        private final long error;
+
+        MasVendido(String codigo, long cantidad, long error) {
+            this.codigo = codigo;
+            this.cantidad = cantidad;
+            this.error = error;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        /** @return Unidades o centavos; cota superior del valor real */
+        public long getCantidad() {
+            return cantidad;
+        }
+
+        /** @return Máximo sobreconteo: el valor real está entre cantidad - error y cantidad */
+        public long getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Ventana deslizante de cubetas de tiempo.
+     */
+    public static class Ventana {
+        private final long ancho;
+        private final long[] ranuras;
+        private final SpaceSaving[] unidades;
+        private final SpaceSaving[] ingresos;
+
+        /**
+         * @param ancho Segundos por cubeta
+         * @param cubetas Cantidad de cubetas de la ventana
+         */
+        Ventana(long ancho, int cubetas) {
+            this.ancho = ancho;
+            this.ranuras = new long[cubetas];
+            this.unidades = new SpaceSaving[cubetas];
+            this.ingresos = new SpaceSaving[cubetas];
+            for (int i = 0; i < cubetas; i++) {
+                ranuras[i] = Long.MIN_VALUE;
+                unidades[i] = new SpaceSaving(CONTADORES);
+                ingresos[i] = new SpaceSaving(CONTADORES);
+            }
+        }
+
+        synchronized void registrar(long segundos, List<DetalleVenta> detalles) {
+            long ranura = Math.floorDiv(segundos, ancho);
+            int i = (int) Math.floorMod(ranura, (long) ranuras.length);
+            if (ranuras[i] > ranura) {
+                // La cubeta ya pasó a un período más reciente: la venta quedó fuera de la ventana
+                return;
+            }
+            if (ranuras[i] < ranura) {
+                ranuras[i] = ranura;
+                unidades[i].limpiar();
+                ingresos[i].limpiar();
+            }
+            for (DetalleVenta detalle : detalles) {
+                String codigo = detalle.getProducto().getCodigo();
+                unidades[i].agregar(codigo, detalle.getCantidad());
+                ingresos[i].agregar(codigo, SalesAggregates.centavos(detalle.getSubtotal()));
+            }
+        }
+
+        /**
+         * @param n Cantidad de productos
+         * @param ahora Fin de la ventana (incluye su cubeta)
+         * @return Hasta n productos con más unidades vendidas, de mayor a menor
+         */
+        public List<MasVendido> porUnidades(int n, LocalDateTime ahora) {
+            return ranking(unidades, n, ahora);
+        }
+
+        /**
+         * @param n Cantidad de productos
+         * @param ahora Fin de la ventana (incluye su cubeta)
+         * @return Hasta n productos con más ingresos sin IVA (centavos), de mayor a menor
+         */
+        public List<MasVendido> porIngresos(int n, LocalDateTime ahora) {
+            return ranking(ingresos, n, ahora);
+        }
+
+        private synchronized List<MasVendido> ranking(SpaceSaving[] resumenes, int n, LocalDateTime ahora) {
+            long actual = Math.floorDiv(ahora.toEpochSecond(ZoneOffset.UTC), ancho);
+            Map<String, long[]> totales = new HashMap<>();
+            long minimos = 0;
+            for (int i = 0; i < ranuras.length; i++) {
+                if (ranuras[i] <= actual && ranuras[i] > actual - ranuras.length) {
+                    resumenes[i].sumarA(totales);
+                    minimos += resumenes[i].minimo();
+                }
+            }
+            long sinGuardar = minimos;
+            List<MasVendido> ranking = new ArrayList<>(totales.size());
+            totales.forEach((codigo, t) -> ranking.add(new MasVendido(codigo, t[0] + sinGuardar, t[1] + sinGuardar)));
+            ranking.sort((a, b) -> a.cantidad != b.cantidad
+                ? Long.compare(b.cantidad, a.cantidad) : a.codigo.compareTo(b.codigo));
+            return ranking.size() > n ? new ArrayList<>(ranking.subList(0, n)) : ranking;
+        }
+    }
+
+    /**
+     * Suma las líneas de una venta a ambas ventanas, en O(p log CONTADORES) con p = líneas.
+     * @param venta La venta completa (con sus detalles)
+     */
+    public void registrar(Venta venta) {
+        long segundos = venta.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+        ultimaHora.registrar(segundos, venta.getDetalles());
+        ultimoDia.registrar(segundos, venta.getDetalles());
+    }
+
+    public Ventana ultimaHora() {
+        return ultimaHora;
+    }
+
+    public Ventana ultimoDia() {
+        return ultimoDia;
+    }
+}
@@ -0,0 +1,177 @@
+package utils;
+
+/**
+ * Clase RecordTokenizer
+ *
+ * Tokenizador reutilizable de registros delimitados (por ejemplo, las líneas de
+ * 'data/clientes.txt' separadas por '*'). Recorre los campos directamente sobre el texto
+ * de origen sin crear Strings intermedios: cada campo se expone como un rango
+ * [start, end) de la fuente, que puede validarse con los métodos de rango de Validators
+ * o convertirse a número con parseFloat. Solo text() crea un String.
+ *
+ * Una instancia no es segura para hilos; se reutiliza llamando a reset con cada registro.
+ */
+public class RecordTokenizer {
+    // Potencias de 10 representables exactamente como float
+    private static final float[] POTENCIAS_10 = {
+        1f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    // Mayor mantisa representable exactamente como float (2^24)
+    private static final long MANTISA_MAXIMA = 1L << 24;
+
+    private final char separador;
+    private CharSequence fuente;
+    private int limite;
+    private int inicio;
+    private int fin;
+    private int siguiente;
+
+    public RecordTokenizer(char separador) {
+        this.separador = separador;
+    }
+
+    /**
+     * Prepara el tokenizador para recorrer un registro completo.
+     *
+     * @param fuente El texto del registro
+     * @return Este tokenizador
+     */
+    public RecordTokenizer reset(CharSequence fuente) {
+        return reset(fuente, 0, fuente.length());
+    }
+
+    /**
+     * Prepara el tokenizador para recorrer el registro ubicado en [desde, hasta) de la fuente.
+     *
+     * @param fuente El texto que contiene el registro
+     * @param desde Posición inicial del registro
+     * @param hasta Posición final (exclusiva) del registro
+     * @return Este tokenizador
+     */
+    public RecordTokenizer reset(CharSequence fuente, int desde, int hasta) {
+        this.fuente = fuente;
+        this.limite = hasta;
+        this.inicio = desde;
+        this.fin = desde;
+        this.siguiente = desde;
+        return this;
+    }
+
+    /**
+     * Avanza al siguiente campo.
+     *
+     * @return false si ya no quedan campos
+     */
+    public boolean next() {
+        if (siguiente < 0) {
+            return false;
+        }
+        inicio = siguiente;
+        int i = inicio;
+        while (i < limite && fuente.charAt(i) != separador) {
+            i++;
+        }
+        fin = i;
+        siguiente = i < limite ? i + 1 : -1;
+        return true;
+    }
+
+    /**
+     * Avanza al siguiente campo, fallando si no existe.
+     *
+     * @param nombre Nombre del campo, para el mensaje de error
+     * @return Este tokenizador
+     * @throws IllegalArgumentException Si el registro no tiene más campos
+     */
+    public RecordTokenizer expect(String nombre) {
+        if (!next()) {
+            throw new IllegalArgumentException("Falta el campo " + nombre);
+        }
+        return this;
+    }
+
+    public CharSequence source() {
+        return fuente;
+    }
+
+    public int start() {
+        return inicio;
+    }
+
+    public int end() {
+        return fin;
+    }
+
+    public int length() {
+        return fin - inicio;
+    }
+
+    /**
+     * Crea un String con el contenido del campo actual.
+     */
+    public String text() {
+        return fuente.subSequence(inicio, fin).toString();
+    }
+
+    /**
+     * Convierte el campo actual a float.
+     *
+     * @throws NumberFormatException Si el campo no es un número válido
+     */
+    public float parseFloat() {
+        return parseFloat(fuente, inicio, fin);
+    }
+
+    /**
+     * Convierte a float el texto ubicado en [start, end), con el mismo resultado que
+     * Float.parseFloat. Los números decimales simples (signo opcional, dígitos y punto
+     * decimal) cuya mantisa cabe exactamente en un float se convierten sin crear objetos:
+     * la división de dos floats exactos está correctamente redondeada, igual que
+     * Float.parseFloat. Cualquier otra forma (exponentes, "NaN", espacios, mantisas
+     * grandes) se delega en Float.parseFloat.
+     *
+     * @throws NumberFormatException Si el texto no es un número válido
+     */
+    public static float parseFloat(CharSequence s, int start, int end) {
+        int i = start;
+        boolean negativo = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negativo = s.charAt(i) == '-';
+            i++;
+        }
+        long mantisa = 0;
+        int decimales = 0;
+        int digitos = 0;
+        boolean punto = false;
+        boolean simple = true;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos++;
+                if (mantisa > MANTISA_MAXIMA * 10) {
+                    simple = false;
+                    break;
+                }
+                mantisa = mantisa * 10 + (c - '0');
+                if (punto) {
+                    decimales++;
+                }
+            } else if (c == '.' && !punto) {
+                punto = true;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        // Los ceros finales de la parte decimal no cambian el valor
+        while (simple && decimales > 0 && mantisa % 10 == 0) {
+            mantisa /= 10;
+            decimales--;
+        }
+        if (simple && digitos > 0 && mantisa <= MANTISA_MAXIMA && decimales < POTENCIAS_10.length) {
+            float valor = (float) mantisa / POTENCIAS_10[decimales];
+            return negativo ? -valor : valor;
+        }
+        return Float.parseFloat(s.subSequence(start, end).toString());
+    }
+}
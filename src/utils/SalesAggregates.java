@@ -0,0 +1,259 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import models.DetalleVenta;
+import models.Venta;
+
+/**
+ * Clase SalesAggregates
+ *
+ * Totales de ventas mantenidos al finalizar cada venta, para que los informes no recorran
+ * las ventas ni sus detalles:
+ * - por hora y por día: cantidad de ventas, ingresos (total con IVA) e IVA
+ * - por producto, en total y por día: unidades vendidas e ingresos (subtotal sin IVA)
+ *
+ * Los montos se guardan en centavos, redondeando cada monto de la venta como en el ticket
+ * ("%.2f"), por lo que las sumas son exactas. Cada total es un LongAdder: varias cajas (hilos)
+ * registran ventas a la vez sin competir por un mismo contador. Consultar un total cuesta lo
+ * mismo sin importar cuántas ventas haya; los productos de un día, lo que cuesta recorrer los
+ * productos vendidos ese día.
+ *
+ * Las horas y los días se cuentan como en SalesSecondaryIndex: horas (días) desde
+ * 1970-01-01T00:00 de la fecha y hora local de la venta.
+ */
+public class SalesAggregates {
+    private static final long SEGUNDOS_POR_HORA = 3600;
+    private static final long HORAS_POR_DIA = 24;
+
+    private final Map<Long, Acumulador> porHora = new ConcurrentHashMap<>();
+    private final Map<Long, Acumulador> porDia = new ConcurrentHashMap<>();
+    private final Map<String, AcumuladorProducto> porProducto = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, AcumuladorProducto>> productosPorDia = new ConcurrentHashMap<>();
+
+    /**
+     * Totales de ventas de una hora o un día.
+     */
+    public static class Totales {
+        public static final Totales VACIO = new Totales(0, 0, 0);
+
+        private final long ventas;
+        private final long ingresos;
+        private final long iva;
+
+        public Totales(long ventas, long ingresos, long iva) {
+            this.ventas = ventas;
+            this.ingresos = ingresos;
+            this.iva = iva;
+        }
+
+        public long getVentas() {
+            return ventas;
+        }
+
+        /** @return Suma de los totales con IVA, en centavos */
+        public long getIngresos() {
+            return ingresos;
+        }
+
+        /** @return IVA recaudado, en centavos */
+        public long getIva() {
+            return iva;
+        }
+    }
+
+    /**
+     * Totales de un producto.
+     */
+    public static class TotalesProducto {
+        public static final TotalesProducto VACIO = new TotalesProducto(0, 0);
+
+        private final long unidades;
+        private final long ingresos;
+
+        public TotalesProducto(long unidades, long ingresos) {
+            this.unidades = unidades;
+            this.ingresos = ingresos;
+        }
+
+        public long getUnidades() {
+            return unidades;
+        }
+
+        /** @return Suma de los subtotales sin IVA, en centavos */
+        public long getIngresos() {
+            return ingresos;
+        }
+    }
+
+    private static class Acumulador {
+        final LongAdder ventas = new LongAdder();
+        final LongAdder ingresos = new LongAdder();
+        final LongAdder iva = new LongAdder();
+
+        void sumar(long ventas, long ingresos, long iva) {
+            this.ventas.add(ventas);
+            this.ingresos.add(ingresos);
+            this.iva.add(iva);
+        }
+
+        Totales totales() {
+            return new Totales(ventas.sum(), ingresos.sum(), iva.sum());
+        }
+    }
+
+    private static class AcumuladorProducto {
+        final LongAdder unidades = new LongAdder();
+        final LongAdder ingresos = new LongAdder();
+
+        void sumar(long unidades, long ingresos) {
+            this.unidades.add(unidades);
+            this.ingresos.add(ingresos);
+        }
+
+        TotalesProducto totales() {
+            return new TotalesProducto(unidades.sum(), ingresos.sum());
+        }
+    }
+
+    /**
+     * Suma una venta finalizada a los totales, en O(p) con p = líneas de la venta.
+     * @param venta La venta completa (con sus detalles)
+     */
+    public void registrar(Venta venta) {
+        long hora = Math.floorDiv(venta.getFechaHora().toEpochSecond(ZoneOffset.UTC), SEGUNDOS_POR_HORA);
+        sumarHora(hora, 1, centavos(venta.getTotal()), centavos(venta.getTotalIva()));
+        Map<String, AcumuladorProducto> delDia = productosDelDia(Math.floorDiv(hora, HORAS_POR_DIA));
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            sumarProducto(delDia, detalle.getProducto().getCodigo(), detalle.getCantidad(),
+                centavos(detalle.getSubtotal()));
+        }
+    }
+
+    /**
+     * Suma totales ya calculados de una hora (por ejemplo, los guardados en la foto de ventas).
+     * @param hora Horas desde 1970-01-01T00:00
+     */
+    public void sumarHora(long hora, long ventas, long ingresos, long iva) {
+        porHora.computeIfAbsent(hora, k -> new Acumulador()).sumar(ventas, ingresos, iva);
+        porDia.computeIfAbsent(Math.floorDiv(hora, HORAS_POR_DIA), k -> new Acumulador()).sumar(ventas, ingresos, iva);
+    }
+
+    /**
+     * Suma totales ya calculados de un producto en un día.
+     * @param dia Días desde 1970-01-01
+     */
+    public void sumarProducto(long dia, String codigo, long unidades, long ingresos) {
+        sumarProducto(productosDelDia(dia), codigo, unidades, ingresos);
+    }
+
+    private void sumarProducto(Map<String, AcumuladorProducto> delDia, String codigo, long unidades, long ingresos) {
+        delDia.computeIfAbsent(codigo, k -> new AcumuladorProducto()).sumar(unidades, ingresos);
+        porProducto.computeIfAbsent(codigo, k -> new AcumuladorProducto()).sumar(unidades, ingresos);
+    }
+
+    private Map<String, AcumuladorProducto> productosDelDia(long dia) {
+        return productosPorDia.computeIfAbsent(dia, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param hora Fecha y hora; se ignoran minutos y segundos
+     * @return Totales de las ventas de esa hora
+     */
+    public Totales hora(LocalDateTime hora) {
+        return totales(porHora.get(Math.floorDiv(hora.toEpochSecond(ZoneOffset.UTC), SEGUNDOS_POR_HORA)));
+    }
+
+    /**
+     * @param dia Fecha
+     * @return Totales de las ventas del día
+     */
+    public Totales dia(LocalDate dia) {
+        return totales(porDia.get(dia.toEpochDay()));
+    }
+
+    /**
+     * @param codigo Código del producto
+     * @return Totales del producto en todas las ventas
+     */
+    public TotalesProducto producto(String codigo) {
+        return totales(porProducto.get(codigo));
+    }
+
+    /**
+     * @param codigo Código del producto
+     * @param dia Fecha
+     * @return Totales del producto en las ventas del día
+     */
+    public TotalesProducto producto(String codigo, LocalDate dia) {
+        Map<String, AcumuladorProducto> delDia = productosPorDia.get(dia.toEpochDay());
+        return totales(delDia == null ? null : delDia.get(codigo));
+    }
+
+    /**
+     * @param dia Fecha
+     * @return Código -> totales de cada producto vendido ese día
+     */
+    public Map<String, TotalesProducto> productos(LocalDate dia) {
+        return copiar(productosPorDia.get(dia.toEpochDay()));
+    }
+
+    /**
+     * @return Horas desde 1970-01-01T00:00 -> totales de cada hora con ventas
+     */
+    public Map<Long, Totales> horas() {
+        Map<Long, Totales> horas = new HashMap<>(porHora.size() * 2);
+        porHora.forEach((hora, acumulador) -> horas.put(hora, acumulador.totales()));
+        return horas;
+    }
+
+    /**
+     * @return Días desde 1970-01-01 -> totales de cada producto vendido ese día
+     */
+    public Map<Long, Map<String, TotalesProducto>> productosPorDia() {
+        Map<Long, Map<String, TotalesProducto>> dias = new HashMap<>(productosPorDia.size() * 2);
+        productosPorDia.forEach((dia, productos) -> dias.put(dia, copiar(productos)));
+        return dias;
+    }
+
+    /**
+     * @return Copia independiente de los totales
+     */
+    public SalesAggregates copiar() {
+        SalesAggregates copia = new SalesAggregates();
+        horas().forEach((hora, t) -> copia.sumarHora(hora, t.getVentas(), t.getIngresos(), t.getIva()));
+        productosPorDia().forEach((dia, productos) -> productos.forEach(
+            (codigo, t) -> copia.sumarProducto(dia, codigo, t.getUnidades(), t.getIngresos())));
+        return copia;
+    }
+
+    /**
+     * Convierte un monto en centavos, redondeando como "%.2f" (ver TicketRenderer).
+     */
+    public static long centavos(float monto) {
+        return monto < 0 ? -Math.round(-monto * 100.0) : Math.round(monto * 100.0);
+    }
+
+    private static Totales totales(Acumulador acumulador) {
+        return acumulador == null ? Totales.VACIO : acumulador.totales();
+    }
+
+    private static TotalesProducto totales(AcumuladorProducto acumulador) {
+        return acumulador == null ? TotalesProducto.VACIO : acumulador.totales();
+    }
+
+    private static Map<String, TotalesProducto> copiar(Map<String, AcumuladorProducto> productos) {
+        if (productos == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, TotalesProducto> copia = new HashMap<>(productos.size() * 2);
+        productos.forEach((codigo, acumulador) -> copia.put(codigo, acumulador.totales()));
+        return copia;
+    }
+}
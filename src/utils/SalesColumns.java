@@ -0,0 +1,347 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Venta;
+
+/**
+ * Clase SalesColumns
+ *
+ * Almacén columnar de las líneas de venta para informes: en lugar de recorrer Venta ->
+ * DetalleVenta -> Producto y Cliente (objetos y textos dispersos en memoria), cada línea es
+ * una fila de arreglos primitivos contiguos:
+ * - número de la venta (sin el prefijo "VEN") y fecha y hora (segundos, ver
+ *   VentaResumen.getSegundos)
+ * - ordinal del cliente y ordinal del producto (ver ordinalCliente y ordinalProducto)
+ * - cantidad y subtotal sin IVA en centavos (redondeado como "%.2f")
+ *
+ * Los filtros, agrupaciones y sumas son ciclos sobre esos arreglos. Con paralelo = true las
+ * filas se dividen en trozos de TAMANO_TROZO que se suman en el ForkJoinPool común y luego se
+ * combinan; el resultado es el mismo que en serie.
+ *
+ * Las filas solo se agregan. Cada consulta trabaja sobre las filas que había al empezar: los
+ * arreglos y la cantidad de filas se publican juntos (ver Columnas), por lo que agregar
+ * ventas no bloquea ni altera las consultas en curso.
+ */
+public class SalesColumns {
+    // Filas por trozo en las consultas en paralelo
+    public static final int TAMANO_TROZO = 1 << 16;
+    private static final long SEGUNDOS_POR_DIA = 86_400;
+    private static final long SEGUNDOS_POR_HORA = 3600;
+
+    // Diccionarios de ordinales, usados con el candado del objeto
+    private final Map<String, Integer> ordinalesClientes = new HashMap<>();
+    private final Map<String, Integer> ordinalesProductos = new HashMap<>();
+    private int ventas;
+
+    private volatile Columnas columnas = new Columnas(1024);
+
+    /**
+     * Arreglos de las columnas y cantidad de filas válidas. Los arreglos se reemplazan por
+     * copias más grandes al llenarse; las filas anteriores a cantidad no cambian.
+     */
+    private static class Columnas {
+        final long[] numeros;
+        final long[] segundos;
+        final int[] clientes;
+        final int[] productos;
+        final int[] cantidades;
+        final long[] centavos;
+        final int cantidad;
+        // Identificaciones y códigos por ordinal, con su cantidad válida
+        final String[] codigosClientes;
+        final int cantidadClientes;
+        final String[] codigosProductos;
+        final int cantidadProductos;
+
+        Columnas(int capacidad) {
+            this(new long[capacidad], new long[capacidad], new int[capacidad], new int[capacidad],
+                new int[capacidad], new long[capacidad], 0, new String[64], 0, new String[64], 0);
+        }
+
+        Columnas(long[] numeros, long[] segundos, int[] clientes, int[] productos, int[] cantidades,
+                long[] centavos, int cantidad, String[] codigosClientes, int cantidadClientes,
+                String[] codigosProductos, int cantidadProductos) {
+            this.numeros = numeros;
+            this.segundos = segundos;
+            this.clientes = clientes;
+            this.productos = productos;
+            this.cantidades = cantidades;
+            this.centavos = centavos;
+            this.cantidad = cantidad;
+            this.codigosClientes = codigosClientes;
+            this.cantidadClientes = cantidadClientes;
+            this.codigosProductos = codigosProductos;
+            this.cantidadProductos = cantidadProductos;
+        }
+    }
+
+    /**
+     * Suma las filas [desde, hasta) que cumplen el filtro en las cubetas de destino.
+     */
+    private interface Trozo {
+        void sumar(Columnas c, int desde, int hasta, long[] destino);
+    }
+
+    /**
+     * Agrega las líneas de una venta, en O(p) con p = líneas de la venta.
+     * @param numero Número de la venta sin el prefijo "VEN"
+     * @param venta La venta completa (con sus detalles)
+     */
+    public synchronized void agregar(long numero, Venta venta) {
+        List<DetalleVenta> detalles = venta.getDetalles();
+        Columnas c = columnas;
+        int filas = c.cantidad + detalles.size();
+        long[] numeros = c.numeros;
+        long[] segundos = c.segundos;
+        int[] clientes = c.clientes;
+        int[] productos = c.productos;
+        int[] cantidades = c.cantidades;
+        long[] centavos = c.centavos;
+        if (filas > numeros.length) {
+            int capacidad = Math.max(filas, numeros.length * 2);
+            numeros = Arrays.copyOf(numeros, capacidad);
+            segundos = Arrays.copyOf(segundos, capacidad);
+            clientes = Arrays.copyOf(clientes, capacidad);
+            productos = Arrays.copyOf(productos, capacidad);
+            cantidades = Arrays.copyOf(cantidades, capacidad);
+            centavos = Arrays.copyOf(centavos, capacidad);
+        }
+        String[] codigosClientes = c.codigosClientes;
+        String[] codigosProductos = c.codigosProductos;
+
+        long segundosVenta = venta.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+        int ordinalCliente = -1;
+        Cliente cliente = venta.getCliente();
+        if (cliente != null) {
+            ordinalCliente = ordinalesClientes.computeIfAbsent(cliente.getIdentificacion(), k -> ordinalesClientes.size());
+            codigosClientes = registrar(codigosClientes, ordinalCliente, cliente.getIdentificacion());
+        }
+        int fila = c.cantidad;
+        for (DetalleVenta detalle : detalles) {
+            String codigo = detalle.getProducto().getCodigo();
+            int ordinalProducto = ordinalesProductos.computeIfAbsent(codigo, k -> ordinalesProductos.size());
+            codigosProductos = registrar(codigosProductos, ordinalProducto, codigo);
+            numeros[fila] = numero;
+            segundos[fila] = segundosVenta;
+            clientes[fila] = ordinalCliente;
+            productos[fila] = ordinalProducto;
+            cantidades[fila] = detalle.getCantidad();
+            centavos[fila] = SalesAggregates.centavos(detalle.getSubtotal());
+            fila++;
+        }
+        ventas++;
+        // Publica las filas nuevas junto con los arreglos que las contienen
+        columnas = new Columnas(numeros, segundos, clientes, productos, cantidades, centavos, filas,
+            codigosClientes, ordinalesClientes.size(), codigosProductos, ordinalesProductos.size());
+    }
+
+    /**
+     * Guarda el código de un ordinal, agrandando el arreglo si hace falta.
+     */
+    private static String[] registrar(String[] codigos, int ordinal, String codigo) {
+        if (ordinal >= codigos.length) {
+            codigos = Arrays.copyOf(codigos, codigos.length * 2);
+        }
+        codigos[ordinal] = codigo;
+        return codigos;
+    }
+
+    /** @return Cantidad de líneas guardadas */
+    public int lineas() {
+        return columnas.cantidad;
+    }
+
+    /** @return Cantidad de ventas agregadas */
+    public synchronized int ventas() {
+        return ventas;
+    }
+
+    /**
+     * @return Ordinal del producto (índice en los arreglos por producto), o -1 si no se ha vendido
+     */
+    public synchronized int ordinalProducto(String codigo) {
+        return ordinalesProductos.getOrDefault(codigo, -1);
+    }
+
+    /**
+     * @return Código del producto con ese ordinal
+     */
+    public String codigoProducto(int ordinal) {
+        return columnas.codigosProductos[ordinal];
+    }
+
+    /**
+     * @return Ordinal del cliente (índice en los arreglos por cliente), o -1 si no tiene ventas
+     */
+    public synchronized int ordinalCliente(String identificacion) {
+        return ordinalesClientes.getOrDefault(identificacion, -1);
+    }
+
+    /**
+     * @return Identificación del cliente con ese ordinal
+     */
+    public String identificacionCliente(int ordinal) {
+        return columnas.codigosClientes[ordinal];
+    }
+
+    /**
+     * @param desde Inicio (incluido)
+     * @param hasta Fin (excluido)
+     * @param paralelo true para sumar por trozos en paralelo
+     * @return Unidades vendidas de cada producto en [desde, hasta), por ordinal de producto
+     */
+    public long[] unidadesPorProducto(LocalDateTime desde, LocalDateTime hasta, boolean paralelo) {
+        long d = segundos(desde);
+        long h = segundos(hasta);
+        return combinar(columnas, true, paralelo, (c, a, b, r) -> {
+            long[] segundos = c.segundos;
+            int[] productos = c.productos;
+            int[] cantidades = c.cantidades;
+            for (int i = a; i < b; i++) {
+                long s = segundos[i];
+                if (s >= d && s < h) {
+                    r[productos[i]] += cantidades[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * @param desde Inicio (incluido)
+     * @param hasta Fin (excluido)
+     * @param paralelo true para sumar por trozos en paralelo
+     * @return Ingresos sin IVA de cada producto en [desde, hasta), en centavos, por ordinal de
+     *         producto
+     */
+    public long[] ingresosPorProducto(LocalDateTime desde, LocalDateTime hasta, boolean paralelo) {
+        long d = segundos(desde);
+        long h = segundos(hasta);
+        return combinar(columnas, true, paralelo, (c, a, b, r) -> {
+            long[] segundos = c.segundos;
+            int[] productos = c.productos;
+            long[] centavos = c.centavos;
+            for (int i = a; i < b; i++) {
+                long s = segundos[i];
+                if (s >= d && s < h) {
+                    r[productos[i]] += centavos[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * @param desde Inicio (incluido)
+     * @param hasta Fin (excluido)
+     * @param paralelo true para sumar por trozos en paralelo
+     * @return Ingresos sin IVA de cada cliente en [desde, hasta), en centavos, por ordinal de
+     *         cliente (las ventas sin cliente no se cuentan)
+     */
+    public long[] ingresosPorCliente(LocalDateTime desde, LocalDateTime hasta, boolean paralelo) {
+        long d = segundos(desde);
+        long h = segundos(hasta);
+        return combinar(columnas, false, paralelo, (c, a, b, r) -> {
+            long[] segundos = c.segundos;
+            int[] clientes = c.clientes;
+            long[] centavos = c.centavos;
+            for (int i = a; i < b; i++) {
+                long s = segundos[i];
+                if (s >= d && s < h && clientes[i] >= 0) {
+                    r[clientes[i]] += centavos[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * @param desde Inicio (incluido)
+     * @param hasta Fin (excluido)
+     * @param paralelo true para sumar por trozos en paralelo
+     * @return Ingresos sin IVA en [desde, hasta) por hora del día (24 posiciones), en centavos
+     */
+    public long[] ingresosPorHoraDelDia(LocalDateTime desde, LocalDateTime hasta, boolean paralelo) {
+        long d = segundos(desde);
+        long h = segundos(hasta);
+        return combinar(columnas, 24, paralelo, (c, a, b, r) -> {
+            long[] segundos = c.segundos;
+            long[] centavos = c.centavos;
+            for (int i = a; i < b; i++) {
+                long s = segundos[i];
+                if (s >= d && s < h) {
+                    r[(int) (Math.floorMod(s, SEGUNDOS_POR_DIA) / SEGUNDOS_POR_HORA)] += centavos[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * @param codigo Código del producto
+     * @param desde Inicio (incluido)
+     * @param hasta Fin (excluido)
+     * @param paralelo true para sumar por trozos en paralelo
+     * @return Unidades vendidas del producto en [desde, hasta)
+     */
+    public long unidades(String codigo, LocalDateTime desde, LocalDateTime hasta, boolean paralelo) {
+        int producto = ordinalProducto(codigo);
+        if (producto < 0) {
+            return 0;
+        }
+        long d = segundos(desde);
+        long h = segundos(hasta);
+        return combinar(columnas, 1, paralelo, (c, a, b, r) -> {
+            long[] segundos = c.segundos;
+            int[] productos = c.productos;
+            int[] cantidades = c.cantidades;
+            long suma = 0;
+            for (int i = a; i < b; i++) {
+                long s = segundos[i];
+                if (productos[i] == producto && s >= d && s < h) {
+                    suma += cantidades[i];
+                }
+            }
+            r[0] += suma;
+        })[0];
+    }
+
+    private static long segundos(LocalDateTime fechaHora) {
+        return fechaHora.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long[] combinar(Columnas c, boolean porProducto, boolean paralelo, Trozo trozo) {
+        return combinar(c, porProducto ? c.cantidadProductos : c.cantidadClientes, paralelo, trozo);
+    }
+
+    /**
+     * Suma las filas en serie, o por trozos en paralelo combinando las sumas parciales.
+     * @param grupos Cantidad de cubetas del resultado
+     */
+    private static long[] combinar(Columnas c, int grupos, boolean paralelo, Trozo trozo) {
+        int filas = c.cantidad;
+        if (!paralelo || filas <= TAMANO_TROZO) {
+            long[] resultado = new long[grupos];
+            trozo.sumar(c, 0, filas, resultado);
+            return resultado;
+        }
+        int trozos = (filas + TAMANO_TROZO - 1) / TAMANO_TROZO;
+        return IntStream.range(0, trozos).parallel()
+            .mapToObj(t -> {
+                long[] parcial = new long[grupos];
+                trozo.sumar(c, t * TAMANO_TROZO, Math.min(filas, (t + 1) * TAMANO_TROZO), parcial);
+                return parcial;
+            })
+            .reduce((a, b) -> {
+                for (int i = 0; i < grupos; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            })
+            .orElseGet(() -> new long[grupos]);
+    }
+}
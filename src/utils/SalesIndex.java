@@ -0,0 +1,478 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import models.VentaResumen;
+
+/**
+ * Clase SalesIndex
+ *
+ * Índice ordenado de ventas implementado como un árbol rojo-negro. Las ventas se ordenan
+ * por (total, numeroVenta), por lo que dos ventas con el mismo total ocupan nodos distintos
+ * y ninguna se pierde; si también coincide el número (por ejemplo, tickets repetidos), la
+ * venta nueva se ubica después de las existentes.
+ *
+ * El árbol se mantiene balanceado en cada inserción, así que su altura es como máximo
+ * 2·log2(n + 1) aunque las ventas lleguen ordenadas por total (por ejemplo, un día de
+ * combos idénticos). La inserción y el recorrido son iterativos: no usan recursión y no
+ * pueden desbordar la pila.
+ *
+ * Cada nodo guarda el tamaño de su subárbol (árbol de estadísticos de orden), lo que permite
+ * responder sin copiar ni reordenar las ventas:
+ * - range(min, max): ventas con total en [min, max], en O(log n + k)
+ * - topK(k) / bottomK(k): las k ventas de mayor o menor total, en O(log n + k)
+ * - rank(venta) / select(i): posición de una venta y venta en una posición, en O(log n)
+ * - ascending() / descending(): recorridos en orden sin copiar el índice
+ */
+public class SalesIndex {
+    private static final boolean ROJO = true;
+    private static final boolean NEGRO = false;
+
+    /**
+     * Orden del índice: total ascendente y, a igual total, número de venta ascendente.
+     * Los números se comparan primero por longitud para que "VEN1000" quede después de
+     * "VEN999"; una venta sin número queda antes de las numeradas.
+     */
+    public static final Comparator<VentaResumen> ORDEN = (a, b) -> {
+        int c = Float.compare(a.getTotal(), b.getTotal());
+        return c != 0 ? c : VentaResumen.compararNumeros(a, b);
+    };
+
+    private static final class Node {
+        final VentaResumen venta;
+        Node left;
+        Node right;
+        Node parent;
+        boolean color = ROJO;
+        // Cantidad de nodos del subárbol que empieza en este nodo
+        int size = 1;
+
+        Node(VentaResumen venta, Node parent) {
+            this.venta = venta;
+            this.parent = parent;
+        }
+    }
+
+    private Node root;
+    private int size;
+    // Cantidad de modificaciones, para detectar cambios durante un recorrido
+    private int modificaciones;
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    /**
+     * Construye un índice con muchas ventas a la vez (por ejemplo, al cargar los tickets):
+     * ordena las ventas en paralelo y arma el árbol balanceado directamente, en O(n log n)
+     * para el ordenamiento y O(n) para el árbol, sin rotaciones.
+     *
+     * Todos los niveles completos quedan negros y el último, si está incompleto, rojo; así
+     * todos los caminos tienen la misma cantidad de nodos negros.
+     *
+     * @param ventas Ventas en cualquier orden
+     * @return El índice con todas las ventas
+     */
+    public static SalesIndex build(List<VentaResumen> ventas) {
+        VentaResumen[] ordenadas = ventas.toArray(new VentaResumen[0]);
+        // Ordenamiento estable: las ventas idénticas conservan el orden de la lista
+        Arrays.parallelSort(ordenadas, ORDEN);
+        SalesIndex indice = new SalesIndex();
+        if (ordenadas.length > 0) {
+            indice.root = construir(ordenadas, 0, ordenadas.length - 1, 0, nivelRojo(ordenadas.length), null);
+        }
+        indice.size = ordenadas.length;
+        indice.modificaciones++;
+        return indice;
+    }
+
+    /**
+     * Profundidad (desde 0, la raíz) de los nodos rojos al armar un árbol de n nodos: el
+     * último nivel si está incompleto; si el árbol es perfecto, ningún nodo queda a esa
+     * profundidad.
+     */
+    private static int nivelRojo(int n) {
+        int nivel = 0;
+        for (int m = n - 1; m >= 0; m = m / 2 - 1) {
+            nivel++;
+        }
+        return nivel;
+    }
+
+    /**
+     * Arma el subárbol balanceado de ordenadas[desde..hasta]; la recursión tiene
+     * profundidad log2(n).
+     */
+    private static Node construir(VentaResumen[] ordenadas, int desde, int hasta, int nivel, int nivelRojo, Node padre) {
+        if (desde > hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        Node nodo = new Node(ordenadas[medio], padre);
+        nodo.color = nivel == nivelRojo ? ROJO : NEGRO;
+        nodo.left = construir(ordenadas, desde, medio - 1, nivel + 1, nivelRojo, nodo);
+        nodo.right = construir(ordenadas, medio + 1, hasta, nivel + 1, nivelRojo, nodo);
+        nodo.size = hasta - desde + 1;
+        return nodo;
+    }
+
+    /**
+     * Inserta una venta en el índice en O(log n).
+     * @param venta Resumen de la venta a insertar
+     */
+    public void insert(VentaResumen venta) {
+        Node padre = null;
+        Node actual = root;
+        boolean izquierda = false;
+        while (actual != null) {
+            padre = actual;
+            actual.size++;
+            izquierda = ORDEN.compare(venta, actual.venta) < 0;
+            actual = izquierda ? actual.left : actual.right;
+        }
+        Node nuevo = new Node(venta, padre);
+        if (padre == null) {
+            root = nuevo;
+        } else if (izquierda) {
+            padre.left = nuevo;
+        } else {
+            padre.right = nuevo;
+        }
+        size++;
+        modificaciones++;
+        balancearInsercion(nuevo);
+    }
+
+    /**
+     * Restablece las propiedades rojo-negro después de insertar un nodo rojo.
+     */
+    private void balancearInsercion(Node x) {
+        while (x != root && x.parent.color == ROJO) {
+            Node padre = x.parent;
+            Node abuelo = padre.parent;
+            if (padre == abuelo.left) {
+                Node tio = abuelo.right;
+                if (tio != null && tio.color == ROJO) {
+                    padre.color = NEGRO;
+                    tio.color = NEGRO;
+                    abuelo.color = ROJO;
+                    x = abuelo;
+                } else {
+                    if (x == padre.right) {
+                        x = padre;
+                        rotarIzquierda(x);
+                        padre = x.parent;
+                    }
+                    padre.color = NEGRO;
+                    abuelo.color = ROJO;
+                    rotarDerecha(abuelo);
+                }
+            } else {
+                Node tio = abuelo.left;
+                if (tio != null && tio.color == ROJO) {
+                    padre.color = NEGRO;
+                    tio.color = NEGRO;
+                    abuelo.color = ROJO;
+                    x = abuelo;
+                } else {
+                    if (x == padre.left) {
+                        x = padre;
+                        rotarDerecha(x);
+                        padre = x.parent;
+                    }
+                    padre.color = NEGRO;
+                    abuelo.color = ROJO;
+                    rotarIzquierda(abuelo);
+                }
+            }
+        }
+        root.color = NEGRO;
+    }
+
+    private void rotarIzquierda(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        if (y.left != null) {
+            y.left.parent = x;
+        }
+        reemplazarEnPadre(x, y);
+        y.left = x;
+        x.parent = y;
+        y.size = x.size;
+        x.size = size(x.left) + size(x.right) + 1;
+    }
+
+    private void rotarDerecha(Node x) {
+        Node y = x.left;
+        x.left = y.right;
+        if (y.right != null) {
+            y.right.parent = x;
+        }
+        reemplazarEnPadre(x, y);
+        y.right = x;
+        x.parent = y;
+        y.size = x.size;
+        x.size = size(x.left) + size(x.right) + 1;
+    }
+
+    private void reemplazarEnPadre(Node x, Node y) {
+        y.parent = x.parent;
+        if (x.parent == null) {
+            root = y;
+        } else if (x == x.parent.left) {
+            x.parent.left = y;
+        } else {
+            x.parent.right = y;
+        }
+    }
+
+    /**
+     * @return Cantidad de ventas en el índice
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Realiza un recorrido en orden del índice y retorna la lista de ventas.
+     * @return Lista de ventas ordenadas por (total, numeroVenta)
+     */
+    public List<VentaResumen> inorderTraversal() {
+        List<VentaResumen> ventas = new ArrayList<>(size);
+        for (VentaResumen venta : ascending()) {
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    /**
+     * Retorna las ventas con total en [min, max] en orden ascendente, en O(log n + k).
+     * @param min Total mínimo (incluido)
+     * @param max Total máximo (incluido)
+     * @return Ventas del rango
+     */
+    public List<VentaResumen> range(float min, float max) {
+        List<VentaResumen> ventas = new ArrayList<>();
+        Node actual = primeroDesde(min);
+        while (actual != null && actual.venta.getTotal() <= max) {
+            ventas.add(actual.venta);
+            actual = sucesor(actual);
+        }
+        return ventas;
+    }
+
+    /**
+     * Retorna las k ventas de mayor total, de mayor a menor, en O(log n + k).
+     * @param k Cantidad de ventas
+     * @return Ventas de mayor total
+     */
+    public List<VentaResumen> topK(int k) {
+        List<VentaResumen> ventas = new ArrayList<>(Math.min(Math.max(k, 0), size));
+        Node actual = ultimo(root);
+        while (actual != null && ventas.size() < k) {
+            ventas.add(actual.venta);
+            actual = predecesor(actual);
+        }
+        return ventas;
+    }
+
+    /**
+     * Retorna las k ventas de menor total, de menor a mayor, en O(log n + k).
+     * @param k Cantidad de ventas
+     * @return Ventas de menor total
+     */
+    public List<VentaResumen> bottomK(int k) {
+        List<VentaResumen> ventas = new ArrayList<>(Math.min(Math.max(k, 0), size));
+        Node actual = primero(root);
+        while (actual != null && ventas.size() < k) {
+            ventas.add(actual.venta);
+            actual = sucesor(actual);
+        }
+        return ventas;
+    }
+
+    /**
+     * Calcula la posición (desde 0, en orden ascendente) de una venta en O(log n): la
+     * cantidad de ventas que la preceden según ORDEN. Si la venta no está en el índice,
+     * retorna la posición que ocuparía.
+     * @param venta La venta
+     * @return Cantidad de ventas menores que la dada
+     */
+    public int rank(VentaResumen venta) {
+        int menores = 0;
+        Node actual = root;
+        while (actual != null) {
+            if (ORDEN.compare(venta, actual.venta) <= 0) {
+                actual = actual.left;
+            } else {
+                menores += size(actual.left) + 1;
+                actual = actual.right;
+            }
+        }
+        return menores;
+    }
+
+    /**
+     * Retorna la venta ubicada en una posición del orden ascendente, en O(log n).
+     * @param posicion Posición desde 0
+     * @return La venta en esa posición
+     * @throws IndexOutOfBoundsException Si la posición no existe
+     */
+    public VentaResumen select(int posicion) {
+        if (posicion < 0 || posicion >= size) {
+            throw new IndexOutOfBoundsException("Posición " + posicion + " fuera del índice de " + size + " ventas");
+        }
+        Node actual = root;
+        while (true) {
+            int izquierda = size(actual.left);
+            if (posicion < izquierda) {
+                actual = actual.left;
+            } else if (posicion == izquierda) {
+                return actual.venta;
+            } else {
+                posicion -= izquierda + 1;
+                actual = actual.right;
+            }
+        }
+    }
+
+    /**
+     * Recorrido ascendente (por total y número) que no copia el índice.
+     * @return Ventas de menor a mayor total
+     */
+    public Iterable<VentaResumen> ascending() {
+        return () -> new Recorrido(primero(root), true);
+    }
+
+    /**
+     * Recorrido descendente (por total y número) que no copia el índice.
+     * @return Ventas de mayor a menor total
+     */
+    public Iterable<VentaResumen> descending() {
+        return () -> new Recorrido(ultimo(root), false);
+    }
+
+    /**
+     * Iterador en orden sobre los nodos del árbol. Falla si el índice se modifica durante
+     * el recorrido.
+     */
+    private final class Recorrido implements Iterator<VentaResumen> {
+        private Node siguiente;
+        private final boolean ascendente;
+        private final int modificacionesEsperadas = modificaciones;
+
+        Recorrido(Node inicio, boolean ascendente) {
+            this.siguiente = inicio;
+            this.ascendente = ascendente;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        @Override
+        public VentaResumen next() {
+            if (siguiente == null) {
+                throw new NoSuchElementException();
+            }
+            if (modificaciones != modificacionesEsperadas) {
+                throw new ConcurrentModificationException();
+            }
+            Node actual = siguiente;
+            siguiente = ascendente ? sucesor(actual) : predecesor(actual);
+            return actual.venta;
+        }
+    }
+
+    /**
+     * @return Altura del árbol (cantidad de nodos del camino más largo desde la raíz)
+     */
+    public int height() {
+        int altura = 0;
+        List<Node> nivel = new ArrayList<>();
+        if (root != null) {
+            nivel.add(root);
+        }
+        while (!nivel.isEmpty()) {
+            altura++;
+            List<Node> siguiente = new ArrayList<>();
+            for (Node n : nivel) {
+                if (n.left != null) {
+                    siguiente.add(n.left);
+                }
+                if (n.right != null) {
+                    siguiente.add(n.right);
+                }
+            }
+            nivel = siguiente;
+        }
+        return altura;
+    }
+
+    private static Node primero(Node n) {
+        if (n == null) {
+            return null;
+        }
+        while (n.left != null) {
+            n = n.left;
+        }
+        return n;
+    }
+
+    private static Node ultimo(Node n) {
+        if (n == null) {
+            return null;
+        }
+        while (n.right != null) {
+            n = n.right;
+        }
+        return n;
+    }
+
+    /**
+     * Busca el primer nodo (en orden) cuyo total es mayor o igual que min.
+     */
+    private Node primeroDesde(float min) {
+        Node candidato = null;
+        Node actual = root;
+        while (actual != null) {
+            if (actual.venta.getTotal() >= min) {
+                candidato = actual;
+                actual = actual.left;
+            } else {
+                actual = actual.right;
+            }
+        }
+        return candidato;
+    }
+
+    private static Node predecesor(Node n) {
+        if (n.left != null) {
+            return ultimo(n.left);
+        }
+        Node p = n.parent;
+        while (p != null && n == p.left) {
+            n = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    private static Node sucesor(Node n) {
+        if (n.right != null) {
+            return primero(n.right);
+        }
+        Node p = n.parent;
+        while (p != null && n == p.right) {
+            n = p;
+            p = p.parent;
+        }
+        return p;
+    }
+}
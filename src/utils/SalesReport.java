@@ -0,0 +1,330 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Venta;
+
+/**
+ * Clase SalesReport
+ *
+ * Informe de las ventas de un período (por ejemplo, el cierre del mes) en un solo recorrido:
+ * - unidades e ingresos (subtotal sin IVA) por producto
+ * - ingresos sin IVA por cliente y por hora del día
+ * - resumen de IVA: cantidad de ventas, ingresos (total con IVA) e IVA
+ *
+ * Las ventas se leen por particiones (ver Particion): los segmentos del diario, que se leen
+ * y decodifican del disco, trozos de tickets de texto, que se leen y convierten al
+ * recorrerlos, o trozos de una lista en memoria. En paralelo, una tarea fork-join
+ * (ver TareaInforme) divide las particiones a la mitad hasta quedar con una sola, calcula el
+ * informe parcial de cada una en su hilo y combina los parciales al volver. Los montos son
+ * centavos redondeados como en SalesAggregates, así que las sumas son exactas y el informe en
+ * paralelo es idéntico al que se calcula en serie, sin importar el orden de las particiones.
+ */
+public class SalesReport {
+    private static final long SEGUNDOS_POR_DIA = 86_400;
+    private static final long SEGUNDOS_POR_HORA = 3600;
+    // Ventas por partición al dividir una lista en memoria
+    public static final int VENTAS_POR_PARTICION = 4096;
+    // Tickets de texto por partición; cada uno es un archivo que se lee al recorrerla
+    public static final int TICKETS_POR_PARTICION = 1024;
+
+    /**
+     * Una parte de las ventas que se recorre en un solo hilo.
+     */
+    public interface Particion {
+        void recorrer(Consumer<Venta> destino) throws IOException;
+    }
+
+    /**
+     * Totales del informe. Mientras se calcula es el parcial de una o más particiones.
+     */
+    public static class Informe {
+        // Código -> {unidades, ingresos}
+        private final Map<String, long[]> productos = new HashMap<>();
+        // Identificación -> {ingresos}
+        private final Map<String, long[]> clientes = new HashMap<>();
+        private final long[] horas = new long[24];
+        private long ventas;
+        private long ingresos;
+        private long iva;
+
+        /**
+         * Suma una venta, en O(p) con p = líneas de la venta.
+         */
+        void sumar(Venta venta, long segundos) {
+            ventas++;
+            ingresos += SalesAggregates.centavos(venta.getTotal());
+            iva += SalesAggregates.centavos(venta.getTotalIva());
+            Cliente cliente = venta.getCliente();
+            long[] delCliente = cliente != null
+                ? clientes.computeIfAbsent(cliente.getIdentificacion(), k -> new long[1]) : null;
+            int hora = (int) (Math.floorMod(segundos, SEGUNDOS_POR_DIA) / SEGUNDOS_POR_HORA);
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                long centavos = SalesAggregates.centavos(detalle.getSubtotal());
+                long[] producto = productos.computeIfAbsent(detalle.getProducto().getCodigo(), k -> new long[2]);
+                producto[0] += detalle.getCantidad();
+                producto[1] += centavos;
+                if (delCliente != null) {
+                    delCliente[0] += centavos;
+                }
+                horas[hora] += centavos;
+            }
+        }
+
+        /**
+         * Suma otro parcial a este; recorre el que tiene menos grupos.
+         * @return El parcial combinado (este o el otro)
+         */
+        Informe combinar(Informe otro) {
+            if (otro.productos.size() + otro.clientes.size() > productos.size() + clientes.size()) {
+                return otro.combinar(this);
+            }
+            combinar(productos, otro.productos);
+            combinar(clientes, otro.clientes);
+            for (int h = 0; h < horas.length; h++) {
+                horas[h] += otro.horas[h];
+            }
+            ventas += otro.ventas;
+            ingresos += otro.ingresos;
+            iva += otro.iva;
+            return this;
+        }
+
+        private static void combinar(Map<String, long[]> destino, Map<String, long[]> origen) {
+            for (Map.Entry<String, long[]> grupo : origen.entrySet()) {
+                long[] suma = destino.putIfAbsent(grupo.getKey(), grupo.getValue());
+                if (suma != null) {
+                    for (int i = 0; i < suma.length; i++) {
+                        suma[i] += grupo.getValue()[i];
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return Código -> unidades vendidas e ingresos sin IVA (centavos) de cada producto
+         */
+        public Map<String, SalesAggregates.TotalesProducto> getProductos() {
+            Map<String, SalesAggregates.TotalesProducto> resultado = new HashMap<>(productos.size() * 2);
+            productos.forEach((codigo, t) -> resultado.put(codigo, new SalesAggregates.TotalesProducto(t[0], t[1])));
+            return resultado;
+        }
+
+        /**
+         * @return Identificación -> ingresos sin IVA (centavos) de cada cliente; las ventas sin
+         *         cliente no se cuentan
+         */
+        public Map<String, Long> getIngresosPorCliente() {
+            Map<String, Long> resultado = new HashMap<>(clientes.size() * 2);
+            clientes.forEach((identificacion, t) -> resultado.put(identificacion, t[0]));
+            return resultado;
+        }
+
+        /**
+         * @return Ingresos sin IVA (centavos) por hora del día, de 0 a 23
+         */
+        public long[] getIngresosPorHoraDelDia() {
+            return horas.clone();
+        }
+
+        /**
+         * @return Cantidad de ventas, ingresos (total con IVA) e IVA del período, en centavos
+         */
+        public SalesAggregates.Totales getTotales() {
+            return new SalesAggregates.Totales(ventas, ingresos, iva);
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof Informe)) {
+                return false;
+            }
+            Informe o = (Informe) otro;
+            return ventas == o.ventas && ingresos == o.ingresos && iva == o.iva && Arrays.equals(horas, o.horas)
+                && iguales(productos, o.productos) && iguales(clientes, o.clientes);
+        }
+
+        private static boolean iguales(Map<String, long[]> a, Map<String, long[]> b) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (Map.Entry<String, long[]> grupo : a.entrySet()) {
+                if (!Arrays.equals(grupo.getValue(), b.get(grupo.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(ventas) * 31 + Long.hashCode(ingresos);
+        }
+    }
+
+    /**
+     * Tarea fork-join sobre un rango de particiones: con más de una, se divide a la mitad y
+     * combina los dos parciales; con una, la recorre.
+     */
+    private static class TareaInforme extends RecursiveTask<Informe> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Particion> particiones;
+        private final int desde;
+        private final int hasta;
+        private final long inicio;
+        private final long fin;
+
+        TareaInforme(List<Particion> particiones, int desde, int hasta, long inicio, long fin) {
+            this.particiones = particiones;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        @Override
+        protected Informe compute() {
+            if (hasta - desde > 1) {
+                int medio = (desde + hasta) >>> 1;
+                TareaInforme izquierda = new TareaInforme(particiones, desde, medio, inicio, fin);
+                izquierda.fork();
+                Informe derecha = new TareaInforme(particiones, medio, hasta, inicio, fin).compute();
+                return izquierda.join().combinar(derecha);
+            }
+            Informe informe = new Informe();
+            try {
+                recorrer(particiones, desde, hasta, inicio, fin, informe);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return informe;
+        }
+    }
+
+    /**
+     * Calcula el informe en serie o en el ForkJoinPool común.
+     *
+     * @param particiones Partes de las ventas (ver particiones y SalesJournal.recorrerSegmento)
+     * @param desde Inicio del período (incluido)
+     * @param hasta Fin del período (excluido)
+     * @param paralelo true para calcular las particiones en paralelo
+     * @return El informe de las ventas del período
+     * @throws IOException Si ocurre un error al leer alguna partición
+     */
+    public static Informe generar(List<Particion> particiones, LocalDateTime desde, LocalDateTime hasta,
+            boolean paralelo) throws IOException {
+        return generar(particiones, desde, hasta, paralelo ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * @param pool Pool donde se calculan las particiones en paralelo, o null para calcularlas
+     *             en serie en el hilo actual
+     * @see #generar(List, LocalDateTime, LocalDateTime, boolean)
+     */
+    public static Informe generar(List<Particion> particiones, LocalDateTime desde, LocalDateTime hasta,
+            ForkJoinPool pool) throws IOException {
+        long inicio = desde.toEpochSecond(ZoneOffset.UTC);
+        long fin = hasta.toEpochSecond(ZoneOffset.UTC);
+        if (pool == null || particiones.size() <= 1) {
+            Informe informe = new Informe();
+            recorrer(particiones, 0, particiones.size(), inicio, fin, informe);
+            return informe;
+        }
+        try {
+            return pool.invoke(new TareaInforme(particiones, 0, particiones.size(), inicio, fin));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Divide una lista de ventas en memoria en particiones de VENTAS_POR_PARTICION.
+     * @param ventas Ventas completas (con sus detalles); no debe cambiar mientras se usa
+     */
+    public static List<Particion> particiones(List<Venta> ventas) {
+        List<Particion> particiones = new ArrayList<>();
+        for (int i = 0; i < ventas.size(); i += VENTAS_POR_PARTICION) {
+            List<Venta> trozo = ventas.subList(i, Math.min(ventas.size(), i + VENTAS_POR_PARTICION));
+            particiones.add(destino -> trozo.forEach(destino));
+        }
+        return particiones;
+    }
+
+    /**
+     * Divide tickets de texto de versiones anteriores en particiones de TICKETS_POR_PARTICION
+     * archivos, que se leen y convierten al recorrerlas (ver TicketParser.leer): ninguna venta
+     * queda en memoria después del informe. Los archivos se ordenan por número de venta, de
+     * modo que cada trozo cubre un tramo de fechas. Al recorrer un trozo sin errores de
+     * lectura se guardan sus fechas extremas, y los trozos que ya las tienen y no tienen
+     * ventas del período no se agregan.
+     *
+     * @param archivos Rutas de los tickets (ver TicketParser.listarTickets)
+     * @param desde Inicio del período (incluido)
+     * @param hasta Fin del período (excluido)
+     * @param fechas Archivos de cada trozo ya recorrido -> segundos de su venta más antigua y
+     *               de la más reciente; se comparte entre informes
+     */
+    public static List<Particion> particionesTickets(List<Path> archivos, LocalDateTime desde, LocalDateTime hasta,
+            Map<List<Path>, long[]> fechas) {
+        long inicio = desde.toEpochSecond(ZoneOffset.UTC);
+        long fin = hasta.toEpochSecond(ZoneOffset.UTC);
+        List<Path> ordenados = new ArrayList<>(archivos);
+        // "VEN%03d": los números más largos son posteriores
+        ordenados.sort(Comparator.comparingInt((Path archivo) -> archivo.getFileName().toString().length())
+            .thenComparing(archivo -> archivo.getFileName().toString()));
+        List<Particion> particiones = new ArrayList<>();
+        for (int i = 0; i < ordenados.size(); i += TICKETS_POR_PARTICION) {
+            List<Path> trozo = List.copyOf(ordenados.subList(i, Math.min(ordenados.size(), i + TICKETS_POR_PARTICION)));
+            long[] extremos = fechas.get(trozo);
+            if (extremos != null && (extremos[0] >= fin || extremos[1] < inicio)) {
+                continue;
+            }
+            particiones.add(destino -> {
+                long[] leidos = {Long.MAX_VALUE, Long.MIN_VALUE};
+                boolean completo = true;
+                for (Path archivo : trozo) {
+                    Venta venta = TicketParser.leer(archivo);
+                    if (venta == null) {
+                        completo = false;
+                        continue;
+                    }
+                    long segundos = venta.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+                    leidos[0] = Math.min(leidos[0], segundos);
+                    leidos[1] = Math.max(leidos[1], segundos);
+                    destino.accept(venta);
+                }
+                if (completo) {
+                    fechas.put(trozo, leidos);
+                }
+            });
+        }
+        return particiones;
+    }
+
+    private static void recorrer(List<Particion> particiones, int desde, int hasta, long inicio, long fin,
+            Informe informe) throws IOException {
+        for (int p = desde; p < hasta; p++) {
+            particiones.get(p).recorrer(venta -> {
+                long segundos = venta.getFechaHora().toEpochSecond(ZoneOffset.UTC);
+                if (segundos >= inicio && segundos < fin) {
+                    informe.sumar(venta, segundos);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import models.VentaResumen;
+
+/**
+ * Clase SalesSecondaryIndex
+ *
+ * Índices secundarios de ventas, complementarios a SalesIndex (ordenado por total):
+ * - identificación del cliente -> ventas del cliente (HashMap, O(1))
+ * - código de producto -> ventas que lo contienen (HashMap, O(1))
+ * - hora (fecha y hora sin minutos) -> ventas de esa hora (TreeMap, O(log h) por hora,
+ *   de modo que un día son a lo sumo 24 cubetas consecutivas)
+ *
+ * Cada consulta retorna una copia de las ventas encontradas, por lo que el costo depende
+ * solo de la cantidad de ventas que retorna y no de la cantidad total de ventas guardadas.
+ * Las listas conservan el orden de inserción (el de carga y luego el de finalización).
+ *
+ * La clase no es segura para hilos: las consultas deben hacerse con el mismo candado que
+ * las inserciones (en VentaController, el de la clase), y la copia permite recorrer el
+ * resultado después de soltarlo mientras se siguen agregando ventas.
+ */
+public class SalesSecondaryIndex {
+    private final Map<String, List<VentaResumen>> porCliente = new HashMap<>();
+    private final Map<String, List<VentaResumen>> porProducto = new HashMap<>();
+    // Clave: horas desde 1970-01-01T00:00 (ver VentaResumen.getSegundos)
+    private final NavigableMap<Long, List<VentaResumen>> porHora = new TreeMap<>();
+
+    private static final long SEGUNDOS_POR_HORA = 3600;
+
+    private static long hora(LocalDateTime fechaHora) {
+        return Math.floorDiv(fechaHora.toEpochSecond(ZoneOffset.UTC), SEGUNDOS_POR_HORA);
+    }
+
+    /**
+     * Agrega una venta a los tres índices en O(log h + p), con p = productos de la venta.
+     * @param venta Resumen de la venta a agregar
+     */
+    public void insert(VentaResumen venta) {
+        if (venta.getIdentificacionCliente() != null) {
+            porCliente.computeIfAbsent(venta.getIdentificacionCliente(), k -> new ArrayList<>()).add(venta);
+        }
+        porHora.computeIfAbsent(Math.floorDiv(venta.getSegundos(), SEGUNDOS_POR_HORA), k -> new ArrayList<>())
+            .add(venta);
+        // Los códigos del resumen ya vienen sin repetidos
+        for (String codigo : venta.getCodigosProductos()) {
+            porProducto.computeIfAbsent(codigo, k -> new ArrayList<>()).add(venta);
+        }
+    }
+
+    /**
+     * @param identificacion Identificación del cliente
+     * @return Ventas del cliente (vacía si no tiene)
+     */
+    public List<VentaResumen> porCliente(String identificacion) {
+        return copia(porCliente.get(identificacion));
+    }
+
+    /**
+     * @param codigo Código del producto
+     * @return Ventas que contienen el producto (vacía si no hay)
+     */
+    public List<VentaResumen> porProducto(String codigo) {
+        return copia(porProducto.get(codigo));
+    }
+
+    /**
+     * @param hora Fecha y hora; se ignoran minutos y segundos
+     * @return Ventas realizadas dentro de esa hora
+     */
+    public List<VentaResumen> porHora(LocalDateTime hora) {
+        return copia(porHora.get(hora(hora)));
+    }
+
+    /**
+     * @param dia Fecha
+     * @return Ventas del día, por hora
+     */
+    public List<VentaResumen> porDia(LocalDate dia) {
+        return entre(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * @param desde Inicio (incluido); se ignoran minutos y segundos
+     * @param hasta Fin (excluido); se ignoran minutos y segundos
+     * @return Ventas de las horas en [desde, hasta), por hora
+     */
+    public List<VentaResumen> entre(LocalDateTime desde, LocalDateTime hasta) {
+        List<VentaResumen> ventas = new ArrayList<>();
+        for (List<VentaResumen> hora : porHora.subMap(hora(desde), true, hora(hasta), false).values()) {
+            ventas.addAll(hora);
+        }
+        return ventas;
+    }
+
+    private static List<VentaResumen> copia(List<VentaResumen> ventas) {
+        return ventas == null ? new ArrayList<>() : new ArrayList<>(ventas);
+    }
+}
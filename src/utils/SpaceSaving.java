@@ -0,0 +1,142 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Clase SpaceSaving
+ *
+ * Resumen de los elementos más frecuentes de un flujo con memoria acotada (algoritmo
+ * Space-Saving con pesos): guarda a lo sumo 'capacidad' contadores. Un elemento nuevo con los
+ * contadores llenos reemplaza al de menor cuenta y hereda esa cuenta como error, por lo que
+ * la cuenta de cada elemento guardado es una cota superior de su peso real y cuenta - error
+ * una cota inferior. Todo elemento con peso mayor que (peso total / capacidad) está en el
+ * resumen.
+ *
+ * Los contadores forman un montículo de mínimos por cuenta, con la posición de cada elemento
+ * en un HashMap: agregar cuesta O(log capacidad).
+ *
+ * No es seguro para varios hilos; quien lo usa debe sincronizar.
+ */
+public class SpaceSaving {
+    private final String[] claves;
+    private final long[] cuentas;
+    private final long[] errores;
+    private final Map<String, Integer> posiciones;
+    private int cantidad;
+
+    /**
+     * @param capacidad Máximo de elementos guardados
+     */
+    public SpaceSaving(int capacidad) {
+        this.claves = new String[capacidad];
+        this.cuentas = new long[capacidad];
+        this.errores = new long[capacidad];
+        this.posiciones = new HashMap<>(capacidad * 2);
+    }
+
+    /**
+     * Suma un peso a un elemento.
+     * @param clave Elemento
+     * @param peso Peso a sumar (positivo)
+     */
+    public void agregar(String clave, long peso) {
+        Integer posicion = posiciones.get(clave);
+        if (posicion != null) {
+            cuentas[posicion] += peso;
+            bajar(posicion);
+        } else if (cantidad < claves.length) {
+            claves[cantidad] = clave;
+            cuentas[cantidad] = peso;
+            errores[cantidad] = 0;
+            posiciones.put(clave, cantidad);
+            subir(cantidad++);
+        } else {
+            // Reemplaza al de menor cuenta, que queda como error del nuevo
+            posiciones.remove(claves[0]);
+            claves[0] = clave;
+            errores[0] = cuentas[0];
+            cuentas[0] += peso;
+            posiciones.put(clave, 0);
+            bajar(0);
+        }
+    }
+
+    /**
+     * @return Menor cuenta si el resumen está lleno (cota del peso de cualquier elemento que
+     *         no guarda), o 0 si no lo está (sus cuentas son exactas)
+     */
+    public long minimo() {
+        return cantidad == claves.length ? cuentas[0] : 0;
+    }
+
+    /**
+     * Combina este resumen con otros en destino (clave -> {cuenta, error}). Un elemento que
+     * este resumen no guarda pudo pesar hasta minimo(), por lo que cada elemento recibe su
+     * cuenta y su error menos minimo(); quien combina debe sumar al final los minimo() de
+     * todos los resúmenes a la cuenta y al error de cada elemento.
+     */
+    public void sumarA(Map<String, long[]> destino) {
+        long minimo = minimo();
+        for (int i = 0; i < cantidad; i++) {
+            long[] total = destino.computeIfAbsent(claves[i], k -> new long[2]);
+            total[0] += cuentas[i] - minimo;
+            total[1] += errores[i] - minimo;
+        }
+    }
+
+    /**
+     * Vacía el resumen.
+     */
+    public void limpiar() {
+        for (int i = 0; i < cantidad; i++) {
+            claves[i] = null;
+        }
+        posiciones.clear();
+        cantidad = 0;
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (cuentas[padre] <= cuentas[i]) {
+                return;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < cantidad && cuentas[izquierdo] < cuentas[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < cantidad && cuentas[derecho] < cuentas[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(i, menor);
+            i = menor;
+        }
+    }
+
+    private void intercambiar(int a, int b) {
+        String clave = claves[a];
+        claves[a] = claves[b];
+        claves[b] = clave;
+        long cuenta = cuentas[a];
+        cuentas[a] = cuentas[b];
+        cuentas[b] = cuenta;
+        long error = errores[a];
+        errores[a] = errores[b];
+        errores[b] = error;
+        posiciones.put(claves[a], a);
+        posiciones.put(claves[b], b);
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+
+/**
+ * Clase TicketParser
+ *
+ * Lectura de los tickets de venta guardados en el directorio 'Ventas/' (archivos VEN*.txt
+ * generados por Venta.generarTicket). Convierte el texto de cada ticket de nuevo en una Venta.
+ * La carga de un directorio lo recorre una sola vez y convierte los tickets en paralelo.
+ */
+public class TicketParser {
+    // Formato de "Fecha y Hora:" en Venta.generarTicket
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Separador de las columnas de la tabla de productos, compilado una sola vez
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /**
+     * Convierte el contenido de un ticket en una venta.
+     * @param content Texto completo del ticket
+     * @return La venta leída
+     */
+    public static Venta parse(String content) {
+        // Dividir el contenido en líneas
+        String[] lines = content.split("\n");
+        
+        // Datos de la venta; la venta se crea al final, cuando ya se conoce su fecha y hora
+        String numeroVenta = null;
+        LocalDateTime fechaHora = null;
+        Cliente cliente = null;
+        List<DetalleVenta> detalles = new ArrayList<>();
+        
+        // Procesar cada línea del archivo
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            
+            // Número de venta
+            if (line.startsWith("Número:")) {
+                // Extrae el número de venta después de los dos puntos
+                numeroVenta = line.split(":")[1].trim();
+            }
+            // Fecha y hora
+            else if (line.startsWith("Fecha y Hora:")) {
+                // Extrae la fecha y hora completa (la hora también contiene ':')
+                String fechaStr = line.substring("Fecha y Hora:".length()).trim();
+                try {
+                    fechaHora = LocalDateTime.parse(fechaStr, FORMATO_FECHA);
+                } catch (DateTimeParseException e) {
+                    System.err.println("Error al procesar fecha en línea " + (i + 1) + ": " + e.getMessage());
+                }
+            }
+            // Datos del cliente
+            else if (line.startsWith("Nombre Completo:")) {
+                // Extrae el nombre completo y busca los siguientes datos del cliente en las siguientes líneas
+                String nombreCompleto = line.split(":")[1].trim();
+                String identificacion = "";
+                String tipoIdentificacion = "";
+                String telefono = "";
+                String correo = "";
+                String[] nombres = nombreCompleto.split(" ", 2);
+                String apellidos = nombres.length > 1 ? nombres[1] : "";
+                String nombresCliente = nombres[0];
+                // Buscar los siguientes datos del cliente en las siguientes líneas
+                int j = i + 1;
+                while (j < lines.length) {
+                    String nextLine = lines[j].trim();
+                    if (nextLine.startsWith("Identificación:")) {
+                        // Extrae tipo y número de identificación
+                        String[] idParts = nextLine.split(":")[1].trim().split(" ", 2);
+                        if (idParts.length == 2) {
+                            tipoIdentificacion = idParts[0];
+                            identificacion = idParts[1];
+                        }
+                    } else if (nextLine.startsWith("Teléfono:")) {
+                        telefono = nextLine.split(":")[1].trim();
+                    } else if (nextLine.startsWith("Correo:")) {
+                        correo = nextLine.split(":")[1].trim();
+                        break; // Último dato del cliente
+                    } else if (nextLine.isEmpty()) {
+                        break;
+                    }
+                    j++;
+                }
+                cliente = new Cliente(identificacion, tipoIdentificacion, nombresCliente, apellidos, telefono, correo);
+            }
+            // Productos
+            else if (line.startsWith("Código")) {
+                // Identifica el inicio de la tabla de productos y salta la línea de encabezado
+                i++;
+                while (i < lines.length && !lines[i].trim().startsWith("TOTALES")) {
+                    // Divide la línea de producto en partes separadas por espacios
+                    String[] productoData = ESPACIOS.split(lines[i].trim());
+                    if (productoData.length >= 5) {
+                        try {
+                            String codigo = productoData[0];
+                            // El nombre es todo lo que está entre el código y el precio
+                            int idxPrecio = productoData.length - 3;
+                            StringBuilder nombreBuilder = new StringBuilder();
+                            for (int j = 1; j < idxPrecio; j++) {
+                                if (j > 1) nombreBuilder.append(" ");
+                                nombreBuilder.append(productoData[j]);
+                            }
+                            String nombre = nombreBuilder.toString();
+                            double precio = Double.parseDouble(productoData[idxPrecio].replace(",", "."));
+                            int cantidad = Integer.parseInt(productoData[idxPrecio + 1]);
+                            
+                            Producto producto = new Producto(codigo, nombre, (float)precio);
+                            detalles.add(new DetalleVenta(producto, cantidad));
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error al procesar producto en línea " + (i + 1) + ": " + e.getMessage());
+                        }
+                    }
+                    i++;
+                }
+            }
+            // Total
+            else if (line.startsWith("Total:")) {
+                // Extrae y valida el total de la venta
+                String totalStr = line.split(":")[1].trim().replace("$", "").replace(",", ".");
+                try {
+                    Double.valueOf(totalStr); // Solo validar el formato
+                } catch (NumberFormatException e) {
+                    System.err.println("Error al procesar el total en línea " + (i + 1) + ": " + e.getMessage());
+                }
+            }
+        }
+
+        // Un ticket sin fecha válida conserva la fecha de carga, como antes
+        Venta venta = fechaHora != null ? new Venta(cliente, fechaHora) : new Venta(cliente);
+        venta.setNumeroVenta(numeroVenta);
+        for (DetalleVenta detalle : detalles) {
+            venta.agregarProducto(detalle.getProducto(), detalle.getCantidad());
+        }
+        return venta;
+    }
+
+    /**
+     * Carga ventas desde archivos en un directorio. Cada archivo debe tener el formato esperado.
+     * El nombre del producto puede contener espacios.
+     * 
+     * Proceso detallado:
+     * 1. Valida que la ruta del directorio no sea nula o vacía.
+     * 2. Verifica que el directorio exista en el sistema de archivos.
+     * 3. Recorre el directorio una sola vez con un DirectoryStream y reúne todos los archivos cuyo nombre comience con "VEN" y termine en ".txt".
+     * 4. Reparte los archivos entre los hilos del ForkJoinPool (ver TareaTickets). Para cada archivo:
+     *    a. Lee el contenido completo del archivo como un String.
+     *    b. Lo convierte en una Venta (ver parse):
+     *       - Si la línea comienza con "Número:", extrae el número de venta.
+     *       - Si la línea comienza con "Fecha y Hora:", extrae la fecha y hora de la venta.
+     *       - Si la línea comienza con "Nombre Completo:", extrae los datos del cliente y busca en las siguientes líneas la identificación, teléfono y correo.
+     *       - Si la línea comienza con "Código", identifica el inicio de la tabla de productos, salta la línea de encabezado y procesa cada producto hasta encontrar la línea que comienza con "TOTALES".
+     *         Para cada producto, extrae código, nombre (puede contener espacios), precio y cantidad.
+     *       - Si la línea comienza con "Total:", extrae y valida el total de la venta.
+     *    c. Convierte la venta con la función dada (por ejemplo, a su resumen) y la guarda en la
+     *       posición del archivo, para conservar el orden del directorio.
+     * 5. Si ocurre un error al leer un archivo, lo reporta por consola y continúa con el siguiente archivo.
+     * 6. Si ocurre un error al abrir el directorio, lanza una excepción.
+     * 
+     * @param directoryPath Ruta del directorio
+     * @param conversion Conversión de cada venta leída, aplicada en paralelo
+     * @return Ventas leídas y convertidas, en el orden del directorio
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static <T> List<T> loadFromDirectory(String directoryPath, Function<Venta, T> conversion)
+            throws IOException {
+        // 1. Validar que la ruta no sea nula o vacía
+        if (directoryPath == null || directoryPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("La ruta del directorio no puede ser nula o vacía");
+        }
+
+        // 2. Verificar que el directorio exista
+        Path dirPath = Paths.get(directoryPath);
+        if (!Files.exists(dirPath)) {
+            throw new IOException("El directorio de ventas no existe: " + directoryPath);
+        }
+
+        // 3. Reunir los archivos que cumplen el patrón VEN*.txt en un solo recorrido
+        List<Path> archivos = listarTickets(dirPath);
+
+        // 4. Leer y convertir los tickets en paralelo
+        return loadFiles(archivos, conversion);
+    }
+
+    /**
+     * Reúne los tickets (VEN*.txt) de un directorio sin leerlos (ver loadFromDirectory, paso 3).
+     *
+     * @param dirPath Directorio de ventas, que debe existir
+     * @return Rutas de los tickets, en el orden del directorio
+     * @throws IOException Si ocurre un error al abrir el directorio
+     */
+    public static List<Path> listarTickets(Path dirPath) throws IOException {
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath, "VEN*.txt")) {
+            for (Path path : stream) {
+                archivos.add(path);
+            }
+        } catch (IOException e) {
+            // 6. Error al abrir el directorio
+            throw new IOException("Error al leer el directorio de ventas: " + e.getMessage(), e);
+        }
+        return archivos;
+    }
+
+    /**
+     * Lee un ticket y lo convierte en una venta (ver loadFromDirectory, pasos 4.a, 4.b y 5).
+     *
+     * @param archivo Ruta del ticket
+     * @return La venta, o null si el archivo no se pudo leer (el error se reporta por consola)
+     */
+    public static Venta leer(Path archivo) {
+        try {
+            return parse(Files.readString(archivo));
+        } catch (IOException e) {
+            System.err.println("Error al procesar archivo " + archivo.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lee y convierte en paralelo una lista de tickets (ver loadFromDirectory, paso 4). Los
+     * archivos que no se pueden leer se reportan por consola y se omiten.
+     *
+     * @param archivos Rutas de los tickets
+     * @param conversion Conversión de cada venta leída, aplicada en paralelo
+     * @return Ventas leídas y convertidas, en el orden de la lista
+     */
+    public static <T> List<T> loadFiles(List<Path> archivos, Function<Venta, T> conversion) {
+        Path[] rutas = archivos.toArray(new Path[0]);
+        Object[] ventas = new Object[rutas.length];
+        ForkJoinPool.commonPool().invoke(new TareaTickets(rutas, conversion, ventas, 0, rutas.length));
+
+        List<T> resultado = new ArrayList<>(ventas.length);
+        for (Object venta : ventas) {
+            if (venta != null) {
+                @SuppressWarnings("unchecked")
+                T convertida = (T) venta;
+                resultado.add(convertida);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Tarea fork-join que reparte un rango de archivos hasta procesar bloques pequeños en
+     * un solo hilo.
+     */
+    private static class TareaTickets extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Cantidad de archivos que se procesan sin volver a dividir la tarea
+        private static final int BLOQUE = 64;
+
+        private final Path[] rutas;
+        private final Function<Venta, ?> conversion;
+        private final Object[] ventas;
+        private final int desde;
+        private final int hasta;
+
+        TareaTickets(Path[] rutas, Function<Venta, ?> conversion, Object[] ventas, int desde, int hasta) {
+            this.rutas = rutas;
+            this.conversion = conversion;
+            this.ventas = ventas;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > BLOQUE) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new TareaTickets(rutas, conversion, ventas, desde, medio),
+                    new TareaTickets(rutas, conversion, ventas, medio, hasta));
+                return;
+            }
+            for (int i = desde; i < hasta; i++) {
+                // 4.a y 4.b Leer el archivo y convertirlo en una venta (5. si falla, se omite)
+                Venta venta = leer(rutas[i]);
+                // 4.c Convertirla y guardarla en la posición del archivo
+                if (venta != null) {
+                    ventas[i] = conversion.apply(venta);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package utils;
+
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import models.Cliente;
+import models.DetalleVenta;
+import models.Producto;
+import models.Venta;
+
+/**
+ * Clase TicketRenderer
+ *
+ * Genera el texto del ticket de una venta (ver Venta.generarTicket) escribiendo directamente
+ * en un StringBuilder, sin String.format ni un DateTimeFormatter nuevo por ticket. Los montos
+ * se escriben en punto fijo con dos decimales y el mismo resultado que "%.2f": el separador
+ * decimal y los dígitos del Locale de formato actual, redondeo hacia arriba en la mitad.
+ *
+ * Cada hilo reutiliza su propio StringBuilder, por lo que reimprimir muchos tickets seguidos
+ * solo reserva memoria para el texto resultante.
+ */
+public class TicketRenderer {
+    private static final String EMPRESA_NOMBRE = "Mi Empresa S.A.S";
+    private static final String EMPRESA_NIT = "900123456-7";
+    private static final String EMPRESA_SOFTWARE = "Sistema POS v1.0";
+
+    // Solo para años fuera de 1..9999, que "yyyy" escribe con signo
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Por encima de este valor (o para NaN e infinito) los montos se escriben con String.format
+    private static final float MAXIMO_PUNTO_FIJO = 1e15f;
+    // Los StringBuilder más grandes que esto no se conservan entre tickets
+    private static final int CAPACIDAD_REUTILIZABLE = 1 << 16;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    // Símbolos del último Locale de formato usado; se recalculan solo si el Locale cambia
+    private static volatile Simbolos simbolos = new Simbolos(Locale.getDefault(Locale.Category.FORMAT));
+
+    private static class Simbolos {
+        final Locale locale;
+        final char separadorDecimal;
+        // Diferencia entre el cero del Locale y '0'
+        final int desplazamiento;
+
+        Simbolos(Locale locale) {
+            DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+            this.locale = locale;
+            this.separadorDecimal = dfs.getDecimalSeparator();
+            this.desplazamiento = dfs.getZeroDigit() - '0';
+        }
+    }
+
+    /**
+     * @param venta La venta
+     * @return Texto del ticket
+     */
+    public static String renderizar(Venta venta) {
+        StringBuilder ticket = BUFFER.get();
+        ticket.setLength(0);
+        renderizar(venta, ticket);
+        String texto = ticket.toString();
+        if (ticket.capacity() > CAPACIDAD_REUTILIZABLE) {
+            BUFFER.remove();
+        }
+        return texto;
+    }
+
+    /**
+     * Escribe el ticket de una venta al final de un StringBuilder.
+     * @param venta La venta
+     * @param ticket Destino del texto
+     */
+    public static void renderizar(Venta venta, StringBuilder ticket) {
+        Simbolos s = simbolosActuales();
+        Cliente cliente = venta.getCliente();
+
+        // Sección Empresa
+        ticket.append("EMPRESA\n");
+        ticket.append("Nombre: ").append(EMPRESA_NOMBRE).append('\n');
+        ticket.append("NIT: ").append(EMPRESA_NIT).append("\n\n");
+
+        // Datos de venta
+        ticket.append("DATOS DE VENTA\n");
+        ticket.append("Número: ").append(venta.getNumeroVenta()).append('\n');
+        ticket.append("Fecha y Hora: ");
+        escribirFecha(ticket, venta.getFechaHora());
+        ticket.append("\n\n");
+
+        // Datos del cliente
+        ticket.append("DATOS DEL CLIENTE\n");
+        ticket.append("Nombre Completo: ").append(cliente.getNombres()).append(' ').append(cliente.getApellidos()).append('\n');
+        ticket.append("Identificación: ").append(cliente.getTipoIdentificacion()).append(' ').append(cliente.getIdentificacion()).append('\n');
+        ticket.append("Teléfono: ").append(cliente.getTelefono()).append('\n');
+        ticket.append("Correo: ").append(cliente.getCorreoElectronico()).append("\n\n");
+
+        // Productos
+        ticket.append("PRODUCTOS\n");
+        ticket.append("Código\tNombre\t\tPrecio\tCantidad\tSubtotal\n");
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Producto p = detalle.getProducto();
+            ticket.append(p.getCodigo()).append('\t').append(p.getNombre()).append('\t');
+            escribirMonto(ticket, p.getPrecioVenta(), s);
+            ticket.append('\t');
+            escribirEntero(ticket, detalle.getCantidad(), s);
+            ticket.append("\t\t");
+            escribirMonto(ticket, detalle.getSubtotal(), s);
+            ticket.append('\n');
+        }
+        ticket.append('\n');
+
+        // Totales
+        ticket.append("TOTALES\n");
+        ticket.append("Subtotal: $");
+        escribirMonto(ticket, venta.getSubtotal(), s);
+        ticket.append("\nIVA (19%): $");
+        escribirMonto(ticket, venta.getTotalIva(), s);
+        ticket.append("\nTotal: $");
+        escribirMonto(ticket, venta.getTotal(), s);
+        ticket.append("\n\n");
+
+        // Datos del programa
+        ticket.append("DATOS DEL PROGRAMA\n");
+        ticket.append(EMPRESA_SOFTWARE).append('\n');
+    }
+
+    private static Simbolos simbolosActuales() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Simbolos s = simbolos;
+        if (!s.locale.equals(locale)) {
+            s = new Simbolos(locale);
+            simbolos = s;
+        }
+        return s;
+    }
+
+    /**
+     * Escribe un monto como "%.2f". Un float multiplicado por 100 es exacto en double, por lo
+     * que redondearlo da los mismos centavos que el redondeo decimal de String.format.
+     */
+    private static void escribirMonto(StringBuilder destino, float valor, Simbolos s) {
+        if (!(Math.abs(valor) < MAXIMO_PUNTO_FIJO)) {
+            destino.append(String.format(s.locale, "%.2f", valor));
+            return;
+        }
+        // El signo se toma del bit de signo: "%.2f" escribe "-0.00" para -0.0 y -0.001
+        if (Float.floatToRawIntBits(valor) < 0) {
+            destino.append('-');
+            valor = -valor;
+        }
+        long centavos = Math.round(valor * 100.0);
+        escribirEntero(destino, centavos / 100, s);
+        int fraccion = (int) (centavos % 100);
+        destino.append(s.separadorDecimal)
+            .append((char) ('0' + s.desplazamiento + fraccion / 10))
+            .append((char) ('0' + s.desplazamiento + fraccion % 10));
+    }
+
+    /**
+     * Escribe un entero no negativo como "%d", con los dígitos del Locale.
+     */
+    private static void escribirEntero(StringBuilder destino, long valor, Simbolos s) {
+        if (valor < 0) {
+            destino.append(String.format(s.locale, "%d", valor));
+            return;
+        }
+        int inicio = destino.length();
+        do {
+            destino.append((char) ('0' + s.desplazamiento + valor % 10));
+            valor /= 10;
+        } while (valor > 0);
+        // Los dígitos se escribieron al revés
+        for (int i = inicio, j = destino.length() - 1; i < j; i++, j--) {
+            char c = destino.charAt(i);
+            destino.setCharAt(i, destino.charAt(j));
+            destino.setCharAt(j, c);
+        }
+    }
+
+    /**
+     * Escribe la fecha como "yyyy-MM-dd HH:mm:ss" (el patrón no usa los dígitos del Locale).
+     */
+    private static void escribirFecha(StringBuilder destino, LocalDateTime fecha) {
+        int anio = fecha.getYear();
+        if (anio < 1 || anio > 9999) {
+            destino.append(fecha.format(FORMATO_FECHA));
+            return;
+        }
+        dosDigitos(destino, anio / 100);
+        dosDigitos(destino, anio % 100);
+        destino.append('-');
+        dosDigitos(destino, fecha.getMonthValue());
+        destino.append('-');
+        dosDigitos(destino, fecha.getDayOfMonth());
+        destino.append(' ');
+        dosDigitos(destino, fecha.getHour());
+        destino.append(':');
+        dosDigitos(destino, fecha.getMinute());
+        destino.append(':');
+        dosDigitos(destino, fecha.getSecond());
+    }
+
+    private static void dosDigitos(StringBuilder destino, int valor) {
+        destino.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+}
@@ -1,52 +1,147 @@
 package utils;
 
+/**
+ * Validaciones de los datos de clientes y productos.
+ *
+ * Las validaciones recorren los caracteres directamente, sin expresiones regulares ni
+ * substrings, por lo que no crean objetos. Además de la versión que recibe el texto
+ * completo, las validaciones de formato tienen una versión de rango (start, end) para
+ * validar un campo dentro de un registro sin extraerlo (ver RecordTokenizer).
+ */
 public class Validators {
-    
-    public static boolean isValidIdentificacion(String identificacion) {
-        return identificacion != null && 
-               identificacion.matches("\\d{8,10}");
+
+    public static boolean isValidIdentificacion(CharSequence identificacion) {
+        return identificacion != null &&
+               isValidIdentificacion(identificacion, 0, identificacion.length());
+    }
+
+    /** Equivale a la expresión \d{8,10}. */
+    public static boolean isValidIdentificacion(CharSequence s, int start, int end) {
+        int length = end - start;
+        return length >= 8 && length <= 10 && sonDigitos(s, start, end);
+    }
+
+    public static boolean isValidTipoIdentificacion(CharSequence tipo) {
+        return tipo != null &&
+               isValidTipoIdentificacion(tipo, 0, tipo.length());
     }
 
-    public static boolean isValidTipoIdentificacion(String tipo) {
-        return tipo != null && 
-               (tipo.equals("CC") || tipo.equals("CE"));
+    /** Acepta "CC" o "CE". */
+    public static boolean isValidTipoIdentificacion(CharSequence s, int start, int end) {
+        return end - start == 2 &&
+               s.charAt(start) == 'C' &&
+               (s.charAt(start + 1) == 'C' || s.charAt(start + 1) == 'E');
     }
 
     public static boolean isValidNombres(String nombres) {
-        return nombres != null && 
-               nombres.length() >= 10 && 
+        return nombres != null &&
+               nombres.length() >= 10 &&
                nombres.length() <= 30;
     }
 
     public static boolean isValidApellidos(String apellidos) {
-        return apellidos != null && 
-               apellidos.length() >= 10 && 
+        return apellidos != null &&
+               apellidos.length() >= 10 &&
                apellidos.length() <= 30;
     }
 
-    public static boolean isValidTelefono(String telefono) {
-        return telefono != null && 
-               telefono.matches("\\d{10}");
+    public static boolean isValidTelefono(CharSequence telefono) {
+        return telefono != null &&
+               isValidTelefono(telefono, 0, telefono.length());
     }
 
-    public static boolean isValidCorreo(String correo) {
-        return correo != null && 
-               correo.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+    /** Equivale a la expresión \d{10}. */
+    public static boolean isValidTelefono(CharSequence s, int start, int end) {
+        return end - start == 10 && sonDigitos(s, start, end);
     }
 
-    public static boolean isValidCodigoProducto(String codigo) {
-        return codigo != null && 
-               codigo.length() == 5 && 
-               codigo.substring(0, 2).matches("[a-zA-Z]+") && 
-               codigo.substring(2).matches("\\d+");
+    public static boolean isValidCorreo(CharSequence correo) {
+        return correo != null &&
+               isValidCorreo(correo, 0, correo.length());
+    }
+
+    /**
+     * Equivale a la expresión ^[A-Za-z0-9+_.-]+@(.+)$: uno o más caracteres permitidos
+     * antes de la primera '@' y al menos un carácter (que no sea fin de línea) después.
+     */
+    public static boolean isValidCorreo(CharSequence s, int start, int end) {
+        int i = start;
+        while (i < end && s.charAt(i) != '@') {
+            if (!esCaracterLocalCorreo(s.charAt(i))) {
+                return false;
+            }
+            i++;
+        }
+        if (i == start || i >= end - 1) {
+            return false;
+        }
+        for (int j = i + 1; j < end; j++) {
+            if (esFinDeLinea(s.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isValidCodigoProducto(CharSequence codigo) {
+        return codigo != null &&
+               isValidCodigoProducto(codigo, 0, codigo.length());
+    }
+
+    /** Dos letras (a-z, A-Z) seguidas de tres dígitos. */
+    public static boolean isValidCodigoProducto(CharSequence s, int start, int end) {
+        return end - start == 5 &&
+               sonLetras(s, start, start + 2) &&
+               sonDigitos(s, start + 2, end);
     }
 
     public static boolean isValidNombreProducto(String nombre) {
-        return nombre != null && 
+        return nombre != null &&
                nombre.length() <= 20;
     }
 
     public static boolean isValidPrecio(float precio) {
         return precio > 0;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Indica si el rango no está vacío y contiene solo dígitos ASCII (como \d).
+     */
+    public static boolean sonDigitos(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si el rango no está vacío y contiene solo letras ASCII (como [a-zA-Z]).
+     */
+    public static boolean sonLetras(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esCaracterLocalCorreo(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+               c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean esFinDeLinea(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -6,6 +6,7 @@ import controllers.VentaController;
 import java.awt.*;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import models.Cliente;
@@ -23,6 +24,8 @@ public class NuevaVentaDialog extends JDialog {
     private JButton btnAsociarCliente;
     private JButton btnFinalizarVenta;
     private final Venta ventaActual;
+    // Se completa cuando la venta finalizada queda guardada; null si no se finalizó
+    private CompletableFuture<String> ventaGuardada;
 
     public NuevaVentaDialog(Component parent) {
         super((Frame)SwingUtilities.getWindowAncestor(parent), "Nueva Venta", true);
@@ -204,6 +207,14 @@ public class NuevaVentaDialog extends JDialog {
         }
     }
 
+    /**
+     * @return Se completa cuando la venta finalizada queda guardada y en las consultas; null
+     *         si no se finalizó
+     */
+    public CompletableFuture<String> getVentaGuardada() {
+        return ventaGuardada;
+    }
+
     private void finalizarVenta() {
         if (ventaActual.getDetalles().isEmpty()) {
             JOptionPane.showMessageDialog(this, "Debe agregar al menos un producto a la venta",
@@ -212,9 +223,19 @@ public class NuevaVentaDialog extends JDialog {
         }
 
         try {
-            String nombreArchivo = VentaController.finalizarVenta(ventaActual);
+            // La venta se guarda en segundo plano; si falla se avisa cuando ocurra
+            Window ventana = getOwner();
+            ventaGuardada = VentaController.finalizarVenta(ventaActual);
+            ventaGuardada.whenComplete((numero, error) -> {
+                if (error != null) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(ventana,
+                        "La venta " + ventaActual.getNumeroVenta() + " no se pudo guardar: "
+                            + (error.getCause() != null ? error.getCause() : error).getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+                }
+            });
             JOptionPane.showMessageDialog(this, 
-                "Venta finalizada exitosamente.\nArchivo generado: " + nombreArchivo);
+                "Venta finalizada exitosamente.\nNúmero de venta: " + ventaActual.getNumeroVenta());
             dispose();
         } catch (HeadlessException | IOException ex) {
             JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(),
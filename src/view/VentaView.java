@@ -3,11 +3,11 @@ package view;
 import controllers.VentaController;
 import java.awt.*;
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import models.Venta;
+import utils.BestSellers;
 
 public class VentaView extends JPanel {
     private JTable tblVentas;
@@ -15,7 +15,10 @@ public class VentaView extends JPanel {
     private JButton btnNuevaVenta;
     private JButton btnVerDetalle;
     private JButton btnOrdenar;
+    private JButton btnMasVendidos;
     private boolean ordenAscendente = true;
+    // Productos que se muestran en "Más vendidos"
+    private static final int MAS_VENDIDOS = 10;
 
     public VentaView() {
         setLayout(new BorderLayout());
@@ -40,9 +43,11 @@ public class VentaView extends JPanel {
         btnNuevaVenta = new JButton("Nueva Venta");
         btnVerDetalle = new JButton("Ver Detalle");
         btnOrdenar = new JButton("Ordenar ↑");
+        btnMasVendidos = new JButton("Más vendidos");
         buttonPanel.add(btnNuevaVenta);
         buttonPanel.add(btnVerDetalle);
         buttonPanel.add(btnOrdenar);
+        buttonPanel.add(btnMasVendidos);
 
         // Agregar componentes al panel principal
         add(scrollPane, BorderLayout.CENTER);
@@ -52,39 +57,18 @@ public class VentaView extends JPanel {
         btnNuevaVenta.addActionListener(e -> abrirNuevaVenta());
         btnVerDetalle.addActionListener(e -> verDetalleVenta());
         btnOrdenar.addActionListener(e -> ordenarVentas());
+        btnMasVendidos.addActionListener(e -> mostrarMasVendidos());
     }
 
     private void ordenarVentas() {
         try {
-            List<Venta> ventas = VentaController.listarVentas();
-            
-            // Ordenar la lista
+            // El índice ya está ordenado por total: se recorre en el sentido pedido, sin copiar
             if (ordenAscendente) {
-                ventas.sort(Comparator.comparingDouble(Venta::getTotal));
                 btnOrdenar.setText("Ordenar ↓");
             } else {
-                ventas.sort(Comparator.comparingDouble(Venta::getTotal).reversed());
                 btnOrdenar.setText("Ordenar ↑");
             }
-            
-            // Actualizar la tabla
-            tableModel.setRowCount(0);
-            for (Venta venta : ventas) {
-                if (venta == null) continue;
-                
-                String clienteInfo = "Sin cliente";
-                if (venta.getCliente() != null) {
-                    clienteInfo = venta.getCliente().getNombres() + " " + venta.getCliente().getApellidos();
-                }
-                
-                Object[] row = {
-                    venta.getNumeroVenta(),
-                    venta.getFechaHora(),
-                    clienteInfo,
-                    String.format("%.2f", venta.getTotal())
-                };
-                tableModel.addRow(row);
-            }
+            mostrarVentas(ordenAscendente);
             
             ordenAscendente = !ordenAscendente;
             
@@ -98,29 +82,7 @@ public class VentaView extends JPanel {
 
     private void cargarVentas() {
         try {
-            tableModel.setRowCount(0);
-            List<Venta> ventas = VentaController.listarVentas();
-            
-            if (ventas == null || ventas.isEmpty()) {
-                return; // No hay ventas para mostrar
-            }
-            
-            for (Venta venta : ventas) {
-                if (venta == null) continue;
-                
-                String clienteInfo = "Sin cliente";
-                if (venta.getCliente() != null) {
-                    clienteInfo = venta.getCliente().getNombres() + " " + venta.getCliente().getApellidos();
-                }
-                
-                Object[] row = {
-                    venta.getNumeroVenta(),
-                    venta.getFechaHora(),
-                    clienteInfo,
-                    String.format("%.2f", venta.getTotal())
-                };
-                tableModel.addRow(row);
-            }
+            mostrarVentas(true);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, 
                 "Error al cargar ventas: " + ex.getMessage(),
@@ -129,10 +91,64 @@ public class VentaView extends JPanel {
         }
     }
 
+    private void mostrarVentas(boolean ascendente) {
+        tableModel.setRowCount(0);
+        VentaController.recorrerVentasPorTotal(ascendente, venta -> {
+            if (venta == null) return;
+            
+            String clienteInfo = "Sin cliente";
+            if (venta.getNombreCliente() != null) {
+                clienteInfo = venta.getNombreCliente();
+            }
+            
+            Object[] row = {
+                venta.getNumeroVenta(),
+                venta.getFechaHora(),
+                clienteInfo,
+                String.format("%.2f", venta.getTotal())
+            };
+            tableModel.addRow(row);
+        });
+    }
+
+    private void mostrarMasVendidos() {
+        JTabbedPane pestanas = new JTabbedPane();
+        pestanas.addTab("Última hora", tablasMasVendidos(
+            VentaController.masVendidosUltimaHora(MAS_VENDIDOS, false),
+            VentaController.masVendidosUltimaHora(MAS_VENDIDOS, true)));
+        pestanas.addTab("Último día", tablasMasVendidos(
+            VentaController.masVendidosUltimoDia(MAS_VENDIDOS, false),
+            VentaController.masVendidosUltimoDia(MAS_VENDIDOS, true)));
+        pestanas.setPreferredSize(new Dimension(500, 300));
+        JOptionPane.showMessageDialog(this, pestanas, "Más vendidos", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private JPanel tablasMasVendidos(List<BestSellers.MasVendido> porUnidades,
+            List<BestSellers.MasVendido> porIngresos) {
+        DefaultTableModel unidades = new DefaultTableModel(new String[] {"Producto", "Unidades"}, 0);
+        for (BestSellers.MasVendido producto : porUnidades) {
+            unidades.addRow(new Object[] {producto.getCodigo(), producto.getCantidad()});
+        }
+        DefaultTableModel ingresos = new DefaultTableModel(new String[] {"Producto", "Ingresos"}, 0);
+        for (BestSellers.MasVendido producto : porIngresos) {
+            ingresos.addRow(new Object[] {producto.getCodigo(),
+                String.format("%.2f", producto.getCantidad() / 100.0)});
+        }
+        JPanel panel = new JPanel(new GridLayout(1, 2, 8, 0));
+        panel.add(new JScrollPane(new JTable(unidades)));
+        panel.add(new JScrollPane(new JTable(ingresos)));
+        return panel;
+    }
+
     private void abrirNuevaVenta() {
         NuevaVentaDialog dialog = new NuevaVentaDialog(this);
         dialog.setVisible(true);
         cargarVentas(); // Recargar la lista después de crear una nueva venta
+        // La venta aparece en la lista cuando el diario confirma que está guardada
+        CompletableFuture<String> guardada = dialog.getVentaGuardada();
+        if (guardada != null) {
+            guardada.thenRun(() -> SwingUtilities.invokeLater(this::cargarVentas));
+        }
     }
 
     private void verDetalleVenta() {
@@ -140,7 +156,7 @@ public class VentaView extends JPanel {
         if (selectedRow >= 0) {
             String numeroVenta = (String) tableModel.getValueAt(selectedRow, 0);
             try {
-                String contenido = VentaController.obtenerContenidoVenta(numeroVenta + ".txt");
+                String contenido = VentaController.obtenerContenidoVenta(numeroVenta);
                 JTextArea textArea = new JTextArea(contenido);
                 textArea.setEditable(false);
                 JScrollPane scrollPane = new JScrollPane(textArea);